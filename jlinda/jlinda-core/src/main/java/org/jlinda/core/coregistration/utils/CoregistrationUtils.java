@@ -1,5 +1,6 @@
 package org.jlinda.core.coregistration.utils;
 
+import edu.emory.mathcs.jtransforms.fft.DoubleFFT_2D;
 import org.apache.commons.math3.util.FastMath;
 import org.esa.snap.core.util.SystemUtils;
 import org.jblas.ComplexDouble;
@@ -18,6 +19,9 @@ public class CoregistrationUtils {
 
     static Logger logger = SystemUtils.LOG;
 
+    // FFT plans of the last window size used by each thread
+    private static final ThreadLocal<CrossCorrelationPlan> crossCorrelationPlans = new ThreadLocal<>();
+
     public static double normalizedCrossCorrelation(final double[] offset,
                                                     final ComplexDoubleMatrix master,
                                                     final ComplexDoubleMatrix mask,
@@ -236,15 +240,16 @@ public class CoregistrationUtils {
 
         // Crossproducts in spectral/space domain
         // Use mask2 to store cross products temporarily
-        SpectralUtils.fft2D_inplace(master2);
-        SpectralUtils.fft2D_inplace(mask2);
+        final CrossCorrelationPlan plan = getCrossCorrelationPlan(L, P);
+        plan.fft2D_inplace(master2);
+        plan.fft2D_inplace(mask2);
 
         master2.conji();
         mask2.muli(master2); // corr = conj(M).*S
 
         // mask2.mmuli(Master2);
 
-        SpectralUtils.invfft2D_inplace(mask2); // real(mask2): cross prod. in space
+        plan.invfft2D_inplace(mask2); // real(mask2): cross prod. in space
 
         // ======
         // (2) compute norms for all shifts
@@ -267,25 +272,13 @@ public class CoregistrationUtils {
             }
         }
 
-        // allocate block for reuse
-        ComplexDoubleMatrix BLOCK = new ComplexDoubleMatrix(0, 0);
-        if (BLOCK.rows != twoL || BLOCK.columns != twoP) {
-//            logger.info("crosscorrelate:changing static block to size [" + twoL + ", " + twoP + "]");
-            BLOCK.resize(twoL, twoP);
-            for (l = halfL; l < halfL + L; ++l)
-                for (p = halfP; p < halfP + P; ++p)
-                    BLOCK.put(l, p, new ComplexDouble(1, 0));
-            SpectralUtils.fft2D_inplace(BLOCK);
-            BLOCK.conji();// static variable: keep this for re-use
-        }
-
         // Compute the cross-products, i.e., the norms for each shift ---
         // Master2(0,0):Master2(N,N) for shifts = -N/2:N/2
-        SpectralUtils.fft2D_inplace(master2);
+        plan.fft2D_inplace(master2);
 
-        master2.muli(BLOCK);
+        master2.muli(plan.block);
 
-        SpectralUtils.invfft2D_inplace(master2);// real(Master2): powers of master; imag(Master2): mask
+        plan.invfft2D_inplace(master2);// real(Master2): powers of master; imag(Master2): mask
 
         // ======
         // (3) find maximum correlation at pixel level
@@ -369,6 +362,56 @@ public class CoregistrationUtils {
     }
 
 
+    private static CrossCorrelationPlan getCrossCorrelationPlan(final int L, final int P) {
+        CrossCorrelationPlan plan = crossCorrelationPlans.get();
+        if (plan == null || plan.L != L || plan.P != P) {
+            plan = new CrossCorrelationPlan(L, P);
+            crossCorrelationPlans.set(plan);
+        }
+        return plan;
+    }
+
+    /**
+     * FFT plans for the zero padded 2L x 2P windows of crossCorrelateFFT and the spectrum of the L x P block used
+     * to compute the norms. Computes the same transforms as SpectralUtils.fft2D_inplace and invfft2D_inplace
+     * without planning them again for every window. Not thread safe, one per thread.
+     */
+    private static class CrossCorrelationPlan {
+        final int L;
+        final int P;
+        final DoubleFFT_2D forward;
+        final DoubleFFT_2D inverse;
+        final ComplexDoubleMatrix block;
+
+        CrossCorrelationPlan(final int L, final int P) {
+            this.L = L;
+            this.P = P;
+            final int twoL = 2 * L;
+            final int twoP = 2 * P;
+            forward = new DoubleFFT_2D(twoP, twoL);
+            inverse = new DoubleFFT_2D(twoL, twoP);
+
+            block = ComplexDoubleMatrix.zeros(twoL, twoP);
+            for (int l = L / 2; l < L / 2 + L; ++l)
+                for (int p = P / 2; p < P / 2 + P; ++p)
+                    block.put(l, p, new ComplexDouble(1, 0));
+            fft2D_inplace(block);
+            block.conji();
+        }
+
+        void fft2D_inplace(final ComplexDoubleMatrix A) {
+            final ComplexDoubleMatrix aTemp = A.transpose();
+            forward.complexForward(aTemp.data);
+            A.data = aTemp.transpose().data;
+        }
+
+        void invfft2D_inplace(final ComplexDoubleMatrix A) {
+            final ComplexDoubleMatrix aTemp = A.transpose();
+            inverse.complexInverse(aTemp.data, true);
+            A.data = aTemp.transpose().data;
+        }
+    }
+
     public static double crossCorrelateSPACE(double[] offset,
                                       ComplexDoubleMatrix master, ComplexDoubleMatrix mask,
                                       final int AccL, final int AccP, final int osFactor) {
@@ -0,0 +1,137 @@
+package org.jlinda.core.delaunay;
+
+import org.jlinda.core.Window;
+
+import java.util.Arrays;
+
+/**
+ * Linear interpolation of scattered data which is given on a regular lattice, e.g. DEM points projected into radar
+ * geometry, onto the regular grid of a tile window.
+ * <p/>
+ * Unlike {@link TriangleInterpolator} no Delaunay triangulation is computed: the neighbourhood of the points is
+ * already known from the lattice, so every lattice cell is split into two triangles which are rasterised directly.
+ * All arrays are flat and row major.
+ */
+public class LatticeInterpolator {
+
+    /**
+     * Interpolate data given on a lattice onto the grid of a tile window.
+     *
+     * @param x_in         The line coordinates of the lattice points, numLines * numPixels.
+     * @param y_in         The pixel coordinates of the lattice points, numLines * numPixels.
+     * @param numLines     The number of lattice lines.
+     * @param numPixels    The number of lattice pixels.
+     * @param z_in         The data to interpolate, each numLines * numPixels.
+     * @param window       The tile window of the output grid.
+     * @param invalidIndex Marks invalid lattice points on input and uncovered grid points on output.
+     * @param z_out        The interpolated data, each window.lines() * window.pixels().
+     * @return true if any grid point has been covered.
+     */
+    public static boolean gridDataLinear(final double[] x_in, final double[] y_in,
+                                         final int numLines, final int numPixels, final double[][] z_in,
+                                         final Window window, final double invalidIndex, final double[][] z_out) {
+
+        for (double[] z : z_out) {
+            Arrays.fill(z, invalidIndex);
+        }
+
+        final Rasteriser rasteriser = new Rasteriser(window, z_in, z_out);
+        for (int l = 0; l < numLines - 1; l++) {
+            for (int p = 0; p < numPixels - 1; p++) {
+                final int a = l * numPixels + p;
+                final int b = a + 1;
+                final int c = a + numPixels;
+                final int d = c + 1;
+
+                final boolean validA = x_in[a] != invalidIndex && y_in[a] != invalidIndex;
+                final boolean validB = x_in[b] != invalidIndex && y_in[b] != invalidIndex;
+                final boolean validC = x_in[c] != invalidIndex && y_in[c] != invalidIndex;
+                final boolean validD = x_in[d] != invalidIndex && y_in[d] != invalidIndex;
+
+                if (validA && validB && validC) {
+                    rasteriser.rasterise(x_in, y_in, a, b, c);
+                }
+                if (validB && validD && validC) {
+                    rasteriser.rasterise(x_in, y_in, b, d, c);
+                }
+            }
+        }
+        return rasteriser.covered;
+    }
+
+    private static class Rasteriser {
+
+        private static final double EPS = 1e-9;
+
+        private final double lineLo;
+        private final double pixelLo;
+        private final int numLines;
+        private final int numPixels;
+        private final double[][] z_in;
+        private final double[][] z_out;
+        boolean covered = false;
+
+        Rasteriser(final Window window, final double[][] z_in, final double[][] z_out) {
+            this.lineLo = window.linelo;
+            this.pixelLo = window.pixlo;
+            this.numLines = (int) window.lines();
+            this.numPixels = (int) window.pixels();
+            this.z_in = z_in;
+            this.z_out = z_out;
+        }
+
+        void rasterise(final double[] x_in, final double[] y_in, final int i0, final int i1, final int i2) {
+
+            final double x0 = x_in[i0] - lineLo;
+            final double y0 = y_in[i0] - pixelLo;
+            final double x1 = x_in[i1] - lineLo;
+            final double y1 = y_in[i1] - pixelLo;
+            final double x2 = x_in[i2] - lineLo;
+            final double y2 = y_in[i2] - pixelLo;
+
+            final int iMin = Math.max((int) Math.ceil(Math.min(Math.min(x0, x1), x2)), 0);
+            final int iMax = Math.min((int) Math.floor(Math.max(Math.max(x0, x1), x2)), numLines - 1);
+            if (iMin > iMax) {
+                return;
+            }
+
+            final int jMin = Math.max((int) Math.ceil(Math.min(Math.min(y0, y1), y2)), 0);
+            final int jMax = Math.min((int) Math.floor(Math.max(Math.max(y0, y1), y2)), numPixels - 1);
+            if (jMin > jMax) {
+                return;
+            }
+
+            final double x10 = x1 - x0;
+            final double y10 = y1 - y0;
+            final double x20 = x2 - x0;
+            final double y20 = y2 - y0;
+            final double det = x10 * y20 - x20 * y10;
+            if (Math.abs(det) < EPS) {
+                return;
+            }
+            final double invDet = 1.0 / det;
+
+            for (int i = iMin; i <= iMax; i++) {
+                final double dx = i - x0;
+                for (int j = jMin; j <= jMax; j++) {
+                    final double dy = j - y0;
+
+                    // barycentric coordinates of the grid point
+                    final double w1 = (dx * y20 - x20 * dy) * invDet;
+                    final double w2 = (x10 * dy - dx * y10) * invDet;
+                    if (w1 < -EPS || w2 < -EPS || w1 + w2 > 1.0 + EPS) {
+                        continue;
+                    }
+                    final double w0 = 1.0 - w1 - w2;
+
+                    final int k = i * numPixels + j;
+                    for (int n = 0; n < z_in.length; n++) {
+                        final double[] z = z_in[n];
+                        z_out[n][k] = w0 * z[i0] + w1 * z[i1] + w2 * z[i2];
+                    }
+                    covered = true;
+                }
+            }
+        }
+    }
+}
@@ -332,6 +332,122 @@ public class SarUtils {
         return result;
     }
 
+    /**
+     * Coherence estimation on flat, row major arrays of interleaved complex samples (real, imaginary).
+     * <p/>
+     * Same result as coherence2, but the window sums are computed with separable running sums so the cost per
+     * pixel does not depend on the window size.
+     *
+     * @return the coherence of the (rows - winL + 1) x (cols - winP + 1) windows, row major
+     */
+    public static double[] coherence(final double[] master, final double[] slave,
+                                     final int rows, final int cols, final int winL, final int winP) {
+        return coherence(powerWindowSums(master, rows, cols, winL, winP), master, slave, rows, cols, winL, winP);
+    }
+
+    /**
+     * Coherence estimation with precomputed window sums of the master power, so that the master sums are
+     * computed only once for all pairs of a stack.
+     *
+     * @param mstPowerSums window sums of the master power, from powerWindowSums
+     * @return the coherence of the (rows - winL + 1) x (cols - winP + 1) windows, row major
+     */
+    public static double[] coherence(final double[] mstPowerSums, final double[] master, final double[] slave,
+                                     final int rows, final int cols, final int winL, final int winP) {
+
+        // interferogram and slave power, interleaved
+        final int n = rows * cols;
+        final double[] pairData = new double[3 * n];
+        for (int i = 0; i < n; i++) {
+            final double mRe = master[2 * i];
+            final double mIm = master[2 * i + 1];
+            final double sRe = slave[2 * i];
+            final double sIm = slave[2 * i + 1];
+            pairData[3 * i] = mRe * sRe + mIm * sIm;
+            pairData[3 * i + 1] = mIm * sRe - mRe * sIm;
+            pairData[3 * i + 2] = sRe * sRe + sIm * sIm;
+        }
+        final double[] pairSums = windowSums(pairData, 3, rows, cols, winL, winP);
+
+        final double[] result = new double[mstPowerSums.length];
+        for (int i = 0; i < result.length; i++) {
+            final double product = mstPowerSums[i] * pairSums[3 * i + 2];
+            if (product > 0.0) {
+                final double re = pairSums[3 * i];
+                final double im = pairSums[3 * i + 1];
+                result[i] = Math.sqrt(re * re + im * im) / Math.sqrt(product);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Window sums of the power of interleaved complex samples.
+     */
+    public static double[] powerWindowSums(final double[] cplxData, final int rows, final int cols,
+                                           final int winL, final int winP) {
+        final int n = rows * cols;
+        final double[] power = new double[n];
+        for (int i = 0; i < n; i++) {
+            final double re = cplxData[2 * i];
+            final double im = cplxData[2 * i + 1];
+            power[i] = re * re + im * im;
+        }
+        return windowSums(power, 1, rows, cols, winL, winP);
+    }
+
+    /**
+     * Sums over all winL x winP windows of an image with numChannels interleaved values per pixel.
+     * Running sums along the lines give the window column sums, and running sums of these along each line give the
+     * window sums, so every sample is added and subtracted once per direction.
+     *
+     * @return the window sums, (rows - winL + 1) x (cols - winP + 1) windows with numChannels values each
+     */
+    public static double[] windowSums(final double[] data, final int numChannels,
+                                      final int rows, final int cols, final int winL, final int winP) {
+
+        final int outRows = rows - winL + 1;
+        final int outCols = cols - winP + 1;
+        if (outRows <= 0 || outCols <= 0) {
+            throw new IllegalArgumentException("windowSums: window larger than data");
+        }
+
+        final int rowLength = cols * numChannels;
+        final double[] colSums = new double[rowLength];
+        final double[] result = new double[outRows * outCols * numChannels];
+
+        for (int k = 0; k < winL; k++) {
+            final int offset = k * rowLength;
+            for (int n = 0; n < rowLength; n++) {
+                colSums[n] += data[offset + n];
+            }
+        }
+
+        for (int i = 0; i < outRows; i++) {
+            if (i > 0) {
+                final int oldRow = (i - 1) * rowLength;
+                final int newRow = (i + winL - 1) * rowLength;
+                for (int n = 0; n < rowLength; n++) {
+                    colSums[n] += data[newRow + n] - data[oldRow + n];
+                }
+            }
+
+            final int offset = i * outCols * numChannels;
+            for (int c = 0; c < numChannels; c++) {
+                double sum = 0.0;
+                for (int l = 0; l < winP; l++) {
+                    sum += colSums[l * numChannels + c];
+                }
+                result[offset + c] = sum;
+                for (int j = 1; j < outCols; j++) {
+                    sum += colSums[(j + winP - 1) * numChannels + c] - colSums[(j - 1) * numChannels + c];
+                    result[offset + j * numChannels + c] = sum;
+                }
+            }
+        }
+        return result;
+    }
+
     static double coherenceProduct(final ComplexDouble sum, final ComplexDouble power) {
         final double product = power.real() * power.imag();
 //        return (product > 0.0) ? Math.sqrt(Math.pow(sum.abs(),2) / product) : 0.0;
@@ -50,6 +50,21 @@ public class TileUtilsDoris {
         return result;
     }
 
+    // interleaved real and imaginary samples, row major
+    public static double[] pullComplexDoubleArray(final Tile tile1, final Tile tile2) {
+
+        final int n = tile1.getHeight() * tile1.getWidth();
+        final double[] result = new double[2 * n];
+
+        final ProductData samples1 = tile1.getRawSamples();
+        final ProductData samples2 = tile2.getRawSamples();
+        for (int i = 0; i < n; i++) {
+            result[2 * i] = samples1.getElemDoubleAt(i);
+            result[2 * i + 1] = samples2.getElemDoubleAt(i);
+        }
+        return result;
+    }
+
     // see javadoc for Tile (interface)
     public static DoubleMatrix pullDoubleMatrix(final Tile tile) {
 
@@ -0,0 +1,90 @@
+package org.jlinda.core.utils;
+
+import org.jlinda.core.Window;
+import org.jlinda.core.delaunay.LatticeInterpolator;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LatticeInterpolatorTest {
+
+    private static final double NODATA = -9999.0;
+    private static final int nLines = 30;
+    private static final int nPixels = 40;
+
+    @Test
+    public void testLinearDataIsReproduced() {
+
+        final double[] x = new double[nLines * nPixels];
+        final double[] y = new double[nLines * nPixels];
+        final double[] z = new double[nLines * nPixels];
+        createLattice(x, y, z);
+
+        final Window tileWin = new Window(110, 140, 220, 300);
+        final int lines = (int) tileWin.lines();
+        final int pixels = (int) tileWin.pixels();
+        final double[] grd = new double[lines * pixels];
+
+        Assert.assertTrue(LatticeInterpolator.gridDataLinear(
+                x, y, nLines, nPixels, new double[][]{z}, tileWin, NODATA, new double[][]{grd}));
+
+        for (int i = 0; i < lines; i++) {
+            for (int j = 0; j < pixels; j++) {
+                Assert.assertEquals(plane(tileWin.linelo + i, tileWin.pixlo + j), grd[i * pixels + j], 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void testInvalidPointsLeaveHoles() {
+
+        final double[] x = new double[nLines * nPixels];
+        final double[] y = new double[nLines * nPixels];
+        final double[] z = new double[nLines * nPixels];
+        createLattice(x, y, z);
+
+        // the lattice point at line 5, pixel 5 lies at (120.0, 224.5)
+        x[5 * nPixels + 5] = NODATA;
+
+        final Window tileWin = new Window(110, 140, 220, 300);
+        final int pixels = (int) tileWin.pixels();
+        final double[] grd = new double[(int) tileWin.lines() * pixels];
+
+        LatticeInterpolator.gridDataLinear(x, y, nLines, nPixels, new double[][]{z}, tileWin, NODATA,
+                new double[][]{grd});
+
+        Assert.assertEquals(NODATA, grd[(120 - 110) * pixels + (224 - 220)], 0.0);
+        Assert.assertEquals(plane(130, 280), grd[(130 - 110) * pixels + (280 - 220)], 1e-9);
+    }
+
+    @Test
+    public void testWindowOutsideLattice() {
+
+        final double[] x = new double[nLines * nPixels];
+        final double[] y = new double[nLines * nPixels];
+        final double[] z = new double[nLines * nPixels];
+        createLattice(x, y, z);
+
+        final Window tileWin = new Window(1000, 1010, 2000, 2010);
+        final double[] grd = new double[(int) (tileWin.lines() * tileWin.pixels())];
+
+        Assert.assertFalse(LatticeInterpolator.gridDataLinear(
+                x, y, nLines, nPixels, new double[][]{z}, tileWin, NODATA, new double[][]{grd}));
+        Assert.assertEquals(NODATA, grd[0], 0.0);
+    }
+
+    // a sheared and rotated lattice, as DEM points in radar geometry
+    private static void createLattice(final double[] x, final double[] y, final double[] z) {
+        for (int l = 0; l < nLines; l++) {
+            for (int p = 0; p < nPixels; p++) {
+                final int i = l * nPixels + p;
+                x[i] = 100.0 + 3.7 * l + 0.3 * p;
+                y[i] = 200.0 + 5.1 * p - 0.2 * l;
+                z[i] = plane(x[i], y[i]);
+            }
+        }
+    }
+
+    private static double plane(final double x, final double y) {
+        return 2.0 * x + 3.0 * y - 7.0;
+    }
+}
@@ -0,0 +1,99 @@
+package org.jlinda.core.utils;
+
+import org.jblas.ComplexDouble;
+import org.jblas.ComplexDoubleMatrix;
+import org.jblas.DoubleMatrix;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class SarUtilsCoherenceTest {
+
+    private static final double DELTA = 1e-10;
+    private static final int rows = 37;
+    private static final int cols = 53;
+
+    @Test
+    public void testCoherenceEqualsCoherence2() {
+
+        final Random random = new Random(42);
+        final double[] master = new double[2 * rows * cols];
+        final double[] slave = new double[2 * rows * cols];
+        for (int i = 0; i < master.length; i++) {
+            master[i] = random.nextGaussian() * 100.0;
+            slave[i] = 0.5 * master[i] + random.nextGaussian() * 50.0;
+        }
+
+        final int[][] windows = {{10, 10}, {3, 7}, {8, 2}, {1, 1}, {rows, cols}};
+        for (int[] win : windows) {
+            final int winL = win[0];
+            final int winP = win[1];
+
+            final DoubleMatrix expected = coherence2(master, slave, winL, winP);
+            final double[] actual = SarUtils.coherence(master, slave, rows, cols, winL, winP);
+
+            Assert.assertEquals(expected.length, actual.length);
+            for (int y = 0; y < expected.rows; y++) {
+                for (int x = 0; x < expected.columns; x++) {
+                    Assert.assertEquals(expected.get(y, x), actual[y * expected.columns + x], DELTA);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testWindowSums() {
+
+        final double[] data = new double[2 * rows * cols];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = i % 17;
+        }
+
+        final int winL = 4;
+        final int winP = 5;
+        final double[] sums = SarUtils.windowSums(data, 2, rows, cols, winL, winP);
+        final int outCols = cols - winP + 1;
+        for (int y = 0; y < rows - winL + 1; y++) {
+            for (int x = 0; x < outCols; x++) {
+                for (int c = 0; c < 2; c++) {
+                    double sum = 0.0;
+                    for (int k = y; k < y + winL; k++) {
+                        for (int l = x; l < x + winP; l++) {
+                            sum += data[2 * (k * cols + l) + c];
+                        }
+                    }
+                    Assert.assertEquals(sum, sums[2 * (y * outCols + x) + c], DELTA);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testZeroPowerGivesZeroCoherence() {
+
+        final double[] master = new double[2 * rows * cols];
+        final double[] slave = new double[2 * rows * cols];
+        final double[] coherence = SarUtils.coherence(master, slave, rows, cols, 5, 5);
+        for (double coh : coherence) {
+            Assert.assertEquals(0.0, coh, 0.0);
+        }
+    }
+
+    // the input of coherence2 as prepared by the coherence operator
+    private static DoubleMatrix coherence2(final double[] master, final double[] slave, final int winL, final int winP) {
+
+        final ComplexDoubleMatrix input = new ComplexDoubleMatrix(rows, cols);
+        final ComplexDoubleMatrix norms = new ComplexDoubleMatrix(rows, cols);
+        for (int y = 0; y < rows; y++) {
+            for (int x = 0; x < cols; x++) {
+                final int i = 2 * (y * cols + x);
+                final ComplexDouble m = new ComplexDouble(master[i], master[i + 1]);
+                final ComplexDouble s = new ComplexDouble(slave[i], slave[i + 1]);
+                input.put(y, x, m.mul(s.conj()));
+                norms.put(y, x, new ComplexDouble(s.abs() * s.abs(), m.abs() * m.abs()));
+            }
+        }
+        return SarUtils.coherence2(input, norms, winL, winP);
+    }
+}
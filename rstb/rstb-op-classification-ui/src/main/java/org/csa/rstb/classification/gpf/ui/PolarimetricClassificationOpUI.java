@@ -55,6 +55,11 @@ public class PolarimetricClassificationOpUI extends BaseOperatorUI {
     private final JTextField windowSize = new JTextField("");
     private final JLabel maxIterationsLabel = new JLabel("Max Iterations:");
     private final JTextField maxIterations = new JTextField("");
+    private final JCheckBox useMiniBatchCheckBox = new JCheckBox("Mini-Batch K-Means");
+    private final JLabel miniBatchSizeLabel = new JLabel("Tiles per Mini-Batch:");
+    private final JTextField miniBatchSize = new JTextField("");
+    private final JLabel miniBatchThresholdLabel = new JLabel("Mini-Batch Convergence Threshold:");
+    private final JTextField miniBatchThreshold = new JTextField("");
     private final JLabel numInitialClassesLabel = new JLabel("Initial Number of Classes:");
     private final JTextField numInitialClasses = new JTextField("");
     private final JLabel numFinalClassesLabel = new JLabel("Final Number of Classes:");
@@ -79,6 +84,10 @@ public class PolarimetricClassificationOpUI extends BaseOperatorUI {
         classification.setSelectedItem(paramMap.get("classification"));
         windowSize.setText(String.valueOf(paramMap.get("windowSize")));
         maxIterations.setText(String.valueOf(paramMap.get("maxIterations")));
+        final Boolean useMiniBatch = (Boolean) paramMap.get("useMiniBatch");
+        useMiniBatchCheckBox.setSelected(useMiniBatch != null && useMiniBatch);
+        miniBatchSize.setText(String.valueOf(paramMap.get("miniBatchSize")));
+        miniBatchThreshold.setText(String.valueOf(paramMap.get("miniBatchThreshold")));
         numInitialClasses.setText(String.valueOf(paramMap.get("numInitialClasses")));
         numFinalClasses.setText(String.valueOf(paramMap.get("numFinalClasses")));
         mixedCategoryThreshold.setText(String.valueOf(paramMap.get("mixedCategoryThreshold")));
@@ -97,6 +106,9 @@ public class PolarimetricClassificationOpUI extends BaseOperatorUI {
         paramMap.put("classification", classification.getSelectedItem());
         paramMap.put("windowSize", Integer.parseInt(windowSize.getText()));
         paramMap.put("maxIterations", Integer.parseInt(maxIterations.getText()));
+        paramMap.put("useMiniBatch", useMiniBatchCheckBox.isSelected());
+        paramMap.put("miniBatchSize", Integer.parseInt(miniBatchSize.getText()));
+        paramMap.put("miniBatchThreshold", Double.parseDouble(miniBatchThreshold.getText()));
         paramMap.put("numInitialClasses", Integer.parseInt(numInitialClasses.getText()));
         paramMap.put("numFinalClasses", Integer.parseInt(numFinalClasses.getText()));
         paramMap.put("mixedCategoryThreshold", Double.parseDouble(mixedCategoryThreshold.getText()));
@@ -123,6 +135,13 @@ public class PolarimetricClassificationOpUI extends BaseOperatorUI {
                     DialogUtils.enableComponents(maxIterationsLabel, maxIterations, false);
                 }
 
+                final boolean miniBatchEnabled =
+                        item.equals(PolarimetricClassificationOp.UNSUPERVISED_HALPHA_WISHART_CLASSIFICATION) ||
+                        item.equals(PolarimetricClassificationOp.UNSUPERVISED_FREEMAN_DURDEN_CLASSIFICATION);
+                useMiniBatchCheckBox.setEnabled(miniBatchEnabled);
+                DialogUtils.enableComponents(miniBatchSizeLabel, miniBatchSize, miniBatchEnabled);
+                DialogUtils.enableComponents(miniBatchThresholdLabel, miniBatchThreshold, miniBatchEnabled);
+
                 if (item.equals(PolarimetricClassificationOp.UNSUPERVISED_FREEMAN_DURDEN_CLASSIFICATION) ||
                         item.equals(PolarimetricClassificationOp.UNSUPERVISED_GENERAL_WISHART_CLASSIFICATION)) {
                     DialogUtils.enableComponents(numInitialClassesLabel, numInitialClasses, true);
@@ -150,6 +169,19 @@ public class PolarimetricClassificationOpUI extends BaseOperatorUI {
         DialogUtils.addComponent(contentPane, gbc, maxIterationsLabel, maxIterations);
         DialogUtils.enableComponents(maxIterationsLabel, maxIterations, false);
 
+        gbc.gridy++;
+        gbc.gridx = 0;
+        contentPane.add(useMiniBatchCheckBox, gbc);
+        useMiniBatchCheckBox.setEnabled(false);
+
+        gbc.gridy++;
+        DialogUtils.addComponent(contentPane, gbc, miniBatchSizeLabel, miniBatchSize);
+        DialogUtils.enableComponents(miniBatchSizeLabel, miniBatchSize, false);
+
+        gbc.gridy++;
+        DialogUtils.addComponent(contentPane, gbc, miniBatchThresholdLabel, miniBatchThreshold);
+        DialogUtils.enableComponents(miniBatchThresholdLabel, miniBatchThreshold, false);
+
         gbc.gridy++;
         DialogUtils.addComponent(contentPane, gbc, numInitialClassesLabel, numInitialClasses);
         DialogUtils.enableComponents(numInitialClassesLabel, numInitialClasses, false);
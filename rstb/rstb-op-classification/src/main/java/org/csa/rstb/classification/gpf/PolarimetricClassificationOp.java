@@ -69,6 +69,19 @@ public class PolarimetricClassificationOp extends Operator {
             label = "Maximum Number of Iterations")
     protected int maxIterations = 3;
 
+    @Parameter(description = "Update the Wishart cluster centres from random batches of tiles", defaultValue = "false",
+            label = "Mini-Batch K-Means")
+    private boolean useMiniBatch = false;
+
+    @Parameter(description = "The number of 256x256 tiles in a mini-batch", interval = "[1, *)", defaultValue = "16",
+            label = "Tiles per Mini-Batch")
+    private int miniBatchSize = 16;
+
+    @Parameter(description = "The relative movement of the cluster centres over a group of batches that stops " +
+            "mini-batch K-means", interval = "(0, *)", defaultValue = "0.001",
+            label = "Mini-Batch Convergence Threshold")
+    private double miniBatchThreshold = 0.001;
+
     @Parameter(description = "The initial number of classes", interval = "[9, 1000]", defaultValue = "90",
             label = "The Initial Number of Classes")
     private int numInitialClasses = 90;
@@ -195,6 +208,9 @@ public class PolarimetricClassificationOp extends Operator {
     }
 
     private PolClassifier createClassifier(final String classification) throws OperatorException {
+        final MiniBatchWishart miniBatch =
+                useMiniBatch ? new MiniBatchWishart(miniBatchSize, miniBatchThreshold) : null;
+
         switch (classification) {
             case UNSUPERVISED_CLOUDE_POTTIER_CLASSIFICATION:
 
@@ -207,7 +223,7 @@ public class PolarimetricClassificationOp extends Operator {
             case UNSUPERVISED_HALPHA_WISHART_CLASSIFICATION:
 
                 return new HAlphaWishart(sourceProductType, sourceImageWidth, sourceImageHeight, windowSize, bandMap,
-                        maxIterations, this);
+                        maxIterations, miniBatch, this);
 
             case UNSUPERVISED_HALPHA_WISHART_DUAL_POL_CLASSIFICATION:
 
@@ -217,7 +233,7 @@ public class PolarimetricClassificationOp extends Operator {
             case UNSUPERVISED_FREEMAN_DURDEN_CLASSIFICATION:
 
                 return new FreemanDurdenWishart(sourceProductType, sourceImageWidth, sourceImageHeight, windowSize, bandMap,
-                        maxIterations, numInitialClasses, numFinalClasses, mixedCategoryThreshold, this);
+                        maxIterations, numInitialClasses, numFinalClasses, mixedCategoryThreshold, miniBatch, this);
 
             case UNSUPERVISED_GENERAL_WISHART_CLASSIFICATION:
 
@@ -275,6 +291,14 @@ public class PolarimetricClassificationOp extends Operator {
         checkForCancellation();
     }
 
+    @Override
+    public synchronized void dispose() {
+        if (classifier != null) {
+            classifier.dispose();
+        }
+        super.dispose();
+    }
+
     /*@Override
     public synchronized void dispose() {
         final IndexCoding indexCoding = classifier.createIndexCoding();
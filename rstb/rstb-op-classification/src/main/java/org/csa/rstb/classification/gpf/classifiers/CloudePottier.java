@@ -18,6 +18,7 @@ package org.csa.rstb.classification.gpf.classifiers;
 import org.csa.rstb.classification.gpf.PolarimetricClassificationOp;
 import org.csa.rstb.polarimetric.gpf.support.HaAlphaDescriptor;
 import org.csa.rstb.polarimetric.gpf.support.QuadPolProcessor;
+import org.csa.rstb.polarimetric.gpf.support.WindowMatrixAccumulator;
 import org.csa.rstb.polarimetric.gpf.decompositions.hAAlpha;
 import org.esa.s1tbx.commons.polsar.PolBandUtils;
 import org.esa.snap.core.datamodel.Band;
@@ -94,7 +95,9 @@ public class CloudePottier extends PolClassifierBase implements PolClassifier, Q
             sourceTiles[i] = op.getSourceTile(srcBandList.srcBands[i], sourceRectangle);
             dataBuffers[i] = sourceTiles[i].getDataBuffer();
         }
-        final TileIndex srcIndex = new TileIndex(sourceTiles[0]);
+
+        final WindowMatrixAccumulator meanCoherency = createMeanCoherencyMatrixAccumulator(halfWindowSizeX,
+                halfWindowSizeY, srcWidth, srcHeight, sourceProductType, sourceTiles, dataBuffers);
 
         final double[][] Tr = new double[3][3];
         final double[][] Ti = new double[3][3];
@@ -103,8 +106,7 @@ public class CloudePottier extends PolClassifierBase implements PolClassifier, Q
             trgIndex.calculateStride(y);
             for (int x = x0; x < maxX; ++x) {
 
-                getMeanCoherencyMatrix(x, y, halfWindowSizeX, halfWindowSizeY, srcWidth, srcHeight,
-                        sourceProductType, srcIndex, dataBuffers, Tr, Ti);
+                meanCoherency.getMeanMatrix(x, y, Tr, Ti);
 
                 final hAAlpha.HAAlpha data = hAAlpha.computeHAAlpha(Tr, Ti);
 
@@ -18,6 +18,7 @@ package org.csa.rstb.classification.gpf.classifiers;
 import org.csa.rstb.classification.gpf.PolarimetricClassificationOp;
 import org.csa.rstb.polarimetric.gpf.support.DualPolProcessor;
 import org.csa.rstb.polarimetric.gpf.support.HaAlphaDescriptor;
+import org.csa.rstb.polarimetric.gpf.support.WindowMatrixAccumulator;
 import org.csa.rstb.polarimetric.gpf.decompositions.HAlphaC2;
 import org.esa.s1tbx.commons.polsar.PolBandUtils;
 import org.esa.snap.core.datamodel.Band;
@@ -95,6 +96,9 @@ public class CloudePottierC2 extends PolClassifierBase implements PolClassifier,
             dataBuffers[i] = sourceTiles[i].getDataBuffer();
         }
 
+        final WindowMatrixAccumulator meanCovariance = createMeanCovarianceMatrixC2Accumulator(halfWindowSizeX,
+                halfWindowSizeY, srcWidth, srcHeight, sourceProductType, sourceTiles, dataBuffers);
+
         final double[][] Cr = new double[2][2];
         final double[][] Ci = new double[2][2];
         final int noDataValue = 0;
@@ -102,8 +106,7 @@ public class CloudePottierC2 extends PolClassifierBase implements PolClassifier,
             trgIndex.calculateStride(y);
             for (int x = x0; x < maxX; ++x) {
 
-                getMeanCovarianceMatrixC2(x, y, halfWindowSizeX, halfWindowSizeY, srcWidth, srcHeight,
-                        sourceProductType, sourceTiles, dataBuffers, Cr, Ci);
+                meanCovariance.getMeanMatrix(x, y, Cr, Ci);
 
                 final HAlphaC2.HAAlpha data = HAlphaC2.computeHAAlphaByC2(Cr, Ci);
 
@@ -17,6 +17,7 @@ package org.csa.rstb.classification.gpf.classifiers;
 
 import org.csa.rstb.classification.gpf.PolarimetricClassificationOp;
 import org.csa.rstb.polarimetric.gpf.support.QuadPolProcessor;
+import org.csa.rstb.polarimetric.gpf.support.WindowMatrixAccumulator;
 import org.csa.rstb.polarimetric.gpf.decompositions.FreemanDurden;
 import org.esa.s1tbx.commons.polsar.PolBandUtils;
 import org.esa.snap.core.datamodel.Band;
@@ -25,6 +26,7 @@ import org.esa.snap.core.datamodel.ProductData;
 import org.esa.snap.core.dataop.downloadable.StatusProgressMonitor;
 import org.esa.snap.core.gpf.OperatorException;
 import org.esa.snap.core.gpf.Tile;
+import org.esa.snap.core.util.SystemUtils;
 import org.esa.snap.core.util.ThreadExecutor;
 import org.esa.snap.core.util.ThreadRunnable;
 import org.esa.snap.engine_utilities.gpf.OperatorUtils;
@@ -46,11 +48,13 @@ public class FreemanDurdenWishart extends PolClassifierBase implements PolClassi
     private boolean clusterCentersComputed = false;
     private final int maxIterations;
     private final int numFinalClasses;
+    private final MiniBatchWishart miniBatch;
 
     private enum Categories {vol, dbl, suf, mix}
 
     private Categories[][] category = null; // pixel category index
     private int[][] cluster = null; // pixel cluster index
+    private MeanMatrixCache meanMatrixCache = null; // pixel mean coherency matrix, during the iterations
 
     private final double mixedCategoryThreshold;
     private int maxClusterSize = 0;
@@ -65,11 +69,25 @@ public class FreemanDurdenWishart extends PolClassifierBase implements PolClassi
                                 final int maxIterations, final int numInitialClasses, final int numClasses,
                                 final double mixedCategoryThreshold,
                                 final PolarimetricClassificationOp op) {
+        this(srcProductType, srcWidth, srcHeight, windowSize, bandMap, maxIterations, numInitialClasses, numClasses,
+                mixedCategoryThreshold, null, op);
+    }
+
+    /**
+     * @param miniBatch the mini-batch K-means settings, null for K-means over the whole image in each iteration
+     */
+    public FreemanDurdenWishart(final PolBandUtils.MATRIX srcProductType,
+                                final int srcWidth, final int srcHeight, final int windowSize,
+                                final Map<Band, PolBandUtils.PolSourceBand> bandMap,
+                                final int maxIterations, final int numInitialClasses, final int numClasses,
+                                final double mixedCategoryThreshold, final MiniBatchWishart miniBatch,
+                                final PolarimetricClassificationOp op) {
         super(srcProductType, srcWidth, srcHeight, windowSize, windowSize, bandMap, op);
         this.maxIterations = maxIterations;
         this.numFinalClasses = numClasses;
         this.numInitialClusters = numInitialClasses / 3;
         this.mixedCategoryThreshold = mixedCategoryThreshold;
+        this.miniBatch = miniBatch;
     }
 
     @Override
@@ -743,9 +761,11 @@ public class FreemanDurdenWishart extends PolClassifierBase implements PolClassi
                                                    final PolarimetricClassificationOp op) {
 
         boolean endIteration = false;
+        // in mini-batch mode only the first iteration, which also assigns the mixed pixels, is over the whole image
+        final int numIterations = miniBatch != null ? 1 : maxIterations;
 
         final StatusProgressMonitor status = new StatusProgressMonitor(StatusProgressMonitor.TYPE.SUBTASK);
-        status.beginTask("Computing Final Cluster Centres... ", tileRectangles.length * maxIterations);
+        status.beginTask("Computing Final Cluster Centres... ", tileRectangles.length * numIterations);
 
         final int pvNumClusters = pvCenterList.size();
         final int pdNumClusters = pdCenterList.size();
@@ -757,8 +777,12 @@ public class FreemanDurdenWishart extends PolClassifierBase implements PolClassi
         final ThreadExecutor executor = new ThreadExecutor();
 
         try {
-            for (int it = 0; (it < maxIterations && !endIteration); ++it) {
+            meanMatrixCache = new MeanMatrixCache(3, srcWidth, srcHeight);
+
+            for (int it = 0; (it < numIterations && !endIteration); ++it) {
                 //System.out.println("Iteration: " + it);
+                // the source is only read in the first iteration, the following ones use the cached mean matrices
+                final boolean fillCache = (it == 0);
 
 //                final long startTime = System.nanoTime();
 //                final long endTime;
@@ -794,19 +818,27 @@ public class FreemanDurdenWishart extends PolClassifierBase implements PolClassi
                             final int xMax = x0 + w;
                             final int yMax = y0 + h;
 
-                            final Rectangle sourceRectangle = getSourceRectangle(x0, y0, w, h);
-                            for (int i = 0; i < sourceTiles.length; ++i) {
-                                sourceTiles[i] = op.getSourceTile(srcBandList.srcBands[i], sourceRectangle);
-                                dataBuffers[i] = sourceTiles[i].getDataBuffer();
+                            WindowMatrixAccumulator meanCoherency = null;
+                            if (fillCache) {
+                                final Rectangle sourceRectangle = getSourceRectangle(x0, y0, w, h);
+                                for (int i = 0; i < sourceTiles.length; ++i) {
+                                    sourceTiles[i] = op.getSourceTile(srcBandList.srcBands[i], sourceRectangle);
+                                    dataBuffers[i] = sourceTiles[i].getDataBuffer();
+                                }
+                                meanCoherency = createMeanCoherencyMatrixAccumulator(halfWindowSizeX,
+                                        halfWindowSizeY, srcWidth, srcHeight, sourceProductType,
+                                        sourceTiles, dataBuffers);
                             }
-                            final TileIndex srcIndex = new TileIndex(sourceTiles[0]);
 
                             for (int y = y0; y < yMax; ++y) {
                                 for (int x = x0; x < xMax; ++x) {
 
-                                    getMeanCoherencyMatrix(
-                                            x, y, halfWindowSizeX, halfWindowSizeY, srcWidth, srcHeight,
-                                            sourceProductType, srcIndex, dataBuffers, Tr, Ti);
+                                    if (fillCache) {
+                                        meanCoherency.getMeanMatrix(x, y, Tr, Ti);
+                                        meanMatrixCache.put(x, y, Tr, Ti);
+                                    } else {
+                                        meanMatrixCache.get(x, y, Tr, Ti);
+                                    }
 
                                     synchronized (clusterCounter) {
 
@@ -879,6 +911,11 @@ public class FreemanDurdenWishart extends PolClassifierBase implements PolClassi
                 updateClusterCenter(pdCenterList, clusterCounter[1], pdSumRe, pdSumIm);
                 updateClusterCenter(psCenterList, clusterCounter[2], psSumRe, psSumIm);
             }
+
+            if (miniBatch != null) {
+                computeMiniBatchTerrainClusterCenters(pvCenterList, pdCenterList, psCenterList, clusterCounter,
+                        tileRectangles, op);
+            }
             /*
             System.out.println("# of clusters in Pv: " + pvNumClusters);
             System.out.print("Pixels in each Pv cluster: ");
@@ -949,10 +986,176 @@ public class FreemanDurdenWishart extends PolClassifierBase implements PolClassi
         } catch (Throwable e) {
             OperatorUtils.catchOperatorException(op.getId() + " computeInitialClusterCenters ", e);
         } finally {
+            if (meanMatrixCache != null) {
+                meanMatrixCache.dispose();
+                meanMatrixCache = null;
+            }
             status.done();
         }
     }
 
+    /**
+     * Continue the K-means clustering with mini-batches of tiles, then assign every pixel to its nearest cluster.
+     * The pixels of the mixed category have been assigned to the other categories by the first iteration.
+     *
+     * @param clusterCounter The number of pixels in each cluster of each category, set by the final assignment
+     * @param tileRectangles Array of rectangles for all source tiles of the image
+     * @param op             the operator
+     */
+    private void computeMiniBatchTerrainClusterCenters(final java.util.List<ClusterInfo> pvCenterList,
+                                                       final java.util.List<ClusterInfo> pdCenterList,
+                                                       final java.util.List<ClusterInfo> psCenterList,
+                                                       final int[][] clusterCounter,
+                                                       final Rectangle[] tileRectangles,
+                                                       final PolarimetricClassificationOp op) throws Exception {
+
+        // the centers of the 3 categories one after the other
+        final java.util.List<ClusterInfo> centerList = new ArrayList<>();
+        centerList.addAll(pvCenterList);
+        centerList.addAll(pdCenterList);
+        centerList.addAll(psCenterList);
+        final ClusterInfo[] centers = centerList.toArray(new ClusterInfo[0]);
+        final int[] categoryOffset = {0, pvCenterList.size(), pvCenterList.size() + pdCenterList.size()};
+        final MiniBatchWishart.Iterations iterations = miniBatch.startIterations(centers);
+
+        // as many tiles at most as the iterations after the initial one over the whole image
+        final int maxBatches = miniBatch.getMaxBatches(tileRectangles.length, maxIterations - 1);
+        final ThreadExecutor executor = new ThreadExecutor();
+
+        final long startTime = System.currentTimeMillis();
+        final StatusProgressMonitor batchStatus = new StatusProgressMonitor(StatusProgressMonitor.TYPE.SUBTASK);
+        batchStatus.beginTask("Computing Mini-Batch Cluster Centres... ", maxBatches);
+        try {
+            for (int b = 0; b < maxBatches; ++b) {
+                final Rectangle[] batch = miniBatch.getBatch(tileRectangles);
+                final MiniBatchWishart.ClusterSums batchSums =
+                        new MiniBatchWishart.ClusterSums(centers.length, 3);
+
+                for (final Rectangle rectangle : batch) {
+
+                    final ThreadRunnable worker = new ThreadRunnable() {
+
+                        final double[][] Tr = new double[3][3];
+                        final double[][] Ti = new double[3][3];
+                        final MiniBatchWishart.ClusterSums sums =
+                                new MiniBatchWishart.ClusterSums(centers.length, 3);
+
+                        @Override
+                        public void process() {
+                            op.checkIfCancelled();
+
+                            final int xMax = rectangle.x + rectangle.width;
+                            final int yMax = rectangle.y + rectangle.height;
+
+                            for (int y = rectangle.y; y < yMax; ++y) {
+                                for (int x = rectangle.x; x < xMax; ++x) {
+                                    meanMatrixCache.get(x, y, Tr, Ti);
+                                    final int c = getCategoryIndex(category[y][x]);
+                                    final int clusterIdx = findClosestCluster(Tr, Ti, centers,
+                                            categoryOffset[c], getCategoryEnd(c, categoryOffset, centers));
+                                    sums.add(clusterIdx, Tr, Ti);
+                                }
+                            }
+                            batchSums.merge(sums);
+                        }
+                    };
+                    executor.execute(worker);
+                }
+                executor.complete();
+
+                final boolean converged = iterations.update(batchSums);
+                batchStatus.worked(1);
+                if (converged) {
+                    break;
+                }
+            }
+        } finally {
+            batchStatus.done();
+        }
+
+        SystemUtils.LOG.info(op.getId() + " mini-batch Wishart: " + iterations.getNumBatches() + " of " +
+                maxBatches + " batches in " + (System.currentTimeMillis() - startTime) + " ms, centre movement " +
+                String.format("%.3g", iterations.getMovement()));
+
+        // final assignment of all the pixels to the clusters
+        final StatusProgressMonitor status = new StatusProgressMonitor(StatusProgressMonitor.TYPE.SUBTASK);
+        status.beginTask("Assigning Pixels to Clusters... ", tileRectangles.length);
+
+        final int[] counts = new int[centers.length];
+        try {
+            for (final Rectangle rectangle : tileRectangles) {
+
+                final ThreadRunnable worker = new ThreadRunnable() {
+
+                    final double[][] Tr = new double[3][3];
+                    final double[][] Ti = new double[3][3];
+                    final int[] tileCounts = new int[centers.length];
+
+                    @Override
+                    public void process() {
+                        op.checkIfCancelled();
+
+                        final int xMax = rectangle.x + rectangle.width;
+                        final int yMax = rectangle.y + rectangle.height;
+
+                        for (int y = rectangle.y; y < yMax; ++y) {
+                            for (int x = rectangle.x; x < xMax; ++x) {
+                                meanMatrixCache.get(x, y, Tr, Ti);
+                                final int c = getCategoryIndex(category[y][x]);
+                                final int clusterIdx = findClosestCluster(Tr, Ti, centers,
+                                        categoryOffset[c], getCategoryEnd(c, categoryOffset, centers));
+                                cluster[y][x] = clusterIdx - categoryOffset[c];
+                                tileCounts[clusterIdx]++;
+                            }
+                        }
+                        synchronized (counts) {
+                            for (int i = 0; i < counts.length; ++i) {
+                                counts[i] += tileCounts[i];
+                            }
+                        }
+                    }
+                };
+                executor.execute(worker);
+
+                status.worked(1);
+            }
+            executor.complete();
+        } finally {
+            status.done();
+        }
+
+        for (int c = 0; c < 3; ++c) {
+            Arrays.fill(clusterCounter[c], 0);
+            System.arraycopy(counts, categoryOffset[c], clusterCounter[c], 0,
+                    getCategoryEnd(c, categoryOffset, centers) - categoryOffset[c]);
+        }
+    }
+
+    // index of the category in the order pv, pd, ps of the center lists
+    private static int getCategoryIndex(final Categories category) {
+        return category == Categories.vol ? 0 : category == Categories.dbl ? 1 : 2;
+    }
+
+    private static int getCategoryEnd(final int categoryIndex, final int[] categoryOffset,
+                                      final ClusterInfo[] centers) {
+        return categoryIndex < 2 ? categoryOffset[categoryIndex + 1] : centers.length;
+    }
+
+    private static int findClosestCluster(final double[][] Tr, final double[][] Ti, final ClusterInfo[] centers,
+                                          final int start, final int end) {
+
+        double minDistance = Double.MAX_VALUE;
+        int clusterIndex = start;
+        for (int c = start; c < end; ++c) {
+            final double d = HAlphaWishart.computeWishartDistance(Tr, Ti, centers[c]);
+            if (minDistance > d) {
+                minDistance = d;
+                clusterIndex = c;
+            }
+        }
+        return clusterIndex;
+    }
+
     private static int getColourIndex(
             final int clusterIndex, final double[] pAvgClusterPower, final int numInitialClusters) {
         int n = 0;
@@ -18,6 +18,7 @@ package org.csa.rstb.classification.gpf.classifiers;
 import org.csa.rstb.classification.gpf.PolarimetricClassificationOp;
 import org.csa.rstb.polarimetric.gpf.PolarimetricDecompositionOp;
 import org.csa.rstb.polarimetric.gpf.support.QuadPolProcessor;
+import org.csa.rstb.polarimetric.gpf.support.WindowMatrixAccumulator;
 import org.csa.rstb.polarimetric.gpf.decompositions.*;
 import org.esa.s1tbx.commons.polsar.PolBandUtils;
 import org.esa.snap.core.datamodel.Band;
@@ -54,6 +55,7 @@ public class GeneralWishart extends PolClassifierBase implements PolClassifier,
 
     private int[][] category = null; // pixel category index
     private int[][] cluster = null;  // pixel cluster index
+    private MeanMatrixCache meanMatrixCache = null; // pixel mean coherency matrix, during the iterations
 
     private double mixedCategoryThreshold;
     private int maxClusterSize = 0;
@@ -759,8 +761,12 @@ public class GeneralWishart extends PolClassifierBase implements PolClassifier,
         final ThreadExecutor executor = new ThreadExecutor();
 
         try {
+            meanMatrixCache = new MeanMatrixCache(3, srcWidth, srcHeight);
+
             for (int it = 0; (it < maxIterations && !endIteration); ++it) {
                 //System.out.println("Iteration: " + it);
+                // the source is only read in the first iteration, the following ones use the cached mean matrices
+                final boolean fillCache = (it == 0);
 //                final long startTime = System.nanoTime();
 //                final long endTime;
 
@@ -796,19 +802,27 @@ public class GeneralWishart extends PolClassifierBase implements PolClassifier,
                             final int xMax = x0 + w;
                             final int yMax = y0 + h;
 
-                            final Rectangle sourceRectangle = getSourceRectangle(x0, y0, w, h);
-                            for (int i = 0; i < sourceTiles.length; ++i) {
-                                sourceTiles[i] = op.getSourceTile(srcBandList.srcBands[i], sourceRectangle);
-                                dataBuffers[i] = sourceTiles[i].getDataBuffer();
+                            WindowMatrixAccumulator meanCoherency = null;
+                            if (fillCache) {
+                                final Rectangle sourceRectangle = getSourceRectangle(x0, y0, w, h);
+                                for (int i = 0; i < sourceTiles.length; ++i) {
+                                    sourceTiles[i] = op.getSourceTile(srcBandList.srcBands[i], sourceRectangle);
+                                    dataBuffers[i] = sourceTiles[i].getDataBuffer();
+                                }
+                                meanCoherency = createMeanCoherencyMatrixAccumulator(halfWindowSizeX,
+                                        halfWindowSizeY, srcWidth, srcHeight, sourceProductType,
+                                        sourceTiles, dataBuffers);
                             }
-                            final TileIndex srcIndex = new TileIndex(sourceTiles[0]);
 
                             for (int y = y0; y < yMax; ++y) {
                                 for (int x = x0; x < xMax; ++x) {
 
-                                    getMeanCoherencyMatrix(
-                                            x, y, halfWindowSizeX, halfWindowSizeY, srcWidth, srcHeight,
-                                            sourceProductType, srcIndex, dataBuffers, Tr, Ti);
+                                    if (fillCache) {
+                                        meanCoherency.getMeanMatrix(x, y, Tr, Ti);
+                                        meanMatrixCache.put(x, y, Tr, Ti);
+                                    } else {
+                                        meanMatrixCache.get(x, y, Tr, Ti);
+                                    }
 
                                     synchronized (newClusterCenters) {
 
@@ -914,6 +928,10 @@ public class GeneralWishart extends PolClassifierBase implements PolClassifier,
         } catch (Throwable e) {
             OperatorUtils.catchOperatorException(op.getId() + " computeInitialClusterCenters ", e);
         } finally {
+            if (meanMatrixCache != null) {
+                meanMatrixCache.dispose();
+                meanMatrixCache = null;
+            }
             status.done();
         }
     }
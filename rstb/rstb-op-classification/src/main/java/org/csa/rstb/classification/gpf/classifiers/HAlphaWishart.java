@@ -18,6 +18,7 @@ package org.csa.rstb.classification.gpf.classifiers;
 import org.csa.rstb.classification.gpf.PolarimetricClassificationOp;
 import org.csa.rstb.polarimetric.gpf.support.HaAlphaDescriptor;
 import org.csa.rstb.polarimetric.gpf.support.QuadPolProcessor;
+import org.csa.rstb.polarimetric.gpf.support.WindowMatrixAccumulator;
 import org.csa.rstb.polarimetric.gpf.decompositions.hAAlpha;
 import org.esa.s1tbx.commons.polsar.PolBandUtils;
 import org.esa.snap.core.datamodel.Band;
@@ -44,15 +45,29 @@ public class HAlphaWishart extends PolClassifierBase implements PolClassifier, Q
 
     private ClusterInfo[][] clusterCenters = null;
     private boolean[] clusterCentersComputed = null;
+    private MeanMatrixCache[] meanMatrixCaches = null;
     private final int maxIterations;
+    private final MiniBatchWishart miniBatch;
     private final boolean useLeeHAlphaPlaneDefinition;
 
     public HAlphaWishart(final PolBandUtils.MATRIX srcProductType,
                          final int srcWidth, final int srcHeight, final int winSize,
                          final Map<Band, PolBandUtils.PolSourceBand> bandMap,
                          final int maxIterations, final PolarimetricClassificationOp op) {
+        this(srcProductType, srcWidth, srcHeight, winSize, bandMap, maxIterations, null, op);
+    }
+
+    /**
+     * @param miniBatch the mini-batch K-means settings, null for K-means over the whole image in each iteration
+     */
+    public HAlphaWishart(final PolBandUtils.MATRIX srcProductType,
+                         final int srcWidth, final int srcHeight, final int winSize,
+                         final Map<Band, PolBandUtils.PolSourceBand> bandMap,
+                         final int maxIterations, final MiniBatchWishart miniBatch,
+                         final PolarimetricClassificationOp op) {
         super(srcProductType, srcWidth, srcHeight, winSize, winSize, bandMap, op);
         this.maxIterations = maxIterations;
+        this.miniBatch = miniBatch;
 
         useLeeHAlphaPlaneDefinition = Boolean.getBoolean(SystemUtils.getApplicationContextId() +
                 ".useLeeHAlphaPlaneDefinition");
@@ -102,34 +117,21 @@ public class HAlphaWishart extends PolClassifierBase implements PolClassifier, Q
         final int maxX = x0 + w;
         //System.out.println("x0 = " + x0 + ", y0 = " + y0 + ", w = " + w + ", h = " + h);
 
-        final Tile[] sourceTiles = new Tile[srcBandList.srcBands.length];
-        final ProductData[] dataBuffers = new ProductData[srcBandList.srcBands.length];
-        final Rectangle sourceRectangle = getSourceRectangle(x0, y0, w, h);
-        for (int i = 0; i < sourceTiles.length; ++i) {
-            sourceTiles[i] = op.getSourceTile(srcBandList.srcBands[i], sourceRectangle);
-            dataBuffers[i] = sourceTiles[i].getDataBuffer();
-        }
         final ProductData targetData = targetTile.getDataBuffer();
         final TileIndex trgIndex = new TileIndex(targetTile);
-        final TileIndex srcIndex = new TileIndex(sourceTiles[0]);
-
-        final Double noDataValue = srcBandList.srcBands[0].getNoDataValue();
+        final MeanMatrixCache meanMatrixCache = meanMatrixCaches[targetBandIndex];
 
         final double[][] Tr = new double[3][3];
         final double[][] Ti = new double[3][3];
 
         for (int y = y0; y < maxY; ++y) {
             trgIndex.calculateStride(y);
-            srcIndex.calculateStride(y);
             for (int x = x0; x < maxX; ++x) {
                 final int index = trgIndex.getIndex(x);
-                if (noDataValue.equals(dataBuffers[0].getElemDoubleAt(srcIndex.getIndex(x)))) {
-                    targetData.setElemIntAt(index, NODATACLASS);
-                } else {
-                    getMeanCoherencyMatrix(x, y, halfWindowSizeX, halfWindowSizeY, srcWidth, srcHeight,
-                            sourceProductType, srcIndex, dataBuffers, Tr, Ti);
-
+                if (meanMatrixCache.get(x, y, Tr, Ti)) {
                     targetData.setElemIntAt(index, findZoneIndex(Tr, Ti, clusterCenters[targetBandIndex]));
+                } else {
+                    targetData.setElemIntAt(index, NODATACLASS);
                 }
             }
         }
@@ -154,6 +156,7 @@ public class HAlphaWishart extends PolClassifierBase implements PolClassifier, Q
             clusterCentersComputed = new boolean[numTargetBands];
             Arrays.fill(clusterCentersComputed, false);
             clusterCenters = new ClusterInfo[numTargetBands][9];
+            meanMatrixCaches = new MeanMatrixCache[numTargetBands];
         }
 
         final Dimension tileSize = new Dimension(256, 256);
@@ -161,13 +164,18 @@ public class HAlphaWishart extends PolClassifierBase implements PolClassifier, Q
 
         computeInitialClusterCenters(targetBandIndex, srcBandList, tileRectangles, op);
 
-        computeFinalClusterCenters(targetBandIndex, srcBandList, tileRectangles, op);
+        if (miniBatch != null) {
+            computeMiniBatchClusterCenters(targetBandIndex, tileRectangles, op);
+        } else {
+            computeFinalClusterCenters(targetBandIndex, srcBandList, tileRectangles, op);
+        }
 
         clusterCentersComputed[targetBandIndex] = true;
     }
 
     /**
-     * Compute initial cluster centers for all 9 zones using H-Alpha
+     * Compute initial cluster centers for all 9 zones using H-Alpha, and cache the mean coherency matrix of every
+     * pixel for the following iterations
      *
      * @param srcBandList    the input bands
      * @param op             the operator
@@ -190,6 +198,9 @@ public class HAlphaWishart extends PolClassifierBase implements PolClassifier, Q
         final ThreadExecutor executor = new ThreadExecutor();
 
         try {
+            final MeanMatrixCache meanMatrixCache = new MeanMatrixCache(3, srcWidth, srcHeight);
+            meanMatrixCaches[targetBandIndex] = meanMatrixCache;
+
             for (final Rectangle rectangle : tileRectangles) {
                 op.checkIfCancelled();
 
@@ -217,15 +228,20 @@ public class HAlphaWishart extends PolClassifierBase implements PolClassifier, Q
                             dataBuffers[i] = sourceTiles[i].getDataBuffer();
                         }
                         final TileIndex srcIndex = new TileIndex(sourceTiles[0]);
+                        final WindowMatrixAccumulator meanCoherency = createMeanCoherencyMatrixAccumulator(
+                                halfWindowSizeX, halfWindowSizeY, srcWidth, srcHeight, sourceProductType,
+                                sourceTiles, dataBuffers);
 
                         for (int y = y0; y < yMax; ++y) {
                             srcIndex.calculateStride(y);
                             for (int x = x0; x < xMax; ++x) {
-                                if (noDataValue.equals(dataBuffers[0].getElemDoubleAt(srcIndex.getIndex(x))))
+                                if (noDataValue.equals(dataBuffers[0].getElemDoubleAt(srcIndex.getIndex(x)))) {
+                                    meanMatrixCache.putNoData(x, y);
                                     continue;
+                                }
 
-                                getMeanCoherencyMatrix(x, y, halfWindowSizeX, halfWindowSizeY, srcWidth, srcHeight,
-                                        sourceProductType, srcIndex, dataBuffers, Tr, Ti);
+                                meanCoherency.getMeanMatrix(x, y, Tr, Ti);
+                                meanMatrixCache.put(x, y, Tr, Ti);
 
                                 final hAAlpha.HAAlpha data = hAAlpha.computeHAAlpha(Tr, Ti);
                                 if (!Double.isNaN(data.entropy) && !Double.isNaN(data.anisotropy) && !Double.isNaN(data.alpha)) {
@@ -284,7 +300,7 @@ public class HAlphaWishart extends PolClassifierBase implements PolClassifier, Q
         final double[][][] centerRe = new double[9][3][3];
         final double[][][] centerIm = new double[9][3][3];
         boolean endIteration = false;
-        final Double noDataValue = srcBandList.srcBands[0].getNoDataValue();
+        final MeanMatrixCache meanMatrixCache = meanMatrixCaches[targetBandIndex];
 
         final StatusProgressMonitor status = new StatusProgressMonitor(StatusProgressMonitor.TYPE.SUBTASK);
         status.beginTask("Computing Final Cluster Centres... ", tileRectangles.length * maxIterations);
@@ -303,9 +319,6 @@ public class HAlphaWishart extends PolClassifierBase implements PolClassifier, Q
 
                     final ThreadRunnable worker = new ThreadRunnable() {
 
-                        final Tile[] sourceTiles = new Tile[srcBandList.srcBands.length];
-                        final ProductData[] dataBuffers = new ProductData[srcBandList.srcBands.length];
-
                         final double[][] Tr = new double[3][3];
                         final double[][] Ti = new double[3][3];
 
@@ -320,22 +333,11 @@ public class HAlphaWishart extends PolClassifierBase implements PolClassifier, Q
                             final int xMax = x0 + w;
                             final int yMax = y0 + h;
 
-                            final Rectangle sourceRectangle = getSourceRectangle(x0, y0, w, h);
-                            for (int i = 0; i < sourceTiles.length; ++i) {
-                                sourceTiles[i] = op.getSourceTile(srcBandList.srcBands[i], sourceRectangle);
-                                dataBuffers[i] = sourceTiles[i].getDataBuffer();
-                            }
-                            final TileIndex srcIndex = new TileIndex(sourceTiles[0]);
-
                             for (int y = y0; y < yMax; ++y) {
-                                srcIndex.calculateStride(y);
                                 for (int x = x0; x < xMax; ++x) {
-                                    if (noDataValue.equals(dataBuffers[0].getElemDoubleAt(srcIndex.getIndex(x))))
+                                    if (!meanMatrixCache.get(x, y, Tr, Ti))
                                         continue;
 
-                                    getMeanCoherencyMatrix(x, y, halfWindowSizeX, halfWindowSizeY, srcWidth, srcHeight,
-                                            sourceProductType, srcIndex, dataBuffers, Tr, Ti);
-
                                     synchronized (counter) {
                                         final int zoneIdx = findZoneIndex(Tr, Ti, clusterCenters[targetBandIndex]);
                                         counter[zoneIdx - 1]++;
@@ -349,6 +351,7 @@ public class HAlphaWishart extends PolClassifierBase implements PolClassifier, Q
 
                     status.worked(1);
                 }
+                executor.complete();
 
                 double diff = 0.0;
                 for (int z = 0; z < 9; ++z) {
@@ -374,8 +377,6 @@ public class HAlphaWishart extends PolClassifierBase implements PolClassifier, Q
                 }
             }
 
-            executor.complete();
-
         } catch (Throwable e) {
             OperatorUtils.catchOperatorException(op.getId() + " computeFinalClusterCenters ", e);
         } finally {
@@ -383,6 +384,94 @@ public class HAlphaWishart extends PolClassifierBase implements PolClassifier, Q
         }
     }
 
+    /**
+     * Compute final cluster centers for all 9 zones using mini-batch K-means clustering method
+     *
+     * @param targetBandIndex Target band index
+     * @param tileRectangles  Array of rectangles for all source tiles of the image
+     * @param op              the operator
+     */
+    private void computeMiniBatchClusterCenters(final int targetBandIndex, final Rectangle[] tileRectangles,
+                                                final PolarimetricClassificationOp op) {
+
+        final ClusterInfo[] centers = clusterCenters[targetBandIndex];
+        final MeanMatrixCache meanMatrixCache = meanMatrixCaches[targetBandIndex];
+        final MiniBatchWishart.Iterations iterations = miniBatch.startIterations(centers);
+        final int maxBatches = miniBatch.getMaxBatches(tileRectangles.length, maxIterations);
+        final ThreadExecutor executor = new ThreadExecutor();
+
+        final StatusProgressMonitor status = new StatusProgressMonitor(StatusProgressMonitor.TYPE.SUBTASK);
+        status.beginTask("Computing Mini-Batch Cluster Centres... ", maxBatches);
+
+        try {
+            final long startTime = System.currentTimeMillis();
+            for (int b = 0; b < maxBatches; ++b) {
+                final Rectangle[] batch = miniBatch.getBatch(tileRectangles);
+                final MiniBatchWishart.ClusterSums batchSums = new MiniBatchWishart.ClusterSums(9, 3);
+
+                for (final Rectangle rectangle : batch) {
+
+                    final ThreadRunnable worker = new ThreadRunnable() {
+
+                        final double[][] Tr = new double[3][3];
+                        final double[][] Ti = new double[3][3];
+                        final MiniBatchWishart.ClusterSums sums = new MiniBatchWishart.ClusterSums(9, 3);
+
+                        @Override
+                        public void process() {
+                            op.checkIfCancelled();
+
+                            final int xMax = rectangle.x + rectangle.width;
+                            final int yMax = rectangle.y + rectangle.height;
+
+                            for (int y = rectangle.y; y < yMax; ++y) {
+                                for (int x = rectangle.x; x < xMax; ++x) {
+                                    if (!meanMatrixCache.get(x, y, Tr, Ti))
+                                        continue;
+
+                                    final int zoneIdx = findZoneIndex(Tr, Ti, centers);
+                                    if (zoneIdx > 0) {
+                                        sums.add(zoneIdx - 1, Tr, Ti);
+                                    }
+                                }
+                            }
+                            batchSums.merge(sums);
+                        }
+                    };
+                    executor.execute(worker);
+                }
+                executor.complete();
+
+                final boolean converged = iterations.update(batchSums);
+                status.worked(1);
+                if (converged) {
+                    break;
+                }
+            }
+
+            SystemUtils.LOG.info(op.getId() + " mini-batch Wishart: " + iterations.getNumBatches() + " of " +
+                    maxBatches + " batches in " + (System.currentTimeMillis() - startTime) +
+                    " ms, centre movement " + String.format("%.3g", iterations.getMovement()));
+
+        } catch (Throwable e) {
+            OperatorUtils.catchOperatorException(op.getId() + " computeMiniBatchClusterCenters ", e);
+        } finally {
+            status.done();
+        }
+    }
+
+    @Override
+    public synchronized void dispose() {
+        if (meanMatrixCaches != null) {
+            for (MeanMatrixCache meanMatrixCache : meanMatrixCaches) {
+                if (meanMatrixCache != null) {
+                    meanMatrixCache.dispose();
+                }
+            }
+            meanMatrixCaches = null;
+        }
+    }
+
     /**
      * Find the nearest cluster for a given T3 matrix using Wishart distance
      *
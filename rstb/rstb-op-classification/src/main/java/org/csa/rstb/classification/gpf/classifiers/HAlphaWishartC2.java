@@ -18,6 +18,7 @@ package org.csa.rstb.classification.gpf.classifiers;
 import org.csa.rstb.classification.gpf.PolarimetricClassificationOp;
 import org.csa.rstb.polarimetric.gpf.support.DualPolProcessor;
 import org.csa.rstb.polarimetric.gpf.support.HaAlphaDescriptor;
+import org.csa.rstb.polarimetric.gpf.support.WindowMatrixAccumulator;
 import org.csa.rstb.polarimetric.gpf.decompositions.HAlphaC2;
 import org.esa.s1tbx.commons.polsar.PolBandUtils;
 import org.esa.snap.core.datamodel.Band;
@@ -47,6 +48,7 @@ public class HAlphaWishartC2 extends PolClassifierBase implements PolClassifier,
 
     protected ClusterInfo[][] clusterCenters = null;
     private boolean[] clusterCentersComputed = null;
+    private MeanMatrixCache[] meanMatrixCaches = null;
     private final int maxIterations;
     protected final boolean useLeeHAlphaPlaneDefinition;
 
@@ -117,34 +119,21 @@ public class HAlphaWishartC2 extends PolClassifierBase implements PolClassifier,
         final int maxX = x0 + w;
         //System.out.println("x0 = " + x0 + ", y0 = " + y0 + ", w = " + w + ", h = " + h);
 
-        final Tile[] sourceTiles = new Tile[srcBandList.srcBands.length];
-        final ProductData[] dataBuffers = new ProductData[srcBandList.srcBands.length];
-        final Rectangle sourceRectangle = getSourceRectangle(x0, y0, w, h);
-        for (int i = 0; i < sourceTiles.length; ++i) {
-            sourceTiles[i] = op.getSourceTile(srcBandList.srcBands[i], sourceRectangle);
-            dataBuffers[i] = sourceTiles[i].getDataBuffer();
-        }
         final ProductData targetData = targetTile.getDataBuffer();
         final TileIndex trgIndex = new TileIndex(targetTile);
-        final TileIndex srcIndex = new TileIndex(sourceTiles[0]);
-
-        final double noDataValue = srcBandList.srcBands[0].getNoDataValue();
+        final MeanMatrixCache meanMatrixCache = meanMatrixCaches[targetBandIndex];
 
         final double[][] Cr = new double[2][2];
         final double[][] Ci = new double[2][2];
 
         for (int y = y0; y < maxY; ++y) {
             trgIndex.calculateStride(y);
-            srcIndex.calculateStride(y);
             for (int x = x0; x < maxX; ++x) {
                 final int index = trgIndex.getIndex(x);
-                if (noData(noDataValue, dataBuffers, srcIndex.getIndex(x))) {
-                    targetData.setElemIntAt(index, NODATACLASS);
-                } else {
-                    getMeanCovarianceMatrixC2(x, y, halfWindowSizeX, halfWindowSizeY, srcWidth, srcHeight,
-                                                             sourceProductType, sourceTiles, dataBuffers, Cr, Ci);
-
+                if (meanMatrixCache.get(x, y, Cr, Ci)) {
                     targetData.setElemIntAt(index, findZoneIndex(Cr, Ci, clusterCenters[targetBandIndex]));
+                } else {
+                    targetData.setElemIntAt(index, NODATACLASS);
                 }
             }
         }
@@ -172,6 +161,7 @@ public class HAlphaWishartC2 extends PolClassifierBase implements PolClassifier,
             clusterCentersComputed = new boolean[numTargetBands];
             Arrays.fill(clusterCentersComputed, false);
             clusterCenters = new ClusterInfo[numTargetBands][9];
+            meanMatrixCaches = new MeanMatrixCache[numTargetBands];
         }
 
         //final Dimension tileSize = ImageManager.getPreferredTileSize(sourceProduct);
@@ -187,7 +177,8 @@ public class HAlphaWishartC2 extends PolClassifierBase implements PolClassifier,
     }
 
     /**
-     * Compute initial cluster centers for all 9 zones using H-Alpha
+     * Compute initial cluster centers for all 9 zones using H-Alpha, and cache the mean covariance matrix of every
+     * pixel for the following iterations
      *
      * @param targetBandIndex Target band index
      * @param srcBandList     the input bands
@@ -212,6 +203,9 @@ public class HAlphaWishartC2 extends PolClassifierBase implements PolClassifier,
         final ThreadExecutor executor = new ThreadExecutor();
 
         try {
+            final MeanMatrixCache meanMatrixCache = new MeanMatrixCache(2, srcWidth, srcHeight);
+            meanMatrixCaches[targetBandIndex] = meanMatrixCache;
+
             for (final Rectangle rectangle : tileRectangles) {
                 op.checkIfCancelled();
 
@@ -236,15 +230,20 @@ public class HAlphaWishartC2 extends PolClassifierBase implements PolClassifier,
                             dataBuffers[i] = sourceTiles[i].getDataBuffer();
                         }
                         final TileIndex srcIndex = new TileIndex(sourceTiles[0]);
+                        final WindowMatrixAccumulator meanCovariance = createMeanCovarianceMatrixC2Accumulator(
+                                halfWindowSizeX, halfWindowSizeY, srcWidth, srcHeight, sourceProductType,
+                                sourceTiles, dataBuffers);
 
                         for (int y = y0; y < yMax; ++y) {
                             srcIndex.calculateStride(y);
                             for (int x = x0; x < xMax; ++x) {
-                                if (noData(noDataValue, dataBuffers, srcIndex.getIndex(x)))
+                                if (noData(noDataValue, dataBuffers, srcIndex.getIndex(x))) {
+                                    meanMatrixCache.putNoData(x, y);
                                     continue;
+                                }
 
-                                getMeanCovarianceMatrixC2(x, y, halfWindowSizeX, halfWindowSizeY, srcWidth,
-                                        srcHeight, sourceProductType, sourceTiles, dataBuffers, Cr, Ci);
+                                meanCovariance.getMeanMatrix(x, y, Cr, Ci);
+                                meanMatrixCache.put(x, y, Cr, Ci);
 
                                 HAlphaC2.HAAlpha data = HAlphaC2.computeHAAlphaByC2(Cr, Ci);
 
@@ -305,7 +304,7 @@ public class HAlphaWishartC2 extends PolClassifierBase implements PolClassifier,
         final double[][][] centerRe = new double[9][2][2];
         final double[][][] centerIm = new double[9][2][2];
         boolean endIteration = false;
-        final double noDataValue = srcBandList.srcBands[0].getNoDataValue();
+        final MeanMatrixCache meanMatrixCache = meanMatrixCaches[targetBandIndex];
 
         final StatusProgressMonitor status = new StatusProgressMonitor(StatusProgressMonitor.TYPE.SUBTASK);
         status.beginTask("Computing Final Cluster Centres... ", tileRectangles.length * maxIterations);
@@ -324,9 +323,6 @@ public class HAlphaWishartC2 extends PolClassifierBase implements PolClassifier,
 
                     final ThreadRunnable worker = new ThreadRunnable() {
 
-                        final Tile[] sourceTiles = new Tile[srcBandList.srcBands.length];
-                        final ProductData[] dataBuffers = new ProductData[srcBandList.srcBands.length];
-
                         final double[][] Cr = new double[2][2];
                         final double[][] Ci = new double[2][2];
 
@@ -341,22 +337,11 @@ public class HAlphaWishartC2 extends PolClassifierBase implements PolClassifier,
                             final int xMax = x0 + w;
                             final int yMax = y0 + h;
 
-                            final Rectangle sourceRectangle = getSourceRectangle(x0, y0, w, h);
-                            for (int i = 0; i < sourceTiles.length; ++i) {
-                                sourceTiles[i] = op.getSourceTile(srcBandList.srcBands[i], sourceRectangle);
-                                dataBuffers[i] = sourceTiles[i].getDataBuffer();
-                            }
-                            final TileIndex srcIndex = new TileIndex(sourceTiles[0]);
-
                             for (int y = y0; y < yMax; ++y) {
-                                srcIndex.calculateStride(y);
                                 for (int x = x0; x < xMax; ++x) {
-                                    if (noData(noDataValue, dataBuffers, srcIndex.getIndex(x)))
+                                    if (!meanMatrixCache.get(x, y, Cr, Ci))
                                         continue;
 
-                                    getMeanCovarianceMatrixC2(x, y, halfWindowSizeX, halfWindowSizeY, srcWidth,
-                                            srcHeight, sourceProductType, sourceTiles, dataBuffers, Cr, Ci);
-
                                     synchronized (counter) {
                                         final int zoneIdx = findZoneIndex(Cr, Ci, clusterCenters[targetBandIndex]);
                                         counter[zoneIdx - 1]++;
@@ -370,6 +355,7 @@ public class HAlphaWishartC2 extends PolClassifierBase implements PolClassifier,
 
                     status.worked(1);
                 }
+                executor.complete();
 
                 double diff = 0.0;
                 for (int z = 0; z < 9; ++z) {
@@ -394,7 +380,6 @@ public class HAlphaWishartC2 extends PolClassifierBase implements PolClassifier,
                     endIteration = true;
                 }
             }
-            executor.complete();
 
         } catch (Throwable e) {
             OperatorUtils.catchOperatorException(op.getId() + " computeFinalClusterCenters ", e);
@@ -403,6 +388,18 @@ public class HAlphaWishartC2 extends PolClassifierBase implements PolClassifier,
         }
     }
 
+    @Override
+    public synchronized void dispose() {
+        if (meanMatrixCaches != null) {
+            for (MeanMatrixCache meanMatrixCache : meanMatrixCaches) {
+                if (meanMatrixCache != null) {
+                    meanMatrixCache.dispose();
+                }
+            }
+            meanMatrixCaches = null;
+        }
+    }
+
     /**
      * Find the nearest cluster for a given C2 matrix using Wishart distance
      *
@@ -0,0 +1,270 @@
+/*
+ * Copyright (C) 2021 SkyWatch Space Applications Inc. https://www.skywatch.com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.csa.rstb.classification.gpf.classifiers;
+
+import org.esa.snap.core.util.SystemUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cache of the windowed mean Hermitian matrix (T3, C3 or C2) of every pixel of an image, so that the iterations of
+ * the Wishart classifiers do not read the source tiles and average the windows again.
+ * <p>
+ * A matrix is stored in single precision as its dim real diagonal elements followed by the real and imaginary parts
+ * of the elements above the diagonal, dim * dim floats per pixel. The image is stored in blocks of 256 x 256 pixels,
+ * in memory if the cache takes less than half of the free heap and otherwise in a temporary file. The file is
+ * mapped in regions of up to 1 GB holding many blocks, so that the number of mappings stays far below the limit
+ * of the operating system (vm.max_map_count on Linux) for any image size.
+ * <p>
+ * Workers may fill and read different pixels concurrently; matrices written by one worker are visible to another
+ * once the ThreadExecutor has completed. The cache must not be used during or after dispose.
+ */
+public class MeanMatrixCache {
+
+    private static final int BLOCK_SIZE = 256;
+    private static final long MAX_REGION_SIZE = 1L << 30;
+
+    private final int dim;
+    private final int pixelSize;
+    private final int width;
+    private final int height;
+    private final int numBlocksX;
+    private final FloatBuffer[] blocks;
+
+    private File file = null;
+    private RandomAccessFile raf = null;
+    private List<MappedByteBuffer> regions = null;
+
+    /**
+     * @param dim    The dimension of the matrices.
+     * @param width  The image width.
+     * @param height The image height.
+     * @throws IOException if the temporary file cannot be created
+     */
+    public MeanMatrixCache(final int dim, final int width, final int height) throws IOException {
+        this(dim, width, height, (long) width * height * dim * dim * 4L > getFreeMemory() / 2, MAX_REGION_SIZE);
+    }
+
+    MeanMatrixCache(final int dim, final int width, final int height, final boolean useFile,
+                    final long maxRegionSize) throws IOException {
+        this.dim = dim;
+        this.pixelSize = dim * dim;
+        this.width = width;
+        this.height = height;
+        this.numBlocksX = (width + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        final int numBlocksY = (height + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        blocks = new FloatBuffer[numBlocksX * numBlocksY];
+
+        final int[] blockLengths = new int[blocks.length];
+        for (int by = 0; by < numBlocksY; ++by) {
+            for (int bx = 0; bx < numBlocksX; ++bx) {
+                final int w = Math.min(BLOCK_SIZE, width - bx * BLOCK_SIZE);
+                final int h = Math.min(BLOCK_SIZE, height - by * BLOCK_SIZE);
+                blockLengths[by * numBlocksX + bx] = w * h * pixelSize;
+            }
+        }
+
+        if (!useFile) {
+            for (int i = 0; i < blocks.length; ++i) {
+                blocks[i] = FloatBuffer.wrap(new float[blockLengths[i]]);
+            }
+            return;
+        }
+
+        final long cacheSize = (long) width * height * pixelSize * 4L;
+        final File cacheDir = new File(SystemUtils.getCacheDir(), "temp");
+        if (!cacheDir.exists() && !cacheDir.mkdirs()) {
+            throw new IOException("Failed to create directory '" + cacheDir + "'.");
+        }
+        file = File.createTempFile("meanMatrix", ".cache", cacheDir);
+        file.deleteOnExit();
+        raf = new RandomAccessFile(file, "rw");
+        raf.setLength(cacheSize);
+        final FileChannel channel = raf.getChannel();
+
+        // consecutive blocks share a region, each block is a view of its part of the region
+        regions = new ArrayList<>();
+        long position = 0;
+        int first = 0;
+        while (first < blocks.length) {
+            long regionSize = 0;
+            int last = first;
+            while (last < blocks.length && (last == first || regionSize + blockLengths[last] * 4L <= maxRegionSize)) {
+                regionSize += blockLengths[last++] * 4L;
+            }
+            final MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_WRITE, position, regionSize);
+            regions.add(region);
+            int offset = 0;
+            for (int i = first; i < last; ++i) {
+                final ByteBuffer view = region.duplicate();
+                view.limit(offset + blockLengths[i] * 4);
+                view.position(offset);
+                blocks[i] = view.slice().order(ByteOrder.nativeOrder()).asFloatBuffer();
+                offset += blockLengths[i] * 4;
+            }
+            position += regionSize;
+            first = last;
+        }
+        SystemUtils.LOG.info("MeanMatrixCache: using " + file + " for " + cacheSize / (1024 * 1024) + " MB in " +
+                regions.size() + " mapped regions");
+    }
+
+    private static long getFreeMemory() {
+        final Runtime runtime = Runtime.getRuntime();
+        return runtime.maxMemory() - (runtime.totalMemory() - runtime.freeMemory());
+    }
+
+    private FloatBuffer getBlock(final int x, final int y) {
+        return blocks[(y / BLOCK_SIZE) * numBlocksX + x / BLOCK_SIZE];
+    }
+
+    private int getOffset(final int x, final int y) {
+        final int blockWidth = Math.min(BLOCK_SIZE, width - (x / BLOCK_SIZE) * BLOCK_SIZE);
+        return ((y % BLOCK_SIZE) * blockWidth + x % BLOCK_SIZE) * pixelSize;
+    }
+
+    /**
+     * Store the mean matrix of a pixel.
+     *
+     * @param x  X coordinate of the pixel.
+     * @param y  Y coordinate of the pixel.
+     * @param Mr The real part of the matrix.
+     * @param Mi The imaginary part of the matrix.
+     */
+    public void put(final int x, final int y, final double[][] Mr, final double[][] Mi) {
+        final FloatBuffer block = getBlock(x, y);
+        int k = getOffset(x, y);
+        for (int i = 0; i < dim; ++i) {
+            block.put(k++, (float) Mr[i][i]);
+        }
+        for (int i = 0; i < dim; ++i) {
+            for (int j = i + 1; j < dim; ++j) {
+                block.put(k++, (float) Mr[i][j]);
+                block.put(k++, (float) Mi[i][j]);
+            }
+        }
+    }
+
+    /**
+     * Mark a pixel as no data.
+     *
+     * @param x X coordinate of the pixel.
+     * @param y Y coordinate of the pixel.
+     */
+    public void putNoData(final int x, final int y) {
+        getBlock(x, y).put(getOffset(x, y), Float.NaN);
+    }
+
+    /**
+     * Get the mean matrix of a pixel.
+     *
+     * @param x  X coordinate of the pixel.
+     * @param y  Y coordinate of the pixel.
+     * @param Mr The real part of the matrix.
+     * @param Mi The imaginary part of the matrix.
+     * @return false if the pixel is no data, in which case the matrix is not set
+     */
+    public boolean get(final int x, final int y, final double[][] Mr, final double[][] Mi) {
+        final FloatBuffer block = getBlock(x, y);
+        int k = getOffset(x, y);
+        if (Float.isNaN(block.get(k))) {
+            return false;
+        }
+        for (int i = 0; i < dim; ++i) {
+            Mr[i][i] = block.get(k++);
+            Mi[i][i] = 0.0;
+        }
+        for (int i = 0; i < dim; ++i) {
+            for (int j = i + 1; j < dim; ++j) {
+                Mr[i][j] = block.get(k++);
+                Mi[i][j] = block.get(k++);
+                Mr[j][i] = Mr[i][j];
+                Mi[j][i] = -Mi[i][j];
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Release the cache and delete its temporary file, if any.
+     */
+    public synchronized void dispose() {
+        for (int i = 0; i < blocks.length; ++i) {
+            blocks[i] = null;
+        }
+        if (raf != null) {
+            for (MappedByteBuffer region : regions) {
+                unmap(region);
+            }
+            regions = null;
+            try {
+                raf.close();
+            } catch (IOException e) {
+                SystemUtils.LOG.warning("MeanMatrixCache: unable to close " + file + ": " + e.getMessage());
+            }
+            raf = null;
+            // a region that could not be unmapped holds the file until it is collected, otherwise until exit
+            if (!file.delete()) {
+                SystemUtils.LOG.fine("MeanMatrixCache: " + file + " will be deleted on exit");
+            }
+        }
+    }
+
+    boolean isFileBacked() {
+        return raf != null;
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    /**
+     * Release the mapping of a region now instead of when the buffer is collected.
+     */
+    private static void unmap(final MappedByteBuffer region) {
+        try {
+            try {
+                // Java 9 and later
+                final Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+                final Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+                final Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+                theUnsafe.setAccessible(true);
+                invokeCleaner.invoke(theUnsafe.get(null), region);
+            } catch (NoSuchMethodException e) {
+                // Java 8
+                final Method cleanerMethod = region.getClass().getMethod("cleaner");
+                cleanerMethod.setAccessible(true);
+                final Object cleaner = cleanerMethod.invoke(region);
+                if (cleaner != null) {
+                    cleaner.getClass().getMethod("clean").invoke(cleaner);
+                }
+            }
+        } catch (Exception e) {
+            SystemUtils.LOG.fine("MeanMatrixCache: unable to unmap a region: " + e.getMessage());
+        }
+    }
+}
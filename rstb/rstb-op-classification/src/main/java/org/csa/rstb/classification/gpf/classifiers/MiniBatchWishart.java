@@ -0,0 +1,293 @@
+/*
+ * Copyright (C) 2021 SkyWatch Space Applications Inc. https://www.skywatch.com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.csa.rstb.classification.gpf.classifiers;
+
+import org.csa.rstb.classification.gpf.classifiers.PolClassifierBase.ClusterInfo;
+
+import java.awt.*;
+import java.util.LinkedHashSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Mini-batch K-means for the Wishart classifiers.
+ * <p>
+ * Each batch is a fixed number of tiles drawn at random from the image. The pixels of a batch are assigned to their
+ * nearest cluster and summed per worker, and each cluster center then moves towards the mean of its batch pixels with
+ * a learning rate of the batch count over the number of pixels assigned to the cluster so far. The movement of the
+ * centers is measured over each group of a few batches, and the iterations stop as soon as a group moves them by less
+ * than the tolerance, relative to their norm, without reading the rest of the image.
+ * <p>
+ * [1] D. Sculley, "Web-Scale K-Means Clustering", Proceedings of the 19th International Conference on World Wide
+ * Web, 2010.
+ */
+public class MiniBatchWishart {
+
+    private static final long SEED = 42L;
+
+    // number of batches over which the movement of the centers is measured
+    static final int BATCHES_PER_CHECK = 4;
+
+    private final int batchSize;
+    private final double tolerance;
+    private final Random random = new Random(SEED);
+
+    /**
+     * @param batchSize The number of tiles in a batch.
+     * @param tolerance The relative movement of the centers over a group of batches below which the iterations stop.
+     */
+    public MiniBatchWishart(final int batchSize, final double tolerance) {
+        this.batchSize = Math.max(batchSize, 1);
+        this.tolerance = tolerance;
+    }
+
+    /**
+     * Draw the tiles of a batch at random, each tile at most once.
+     *
+     * @param tileRectangles Array of rectangles for all source tiles of the image
+     * @return the batch, all the tiles if there are no more than the batch size
+     */
+    public Rectangle[] getBatch(final Rectangle[] tileRectangles) {
+
+        final int size = Math.min(batchSize, tileRectangles.length);
+        final Set<Integer> indices = new LinkedHashSet<>(size * 2);
+        while (indices.size() < size) {
+            indices.add(random.nextInt(tileRectangles.length));
+        }
+
+        final Rectangle[] batch = new Rectangle[size];
+        int i = 0;
+        for (int index : indices) {
+            batch[i++] = tileRectangles[index];
+        }
+        return batch;
+    }
+
+    /**
+     * @param numTiles  The number of tiles of the image.
+     * @param numPasses The number of passes over the image.
+     * @return the maximum number of batches, reading as many tiles as the passes over the image
+     */
+    public int getMaxBatches(final int numTiles, final int numPasses) {
+        return Math.max(numPasses, 0) * ((numTiles + batchSize - 1) / batchSize);
+    }
+
+    /**
+     * @param movement The relative movement of the centers over a group of batches.
+     * @return true if the iterations should stop
+     */
+    public boolean hasConverged(final double movement) {
+        return movement < tolerance;
+    }
+
+    /**
+     * Start the iterations moving the cluster centers.
+     *
+     * @param centers The cluster centers, null for empty clusters.
+     * @return the iterations
+     */
+    public Iterations startIterations(final ClusterInfo[] centers) {
+        return new Iterations(centers);
+    }
+
+    /**
+     * Copy the centers, to measure their movement over a group of batches.
+     *
+     * @param centers The cluster centers, null for empty clusters.
+     * @return the real then imaginary parts of each center
+     */
+    public static double[][][][] copyCenters(final ClusterInfo[] centers) {
+
+        final double[][][][] copy = new double[centers.length][][][];
+        for (int c = 0; c < centers.length; ++c) {
+            if (centers[c] != null && centers[c].centerRe != null) {
+                copy[c] = new double[][][]{copyMatrix(centers[c].centerRe), copyMatrix(centers[c].centerIm)};
+            }
+        }
+        return copy;
+    }
+
+    private static double[][] copyMatrix(final double[][] m) {
+        final double[][] copy = new double[m.length][];
+        for (int i = 0; i < m.length; ++i) {
+            copy[i] = m[i].clone();
+        }
+        return copy;
+    }
+
+    /**
+     * Get the movement of the centers since they were copied.
+     *
+     * @param centers  The cluster centers.
+     * @param previous The centers copied by copyCenters.
+     * @return the Frobenius norm of the center movements over the norm of the centers
+     */
+    public static double getMovement(final ClusterInfo[] centers, final double[][][][] previous) {
+
+        double diff = 0.0, norm = 0.0;
+        for (int c = 0; c < centers.length; ++c) {
+            if (previous[c] == null) {
+                continue;
+            }
+            final double[][] re = centers[c].centerRe;
+            final double[][] im = centers[c].centerIm;
+            for (int i = 0; i < re.length; ++i) {
+                for (int j = 0; j < re.length; ++j) {
+                    final double dr = re[i][j] - previous[c][0][i][j];
+                    final double di = im[i][j] - previous[c][1][i][j];
+                    diff += dr * dr + di * di;
+                    norm += re[i][j] * re[i][j] + im[i][j] * im[i][j];
+                }
+            }
+        }
+        return norm > 0.0 ? Math.sqrt(diff / norm) : 0.0;
+    }
+
+    /**
+     * Move each center towards the mean of the pixels of a batch assigned to it.
+     *
+     * @param centers     The cluster centers, null for empty clusters.
+     * @param totalCounts The number of pixels assigned to each cluster by the previous batches, updated.
+     * @param batch       The sums of the batch.
+     */
+    public static void updateCenters(final ClusterInfo[] centers, final long[] totalCounts, final ClusterSums batch) {
+
+        final int dim = batch.dim;
+        final double[][] centerRe = new double[dim][dim];
+        final double[][] centerIm = new double[dim][dim];
+        for (int c = 0; c < centers.length; ++c) {
+            final int count = batch.counts[c];
+            if (count == 0 || centers[c] == null) {
+                continue;
+            }
+            totalCounts[c] += count;
+            final double rate = (double) count / totalCounts[c];
+            for (int i = 0; i < dim; ++i) {
+                for (int j = 0; j < dim; ++j) {
+                    final double meanRe = batch.sumRe[c][i][j] / count;
+                    final double meanIm = batch.sumIm[c][i][j] / count;
+                    centerRe[i][j] = centers[c].centerRe[i][j] + rate * (meanRe - centers[c].centerRe[i][j]);
+                    centerIm[i][j] = centers[c].centerIm[i][j] + rate * (meanIm - centers[c].centerIm[i][j]);
+                }
+            }
+            centers[c].setClusterCenter(centers[c].zoneIndex, centerRe, centerIm,
+                    (int) Math.min(totalCounts[c], Integer.MAX_VALUE));
+        }
+    }
+
+    /**
+     * The cluster centers moved by the batches, with their movement over each group of batches.
+     */
+    public class Iterations {
+        private final ClusterInfo[] centers;
+        private final long[] totalCounts;
+        private double[][][][] previousCenters;
+        private int numBatches = 0;
+        private long groupCount = 0;
+        private double movement = Double.NaN;
+
+        private Iterations(final ClusterInfo[] centers) {
+            this.centers = centers;
+            this.totalCounts = new long[centers.length];
+            this.previousCenters = copyCenters(centers);
+        }
+
+        /**
+         * Move the centers towards the mean of the pixels of a batch.
+         *
+         * @param batch The sums of the batch.
+         * @return true if the group of batches ending with this one moved the centers by less than the tolerance
+         */
+        public boolean update(final ClusterSums batch) {
+
+            updateCenters(centers, totalCounts, batch);
+            for (int c = 0; c < centers.length; ++c) {
+                groupCount += batch.counts[c];
+            }
+            if (++numBatches % BATCHES_PER_CHECK != 0) {
+                return false;
+            }
+
+            movement = MiniBatchWishart.getMovement(centers, previousCenters);
+            previousCenters = copyCenters(centers);
+
+            // a group of batches without valid pixels does not show convergence
+            final boolean converged = groupCount > 0 && hasConverged(movement);
+            groupCount = 0;
+            return converged;
+        }
+
+        public int getNumBatches() {
+            return numBatches;
+        }
+
+        /**
+         * @return the relative movement of the centers over the last group of batches, NaN before the first group
+         */
+        public double getMovement() {
+            return movement;
+        }
+    }
+
+    /**
+     * Per cluster sums of the matrices of the pixels of a batch. Each worker fills its own sums, which are then
+     * merged into the sums of the batch.
+     */
+    public static class ClusterSums {
+        private final int dim;
+        private final double[][][] sumRe;
+        private final double[][][] sumIm;
+        private final int[] counts;
+
+        public ClusterSums(final int numClusters, final int dim) {
+            this.dim = dim;
+            this.sumRe = new double[numClusters][dim][dim];
+            this.sumIm = new double[numClusters][dim][dim];
+            this.counts = new int[numClusters];
+        }
+
+        public void add(final int cluster, final double[][] Mr, final double[][] Mi) {
+            final double[][] re = sumRe[cluster];
+            final double[][] im = sumIm[cluster];
+            for (int i = 0; i < dim; ++i) {
+                for (int j = 0; j < dim; ++j) {
+                    re[i][j] += Mr[i][j];
+                    im[i][j] += Mi[i][j];
+                }
+            }
+            counts[cluster]++;
+        }
+
+        public synchronized void merge(final ClusterSums sums) {
+            for (int c = 0; c < counts.length; ++c) {
+                if (sums.counts[c] == 0) {
+                    continue;
+                }
+                for (int i = 0; i < dim; ++i) {
+                    for (int j = 0; j < dim; ++j) {
+                        sumRe[c][i][j] += sums.sumRe[c][i][j];
+                        sumIm[c][i][j] += sums.sumIm[c][i][j];
+                    }
+                }
+                counts[c] += sums.counts[c];
+            }
+        }
+
+        public int getCount(final int cluster) {
+            return counts[cluster];
+        }
+    }
+}
@@ -51,4 +51,9 @@ public interface PolClassifier {
      * @throws OperatorException If an error occurs during computation of the filtered value.
      */
     void computeTile(final Band targetBand, final Tile targetTile);
+
+    /**
+     * Release the resources held by the classifier once the target product has been written.
+     */
+    void dispose();
 }
@@ -59,6 +59,9 @@ public abstract class PolClassifierBase {
         return true;
     }
 
+    public void dispose() {
+    }
+
     /**
      * returns the number of classes
      *
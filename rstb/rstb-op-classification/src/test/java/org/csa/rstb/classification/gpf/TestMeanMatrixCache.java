@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2021 SkyWatch Space Applications Inc. https://www.skywatch.com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.csa.rstb.classification.gpf;
+
+import org.csa.rstb.classification.gpf.classifiers.MeanMatrixCache;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit test for MeanMatrixCache.
+ */
+public class TestMeanMatrixCache {
+
+    @Test
+    public void testPutGet() throws Exception {
+        // not a multiple of the block size, so that the last blocks are partial
+        final int width = 300, height = 270;
+        for (int dim = 2; dim <= 3; ++dim) {
+            final MeanMatrixCache cache = new MeanMatrixCache(dim, width, height);
+            final double[][] mr = new double[dim][dim];
+            final double[][] mi = new double[dim][dim];
+
+            for (int y = 0; y < height; ++y) {
+                for (int x = 0; x < width; ++x) {
+                    if ((x + y) % 13 == 0) {
+                        cache.putNoData(x, y);
+                    } else {
+                        getMatrix(dim, x, y, mr, mi);
+                        cache.put(x, y, mr, mi);
+                    }
+                }
+            }
+
+            final double[][] expectedRe = new double[dim][dim];
+            final double[][] expectedIm = new double[dim][dim];
+            for (int y = 0; y < height; ++y) {
+                for (int x = 0; x < width; ++x) {
+                    if ((x + y) % 13 == 0) {
+                        assertFalse(cache.get(x, y, mr, mi));
+                        continue;
+                    }
+                    assertTrue(cache.get(x, y, mr, mi));
+                    getMatrix(dim, x, y, expectedRe, expectedIm);
+                    for (int i = 0; i < dim; ++i) {
+                        for (int j = 0; j < dim; ++j) {
+                            assertEquals(expectedRe[i][j], mr[i][j], 1e-5);
+                            assertEquals(expectedIm[i][j], mi[i][j], 1e-5);
+                        }
+                    }
+                }
+            }
+            cache.dispose();
+        }
+    }
+
+    // a Hermitian matrix
+    private static void getMatrix(final int dim, final int x, final int y, final double[][] mr, final double[][] mi) {
+        for (int i = 0; i < dim; ++i) {
+            mr[i][i] = x * 0.25 + y + i;
+            mi[i][i] = 0.0;
+            for (int j = i + 1; j < dim; ++j) {
+                mr[i][j] = mr[j][i] = Math.sin(x * 0.1 + j - y);
+                mi[i][j] = Math.cos(y * 0.3 - i * x);
+                mi[j][i] = -mi[i][j];
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2021 SkyWatch Space Applications Inc. https://www.skywatch.com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.csa.rstb.classification.gpf.classifiers;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit test for MeanMatrixCache.
+ */
+public class TestMeanMatrixCache {
+
+    private static final int WIDTH = 600;
+    private static final int HEIGHT = 530;
+
+    private static void fill(final MeanMatrixCache cache, final int dim) {
+        final Random random = new Random(3);
+        final double[][] Mr = new double[dim][dim];
+        final double[][] Mi = new double[dim][dim];
+        for (int y = 0; y < HEIGHT; ++y) {
+            for (int x = 0; x < WIDTH; ++x) {
+                if ((x + y) % 97 == 0) {
+                    cache.putNoData(x, y);
+                    continue;
+                }
+                for (int i = 0; i < dim; ++i) {
+                    for (int j = i; j < dim; ++j) {
+                        Mr[i][j] = random.nextFloat();
+                        Mi[i][j] = i == j ? 0.0 : random.nextFloat();
+                    }
+                }
+                cache.put(x, y, Mr, Mi);
+            }
+        }
+    }
+
+    private static void testSameMatrices(final int dim) throws Exception {
+        final MeanMatrixCache memoryCache = new MeanMatrixCache(dim, WIDTH, HEIGHT, false, 0);
+        // regions of two full blocks, blocks of the last column and row are smaller
+        final long regionSize = 2L * 256 * 256 * dim * dim * 4;
+        final MeanMatrixCache fileCache = new MeanMatrixCache(dim, WIDTH, HEIGHT, true, regionSize);
+        assertFalse(memoryCache.isFileBacked());
+        assertTrue(fileCache.isFileBacked());
+        final File file = fileCache.getFile();
+        try {
+            fill(memoryCache, dim);
+            fill(fileCache, dim);
+
+            final double[][] expectedRe = new double[dim][dim];
+            final double[][] expectedIm = new double[dim][dim];
+            final double[][] Mr = new double[dim][dim];
+            final double[][] Mi = new double[dim][dim];
+            for (int y = 0; y < HEIGHT; ++y) {
+                for (int x = 0; x < WIDTH; ++x) {
+                    final boolean valid = memoryCache.get(x, y, expectedRe, expectedIm);
+                    assertEquals(valid, fileCache.get(x, y, Mr, Mi));
+                    assertEquals((x + y) % 97 != 0, valid);
+                    if (valid) {
+                        for (int i = 0; i < dim; ++i) {
+                            assertArrayEquals(expectedRe[i], Mr[i], 0.0);
+                            assertArrayEquals(expectedIm[i], Mi[i], 0.0);
+                        }
+                        assertEquals(Mr[0][1], Mr[1][0], 0.0);
+                        assertEquals(-Mi[0][1], Mi[1][0], 0.0);
+                    }
+                }
+            }
+        } finally {
+            memoryCache.dispose();
+            fileCache.dispose();
+        }
+
+        // the file is unmapped and deleted at once
+        assertFalse(file.exists());
+    }
+
+    @Test
+    public void testFileBackedT3() throws Exception {
+        testSameMatrices(3);
+    }
+
+    @Test
+    public void testFileBackedC2() throws Exception {
+        testSameMatrices(2);
+    }
+}
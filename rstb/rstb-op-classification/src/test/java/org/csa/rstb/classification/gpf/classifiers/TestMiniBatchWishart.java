@@ -0,0 +1,189 @@
+/*
+ * Copyright (C) 2021 SkyWatch Space Applications Inc. https://www.skywatch.com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.csa.rstb.classification.gpf.classifiers;
+
+import org.csa.rstb.classification.gpf.classifiers.PolClassifierBase.ClusterInfo;
+import org.junit.Test;
+
+import java.awt.*;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit test for MiniBatchWishart.
+ */
+public class TestMiniBatchWishart {
+
+    private static ClusterInfo createCenter(final double diagonal) {
+        final ClusterInfo center = new ClusterInfo();
+        center.setClusterCenter(0, new double[][]{{diagonal, 0.0}, {0.0, diagonal}}, new double[2][2], 1);
+        return center;
+    }
+
+    private static Rectangle[] createTiles(final int numTiles) {
+        final Rectangle[] tiles = new Rectangle[numTiles];
+        for (int i = 0; i < numTiles; ++i) {
+            tiles[i] = new Rectangle(i * 256, 0, 256, 256);
+        }
+        return tiles;
+    }
+
+    @Test
+    public void testGetBatch() {
+        final Rectangle[] tiles = createTiles(10);
+        final Rectangle[] original = tiles.clone();
+        final Set<Rectangle> tileSet = new HashSet<>(Arrays.asList(tiles));
+
+        final MiniBatchWishart miniBatch = new MiniBatchWishart(3, 0.001);
+        final MiniBatchWishart miniBatch2 = new MiniBatchWishart(3, 0.001);
+        for (int b = 0; b < 20; ++b) {
+            final Rectangle[] batch = miniBatch.getBatch(tiles);
+            assertEquals(3, batch.length);
+
+            // distinct tiles of the image
+            final Set<Rectangle> seen = new HashSet<>();
+            for (Rectangle tile : batch) {
+                assertTrue(tileSet.contains(tile));
+                assertTrue(seen.add(tile));
+            }
+
+            // the same seeded batches for every classifier
+            assertArrayEquals(batch, miniBatch2.getBatch(tiles));
+        }
+        assertArrayEquals(original, tiles);
+
+        // no more tiles than the image
+        final Rectangle[] batch = new MiniBatchWishart(16, 0.001).getBatch(tiles);
+        assertEquals(tiles.length, batch.length);
+        assertEquals(tileSet, new HashSet<>(Arrays.asList(batch)));
+    }
+
+    @Test
+    public void testGetMaxBatches() {
+        final MiniBatchWishart miniBatch = new MiniBatchWishart(3, 0.001);
+        assertEquals(4, miniBatch.getMaxBatches(10, 1));
+        assertEquals(12, miniBatch.getMaxBatches(10, 3));
+        assertEquals(0, miniBatch.getMaxBatches(10, 0));
+    }
+
+    @Test
+    public void testIterationsConverge() {
+        final ClusterInfo[] centers = {createCenter(1.0), createCenter(3.0)};
+        final MiniBatchWishart.Iterations iterations = new MiniBatchWishart(16, 0.001).startIterations(centers);
+
+        // batches at the centers move them by less than the tolerance
+        for (int b = 1; b <= MiniBatchWishart.BATCHES_PER_CHECK; ++b) {
+            final MiniBatchWishart.ClusterSums batch = new MiniBatchWishart.ClusterSums(2, 2);
+            batch.add(0, new double[][]{{1.0, 0.0}, {0.0, 1.0}}, new double[2][2]);
+            batch.add(1, new double[][]{{3.0, 0.0}, {0.0, 3.0}}, new double[2][2]);
+
+            // the movement is only measured at the end of the group
+            assertEquals(b == MiniBatchWishart.BATCHES_PER_CHECK, iterations.update(batch));
+            assertEquals(b, iterations.getNumBatches());
+        }
+        assertEquals(0.0, iterations.getMovement(), 0.0);
+    }
+
+    @Test
+    public void testIterationsMoving() {
+        final ClusterInfo[] centers = {createCenter(1.0), createCenter(3.0)};
+        final MiniBatchWishart.Iterations iterations = new MiniBatchWishart(16, 0.001).startIterations(centers);
+        assertTrue(Double.isNaN(iterations.getMovement()));
+
+        for (int b = 0; b < MiniBatchWishart.BATCHES_PER_CHECK; ++b) {
+            final MiniBatchWishart.ClusterSums batch = new MiniBatchWishart.ClusterSums(2, 2);
+            batch.add(0, new double[][]{{2.0, 0.0}, {0.0, 2.0}}, new double[2][2]);
+            assertFalse(iterations.update(batch));
+        }
+        assertTrue(iterations.getMovement() > 0.001);
+        assertEquals(2.0, centers[0].centerRe[0][0], 1e-12);
+    }
+
+    @Test
+    public void testIterationsWithoutPixels() {
+        final ClusterInfo[] centers = {createCenter(1.0), createCenter(3.0)};
+        final MiniBatchWishart.Iterations iterations = new MiniBatchWishart(16, 0.001).startIterations(centers);
+
+        // batches of tiles without valid pixels do not stop the iterations
+        for (int b = 0; b < 2 * MiniBatchWishart.BATCHES_PER_CHECK; ++b) {
+            assertFalse(iterations.update(new MiniBatchWishart.ClusterSums(2, 2)));
+        }
+        assertEquals(0.0, iterations.getMovement(), 0.0);
+    }
+
+    @Test
+    public void testUpdateCenters() {
+        final ClusterInfo[] centers = {createCenter(1.0), createCenter(3.0), null};
+        final long[] totalCounts = {2, 5, 0};
+
+        // two pixels of cluster 0 with a mean of 4 on the diagonal, none of cluster 1
+        final MiniBatchWishart.ClusterSums batch = new MiniBatchWishart.ClusterSums(3, 2);
+        batch.add(0, new double[][]{{3.0, 0.0}, {0.0, 3.0}}, new double[][]{{0.0, 1.0}, {-1.0, 0.0}});
+        batch.add(0, new double[][]{{5.0, 0.0}, {0.0, 5.0}}, new double[][]{{0.0, 1.0}, {-1.0, 0.0}});
+        assertEquals(2, batch.getCount(0));
+
+        MiniBatchWishart.updateCenters(centers, totalCounts, batch);
+
+        // learning rate 2 / (2 + 2)
+        assertEquals(4, totalCounts[0]);
+        assertEquals(2.5, centers[0].centerRe[0][0], 1e-12);
+        assertEquals(2.5, centers[0].centerRe[1][1], 1e-12);
+        assertEquals(0.0, centers[0].centerRe[0][1], 1e-12);
+        assertEquals(0.5, centers[0].centerIm[0][1], 1e-12);
+        assertEquals(-0.5, centers[0].centerIm[1][0], 1e-12);
+        assertEquals(4, centers[0].size);
+
+        // clusters without pixels in the batch are unchanged
+        assertEquals(5, totalCounts[1]);
+        assertEquals(3.0, centers[1].centerRe[0][0], 0.0);
+        assertNull(centers[2]);
+    }
+
+    @Test
+    public void testMergeSums() {
+        final MiniBatchWishart.ClusterSums batch = new MiniBatchWishart.ClusterSums(2, 2);
+        final MiniBatchWishart.ClusterSums worker = new MiniBatchWishart.ClusterSums(2, 2);
+        worker.add(1, new double[][]{{2.0, 0.0}, {0.0, 2.0}}, new double[2][2]);
+        batch.merge(worker);
+        batch.merge(worker);
+
+        assertEquals(0, batch.getCount(0));
+        assertEquals(2, batch.getCount(1));
+    }
+
+    @Test
+    public void testGetMovement() {
+        final ClusterInfo[] centers = {createCenter(1.0), createCenter(1.0), null};
+        final double[][][][] previous = MiniBatchWishart.copyCenters(centers);
+        assertNull(previous[2]);
+        assertEquals(0.0, MiniBatchWishart.getMovement(centers, previous), 0.0);
+
+        centers[0].setClusterCenter(0, new double[][]{{2.0, 0.0}, {0.0, 2.0}}, new double[2][2], 1);
+
+        // sqrt((1 + 1) / (4 + 4 + 1 + 1))
+        assertEquals(Math.sqrt(0.2), MiniBatchWishart.getMovement(centers, previous), 1e-12);
+    }
+
+    @Test
+    public void testHasConverged() {
+        final MiniBatchWishart miniBatch = new MiniBatchWishart(16, 0.001);
+        assertTrue(miniBatch.hasConverged(0.0005));
+        assertFalse(miniBatch.hasConverged(0.002));
+    }
+}
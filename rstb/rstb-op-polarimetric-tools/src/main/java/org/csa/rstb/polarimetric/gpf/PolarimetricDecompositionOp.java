@@ -17,6 +17,7 @@ package org.csa.rstb.polarimetric.gpf;
 
 import com.bc.ceres.core.ProgressMonitor;
 import org.csa.rstb.polarimetric.gpf.decompositions.*;
+import org.csa.rstb.polarimetric.gpf.support.SpanMinMaxMetadata;
 import org.esa.s1tbx.commons.polsar.PolBandUtils;
 import org.esa.snap.core.datamodel.Band;
 import org.esa.snap.core.datamodel.MetadataElement;
@@ -318,6 +319,9 @@ public final class PolarimetricDecompositionOp extends Operator {
 
         // Save new slave band names
         PolBandUtils.saveNewBandNames(targetProduct, srcBandList);
+
+        // span min/max known before the first tile, written with the header
+        SpanMinMaxMetadata.addRecords(sourceProduct, targetProduct, srcBandList, windowSize / 2, windowSize / 2);
     }
 
     /**
@@ -16,6 +16,7 @@
 package org.csa.rstb.polarimetric.gpf.decompositions;
 
 import org.csa.rstb.polarimetric.gpf.support.QuadPolProcessor;
+import org.csa.rstb.polarimetric.gpf.support.WindowMatrixAccumulator;
 import org.esa.s1tbx.commons.polsar.PolBandUtils;
 import org.esa.snap.core.datamodel.Band;
 import org.esa.snap.core.datamodel.ProductData;
@@ -127,20 +128,18 @@ public class FreemanDurden extends DecompositionBase implements Decomposition, Q
             final Rectangle sourceRectangle = getSourceRectangle(x0, y0, w, h);
             getQuadPolDataBuffer(op, bandList.srcBands, sourceRectangle, sourceProductType, sourceTiles, dataBuffers);
 
+            final WindowMatrixAccumulator meanCovariance = createMeanCovarianceMatrixAccumulator(
+                    halfWindowSizeX, halfWindowSizeY, sourceProductType, sourceTiles, dataBuffers);
+
             final TileIndex srcIndex = new TileIndex(sourceTiles[0]);
             final double nodatavalue = bandList.srcBands[0].getNoDataValue();
 
-            //final MeanCovariance covariance = new MeanCovariance(sourceProductType, sourceTiles,
-            //    dataBuffers, halfWindowSizeX, halfWindowSizeY);
-
             double pd, pv, ps;
             for (int y = y0; y < maxY; ++y) {
                 trgIndex.calculateStride(y);
                 srcIndex.calculateStride(y);
                 for (int x = x0; x < maxX; ++x) {
 
-                    getMeanCovarianceMatrix(x, y, halfWindowSizeX, halfWindowSizeY,
-                            sourceProductType, sourceTiles, dataBuffers, Cr, Ci);
                     boolean isNoData = isNoData(dataBuffers, srcIndex.getIndex(x), nodatavalue);
 
                     if (isNoData) {
@@ -150,7 +149,7 @@ public class FreemanDurden extends DecompositionBase implements Decomposition, Q
                         continue;
                     }
 
-                    //covariance.getMeanCovarianceMatrix(x, y, Cr, Ci);
+                    meanCovariance.getMeanMatrix(x, y, Cr, Ci);
 
                     final FDD data = getFreemanDurdenDecomposition(Cr, Ci);
 
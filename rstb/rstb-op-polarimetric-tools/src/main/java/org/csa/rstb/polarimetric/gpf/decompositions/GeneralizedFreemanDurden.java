@@ -16,6 +16,7 @@
 package org.csa.rstb.polarimetric.gpf.decompositions;
 
 import org.csa.rstb.polarimetric.gpf.support.QuadPolProcessor;
+import org.csa.rstb.polarimetric.gpf.support.WindowMatrixAccumulator;
 import org.esa.s1tbx.commons.polsar.PolBandUtils;
 import org.esa.snap.core.datamodel.Band;
 import org.esa.snap.core.datamodel.ProductData;
@@ -131,6 +132,9 @@ public class GeneralizedFreemanDurden extends DecompositionBase implements Decom
             final Rectangle sourceRectangle = getSourceRectangle(x0, y0, w, h);
             getQuadPolDataBuffer(op, bandList.srcBands, sourceRectangle, sourceProductType, sourceTiles, dataBuffers);
 
+            final WindowMatrixAccumulator meanCoherency = createMeanCoherencyMatrixAccumulator(halfWindowSizeX,
+                    halfWindowSizeY, srcImageWidth, srcImageHeight, sourceProductType, sourceTiles, dataBuffers);
+
             final TileIndex srcIndex = new TileIndex(sourceTiles[0]);
             final double nodatavalue = bandList.srcBands[0].getNoDataValue();
 
@@ -147,8 +151,7 @@ public class GeneralizedFreemanDurden extends DecompositionBase implements Decom
                         continue;
                     }
 
-                    getMeanCoherencyMatrix(x, y, halfWindowSizeX, halfWindowSizeY, srcImageWidth,
-                            srcImageHeight, sourceProductType, srcIndex, dataBuffers, Tr, Ti);
+                    meanCoherency.getMeanMatrix(x, y, Tr, Ti);
 
                     final FDD data = getGeneralizedFreemanDurdenDecomposition(Tr, Ti);
 
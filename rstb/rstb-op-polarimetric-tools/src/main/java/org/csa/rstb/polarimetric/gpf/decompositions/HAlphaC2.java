@@ -17,6 +17,7 @@ package org.csa.rstb.polarimetric.gpf.decompositions;
 
 import org.apache.commons.math3.util.FastMath;
 import org.csa.rstb.polarimetric.gpf.support.DualPolProcessor;
+import org.csa.rstb.polarimetric.gpf.support.WindowMatrixAccumulator;
 import org.esa.s1tbx.commons.polsar.PolBandUtils;
 import org.esa.snap.core.datamodel.Band;
 import org.esa.snap.core.datamodel.ProductData;
@@ -117,6 +118,10 @@ public class HAlphaC2 extends DecompositionBase implements Decomposition, DualPo
                 sourceTiles[i] = op.getSourceTile(bandList.srcBands[i], sourceRectangle);
                 dataBuffers[i] = sourceTiles[i].getDataBuffer();
             }
+
+            final WindowMatrixAccumulator meanCovariance = createMeanCovarianceMatrixC2Accumulator(halfWindowSizeX,
+                    halfWindowSizeY, sourceImageWidth, sourceImageHeight, sourceProductType, sourceTiles, dataBuffers);
+
             double v = 0.0;
             final TileIndex srcIndex = new TileIndex(sourceTiles[0]);
             final double nodatavalue = bandList.srcBands[0].getNoDataValue();
@@ -127,8 +132,7 @@ public class HAlphaC2 extends DecompositionBase implements Decomposition, DualPo
                 for (int x = x0; x < maxX; ++x) {
                     final int index = trgIndex.getIndex(x);
 
-                    getMeanCovarianceMatrixC2(x, y, halfWindowSizeX, halfWindowSizeY, sourceImageWidth,
-                            sourceImageHeight, sourceProductType, sourceTiles, dataBuffers, Cr, Ci);
+                    meanCovariance.getMeanMatrix(x, y, Cr, Ci);
 
                     HAAlpha data = computeHAAlphaByC2(Cr, Ci);
 
@@ -29,6 +29,7 @@ package org.csa.rstb.polarimetric.gpf.decompositions;
 
 import org.csa.rstb.polarimetric.gpf.decompositions.EigenDecomposition;
 import org.csa.rstb.polarimetric.gpf.support.QuadPolProcessor;
+import org.csa.rstb.polarimetric.gpf.support.WindowMatrixAccumulator;
 import org.esa.s1tbx.commons.polsar.PolBandUtils;
 import org.esa.s1tbx.commons.polsar.PolBandUtils.MATRIX;
 import org.esa.snap.core.datamodel.Band;
@@ -131,8 +132,6 @@ public class MF3CF extends DecompositionBase implements Decomposition, QuadPolPr
             }
             final TileIndex trgIndex = new TileIndex(targetInfo[0].tile);
 
-            final double[][] Cr = new double[3][3];
-            final double[][] Ci = new double[3][3];
             final double[][] Tr = new double[3][3];
             final double[][] Ti = new double[3][3];
 
@@ -145,6 +144,9 @@ public class MF3CF extends DecompositionBase implements Decomposition, QuadPolPr
             final Rectangle sourceRectangle = getSourceRectangle(x0, y0, w, h);
             getQuadPolDataBuffer(op, bandList.srcBands, sourceRectangle, sourceProductType, sourceTiles, dataBuffers);
 
+            final WindowMatrixAccumulator meanCoherency = createMeanCoherencyMatrixAccumulator(halfWindowSizeX,
+                    halfWindowSizeY, sourceImageWidth, sourceImageHeight, sourceProductType, sourceTiles, dataBuffers);
+
             final TileIndex srcIndex = new TileIndex(sourceTiles[0]);
             final double nodatavalue = bandList.srcBands[0].getNoDataValue();
 
@@ -162,18 +164,7 @@ public class MF3CF extends DecompositionBase implements Decomposition, QuadPolPr
                         continue;
                     }
 
-                    if (sourceProductType == MATRIX.FULL ||
-                            sourceProductType == MATRIX.C3) {
-
-                        getMeanCovarianceMatrix(x, y, halfWindowSizeX, halfWindowSizeY,
-                                sourceProductType, sourceTiles, dataBuffers, Cr, Ci);
-                        c3ToT3(Cr, Ci, Tr, Ti);
-
-                    } else if (sourceProductType == MATRIX.T3) {
-
-                        getMeanCoherencyMatrix(x, y, halfWindowSizeX, halfWindowSizeY,
-                                sourceImageWidth, sourceImageHeight, sourceProductType, srcIndex, dataBuffers, Tr, Ti);
-                    }
+                    meanCoherency.getMeanMatrix(x, y, Tr, Ti);
 
                     final VDD data = getMF3CFDecomposition(Tr, Ti);
 
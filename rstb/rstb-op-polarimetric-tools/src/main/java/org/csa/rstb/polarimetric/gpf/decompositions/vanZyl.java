@@ -16,6 +16,7 @@
 package org.csa.rstb.polarimetric.gpf.decompositions;
 
 import org.csa.rstb.polarimetric.gpf.support.QuadPolProcessor;
+import org.csa.rstb.polarimetric.gpf.support.WindowMatrixAccumulator;
 import org.esa.s1tbx.commons.polsar.PolBandUtils;
 import org.esa.s1tbx.commons.polsar.PolBandUtils.MATRIX;
 import org.esa.snap.core.datamodel.Band;
@@ -118,8 +119,6 @@ public class vanZyl extends DecompositionBase implements Decomposition, QuadPolP
 
             final double[][] Cr = new double[3][3];
             final double[][] Ci = new double[3][3];
-            final double[][] Tr = new double[3][3];
-            final double[][] Ti = new double[3][3];
 
             if (!bandList.spanMinMaxSet) {
                 setSpanMinMax(op, bandList);
@@ -130,6 +129,9 @@ public class vanZyl extends DecompositionBase implements Decomposition, QuadPolP
             final Rectangle sourceRectangle = getSourceRectangle(x0, y0, w, h);
             getQuadPolDataBuffer(op, bandList.srcBands, sourceRectangle, sourceProductType, sourceTiles, dataBuffers);
 
+            final WindowMatrixAccumulator meanCovariance = createMeanCovarianceMatrixAccumulator(
+                    halfWindowSizeX, halfWindowSizeY, sourceProductType, sourceTiles, dataBuffers);
+
             final TileIndex srcIndex = new TileIndex(sourceTiles[0]);
             final double nodatavalue = bandList.srcBands[0].getNoDataValue();
 
@@ -148,19 +150,7 @@ public class vanZyl extends DecompositionBase implements Decomposition, QuadPolP
                         continue;
                     }
 
-                    if (sourceProductType == MATRIX.FULL ||
-                            sourceProductType == MATRIX.C3) {
-
-                        getMeanCovarianceMatrix(x, y, halfWindowSizeX, halfWindowSizeY,
-                                sourceProductType, sourceTiles, dataBuffers, Cr, Ci);
-
-                    } else if (sourceProductType == MATRIX.T3) {
-
-                        getMeanCoherencyMatrix(x, y, halfWindowSizeX, halfWindowSizeY,
-                                sourceImageWidth, sourceImageHeight, sourceProductType, srcIndex, dataBuffers, Tr, Ti);
-
-                        t3ToC3(Tr, Ti, Cr, Ci);
-                    }
+                    meanCovariance.getMeanMatrix(x, y, Cr, Ci);
 
                     final VDD data = getVanZylDecomposition(Cr, Ci);
 
@@ -17,6 +17,7 @@ package org.csa.rstb.polarimetric.gpf.decompositions_cp;
 
 import org.csa.rstb.polarimetric.gpf.support.CompactPolProcessor;
 import org.csa.rstb.polarimetric.gpf.support.StokesParameters;
+import org.csa.rstb.polarimetric.gpf.support.WindowMatrixAccumulator;
 import org.csa.rstb.polarimetric.gpf.decompositions.EigenDecomposition;
 import org.csa.rstb.polarimetric.gpf.decompositions.HAlphaC2;
 import org.esa.s1tbx.commons.polsar.PolBandUtils;
@@ -98,6 +99,10 @@ public class CP_HAlpha extends HAlphaC2 implements CompactPolProcessor {
                 sourceTiles[i] = op.getSourceTile(bandList.srcBands[i], sourceRectangle);
                 dataBuffers[i] = sourceTiles[i].getDataBuffer();
             }
+
+            final WindowMatrixAccumulator meanCovariance = createMeanCovarianceMatrixC2Accumulator(halfWindowSizeX,
+                    halfWindowSizeY, sourceImageWidth, sourceImageHeight, sourceProductType, sourceTiles, dataBuffers);
+
             double v = 0.0;
 
             if (computeAlphaByT3) {
@@ -108,8 +113,7 @@ public class CP_HAlpha extends HAlphaC2 implements CompactPolProcessor {
                     for (int x = x0; x < maxX; ++x) {
                         final int index = trgIndex.getIndex(x);
 
-                        getMeanCovarianceMatrixC2(x, y, halfWindowSizeX, halfWindowSizeY, sourceImageWidth,
-                                sourceImageHeight, sourceProductType, sourceTiles, dataBuffers, Cr, Ci);
+                        meanCovariance.getMeanMatrix(x, y, Cr, Ci);
 
                         StokesParameters.computeCompactPolStokesVector(Cr, Ci, g);
 
@@ -137,8 +141,7 @@ public class CP_HAlpha extends HAlphaC2 implements CompactPolProcessor {
                     for (int x = x0; x < maxX; ++x) {
                         final int index = trgIndex.getIndex(x);
 
-                        getMeanCovarianceMatrixC2(x, y, halfWindowSizeX, halfWindowSizeY, sourceImageWidth,
-                                sourceImageHeight, sourceProductType, sourceTiles, dataBuffers, Cr, Ci);
+                        meanCovariance.getMeanMatrix(x, y, Cr, Ci);
 
                         HAAlpha data = computeHAAlphaByC2(Cr, Ci);
 
@@ -17,6 +17,7 @@ package org.csa.rstb.polarimetric.gpf.decompositions_cp;
 
 import org.csa.rstb.polarimetric.gpf.support.CompactPolProcessor;
 import org.csa.rstb.polarimetric.gpf.support.StokesParameters;
+import org.csa.rstb.polarimetric.gpf.support.WindowMatrixAccumulator;
 import org.apache.commons.math3.util.FastMath;
 import org.csa.rstb.polarimetric.gpf.decompositions.Decomposition;
 import org.csa.rstb.polarimetric.gpf.decompositions.DecompositionBase;
@@ -121,14 +122,17 @@ public class CP_MDelta extends DecompositionBase implements Decomposition, Compa
                 sourceTiles[i] = op.getSourceTile(bandList.srcBands[i], sourceRectangle);
                 dataBuffers[i] = sourceTiles[i].getDataBuffer();
             }
+
+            final WindowMatrixAccumulator meanCovariance = createMeanCovarianceMatrixC2Accumulator(halfWindowSizeX,
+                    halfWindowSizeY, sourceImageWidth, sourceImageHeight, sourceProductType, sourceTiles, dataBuffers);
+
             double v = 0.0;
             for (int y = y0; y < maxY; ++y) {
                 trgIndex.calculateStride(y);
                 for (int x = x0; x < maxX; ++x) {
                     final int index = trgIndex.getIndex(x);
 
-                    getMeanCovarianceMatrixC2(x, y, halfWindowSizeX, halfWindowSizeY, sourceImageWidth,
-                            sourceImageHeight, sourceProductType, sourceTiles, dataBuffers, Cr, Ci);
+                    meanCovariance.getMeanMatrix(x, y, Cr, Ci);
 
                     StokesParameters.computeCompactPolStokesVector(Cr, Ci, g);
 
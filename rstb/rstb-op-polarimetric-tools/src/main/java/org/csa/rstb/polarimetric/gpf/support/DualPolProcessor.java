@@ -6,6 +6,8 @@ import org.esa.snap.core.gpf.OperatorException;
 import org.esa.snap.core.gpf.Tile;
 import org.esa.snap.engine_utilities.gpf.TileIndex;
 
+import java.awt.*;
+
 public interface DualPolProcessor extends PolarimetricProcessor, MatrixMath {
 
     /**
@@ -90,6 +92,58 @@ public interface DualPolProcessor extends PolarimetricProcessor, MatrixMath {
         Ci[1][1] = ciMat[1][1];
     }
 
+    /**
+     * Create the sliding window accumulator of the covariance matrix C2 over a source tile. Its mean matrices are
+     * those of getMeanCovarianceMatrixC2 for pixels visited row by row.
+     *
+     * @param halfWindowSizeX   The sliding window width /2
+     * @param halfWindowSizeY   The sliding window height /2
+     * @param sourceImageWidth  Source image width.
+     * @param sourceImageHeight Source image height.
+     * @param sourceProductType The source product type.
+     * @param sourceTiles       The source tiles for all bands.
+     * @param dataBuffers       Source tile data buffers.
+     * @return the accumulator of the mean covariance matrix C2
+     */
+    default WindowMatrixAccumulator createMeanCovarianceMatrixC2Accumulator(
+            final int halfWindowSizeX, final int halfWindowSizeY,
+            final int sourceImageWidth, final int sourceImageHeight,
+            final PolBandUtils.MATRIX sourceProductType, final Tile[] sourceTiles, final ProductData[] dataBuffers) {
+
+        final TileIndex srcIndex = new TileIndex(sourceTiles[0]);
+        final WindowMatrixAccumulator.PixelMatrix pixelMatrix;
+
+        if (sourceProductType == PolBandUtils.MATRIX.C2) {
+
+            pixelMatrix = (x, y, Cr, Ci) -> {
+                srcIndex.calculateStride(y);
+                getCovarianceMatrixC2(srcIndex.getIndex(x), dataBuffers, Cr, Ci);
+            };
+
+        } else if (sourceProductType == PolBandUtils.MATRIX.LCHCP ||
+                sourceProductType == PolBandUtils.MATRIX.RCHCP ||
+                sourceProductType == PolBandUtils.MATRIX.DUAL_HH_HV ||
+                sourceProductType == PolBandUtils.MATRIX.DUAL_VH_VV ||
+                sourceProductType == PolBandUtils.MATRIX.DUAL_HH_VV) {
+
+            final double[] tempKr = new double[2];
+            final double[] tempKi = new double[2];
+
+            pixelMatrix = (x, y, Cr, Ci) -> {
+                srcIndex.calculateStride(y);
+                getScatterVector(srcIndex.getIndex(x), dataBuffers, tempKr, tempKi);
+                computeCovarianceMatrixC2(tempKr, tempKi, Cr, Ci);
+            };
+
+        } else {
+            throw new OperatorException("getMeanCovarianceMatrixC2 not implemented for raw dual pol");
+        }
+
+        final Rectangle bounds = sourceTiles[0].getRectangle().intersection(
+                new Rectangle(0, 0, sourceImageWidth, sourceImageHeight));
+        return new WindowMatrixAccumulator(2, bounds, halfWindowSizeX, halfWindowSizeY, pixelMatrix);
+    }
+
     /**
      * Get covariance matrix C2 for a given pixel in the input C2 product.
      *
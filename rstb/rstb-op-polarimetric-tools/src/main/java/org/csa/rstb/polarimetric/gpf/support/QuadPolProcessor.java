@@ -16,6 +16,7 @@ import org.esa.snap.engine_utilities.gpf.OperatorUtils;
 import org.esa.snap.engine_utilities.gpf.TileIndex;
 
 import java.awt.*;
+import java.util.concurrent.atomic.AtomicReference;
 
 public interface QuadPolProcessor extends PolarimetricProcessor, MatrixMath {
 
@@ -1209,6 +1210,171 @@ public interface QuadPolProcessor extends PolarimetricProcessor, MatrixMath {
         }
     }
 
+    /**
+     * Create the sliding window accumulator of the coherency matrix T3 over a source tile. Its mean matrices are
+     * those of getMeanCoherencyMatrix for pixels visited row by row.
+     *
+     * @param halfWindowSizeX   The sliding window size / 2.
+     * @param halfWindowSizeY   The sliding window size / 2.
+     * @param sourceImageWidth  The source image width.
+     * @param sourceImageHeight The source image height.
+     * @param sourceProductType The source product type.
+     * @param sourceTiles       The source tiles for all bands.
+     * @param dataBuffers       Source tile data buffers.
+     * @return the accumulator of the mean coherency matrix T3
+     */
+    default WindowMatrixAccumulator createMeanCoherencyMatrixAccumulator(
+            final int halfWindowSizeX, final int halfWindowSizeY,
+            final int sourceImageWidth, final int sourceImageHeight,
+            final PolBandUtils.MATRIX sourceProductType, final Tile[] sourceTiles, final ProductData[] dataBuffers) {
+
+        final TileIndex srcIndex = new TileIndex(sourceTiles[0]);
+        final WindowMatrixAccumulator.PixelMatrix pixelMatrix;
+
+        if (sourceProductType == PolBandUtils.MATRIX.T3) {
+
+            pixelMatrix = (x, y, Tr, Ti) -> {
+                srcIndex.calculateStride(y);
+                getCoherencyMatrixT3(srcIndex.getIndex(x), dataBuffers, Tr, Ti);
+            };
+
+        } else if (sourceProductType == PolBandUtils.MATRIX.C3) {
+            final double[][] tempCr = new double[3][3];
+            final double[][] tempCi = new double[3][3];
+
+            pixelMatrix = (x, y, Tr, Ti) -> {
+                srcIndex.calculateStride(y);
+                getCovarianceMatrixC3(srcIndex.getIndex(x), dataBuffers, tempCr, tempCi);
+                c3ToT3(tempCr, tempCi, Tr, Ti);
+            };
+
+        } else if (sourceProductType == PolBandUtils.MATRIX.FULL) {
+            final double[][] tempSr = new double[2][2];
+            final double[][] tempSi = new double[2][2];
+
+            pixelMatrix = (x, y, Tr, Ti) -> {
+                srcIndex.calculateStride(y);
+                getComplexScatterMatrix(srcIndex.getIndex(x), dataBuffers, tempSr, tempSi);
+                computeCoherencyMatrixT3(tempSr, tempSi, Tr, Ti);
+            };
+
+        } else {
+            pixelMatrix = (x, y, Tr, Ti) -> {
+            };
+        }
+
+        final Rectangle bounds = sourceTiles[0].getRectangle().intersection(
+                new Rectangle(0, 0, sourceImageWidth, sourceImageHeight));
+        return new WindowMatrixAccumulator(3, bounds, halfWindowSizeX, halfWindowSizeY, pixelMatrix);
+    }
+
+    /**
+     * Create the sliding window accumulator of the covariance matrix C3 over a source tile. Its mean matrices are
+     * those of getMeanCovarianceMatrix for pixels visited row by row.
+     *
+     * @param halfWindowSizeX   The sliding window size / 2
+     * @param halfWindowSizeY   The sliding window size / 2
+     * @param sourceProductType The source product type.
+     * @param sourceTiles       The source tiles for all bands.
+     * @param dataBuffers       Source tile data buffers.
+     * @return the accumulator of the mean covariance matrix C3
+     */
+    default WindowMatrixAccumulator createMeanCovarianceMatrixAccumulator(
+            final int halfWindowSizeX, final int halfWindowSizeY, final PolBandUtils.MATRIX sourceProductType,
+            final Tile[] sourceTiles, final ProductData[] dataBuffers) {
+
+        final TileIndex srcIndex = new TileIndex(sourceTiles[0]);
+        final WindowMatrixAccumulator.PixelMatrix pixelMatrix;
+
+        if (sourceProductType == PolBandUtils.MATRIX.C3) {
+
+            pixelMatrix = (x, y, Cr, Ci) -> {
+                srcIndex.calculateStride(y);
+                getCovarianceMatrixC3(srcIndex.getIndex(x), dataBuffers, Cr, Ci);
+            };
+
+        } else if (sourceProductType == PolBandUtils.MATRIX.T3) {
+            final double[][] tempTr = new double[3][3];
+            final double[][] tempTi = new double[3][3];
+
+            pixelMatrix = (x, y, Cr, Ci) -> {
+                srcIndex.calculateStride(y);
+                getCoherencyMatrixT3(srcIndex.getIndex(x), dataBuffers, tempTr, tempTi);
+                t3ToC3(tempTr, tempTi, Cr, Ci);
+            };
+
+        } else if (sourceProductType == PolBandUtils.MATRIX.FULL) {
+            final double[][] tempSr = new double[2][2];
+            final double[][] tempSi = new double[2][2];
+
+            pixelMatrix = (x, y, Cr, Ci) -> {
+                srcIndex.calculateStride(y);
+                getComplexScatterMatrix(srcIndex.getIndex(x), dataBuffers, tempSr, tempSi);
+                computeCovarianceMatrixC3(tempSr, tempSi, Cr, Ci);
+            };
+
+        } else {
+            pixelMatrix = (x, y, Cr, Ci) -> {
+            };
+        }
+
+        return new WindowMatrixAccumulator(3, sourceTiles[0].getRectangle(), halfWindowSizeX, halfWindowSizeY,
+                pixelMatrix);
+    }
+
+    /**
+     * Create the sliding window accumulator of the covariance matrix C4 over a source tile.
+     *
+     * @param halfWindowSizeX   The sliding window size / 2
+     * @param halfWindowSizeY   The sliding window size / 2
+     * @param sourceProductType The source product type.
+     * @param sourceTiles       The source tiles for all bands.
+     * @param dataBuffers       Source tile data buffers.
+     * @return the accumulator of the mean covariance matrix C4
+     */
+    default WindowMatrixAccumulator createMeanCovarianceMatrixC4Accumulator(
+            final int halfWindowSizeX, final int halfWindowSizeY, final PolBandUtils.MATRIX sourceProductType,
+            final Tile[] sourceTiles, final ProductData[] dataBuffers) {
+
+        final TileIndex srcIndex = new TileIndex(sourceTiles[0]);
+        final WindowMatrixAccumulator.PixelMatrix pixelMatrix;
+
+        if (sourceProductType == PolBandUtils.MATRIX.FULL) {
+            final double[][] tempSr = new double[2][2];
+            final double[][] tempSi = new double[2][2];
+
+            pixelMatrix = (x, y, Cr, Ci) -> {
+                srcIndex.calculateStride(y);
+                getComplexScatterMatrix(srcIndex.getIndex(x), dataBuffers, tempSr, tempSi);
+                computeCovarianceMatrixC4(tempSr, tempSi, Cr, Ci);
+            };
+
+        } else if (sourceProductType == PolBandUtils.MATRIX.T4) {
+            final double[][] tempTr = new double[4][4];
+            final double[][] tempTi = new double[4][4];
+
+            pixelMatrix = (x, y, Cr, Ci) -> {
+                srcIndex.calculateStride(y);
+                getCoherencyMatrixT4(srcIndex.getIndex(x), dataBuffers, tempTr, tempTi);
+                t4ToC4(tempTr, tempTi, Cr, Ci);
+            };
+
+        } else if (sourceProductType == PolBandUtils.MATRIX.C4) {
+
+            pixelMatrix = (x, y, Cr, Ci) -> {
+                srcIndex.calculateStride(y);
+                getCovarianceMatrixC4(srcIndex.getIndex(x), dataBuffers, Cr, Ci);
+            };
+
+        } else {
+            pixelMatrix = (x, y, Cr, Ci) -> {
+            };
+        }
+
+        return new WindowMatrixAccumulator(4, sourceTiles[0].getRectangle(), halfWindowSizeX, halfWindowSizeY,
+                pixelMatrix);
+    }
+
     /**
      * Get covariance matrix C4 for given pixel.
      *
@@ -1390,7 +1556,9 @@ public interface QuadPolProcessor extends PolarimetricProcessor, MatrixMath {
     }
 
     /**
-     * Compute min/max values of the Span image.
+     * Compute min/max values of the Span image. Each worker reduces its own tile and the results are merged once
+     * per tile. The result is recorded by SpanMinMaxMetadata, and a value already recorded for the same source file,
+     * bands and window size is used instead of computing it. A failure of any worker is raised.
      *
      * @param op       the decomposition operator
      * @param bandList the src band list
@@ -1402,11 +1570,16 @@ public interface QuadPolProcessor extends PolarimetricProcessor, MatrixMath {
                                                        final PolBandUtils.PolSourceBand bandList)
             throws OperatorException {
 
+        final DecompositionBase.MinMax recordedMinMax =
+                SpanMinMaxMetadata.get(op.getSourceProduct(), bandList, halfWindowSizeX, halfWindowSizeY);
+        if (recordedMinMax != null) {
+            return recordedMinMax;
+        }
+
         final DecompositionBase.MinMax minMaxValue = new DecompositionBase.MinMax();
+        final AtomicReference<Throwable> workerError = new AtomicReference<>();
         final Dimension tileSize = new Dimension(256, 256);
         final Rectangle[] tileRectangles = OperatorUtils.getAllTileRectangles(op.getSourceProduct(), tileSize, 25);
-        final double[][] Cr = new double[3][3];
-        final double[][] Ci = new double[3][3];
 
         final StatusProgressMonitor status = new StatusProgressMonitor(StatusProgressMonitor.TYPE.SUBTASK);
         status.beginTask("Computing min max span... ", tileRectangles.length);
@@ -1418,7 +1591,6 @@ public interface QuadPolProcessor extends PolarimetricProcessor, MatrixMath {
 
                 final ThreadRunnable worker = new ThreadRunnable() {
 
-                    double span = 0.0;
                     final int xMax = rectangle.x + rectangle.width;
                     final int yMax = rectangle.y + rectangle.height;
                     /*
@@ -1428,6 +1600,8 @@ public interface QuadPolProcessor extends PolarimetricProcessor, MatrixMath {
 
                     final Tile[] sourceTiles = new Tile[bandList.srcBands.length];
                     final ProductData[] dataBuffers = new ProductData[bandList.srcBands.length];
+                    final double[][] Cr = new double[3][3];
+                    final double[][] Ci = new double[3][3];
 
                     @Override
                     public void process() {
@@ -1435,29 +1609,32 @@ public interface QuadPolProcessor extends PolarimetricProcessor, MatrixMath {
 
                             getQuadPolDataBuffer(op, bandList.srcBands, rectangle, sourceProductType, sourceTiles, dataBuffers);
 
-                            for (int y = rectangle.y; y < yMax; ++y) {
+                            final WindowMatrixAccumulator meanCovariance = createMeanCovarianceMatrixAccumulator(
+                                    halfWindowSizeX, halfWindowSizeY, sourceProductType, sourceTiles, dataBuffers);
 
+                            double min = Double.MAX_VALUE;
+                            double max = -Double.MAX_VALUE;
+                            for (int y = rectangle.y; y < yMax; ++y) {
                                 for (int x = rectangle.x; x < xMax; ++x) {
 
-                                    getMeanCovarianceMatrix(x, y, halfWindowSizeX, halfWindowSizeX,
-                                            sourceProductType, sourceTiles, dataBuffers, Cr, Ci);
+                                    meanCovariance.getMeanMatrix(x, y, Cr, Ci);
 
-                                    span = Cr[0][0] + Cr[1][1] + Cr[2][2];
-
-                                    if (minMaxValue.min > span) {
-                                        synchronized (minMaxValue) {
-                                            minMaxValue.min = span;
-                                        }
+                                    final double span = Cr[0][0] + Cr[1][1] + Cr[2][2];
+                                    if (span < min) {
+                                        min = span;
                                     }
-                                    if (minMaxValue.max < span) {
-                                        synchronized (minMaxValue) {
-                                            minMaxValue.max = span;
-                                        }
+                                    if (span > max) {
+                                        max = span;
                                     }
                                 }
                             }
-                        } catch (Exception e) {
-                            System.out.println(e.getMessage());
+
+                            synchronized (minMaxValue) {
+                                minMaxValue.min = Math.min(minMaxValue.min, min);
+                                minMaxValue.max = Math.max(minMaxValue.max, max);
+                            }
+                        } catch (Throwable e) {
+                            workerError.compareAndSet(null, e);
                         }
                     }
                 };
@@ -1469,10 +1646,18 @@ public interface QuadPolProcessor extends PolarimetricProcessor, MatrixMath {
 
             executor.complete();
 
+            // a partial min max must neither be used nor recorded
+            if (workerError.get() != null) {
+                throw workerError.get();
+            }
+
             if (minMaxValue.min < Constants.EPS) {
                 minMaxValue.min = Constants.EPS;
             }
 
+            SpanMinMaxMetadata.set(op.getSourceProduct(), op.getTargetProduct(), bandList,
+                    halfWindowSizeX, halfWindowSizeY, minMaxValue);
+
         } catch (Throwable e) {
             OperatorUtils.catchOperatorException(op.getId() + " computeMinMaxSpan ", e);
         } finally {
@@ -0,0 +1,232 @@
+/*
+ * Copyright (C) 2021 SkyWatch Space Applications Inc. https://www.skywatch.com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.csa.rstb.polarimetric.gpf.support;
+
+import org.csa.rstb.polarimetric.gpf.decompositions.DecompositionBase;
+import org.esa.s1tbx.commons.polsar.PolBandUtils;
+import org.esa.snap.core.datamodel.Band;
+import org.esa.snap.core.datamodel.MetadataElement;
+import org.esa.snap.core.datamodel.Product;
+
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Span min/max of a set of polarimetric bands, so that the pre-pass over the whole image is done once per input
+ * file.
+ * <p>
+ * A value is identified by the location and time stamp of the source file, the band names, the raster size and the
+ * window size, so that another input never reuses it. Products without a file location, e.g. the target of another
+ * operator in a graph, are not identified and always get their own pre-pass.
+ * <p>
+ * Values are looked up in the session first and then in the Span_Min_Max element of the source product metadata,
+ * which holds the records carried over from the products it was made from. A value computed by the pre-pass is
+ * kept for the session and added to the target product metadata. As the pre-pass runs with the first tile, the
+ * writer may have written the header by then, so only values known when the operator is initialised, see
+ * {@link #addRecords}, are sure to be saved with the target product.
+ */
+public final class SpanMinMaxMetadata {
+
+    private static final String SPAN_MIN_MAX = "Span_Min_Max";
+    private static final String SOURCE_LOCATION = "source_location";
+    private static final String SOURCE_MODIFIED = "source_modified";
+    private static final String BANDS = "bands";
+    private static final String RASTER_WIDTH = "raster_width";
+    private static final String RASTER_HEIGHT = "raster_height";
+    private static final String WINDOW_SIZE_X = "window_size_x";
+    private static final String WINDOW_SIZE_Y = "window_size_y";
+    private static final String SPAN_MIN = "span_min";
+    private static final String SPAN_MAX = "span_max";
+
+    private static final int MAX_RECORDS = 256;
+    private static final Map<String, double[]> records = new ConcurrentHashMap<>();
+
+    private SpanMinMaxMetadata() {
+    }
+
+    /**
+     * Get the span min/max recorded for the given bands and window size, in the session or in the metadata of the
+     * source product.
+     *
+     * @param sourceProduct   the product holding the bands
+     * @param bandList        the src band list
+     * @param halfWindowSizeX the sliding window width / 2
+     * @param halfWindowSizeY the sliding window height / 2
+     * @return min max values or null if not recorded
+     */
+    public static DecompositionBase.MinMax get(final Product sourceProduct, final PolBandUtils.PolSourceBand bandList,
+                                               final int halfWindowSizeX, final int halfWindowSizeY) {
+
+        final String key = createKey(sourceProduct, bandList, halfWindowSizeX, halfWindowSizeY);
+        if (key == null) {
+            return null;
+        }
+        double[] record = records.get(key);
+        if (record == null) {
+            final MetadataElement elem = findRecord(sourceProduct.getMetadataRoot(), sourceProduct, bandList,
+                    halfWindowSizeX, halfWindowSizeY);
+            if (elem == null) {
+                return null;
+            }
+            record = new double[]{elem.getAttributeDouble(SPAN_MIN, 0), elem.getAttributeDouble(SPAN_MAX, 0)};
+            putRecord(key, record);
+        }
+        final DecompositionBase.MinMax minMax = new DecompositionBase.MinMax();
+        minMax.min = record[0];
+        minMax.max = record[1];
+        return minMax;
+    }
+
+    /**
+     * Add the span min/max already known for the given band lists and window size to the metadata of the target
+     * product. Called when the operator is initialised, so that the records are written with the product header.
+     *
+     * @param sourceProduct   the product holding the bands
+     * @param targetProduct   the product the records are added to
+     * @param bandLists       the src band lists
+     * @param halfWindowSizeX the sliding window width / 2
+     * @param halfWindowSizeY the sliding window height / 2
+     */
+    public static void addRecords(final Product sourceProduct, final Product targetProduct,
+                                  final PolBandUtils.PolSourceBand[] bandLists,
+                                  final int halfWindowSizeX, final int halfWindowSizeY) {
+
+        for (PolBandUtils.PolSourceBand bandList : bandLists) {
+            final DecompositionBase.MinMax minMax = get(sourceProduct, bandList, halfWindowSizeX, halfWindowSizeY);
+            if (minMax != null) {
+                addRecord(targetProduct.getMetadataRoot(), sourceProduct, bandList, halfWindowSizeX,
+                        halfWindowSizeY, minMax);
+            }
+        }
+    }
+
+    /**
+     * Record the span min/max of the given bands and window size for the session and in the metadata of the
+     * target product. The source product is left unchanged.
+     *
+     * @param sourceProduct   the product holding the bands
+     * @param targetProduct   the product the record is added to, may be null
+     * @param bandList        the src band list
+     * @param halfWindowSizeX the sliding window width / 2
+     * @param halfWindowSizeY the sliding window height / 2
+     * @param minMax          the span min max values
+     */
+    public static void set(final Product sourceProduct, final Product targetProduct,
+                           final PolBandUtils.PolSourceBand bandList,
+                           final int halfWindowSizeX, final int halfWindowSizeY,
+                           final DecompositionBase.MinMax minMax) {
+
+        final String key = createKey(sourceProduct, bandList, halfWindowSizeX, halfWindowSizeY);
+        if (key != null) {
+            putRecord(key, new double[]{minMax.min, minMax.max});
+        }
+        if (targetProduct != null && targetProduct != sourceProduct) {
+            addRecord(targetProduct.getMetadataRoot(), sourceProduct, bandList, halfWindowSizeX, halfWindowSizeY,
+                    minMax);
+        }
+    }
+
+    private static void putRecord(final String key, final double[] record) {
+        if (records.size() >= MAX_RECORDS) {
+            records.clear();
+        }
+        records.put(key, record);
+    }
+
+    private static MetadataElement findRecord(final MetadataElement root, final Product sourceProduct,
+                                              final PolBandUtils.PolSourceBand bandList,
+                                              final int halfWindowSizeX, final int halfWindowSizeY) {
+
+        final MetadataElement spanElem = root.getElement(SPAN_MIN_MAX);
+        if (spanElem == null) {
+            return null;
+        }
+        final File file = sourceProduct.getFileLocation().getAbsoluteFile();
+        final String bandNames = getBandNames(bandList);
+        for (MetadataElement elem : spanElem.getElements()) {
+            if (file.getPath().equals(elem.getAttributeString(SOURCE_LOCATION, null)) &&
+                    String.valueOf(file.lastModified()).equals(elem.getAttributeString(SOURCE_MODIFIED, null)) &&
+                    bandNames.equals(elem.getAttributeString(BANDS, null)) &&
+                    elem.getAttributeInt(RASTER_WIDTH, -1) == sourceProduct.getSceneRasterWidth() &&
+                    elem.getAttributeInt(RASTER_HEIGHT, -1) == sourceProduct.getSceneRasterHeight() &&
+                    elem.getAttributeInt(WINDOW_SIZE_X, -1) == 2 * halfWindowSizeX + 1 &&
+                    elem.getAttributeInt(WINDOW_SIZE_Y, -1) == 2 * halfWindowSizeY + 1) {
+                return elem;
+            }
+        }
+        return null;
+    }
+
+    private static void addRecord(final MetadataElement root, final Product sourceProduct,
+                                  final PolBandUtils.PolSourceBand bandList,
+                                  final int halfWindowSizeX, final int halfWindowSizeY,
+                                  final DecompositionBase.MinMax minMax) {
+
+        final File location = sourceProduct.getFileLocation();
+        if (location == null) {
+            return;
+        }
+        final File file = location.getAbsoluteFile();
+        synchronized (root) {
+            if (findRecord(root, sourceProduct, bandList, halfWindowSizeX, halfWindowSizeY) != null) {
+                return;
+            }
+            MetadataElement spanElem = root.getElement(SPAN_MIN_MAX);
+            if (spanElem == null) {
+                spanElem = new MetadataElement(SPAN_MIN_MAX);
+                root.addElement(spanElem);
+            }
+
+            final MetadataElement elem = new MetadataElement("Span" + (spanElem.getNumElements() + 1));
+            elem.setAttributeString(SOURCE_LOCATION, file.getPath());
+            // as text, a long time stamp does not fit the int or double attributes exactly in all formats
+            elem.setAttributeString(SOURCE_MODIFIED, String.valueOf(file.lastModified()));
+            elem.setAttributeString(BANDS, getBandNames(bandList));
+            elem.setAttributeInt(RASTER_WIDTH, sourceProduct.getSceneRasterWidth());
+            elem.setAttributeInt(RASTER_HEIGHT, sourceProduct.getSceneRasterHeight());
+            elem.setAttributeInt(WINDOW_SIZE_X, 2 * halfWindowSizeX + 1);
+            elem.setAttributeInt(WINDOW_SIZE_Y, 2 * halfWindowSizeY + 1);
+            elem.setAttributeDouble(SPAN_MIN, minMax.min);
+            elem.setAttributeDouble(SPAN_MAX, minMax.max);
+            spanElem.addElement(elem);
+        }
+    }
+
+    private static String createKey(final Product sourceProduct, final PolBandUtils.PolSourceBand bandList,
+                                    final int halfWindowSizeX, final int halfWindowSizeY) {
+
+        final File location = sourceProduct.getFileLocation();
+        if (location == null) {
+            return null;
+        }
+        final File file = location.getAbsoluteFile();
+        return file.getPath() + '|' + file.lastModified() + '|' + getBandNames(bandList) + '|' +
+                sourceProduct.getSceneRasterWidth() + 'x' + sourceProduct.getSceneRasterHeight() + '|' +
+                (2 * halfWindowSizeX + 1) + 'x' + (2 * halfWindowSizeY + 1);
+    }
+
+    private static String getBandNames(final PolBandUtils.PolSourceBand bandList) {
+        final StringBuilder names = new StringBuilder();
+        for (Band band : bandList.srcBands) {
+            if (names.length() > 0) {
+                names.append(',');
+            }
+            names.append(band.getName());
+        }
+        return names.toString();
+    }
+}
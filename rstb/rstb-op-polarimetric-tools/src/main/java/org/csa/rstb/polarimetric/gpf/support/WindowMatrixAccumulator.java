@@ -0,0 +1,192 @@
+/*
+ * Copyright (C) 2021 SkyWatch Space Applications Inc. https://www.skywatch.com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.csa.rstb.polarimetric.gpf.support;
+
+import java.awt.*;
+import java.util.Arrays;
+
+/**
+ * Mean of a per pixel complex matrix over a sliding window.
+ * <p>
+ * The sums of the matrices of each column of the window rows are kept in flat arrays. When the window moves down
+ * the rows leaving the window are subtracted from the column sums and the rows entering it are added, and when it
+ * moves along a row the outgoing column is subtracted from the window sum and the incoming column added. Each pixel
+ * matrix is then computed once per window row instead of once per window, and a mean costs a few additions per
+ * element whatever the window size. Pixels are expected to be visited row by row; any other order is still correct
+ * but rebuilds the sums.
+ * <p>
+ * Windows are clipped to the given bounds, as in QuadPolProcessor.getMeanCovarianceMatrix, and the mean is taken
+ * over the clipped window. Running sums may differ from a direct sum of the window by rounding.
+ * <p>
+ * An instance is not thread safe: create one per tile.
+ */
+public class WindowMatrixAccumulator {
+
+    /**
+     * Computes the matrix of a pixel.
+     */
+    public interface PixelMatrix {
+        /**
+         * @param x  X coordinate of the pixel.
+         * @param y  Y coordinate of the pixel.
+         * @param mr The real part of the matrix.
+         * @param mi The imaginary part of the matrix.
+         */
+        void compute(final int x, final int y, final double[][] mr, final double[][] mi);
+    }
+
+    private final int dim;
+    private final int size;
+    private final int minX, minY, maxX, maxY;
+    private final int halfWindowSizeX, halfWindowSizeY;
+    private final PixelMatrix pixelMatrix;
+
+    private final double[][] pixelRe;
+    private final double[][] pixelIm;
+    // sums of the window rows for each column, real then imaginary parts
+    private final double[] columnSums;
+    private final double[] windowSum;
+
+    private boolean rowsValid = false;
+    private int rowSt, rowEd;
+    private boolean windowValid = false;
+    private int colSt, colEd;
+
+    /**
+     * @param dim             The dimension of the matrices.
+     * @param bounds          The bounds the windows are clipped to, such as the source tile rectangle.
+     * @param halfWindowSizeX The sliding window width / 2.
+     * @param halfWindowSizeY The sliding window height / 2.
+     * @param pixelMatrix     Computes the matrix of a pixel within the bounds.
+     */
+    public WindowMatrixAccumulator(final int dim, final Rectangle bounds,
+                                   final int halfWindowSizeX, final int halfWindowSizeY,
+                                   final PixelMatrix pixelMatrix) {
+        this.dim = dim;
+        this.size = dim * dim;
+        this.minX = bounds.x;
+        this.minY = bounds.y;
+        this.maxX = bounds.x + bounds.width - 1;
+        this.maxY = bounds.y + bounds.height - 1;
+        this.halfWindowSizeX = halfWindowSizeX;
+        this.halfWindowSizeY = halfWindowSizeY;
+        this.pixelMatrix = pixelMatrix;
+
+        pixelRe = new double[dim][dim];
+        pixelIm = new double[dim][dim];
+        columnSums = new double[bounds.width * 2 * size];
+        windowSum = new double[2 * size];
+    }
+
+    /**
+     * Get the mean matrix of the window centered at the given pixel.
+     *
+     * @param x  X coordinate of the given pixel.
+     * @param y  Y coordinate of the given pixel.
+     * @param Mr The real part of the mean matrix.
+     * @param Mi The imaginary part of the mean matrix.
+     */
+    public void getMeanMatrix(final int x, final int y, final double[][] Mr, final double[][] Mi) {
+
+        final int xSt = Math.max(x - halfWindowSizeX, minX);
+        final int xEd = Math.min(x + halfWindowSizeX, maxX);
+        final int ySt = Math.max(y - halfWindowSizeY, minY);
+        final int yEd = Math.min(y + halfWindowSizeY, maxY);
+
+        if (!rowsValid || ySt != rowSt || yEd != rowEd) {
+            selectRows(ySt, yEd);
+        }
+        if (!windowValid || xSt != colSt || xEd != colEd) {
+            selectColumns(xSt, xEd);
+        }
+
+        final double scale = 1.0 / ((yEd - ySt + 1) * (xEd - xSt + 1));
+        for (int i = 0; i < dim; ++i) {
+            final int k = i * dim;
+            for (int j = 0; j < dim; ++j) {
+                Mr[i][j] = windowSum[k + j] * scale;
+                Mi[i][j] = windowSum[size + k + j] * scale;
+            }
+        }
+    }
+
+    private void selectRows(final int ySt, final int yEd) {
+
+        if (rowsValid && ySt >= rowSt && ySt <= rowEd + 1 && yEd >= rowEd) {
+            for (int yy = rowSt; yy < ySt; ++yy) {
+                addRow(yy, -1.0);
+            }
+            for (int yy = Math.max(rowEd + 1, ySt); yy <= yEd; ++yy) {
+                addRow(yy, 1.0);
+            }
+        } else {
+            Arrays.fill(columnSums, 0.0);
+            for (int yy = ySt; yy <= yEd; ++yy) {
+                addRow(yy, 1.0);
+            }
+        }
+        rowSt = ySt;
+        rowEd = yEd;
+        rowsValid = true;
+        windowValid = false;
+    }
+
+    private void addRow(final int y, final double sign) {
+
+        final int stride = 2 * size;
+        for (int xx = minX; xx <= maxX; ++xx) {
+            pixelMatrix.compute(xx, y, pixelRe, pixelIm);
+            final int offset = (xx - minX) * stride;
+            for (int i = 0; i < dim; ++i) {
+                final double[] re = pixelRe[i];
+                final double[] im = pixelIm[i];
+                final int k = offset + i * dim;
+                for (int j = 0; j < dim; ++j) {
+                    columnSums[k + j] += sign * re[j];
+                    columnSums[k + size + j] += sign * im[j];
+                }
+            }
+        }
+    }
+
+    private void selectColumns(final int xSt, final int xEd) {
+
+        if (windowValid && xSt >= colSt && xSt <= colEd + 1 && xEd >= colEd) {
+            for (int xx = colSt; xx < xSt; ++xx) {
+                addColumn(xx, -1.0);
+            }
+            for (int xx = Math.max(colEd + 1, xSt); xx <= xEd; ++xx) {
+                addColumn(xx, 1.0);
+            }
+        } else {
+            Arrays.fill(windowSum, 0.0);
+            for (int xx = xSt; xx <= xEd; ++xx) {
+                addColumn(xx, 1.0);
+            }
+        }
+        colSt = xSt;
+        colEd = xEd;
+        windowValid = true;
+    }
+
+    private void addColumn(final int x, final double sign) {
+
+        final int offset = (x - minX) * windowSum.length;
+        for (int k = 0; k < windowSum.length; ++k) {
+            windowSum[k] += sign * columnSums[offset + k];
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2021 SkyWatch Space Applications Inc. https://www.skywatch.com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.csa.rstb.polarimetric.gpf;
+
+import org.csa.rstb.polarimetric.gpf.decompositions.DecompositionBase;
+import org.csa.rstb.polarimetric.gpf.support.SpanMinMaxMetadata;
+import org.esa.s1tbx.commons.polsar.PolBandUtils;
+import org.esa.snap.core.datamodel.Band;
+import org.esa.snap.core.datamodel.MetadataElement;
+import org.esa.snap.core.datamodel.Product;
+import org.esa.snap.core.datamodel.ProductData;
+import org.junit.Test;
+
+import java.io.File;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit test for SpanMinMaxMetadata.
+ */
+public class TestSpanMinMaxMetadata {
+
+    private static final String[] bandNames = {"T11", "T12_real", "T12_imag", "T13_real", "T13_imag",
+            "T22", "T23_real", "T23_imag", "T33"};
+
+    private static Product createProduct(final File location) {
+        final Product product = new Product("product", "T3", 100, 80);
+        for (String name : bandNames) {
+            product.addBand(name, ProductData.TYPE_FLOAT32);
+        }
+        product.setFileLocation(location);
+        return product;
+    }
+
+    private static PolBandUtils.PolSourceBand getBandList(final Product product) {
+        final Band[] bands = new Band[bandNames.length];
+        for (int i = 0; i < bands.length; ++i) {
+            bands[i] = product.getBand(bandNames[i]);
+        }
+        return new PolBandUtils.PolSourceBand(product.getName(), bands, "");
+    }
+
+    @Test
+    public void testSecondRunReusesRecord() throws Exception {
+        final File location = File.createTempFile("span", ".dim");
+        location.deleteOnExit();
+
+        final Product source1 = createProduct(location);
+        final Product target1 = new Product("target", "T3", 100, 80);
+        final DecompositionBase.MinMax minMax = new DecompositionBase.MinMax();
+        minMax.min = 0.25;
+        minMax.max = 42.0;
+        SpanMinMaxMetadata.set(source1, target1, getBandList(source1), 2, 3, minMax);
+
+        // the source product is not modified, the target product holds the record
+        assertNull(source1.getMetadataRoot().getElement("Span_Min_Max"));
+        final MetadataElement spanElem = target1.getMetadataRoot().getElement("Span_Min_Max");
+        assertNotNull(spanElem);
+        assertEquals(1, spanElem.getNumElements());
+
+        // a second run on the same input file
+        final Product source2 = createProduct(location);
+        final DecompositionBase.MinMax recorded = SpanMinMaxMetadata.get(source2, getBandList(source2), 2, 3);
+        assertNotNull(recorded);
+        assertEquals(0.25, recorded.min, 0.0);
+        assertEquals(42.0, recorded.max, 0.0);
+
+        // another window size
+        assertNull(SpanMinMaxMetadata.get(source2, getBandList(source2), 3, 3));
+    }
+
+    @Test
+    public void testRecordNotReusedForOtherInput() throws Exception {
+        final File location1 = File.createTempFile("span", ".dim");
+        final File location2 = File.createTempFile("span", ".dim");
+        location1.deleteOnExit();
+        location2.deleteOnExit();
+
+        final Product source1 = createProduct(location1);
+        final DecompositionBase.MinMax minMax = new DecompositionBase.MinMax();
+        minMax.min = 0.5;
+        minMax.max = 7.0;
+        SpanMinMaxMetadata.set(source1, null, getBandList(source1), 2, 2, minMax);
+
+        // same product name, bands and size but another file
+        final Product source2 = createProduct(location2);
+        assertNull(SpanMinMaxMetadata.get(source2, getBandList(source2), 2, 2));
+
+        // a product without file location is never matched
+        final Product source3 = createProduct(null);
+        SpanMinMaxMetadata.set(source3, null, getBandList(source3), 2, 2, minMax);
+        assertNull(SpanMinMaxMetadata.get(source3, getBandList(source3), 2, 2));
+    }
+
+    @Test
+    public void testRecordReadFromSourceMetadata() throws Exception {
+        final File location = File.createTempFile("span", ".dim");
+        location.deleteOnExit();
+
+        final Product source1 = createProduct(location);
+        final Product target1 = new Product("target", "T3", 100, 80);
+        final DecompositionBase.MinMax minMax = new DecompositionBase.MinMax();
+        minMax.min = 0.125;
+        minMax.max = 9.0;
+        SpanMinMaxMetadata.set(source1, target1, getBandList(source1), 1, 1, minMax);
+
+        // the input file changed, neither the session value nor the record match
+        assertTrue(location.setLastModified(location.lastModified() - 60000));
+        final Product source2 = createProduct(location);
+        final MetadataElement record = target1.getMetadataRoot().getElement("Span_Min_Max").createDeepClone();
+        source2.getMetadataRoot().addElement(record);
+        assertNull(SpanMinMaxMetadata.get(source2, getBandList(source2), 1, 1));
+
+        // a record for the current file carried in the source metadata, e.g. read from another session
+        record.getElementAt(0).setAttributeString("source_modified",
+                String.valueOf(location.getAbsoluteFile().lastModified()));
+        final DecompositionBase.MinMax recorded = SpanMinMaxMetadata.get(source2, getBandList(source2), 1, 1);
+        assertNotNull(recorded);
+        assertEquals(0.125, recorded.min, 0.0);
+        assertEquals(9.0, recorded.max, 0.0);
+
+        // known values are added to the target when the operator is initialised
+        final Product target2 = new Product("target", "T3", 100, 80);
+        SpanMinMaxMetadata.addRecords(source2, target2, new PolBandUtils.PolSourceBand[]{getBandList(source2)}, 1, 1);
+        final MetadataElement spanElem = target2.getMetadataRoot().getElement("Span_Min_Max");
+        assertNotNull(spanElem);
+        assertEquals(1, spanElem.getNumElements());
+        assertEquals(9.0, spanElem.getElementAt(0).getAttributeDouble("span_max", 0), 0.0);
+
+        // not for another window size
+        final Product target3 = new Product("target", "T3", 100, 80);
+        SpanMinMaxMetadata.addRecords(source2, target3, new PolBandUtils.PolSourceBand[]{getBandList(source2)}, 2, 2);
+        assertNull(target3.getMetadataRoot().getElement("Span_Min_Max"));
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2021 SkyWatch Space Applications Inc. https://www.skywatch.com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.csa.rstb.polarimetric.gpf;
+
+import org.csa.rstb.polarimetric.gpf.support.WindowMatrixAccumulator;
+import org.junit.Test;
+
+import java.awt.*;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Unit test for WindowMatrixAccumulator.
+ */
+public class TestWindowMatrixAccumulator {
+
+    private static final int dim = 3;
+    private static final Rectangle bounds = new Rectangle(7, 11, 40, 30);
+    private static final WindowMatrixAccumulator.PixelMatrix pixelMatrix = (x, y, mr, mi) -> {
+        for (int i = 0; i < dim; ++i) {
+            for (int j = 0; j < dim; ++j) {
+                mr[i][j] = Math.sin(0.37 * x + 1.3 * y + i) * (j + 1) + 0.01 * x * y;
+                mi[i][j] = Math.cos(0.11 * x * (i + 1) - 0.7 * y + j);
+            }
+        }
+    };
+
+    @Test
+    public void testRowByRow() {
+        final WindowMatrixAccumulator accumulator = new WindowMatrixAccumulator(dim, bounds, 4, 2, pixelMatrix);
+        final double[][] mr = new double[dim][dim];
+        final double[][] mi = new double[dim][dim];
+
+        for (int y = bounds.y; y < bounds.y + bounds.height; ++y) {
+            for (int x = bounds.x; x < bounds.x + bounds.width; ++x) {
+                // skipped pixels, as for no data pixels in the decompositions
+                if ((x * 7 + y * 3) % 11 == 0) {
+                    continue;
+                }
+                accumulator.getMeanMatrix(x, y, mr, mi);
+                checkMean(x, y, 4, 2, mr, mi);
+            }
+        }
+    }
+
+    @Test
+    public void testRandomOrder() {
+        final WindowMatrixAccumulator accumulator = new WindowMatrixAccumulator(dim, bounds, 3, 3, pixelMatrix);
+        final double[][] mr = new double[dim][dim];
+        final double[][] mi = new double[dim][dim];
+
+        final Random random = new Random(5);
+        for (int n = 0; n < 500; ++n) {
+            final int x = bounds.x + random.nextInt(bounds.width);
+            final int y = bounds.y + random.nextInt(bounds.height);
+            accumulator.getMeanMatrix(x, y, mr, mi);
+            checkMean(x, y, 3, 3, mr, mi);
+        }
+    }
+
+    private static void checkMean(final int x, final int y, final int halfWindowSizeX, final int halfWindowSizeY,
+                                  final double[][] mr, final double[][] mi) {
+
+        final int xSt = Math.max(x - halfWindowSizeX, bounds.x);
+        final int xEd = Math.min(x + halfWindowSizeX, bounds.x + bounds.width - 1);
+        final int ySt = Math.max(y - halfWindowSizeY, bounds.y);
+        final int yEd = Math.min(y + halfWindowSizeY, bounds.y + bounds.height - 1);
+        final int num = (yEd - ySt + 1) * (xEd - xSt + 1);
+
+        final double[][] tempRe = new double[dim][dim];
+        final double[][] tempIm = new double[dim][dim];
+        final double[][] sumRe = new double[dim][dim];
+        final double[][] sumIm = new double[dim][dim];
+        for (int yy = ySt; yy <= yEd; ++yy) {
+            for (int xx = xSt; xx <= xEd; ++xx) {
+                pixelMatrix.compute(xx, yy, tempRe, tempIm);
+                for (int i = 0; i < dim; ++i) {
+                    for (int j = 0; j < dim; ++j) {
+                        sumRe[i][j] += tempRe[i][j];
+                        sumIm[i][j] += tempIm[i][j];
+                    }
+                }
+            }
+        }
+
+        for (int i = 0; i < dim; ++i) {
+            for (int j = 0; j < dim; ++j) {
+                assertEquals(sumRe[i][j] / num, mr[i][j], 1e-10);
+                assertEquals(sumIm[i][j] / num, mi[i][j], 1e-10);
+            }
+        }
+    }
+}
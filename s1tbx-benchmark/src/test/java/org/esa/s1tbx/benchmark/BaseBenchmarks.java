@@ -29,6 +29,7 @@ import java.io.IOException;
 public class BaseBenchmarks {
 
     protected final static File grdFile = new File(S1TBXTests.inputPathProperty +"/SAR/S1/AWS/S1A_IW_GRDH_1SDV_20180719T002854_20180719T002919_022856_027A78_042A/manifest.safe");
+    protected final static File slcFile = new File(S1TBXTests.inputPathProperty +"/SAR/S1/AWS/S1A_IW_SLC__1SDV_20180719T002854_20180719T002921_022856_027A78_6D23/manifest.safe");
     protected final static File qpFile = new File(S1TBXTests.inputPathProperty +"/SAR/RS2/RS2_OK2084_PK24911_DK25857_FQ14_20080802_225909_HH_VV_HV_VH_SLC/product.xml");
 
     protected final static Rectangle rect = new Rectangle(0, 0, 5000, 5000);
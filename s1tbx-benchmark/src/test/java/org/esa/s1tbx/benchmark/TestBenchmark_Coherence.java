@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2021 SkyWatch Space Applications Inc. https://www.skywatch.com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.benchmark;
+
+import org.jblas.ComplexDouble;
+import org.jblas.ComplexDoubleMatrix;
+import org.jlinda.core.utils.SarUtils;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Compares the coherence estimators of SarUtils on the extended tiles of a 512x512 tile.
+ */
+public class TestBenchmark_Coherence {
+
+    private static final int tileSize = 512;
+    private static final int numTiles = 20;
+    private static final int[][] windows = {{3, 10}, {10, 10}, {20, 40}};
+
+    @Test
+    public void testCoherence2() throws Exception {
+        for (int[] win : windows) {
+            final int winL = win[0], winP = win[1];
+            final double[][] data = createData(winL, winP);
+            final int rows = tileSize + winL - 1, cols = tileSize + winP - 1;
+
+            Benchmark b = new Benchmark("coherence2 " + winL + "x" + winP) {
+                @Override
+                protected void execute() {
+                    for (int n = 0; n < numTiles; ++n) {
+                        final ComplexDoubleMatrix input = new ComplexDoubleMatrix(rows, cols);
+                        final ComplexDoubleMatrix norms = new ComplexDoubleMatrix(rows, cols);
+                        final double[] m = data[0], s = data[1];
+                        for (int i = 0; i < rows * cols; ++i) {
+                            final ComplexDouble mst = new ComplexDouble(m[2 * i], m[2 * i + 1]);
+                            final ComplexDouble slv = new ComplexDouble(s[2 * i], s[2 * i + 1]);
+                            input.put(i, mst.mul(slv.conj()));
+                            norms.put(i, new ComplexDouble(slv.abs() * slv.abs(), mst.abs() * mst.abs()));
+                        }
+                        SarUtils.coherence2(input, norms, winL, winP);
+                    }
+                }
+            };
+            b.run();
+        }
+    }
+
+    @Test
+    public void testCoherenceWindowSums() throws Exception {
+        for (int[] win : windows) {
+            final int winL = win[0], winP = win[1];
+            final double[][] data = createData(winL, winP);
+            final int rows = tileSize + winL - 1, cols = tileSize + winP - 1;
+
+            Benchmark b = new Benchmark("coherence window sums " + winL + "x" + winP) {
+                @Override
+                protected void execute() {
+                    for (int n = 0; n < numTiles; ++n) {
+                        SarUtils.coherence(data[0], data[1], rows, cols, winL, winP);
+                    }
+                }
+            };
+            b.run();
+        }
+    }
+
+    private static double[][] createData(final int winL, final int winP) {
+        final int size = 2 * (tileSize + winL - 1) * (tileSize + winP - 1);
+        final Random random = new Random(1);
+        final double[] master = new double[size];
+        final double[] slave = new double[size];
+        for (int i = 0; i < size; ++i) {
+            master[i] = random.nextGaussian() * 100.0;
+            slave[i] = 0.7 * master[i] + random.nextGaussian() * 30.0;
+        }
+        return new double[][]{master, slave};
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2021 SkyWatch Space Applications Inc. https://www.skywatch.com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.benchmark;
+
+import org.jblas.ComplexDouble;
+import org.jblas.ComplexDoubleMatrix;
+import org.jlinda.core.coregistration.utils.CoregistrationUtils;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Cross-correlation of the burst windows of a synthetic stack over all the pairs of a network, as done for the
+ * range shift of the network ESD, with an increasing number of threads.
+ */
+public class TestBenchmark_CrossCorrelation {
+
+    private static final int numImages = 8;
+    private static final int numBursts = 9;
+    private static final int winSize = 128;
+    private static final int maxTemporalBaseline = 3;
+
+    @Test
+    public void testCrossCorrelateFFT() throws Exception {
+        final ComplexDoubleMatrix[][] stack = createStack();
+        final List<int[]> arcs = new ArrayList<>();
+        for (int i = 0; i < numImages; ++i) {
+            for (int j = i + 1; j <= i + maxTemporalBaseline && j < numImages; ++j) {
+                arcs.add(new int[]{i, j});
+            }
+        }
+
+        final int numCores = Runtime.getRuntime().availableProcessors();
+        for (int numThreads = 1; numThreads <= numCores; numThreads *= 2) {
+            final int threads = numThreads;
+
+            Benchmark b = new Benchmark("crossCorrelateFFT " + arcs.size() + " pairs " + threads + " threads") {
+                @Override
+                protected void execute() throws Exception {
+                    final ExecutorService executor = Executors.newFixedThreadPool(threads);
+                    try {
+                        final List<Future<?>> futures = new ArrayList<>();
+                        for (int[] arc : arcs) {
+                            for (int burst = 0; burst < numBursts; ++burst) {
+                                final ComplexDoubleMatrix master = stack[arc[0]][burst];
+                                final ComplexDoubleMatrix slave = stack[arc[1]][burst];
+                                futures.add(executor.submit(() -> {
+                                    final double[] offset = new double[2];
+                                    CoregistrationUtils.crossCorrelateFFT(offset, master, slave, 16, 4, 4);
+                                }));
+                            }
+                        }
+                        for (Future<?> f : futures) {
+                            f.get();
+                        }
+                    } finally {
+                        executor.shutdown();
+                    }
+                }
+            };
+            b.run();
+        }
+    }
+
+    // speckle windows shifted by a fraction of a pixel in range from one image to the next
+    private static ComplexDoubleMatrix[][] createStack() {
+        final Random random = new Random(1);
+        final ComplexDoubleMatrix[][] stack = new ComplexDoubleMatrix[numImages][numBursts];
+        for (int burst = 0; burst < numBursts; ++burst) {
+            final double[][] re = new double[winSize][winSize + numImages];
+            final double[][] im = new double[winSize][winSize + numImages];
+            for (int y = 0; y < winSize; ++y) {
+                for (int x = 0; x < winSize + numImages; ++x) {
+                    re[y][x] = random.nextGaussian() * 100.0;
+                    im[y][x] = random.nextGaussian() * 100.0;
+                }
+            }
+
+            for (int n = 0; n < numImages; ++n) {
+                final double shift = 0.3 * n;
+                final int x0 = (int) shift;
+                final double frac = shift - x0;
+                final ComplexDoubleMatrix image = new ComplexDoubleMatrix(winSize, winSize);
+                for (int y = 0; y < winSize; ++y) {
+                    for (int x = 0; x < winSize; ++x) {
+                        final int xx = x + x0;
+                        image.put(y, x, new ComplexDouble(
+                                (1.0 - frac) * re[y][xx] + frac * re[y][xx + 1] + random.nextGaussian() * 10.0,
+                                (1.0 - frac) * im[y][xx] + frac * im[y][xx + 1] + random.nextGaussian() * 10.0));
+                    }
+                }
+                stack[n][burst] = image;
+            }
+        }
+        return stack;
+    }
+}
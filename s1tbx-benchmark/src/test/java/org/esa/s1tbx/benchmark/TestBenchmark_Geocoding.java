@@ -0,0 +1,182 @@
+/*
+ * Copyright (C) 2021 SkyWatch Space Applications Inc. https://www.skywatch.com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.benchmark;
+
+import org.esa.s1tbx.commons.SARGeocoding;
+import org.esa.s1tbx.sar.gpf.geometric.RangeDopplerGeocodingOp;
+import org.esa.snap.core.datamodel.CrsGeoCoding;
+import org.esa.snap.core.datamodel.GeoPos;
+import org.esa.snap.core.datamodel.Product;
+import org.esa.snap.core.util.SystemUtils;
+import org.esa.snap.engine_utilities.datamodel.PosVector;
+import org.esa.snap.engine_utilities.eo.GeoUtils;
+import org.esa.snap.engine_utilities.eo.LocalGeometry;
+import org.esa.snap.engine_utilities.gpf.TileGeoreferencing;
+import org.geotools.referencing.crs.DefaultGeographicCRS;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Compares the per pixel cost of the terrain correction geometry before and after
+ * the allocation-free local incidence angle path.
+ */
+public class TestBenchmark_Geocoding extends BaseBenchmarks {
+
+    private static final int tileSize = 512;
+    private static final double demNoDataValue = -32768.0;
+
+    @Test
+    public void testGRD_terraincorrect_localIncidenceAngle() throws Exception {
+        Benchmark b = new Benchmark("GRD_terraincorrect_localIncidenceAngle") {
+            @Override
+            protected void execute() throws Exception {
+                final Product srcProduct = subset(grdFile, rect);
+
+                RangeDopplerGeocodingOp op = new RangeDopplerGeocodingOp();
+                op.setSourceProduct(srcProduct);
+                op.setParameter("saveLocalIncidenceAngle", true);
+                op.setParameter("saveProjectedLocalIncidenceAngle", true);
+                Product trgProduct = op.getTargetProduct();
+
+                writeGPF(trgProduct, outputFolder, DIMAP);
+
+                trgProduct.dispose();
+                srcProduct.dispose();
+            }
+        };
+        b.run();
+    }
+
+    @Test
+    public void testLocalIncidenceAngle_LocalGeometry() throws Exception {
+        final TileGeoreferencing tileGeoRef = createTileGeoRef();
+        final double[][] localDEM = createLocalDEM();
+
+        Benchmark b = new Benchmark("LocalIncidenceAngle_LocalGeometry") {
+            @Override
+            protected void execute() {
+                final long startBytes = getAllocatedBytes();
+                final long startTime = System.nanoTime();
+
+                final GeoPos geoPos = new GeoPos();
+                final PosVector earthPoint = new PosVector();
+                final PosVector sensorPos = new PosVector();
+                double sum = 0;
+                for (int y = 0; y < tileSize; ++y) {
+                    for (int x = 0; x < tileSize; ++x) {
+                        final Double alt = localDEM[y + 1][x + 1];
+                        tileGeoRef.getGeoPos(x, y, geoPos);
+                        GeoUtils.geo2xyzWGS84(geoPos.lat, geoPos.lon, alt, earthPoint);
+                        getSensorPosition(earthPoint, sensorPos);
+
+                        final double[] localIncidenceAngles = {SARGeocoding.NonValidIncidenceAngle,
+                                SARGeocoding.NonValidIncidenceAngle};
+                        final LocalGeometry localGeometry = new LocalGeometry(x, y, tileGeoRef, earthPoint, sensorPos);
+                        SARGeocoding.computeLocalIncidenceAngle(localGeometry, demNoDataValue, true, true,
+                                true, 0, 0, x, y, localDEM, localIncidenceAngles);
+                        sum += localIncidenceAngles[1];
+                    }
+                }
+
+                report("LocalGeometry", startTime, startBytes, sum);
+            }
+        };
+        b.run();
+    }
+
+    @Test
+    public void testLocalIncidenceAngle_Scratch() throws Exception {
+        final TileGeoreferencing tileGeoRef = createTileGeoRef();
+        final double[][] localDEM = createLocalDEM();
+
+        Benchmark b = new Benchmark("LocalIncidenceAngle_Scratch") {
+            @Override
+            protected void execute() {
+                final long startBytes = getAllocatedBytes();
+                final long startTime = System.nanoTime();
+
+                final GeoPos geoPos = new GeoPos();
+                final PosVector earthPoint = new PosVector();
+                final PosVector sensorPos = new PosVector();
+                final double[] localIncidenceAngles = new double[2];
+                final SARGeocoding.LocalGeometryScratch scratch = new SARGeocoding.LocalGeometryScratch();
+                double sum = 0;
+                for (int y = 0; y < tileSize; ++y) {
+                    final double[] demRow = localDEM[y + 1];
+                    for (int x = 0; x < tileSize; ++x) {
+                        final double alt = demRow[x + 1];
+                        tileGeoRef.getGeoPos(x, y, geoPos);
+                        GeoUtils.geo2xyzWGS84(geoPos.lat, geoPos.lon, alt, earthPoint);
+                        getSensorPosition(earthPoint, sensorPos);
+
+                        localIncidenceAngles[0] = SARGeocoding.NonValidIncidenceAngle;
+                        localIncidenceAngles[1] = SARGeocoding.NonValidIncidenceAngle;
+                        SARGeocoding.computeLocalIncidenceAngle(tileGeoRef, earthPoint, sensorPos, demNoDataValue,
+                                true, true, true, 0, 0, x, y, localDEM, localIncidenceAngles, scratch);
+                        sum += localIncidenceAngles[1];
+                    }
+                }
+
+                report("Scratch", startTime, startBytes, sum);
+            }
+        };
+        b.run();
+    }
+
+    private static TileGeoreferencing createTileGeoRef() throws Exception {
+        final int size = tileSize + 2;
+        final Product product = new Product("geocoding", "benchmark", size, size);
+        product.setSceneGeoCoding(new CrsGeoCoding(DefaultGeographicCRS.WGS84, size, size,
+                                                   -75.0, 45.0, 0.0001, 0.0001));
+        return new TileGeoreferencing(product, -1, -1, size, size);
+    }
+
+    private static double[][] createLocalDEM() {
+        final double[][] localDEM = new double[tileSize + 2][tileSize + 2];
+        for (int y = 0; y < localDEM.length; ++y) {
+            for (int x = 0; x < localDEM[y].length; ++x) {
+                localDEM[y][x] = 200.0 + 50.0 * Math.sin(x * 0.05) * Math.cos(y * 0.03);
+            }
+        }
+        return localDEM;
+    }
+
+    // sensor 700 km above and looking to the right of the earth point
+    private static void getSensorPosition(final PosVector earthPoint, final PosVector sensorPos) {
+        final double r = Math.sqrt(earthPoint.x * earthPoint.x + earthPoint.y * earthPoint.y + earthPoint.z * earthPoint.z);
+        final double scale = (r + 700000.0) / r;
+        sensorPos.x = earthPoint.x * scale - 300000.0;
+        sensorPos.y = earthPoint.y * scale;
+        sensorPos.z = earthPoint.z * scale;
+    }
+
+    private static long getAllocatedBytes() {
+        final java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+
+    private static void report(final String name, final long startTime, final long startBytes, final double checksum) {
+        final double numPixels = (double) tileSize * tileSize;
+        final double nsPerPixel = (System.nanoTime() - startTime) / numPixels;
+        final double bytesPerPixel = (getAllocatedBytes() - startBytes) / numPixels;
+        SystemUtils.LOG.info(name + ": " + String.format("%.1f", nsPerPixel) + " ns/pixel, " +
+                                     String.format("%.1f", bytesPerPixel) + " bytes/pixel, checksum " + checksum);
+    }
+}
@@ -68,6 +68,32 @@ public class TestBenchmark_ReadWrite extends BaseBenchmarks {
         b.run();
     }
 
+    @Test
+    public void testSLC_read_writeGPF() throws Exception {
+        Benchmark b = new Benchmark("SLC_read_writeGPF") {
+            @Override
+            protected void execute() throws Exception {
+                final Product srcProduct = read(slcFile);
+                writeGPF(srcProduct, outputFolder, DIMAP);
+                srcProduct.dispose();
+            }
+        };
+        b.run();
+    }
+
+    @Test
+    public void testSLC_subset_read_writeGPF() throws Exception {
+        Benchmark b = new Benchmark("SLC_subset_read_writeGPF") {
+            @Override
+            protected void execute() throws Exception {
+                final Product srcProduct = subset(slcFile, rect);
+                writeGPF(srcProduct, outputFolder, DIMAP);
+                srcProduct.dispose();
+            }
+        };
+        b.run();
+    }
+
     @Test
     public void testQP_read_write() throws Exception {
         Benchmark b = new Benchmark("QP Read_ProductIO.Write") {
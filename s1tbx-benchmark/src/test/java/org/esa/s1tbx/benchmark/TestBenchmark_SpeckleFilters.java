@@ -81,6 +81,16 @@ public class TestBenchmark_SpeckleFilters extends BaseBenchmarks {
         specklefilter("IDAN");
     }
 
+    @Test
+    public void testGRD_specklefilter_WindowSizes() throws Exception {
+        final String[] names = {"Boxcar", "Lee", "Frost", "Gamma Map"};
+        for (String name : names) {
+            for (int windowSize : new int[]{7, 11, 15, 21}) {
+                specklefilterWindow(name, windowSize);
+            }
+        }
+    }
+
     private void specklefilter(final String name) throws Exception {
         Benchmark b = new Benchmark(name) {
             @Override
@@ -91,6 +101,28 @@ public class TestBenchmark_SpeckleFilters extends BaseBenchmarks {
         b.run();
     }
 
+    private void specklefilterWindow(final String name, final int windowSize) throws Exception {
+        Benchmark b = new Benchmark(name + " " + windowSize + "x" + windowSize) {
+            @Override
+            protected void execute() throws Exception {
+                final Product srcProduct = subset(grdFile, rect);
+
+                SpeckleFilterOp op = new SpeckleFilterOp();
+                op.setSourceProduct(srcProduct);
+                op.SetFilter(name);
+                op.setParameter("filterSizeX", windowSize);
+                op.setParameter("filterSizeY", windowSize);
+                Product trgProduct = op.getTargetProduct();
+
+                writeGPF(trgProduct, outputFolder, DIMAP);
+
+                trgProduct.dispose();
+                srcProduct.dispose();
+            }
+        };
+        b.run();
+    }
+
     private void specklefilterWriteOp(final String name) throws Exception {
         Benchmark b = new Benchmark(name) {
             @Override
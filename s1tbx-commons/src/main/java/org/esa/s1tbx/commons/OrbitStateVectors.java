@@ -4,35 +4,78 @@ import org.esa.snap.engine_utilities.datamodel.OrbitStateVector;
 import org.esa.snap.engine_utilities.datamodel.PosVector;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public final class OrbitStateVectors {
 
     public OrbitStateVector[] orbitStateVectors = null;
     public PosVector[] sensorPosition = null; // sensor position for all range lines
     public PosVector[] sensorVelocity = null; // sensor velocity for all range lines
+    // sensor position and velocity for all range lines as primitive arrays, used instead of the arrays above
+    public double[] sensorPositionX = null;
+    public double[] sensorPositionY = null;
+    public double[] sensorPositionZ = null;
+    public double[] sensorVelocityX = null;
+    public double[] sensorVelocityY = null;
+    public double[] sensorVelocityZ = null;
     private double dt = 0.0;
-    private final Map<Double, PositionVelocity> timeMap = new HashMap<>();
+    private final Map<Double, PositionVelocity> timeMap = new ConcurrentHashMap<>();
 
     private static final int nv = 8;
+    private static final int MAX_CACHED_TIMES = 4096;
 
     public OrbitStateVectors(final OrbitStateVector[] orbitStateVectors,
                              final double firstLineUTC, final double lineTimeInterval, final int sourceImageHeight) {
+        this(orbitStateVectors, firstLineUTC, lineTimeInterval, sourceImageHeight, false);
+    }
+
+    /**
+     * @param orbitStateVectors The orbit state vectors.
+     * @param firstLineUTC      The zero Doppler time for the first range line.
+     * @param lineTimeInterval  The line time interval.
+     * @param sourceImageHeight The number of range lines.
+     * @param lineStateArrays   Keep the sensor position and velocity of the range lines in the six primitive arrays
+     *                          sensorPositionX to sensorVelocityZ instead of the PosVector arrays.
+     */
+    public OrbitStateVectors(final OrbitStateVector[] orbitStateVectors,
+                             final double firstLineUTC, final double lineTimeInterval, final int sourceImageHeight,
+                             final boolean lineStateArrays) {
         if(orbitStateVectors != null && orbitStateVectors.length > 0) {
             this.orbitStateVectors = removeRedundantVectors(orbitStateVectors);
 
             this.dt = (this.orbitStateVectors[this.orbitStateVectors.length - 1].time_mjd -
                     this.orbitStateVectors[0].time_mjd) / (this.orbitStateVectors.length - 1);
 
-            this.sensorPosition = new PosVector[sourceImageHeight];
-            this.sensorVelocity = new PosVector[sourceImageHeight];
-            for (int i = 0; i < sourceImageHeight; i++) {
-                final double time = firstLineUTC + i * lineTimeInterval;
-                PositionVelocity pv = getPositionVelocity(time);
-                sensorPosition[i] = pv.position;
-                sensorVelocity[i] = pv.velocity;
+            if (lineStateArrays) {
+                this.sensorPositionX = new double[sourceImageHeight];
+                this.sensorPositionY = new double[sourceImageHeight];
+                this.sensorPositionZ = new double[sourceImageHeight];
+                this.sensorVelocityX = new double[sourceImageHeight];
+                this.sensorVelocityY = new double[sourceImageHeight];
+                this.sensorVelocityZ = new double[sourceImageHeight];
+                final PositionVelocity pv = new PositionVelocity();
+                for (int i = 0; i < sourceImageHeight; i++) {
+                    final double time = firstLineUTC + i * lineTimeInterval;
+                    computePositionVelocity(time, pv);
+                    sensorPositionX[i] = pv.position.x;
+                    sensorPositionY[i] = pv.position.y;
+                    sensorPositionZ[i] = pv.position.z;
+                    sensorVelocityX[i] = pv.velocity.x;
+                    sensorVelocityY[i] = pv.velocity.y;
+                    sensorVelocityZ[i] = pv.velocity.z;
+                }
+            } else {
+                this.sensorPosition = new PosVector[sourceImageHeight];
+                this.sensorVelocity = new PosVector[sourceImageHeight];
+                for (int i = 0; i < sourceImageHeight; i++) {
+                    final double time = firstLineUTC + i * lineTimeInterval;
+                    final PositionVelocity pv = new PositionVelocity();
+                    computePositionVelocity(time, pv);
+                    sensorPosition[i] = pv.position;
+                    sensorVelocity[i] = pv.velocity;
+                }
             }
         }
     }
@@ -62,6 +105,13 @@ public final class OrbitStateVectors {
         return vectorList.toArray(new OrbitStateVector[0]);
     }
 
+    /**
+     * Get the sensor position and velocity for given time. The results are cached by time, for all threads, and the
+     * cache is emptied once it holds MAX_CACHED_TIMES entries.
+     *
+     * @param time The time in days.
+     * @return The position and velocity, not to be modified.
+     */
     public PositionVelocity getPositionVelocity(final Double time) {
 
         PositionVelocity cachedPosVel = timeMap.get(time);
@@ -69,6 +119,18 @@ public final class OrbitStateVectors {
             return cachedPosVel;
         }
 
+        final PositionVelocity pv = new PositionVelocity();
+        computePositionVelocity(time, pv);
+
+        if (timeMap.size() >= MAX_CACHED_TIMES) {
+            timeMap.clear();
+        }
+        timeMap.put(time, pv);
+        return pv;
+    }
+
+    private void computePositionVelocity(final double time, final PositionVelocity pv) {
+
         int i0, iN;
         if (orbitStateVectors.length <= nv) {
             i0 = 0;
@@ -80,7 +142,12 @@ public final class OrbitStateVectors {
         }
 
         //lagrangeInterpolatingPolynomial
-        final PositionVelocity pv = new PositionVelocity();
+        pv.position.x = 0;
+        pv.position.y = 0;
+        pv.position.z = 0;
+        pv.velocity.x = 0;
+        pv.velocity.y = 0;
+        pv.velocity.z = 0;
 
         for (int i = i0; i <= iN; ++i) {
             final OrbitStateVector orbI = orbitStateVectors[i];
@@ -101,9 +168,6 @@ public final class OrbitStateVectors {
             pv.velocity.y += weight * orbI.y_vel;
             pv.velocity.z += weight * orbI.z_vel;
         }
-
-        timeMap.put(time, pv);
-        return pv;
     }
 
     PosVector getPosition(final double time, final PosVector position) {
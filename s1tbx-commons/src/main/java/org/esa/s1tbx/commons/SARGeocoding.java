@@ -106,6 +106,197 @@ public final class SARGeocoding {
         return firstLineUTC + y0 * lineTimeInterval;
     }
 
+    /**
+     * Compute zero Doppler time for given earth point, starting the search from the range line found for a
+     * previous, nearby earth point. Neighbouring pixels of a tile have nearly the same zero Doppler time, so the
+     * solution is usually bracketed after a few Doppler frequency evaluations instead of a full binary search
+     * over all range lines. The result is the same as that of the cold search. The warm start needs the range
+     * lines in the primitive arrays of the orbit, those in the PosVector arrays are searched from scratch.
+     *
+     * @param firstLineUTC     The zero Doppler time for the first range line.
+     * @param lineTimeInterval The line time interval.
+     * @param wavelength       The radar wavelength.
+     * @param earthPoint       The earth point in xyz coordinate.
+     * @param orbit            The object holding the sensor positions and velocities for all range lines.
+     * @param lineHint         The range line of the previous solution, -1 if there is none. It is updated with
+     *                         the range line of the new solution.
+     * @return The zero Doppler time in days if it is found, NonValidZeroDopplerTime otherwise.
+     */
+    public static double getEarthPointZeroDopplerTime(final double firstLineUTC,
+                                                      final double lineTimeInterval, final double wavelength,
+                                                      final PosVector earthPoint, final OrbitStateVectors orbit,
+                                                      final int[] lineHint) {
+
+        if (orbit.sensorPositionX == null) {
+            // range lines kept in the PosVector arrays
+            if (orbit.sensorPosition == null) {
+                return NonValidZeroDopplerTime;
+            }
+            return getEarthPointZeroDopplerTime(firstLineUTC, lineTimeInterval, wavelength, earthPoint,
+                    orbit.sensorPosition, orbit.sensorVelocity);
+        }
+        final double[] posX = orbit.sensorPositionX;
+        final double[] posY = orbit.sensorPositionY;
+        final double[] posZ = orbit.sensorPositionZ;
+        final double[] velX = orbit.sensorVelocityX;
+        final double[] velY = orbit.sensorVelocityY;
+        final double[] velZ = orbit.sensorVelocityZ;
+        final double x = earthPoint.x, y = earthPoint.y, z = earthPoint.z;
+
+        final int lastLine = posX.length - 1;
+        int lowerBound = 0;
+        int upperBound = lastLine;
+        double lowerBoundFreq = getDopplerFrequency(x - posX[lowerBound], y - posY[lowerBound], z - posZ[lowerBound],
+                velX[lowerBound], velY[lowerBound], velZ[lowerBound], wavelength);
+        double upperBoundFreq = getDopplerFrequency(x - posX[upperBound], y - posY[upperBound], z - posZ[upperBound],
+                velX[upperBound], velY[upperBound], velZ[upperBound], wavelength);
+
+        if (Math.abs(lowerBoundFreq) < 1.0) {
+            lineHint[0] = lowerBound;
+            return firstLineUTC + lowerBound * lineTimeInterval;
+        } else if (Math.abs(upperBoundFreq) < 1.0) {
+            lineHint[0] = upperBound;
+            return firstLineUTC + upperBound * lineTimeInterval;
+        } else if (lowerBoundFreq * upperBoundFreq > 0.0) {
+            return NonValidZeroDopplerTime;
+        }
+
+        // bracket the solution around the previous one with an expanding step
+        final int hint = lineHint[0];
+        if (hint > 0 && hint < lastLine) {
+            final double hintFreq = velX[hint] * (x - posX[hint]) + velY[hint] * (y - posY[hint]) +
+                    velZ[hint] * (z - posZ[hint]);
+            if (Double.compare(hintFreq, 0.0) == 0) {
+                return firstLineUTC + hint * lineTimeInterval;
+            }
+
+            int step = 1;
+            if (hintFreq * lowerBoundFreq > 0.0) {
+                lowerBound = hint;
+                lowerBoundFreq = hintFreq;
+                while (lowerBound + step < upperBound) {
+                    final int line = lowerBound + step;
+                    final double freq = velX[line] * (x - posX[line]) + velY[line] * (y - posY[line]) +
+                            velZ[line] * (z - posZ[line]);
+                    if (Double.compare(freq, 0.0) == 0) {
+                        lineHint[0] = line;
+                        return firstLineUTC + line * lineTimeInterval;
+                    } else if (freq * lowerBoundFreq > 0.0) {
+                        lowerBound = line;
+                        lowerBoundFreq = freq;
+                        step *= 2;
+                    } else {
+                        upperBound = line;
+                        upperBoundFreq = freq;
+                        break;
+                    }
+                }
+            } else {
+                upperBound = hint;
+                upperBoundFreq = hintFreq;
+                while (upperBound - step > lowerBound) {
+                    final int line = upperBound - step;
+                    final double freq = velX[line] * (x - posX[line]) + velY[line] * (y - posY[line]) +
+                            velZ[line] * (z - posZ[line]);
+                    if (Double.compare(freq, 0.0) == 0) {
+                        lineHint[0] = line;
+                        return firstLineUTC + line * lineTimeInterval;
+                    } else if (freq * upperBoundFreq > 0.0) {
+                        upperBound = line;
+                        upperBoundFreq = freq;
+                        step *= 2;
+                    } else {
+                        lowerBound = line;
+                        lowerBoundFreq = freq;
+                        break;
+                    }
+                }
+            }
+        }
+
+        // binary search within the bracket
+        while (upperBound - lowerBound > 1) {
+
+            final int mid = (int) ((lowerBound + upperBound) / 2.0);
+            final double midFreq = velX[mid] * (x - posX[mid]) + velY[mid] * (y - posY[mid]) +
+                    velZ[mid] * (z - posZ[mid]);
+
+            if (midFreq * lowerBoundFreq > 0.0) {
+                lowerBound = mid;
+                lowerBoundFreq = midFreq;
+            } else if (midFreq * upperBoundFreq > 0.0) {
+                upperBound = mid;
+                upperBoundFreq = midFreq;
+            } else if (Double.compare(midFreq, 0.0) == 0) {
+                lineHint[0] = mid;
+                return firstLineUTC + mid * lineTimeInterval;
+            }
+        }
+
+        lineHint[0] = lowerBound;
+        final double y0 = lowerBound - lowerBoundFreq * (upperBound - lowerBound) / (upperBoundFreq - lowerBoundFreq);
+        return firstLineUTC + y0 * lineTimeInterval;
+    }
+
+    /**
+     * Compute zero Doppler time for given earth point. The warm started search over the range lines is used
+     * first. Only if the orbit has no per line sensor positions or the earth point is not seen within the
+     * range lines, the time is refined with Newton's method on the orbit state vectors.
+     *
+     * @param firstLineUTC     The zero Doppler time for the first range line.
+     * @param lineTimeInterval The line time interval.
+     * @param wavelength       The radar wavelength.
+     * @param earthPoint       The earth point in xyz coordinate.
+     * @param orbit            The object holding orbit state vectors.
+     * @param lineHint         The range line of the previous solution, -1 if there is none.
+     * @return The zero Doppler time in days if it is found, NonValidZeroDopplerTime otherwise.
+     */
+    public static double getZeroDopplerTime(final double firstLineUTC, final double lineTimeInterval,
+                                            final double wavelength, final PosVector earthPoint,
+                                            final OrbitStateVectors orbit, final int[] lineHint) {
+
+        final double zeroDopplerTime = getEarthPointZeroDopplerTime(
+                firstLineUTC, lineTimeInterval, wavelength, earthPoint, orbit, lineHint);
+        if (Double.compare(zeroDopplerTime, NonValidZeroDopplerTime) != 0) {
+            return zeroDopplerTime;
+        }
+
+        return getEarthPointZeroDopplerTimeNewton(lineTimeInterval, wavelength, earthPoint, orbit);
+    }
+
+    /**
+     * Compute zero Doppler times for the earth points of a tile, e.g. one image row after the other.
+     * Each search is warm started from the solution of the previous point.
+     *
+     * @param earthPoints      The earth points in xyz coordinate. Null entries are skipped.
+     * @param numPoints        The number of earth points to process.
+     * @param firstLineUTC     The zero Doppler time for the first range line.
+     * @param lineTimeInterval The line time interval.
+     * @param wavelength       The radar wavelength.
+     * @param orbit            The object holding orbit state vectors.
+     * @param newtonFallback   Refine points outside of the range lines with Newton's method on the orbit.
+     * @param zeroDopplerTimes The zero Doppler times in days, NonValidZeroDopplerTime where none is found.
+     */
+    public static void computeZeroDopplerTimes(final PosVector[] earthPoints, final int numPoints,
+                                               final double firstLineUTC, final double lineTimeInterval,
+                                               final double wavelength, final OrbitStateVectors orbit,
+                                               final boolean newtonFallback, final double[] zeroDopplerTimes) {
+
+        final int[] lineHint = {-1};
+        for (int i = 0; i < numPoints; ++i) {
+            final PosVector earthPoint = earthPoints[i];
+            if (earthPoint == null) {
+                zeroDopplerTimes[i] = NonValidZeroDopplerTime;
+            } else if (newtonFallback) {
+                zeroDopplerTimes[i] = getZeroDopplerTime(
+                        firstLineUTC, lineTimeInterval, wavelength, earthPoint, orbit, lineHint);
+            } else {
+                zeroDopplerTimes[i] = getEarthPointZeroDopplerTime(
+                        firstLineUTC, lineTimeInterval, wavelength, earthPoint, orbit, lineHint);
+            }
+        }
+    }
+
     public static double getEarthPointZeroDopplerTimeNewton(
             final double lineTimeInterval, final double wavelength,
             final PosVector earthPoint, final OrbitStateVectors orbit) {
@@ -267,6 +458,15 @@ public final class SARGeocoding {
         return 2.0 * (sensorVelocity.x * xDiff + sensorVelocity.y * yDiff + sensorVelocity.z * zDiff) / (distance * wavelength);
     }
 
+    // Doppler frequency for the line of sight and sensor velocity given by their components
+    private static double getDopplerFrequency(final double xDiff, final double yDiff, final double zDiff,
+                                              final double xVel, final double yVel, final double zVel,
+                                              final double wavelength) {
+
+        final double distance = Math.sqrt(xDiff * xDiff + yDiff * yDiff + zDiff * zDiff);
+        return 2.0 * (xVel * xDiff + yVel * yDiff + zVel * zDiff) / (distance * wavelength);
+    }
+
     /**
      * Compute Doppler frequency for given earthPoint and sensor position.
      *
@@ -567,20 +767,100 @@ public final class SARGeocoding {
             final boolean saveProjectedLocalIncidenceAngle, final boolean saveSigmaNought, final int x0,
             final int y0, final int x, final int y, final double[][] localDEM, final double[] localIncidenceAngles) {
 
-        // Note: For algorithm and notation of the following implementation, please see Andrea's email dated
-        //       May 29, 2009 and Marcus' email dated June 3, 2009, or see Eq (14.10) and Eq (14.11) on page
-        //       321 and 323 in "SAR Geocoding - Data and Systems".
-        //       The Cartesian coordinate (x, y, z) is represented here by a length-3 array with element[0]
-        //       representing x, element[1] representing y and element[2] representing z.
+        if (!isValidLocalDEM(demNoDataValue, x0, y0, x, y, localDEM)) {
+            return;
+        }
+
+        final PosVector rightPoint = new PosVector();
+        final PosVector leftPoint = new PosVector();
+        final PosVector upPoint = new PosVector();
+        final PosVector downPoint = new PosVector();
+
+        computeNeighbourPoints(lg.rightPointLat, lg.rightPointLon, lg.leftPointLat, lg.leftPointLon,
+                lg.upPointLat, lg.upPointLon, lg.downPointLat, lg.downPointLon, x0, y0, x, y, localDEM,
+                rightPoint, leftPoint, upPoint, downPoint);
+
+        computeLocalIncidenceAngle(rightPoint, leftPoint, upPoint, downPoint, lg.centrePoint, lg.sensorPos,
+                saveLocalIncidenceAngle, saveProjectedLocalIncidenceAngle, saveSigmaNought, localIncidenceAngles);
+    }
+
+    /**
+     * Compute local incidence angle and projected local incidence angle (in degree) without allocating
+     * any objects. The geographic positions of the four neighbours of the current pixel are taken directly
+     * from the tile georeferencing, so no LocalGeometry is needed.
+     *
+     * @param tileGeoRef                       The tile georeferencing of the current tile.
+     * @param centrePoint                      The earth point of the current pixel in xyz coordinate.
+     * @param sensorPos                        The sensor position in xyz coordinate.
+     * @param demNoDataValue                   The DEM no data value.
+     * @param saveLocalIncidenceAngle          Boolean flag indicating saving local incidence angle.
+     * @param saveProjectedLocalIncidenceAngle Boolean flag indicating saving projected local incidence angle.
+     * @param saveSigmaNought                  Boolean flag indicating applying radiometric calibration.
+     * @param x0                               The x coordinate of the pixel at the upper left corner of current tile.
+     * @param y0                               The y coordinate of the pixel at the upper left corner of current tile.
+     * @param x                                The x coordinate of the current pixel.
+     * @param y                                The y coordinate of the current pixel.
+     * @param localDEM                         The local DEM.
+     * @param localIncidenceAngles             The local incidence angle and projected local incidence angle.
+     * @param scratch                          Reusable scratch storage owned by the calling thread.
+     */
+    public static void computeLocalIncidenceAngle(
+            final TileGeoreferencing tileGeoRef, final PosVector centrePoint, final PosVector sensorPos,
+            final double demNoDataValue, final boolean saveLocalIncidenceAngle,
+            final boolean saveProjectedLocalIncidenceAngle, final boolean saveSigmaNought, final int x0,
+            final int y0, final int x, final int y, final double[][] localDEM, final double[] localIncidenceAngles,
+            final LocalGeometryScratch scratch) {
+
+        if (!isValidLocalDEM(demNoDataValue, x0, y0, x, y, localDEM)) {
+            return;
+        }
+
+        final GeoPos geo = scratch.geoPos;
+        tileGeoRef.getGeoPos(x + 1, y, geo);
+        final double rightPointLat = geo.lat;
+        final double rightPointLon = geo.lon;
+
+        tileGeoRef.getGeoPos(x - 1, y, geo);
+        final double leftPointLat = geo.lat;
+        final double leftPointLon = geo.lon;
+
+        tileGeoRef.getGeoPos(x, y - 1, geo);
+        final double upPointLat = geo.lat;
+        final double upPointLon = geo.lon;
+
+        tileGeoRef.getGeoPos(x, y + 1, geo);
+        final double downPointLat = geo.lat;
+        final double downPointLon = geo.lon;
+
+        computeNeighbourPoints(rightPointLat, rightPointLon, leftPointLat, leftPointLon,
+                upPointLat, upPointLon, downPointLat, downPointLon, x0, y0, x, y, localDEM,
+                scratch.rightPoint, scratch.leftPoint, scratch.upPoint, scratch.downPoint);
+
+        computeLocalIncidenceAngle(scratch.rightPoint, scratch.leftPoint, scratch.upPoint, scratch.downPoint,
+                centrePoint, sensorPos, saveLocalIncidenceAngle, saveProjectedLocalIncidenceAngle, saveSigmaNought,
+                localIncidenceAngles);
+    }
+
+    private static boolean isValidLocalDEM(final double demNoDataValue, final int x0, final int y0,
+                                           final int x, final int y, final double[][] localDEM) {
 
         for (int i = 0; i < 3; i++) {
-            final int yy = y - y0 + i;
+            final double[] demRow = localDEM[y - y0 + i];
             for (int j = 0; j < 3; j++) {
-                if (demNoDataValue.equals(localDEM[yy][x - x0 + j])) {
-                    return;
+                if (Double.compare(demNoDataValue, demRow[x - x0 + j]) == 0) {
+                    return false;
                 }
             }
         }
+        return true;
+    }
+
+    private static void computeNeighbourPoints(
+            final double rightPointLat, final double rightPointLon, final double leftPointLat,
+            final double leftPointLon, final double upPointLat, final double upPointLon,
+            final double downPointLat, final double downPointLon, final int x0, final int y0, final int x,
+            final int y, final double[][] localDEM, final PosVector rightPoint, final PosVector leftPoint,
+            final PosVector upPoint, final PosVector downPoint) {
 
         final int yy = y - y0;
         final int xx = x - x0;
@@ -600,50 +880,84 @@ public final class SARGeocoding {
                 localDEM[yy + 2][xx + 1] +
                 localDEM[yy + 2][xx + 2]) / 3.0;
 
-        final PosVector rightPoint = new PosVector();
-        final PosVector leftPoint = new PosVector();
-        final PosVector upPoint = new PosVector();
-        final PosVector downPoint = new PosVector();
-
-        GeoUtils.geo2xyzWGS84(lg.rightPointLat, lg.rightPointLon, rightPointHeight, rightPoint);
-        GeoUtils.geo2xyzWGS84(lg.leftPointLat, lg.leftPointLon, leftPointHeight, leftPoint);
-        GeoUtils.geo2xyzWGS84(lg.upPointLat, lg.upPointLon, upPointHeight, upPoint);
-        GeoUtils.geo2xyzWGS84(lg.downPointLat, lg.downPointLon, downPointHeight, downPoint);
+        GeoUtils.geo2xyzWGS84(rightPointLat, rightPointLon, rightPointHeight, rightPoint);
+        GeoUtils.geo2xyzWGS84(leftPointLat, leftPointLon, leftPointHeight, leftPoint);
+        GeoUtils.geo2xyzWGS84(upPointLat, upPointLon, upPointHeight, upPoint);
+        GeoUtils.geo2xyzWGS84(downPointLat, downPointLon, downPointHeight, downPoint);
+    }
 
-        final PosVector a = new PosVector(rightPoint.x - leftPoint.x, rightPoint.y - leftPoint.y, rightPoint.z - leftPoint.z);
-        final PosVector b = new PosVector(downPoint.x - upPoint.x, downPoint.y - upPoint.y, downPoint.z - upPoint.z);
-        final PosVector c = new PosVector(lg.centrePoint.x, lg.centrePoint.y, lg.centrePoint.z);
+    /**
+     * Compute local incidence angle and projected local incidence angle (in degree) from the four neighbouring
+     * points of the centre point. All vector algebra is done on primitives.
+     */
+    private static void computeLocalIncidenceAngle(
+            final PosVector rightPoint, final PosVector leftPoint, final PosVector upPoint, final PosVector downPoint,
+            final PosVector centrePoint, final PosVector sensorPos, final boolean saveLocalIncidenceAngle,
+            final boolean saveProjectedLocalIncidenceAngle, final boolean saveSigmaNought,
+            final double[] localIncidenceAngles) {
 
-        final PosVector n = new PosVector(
-                a.y * b.z - a.z * b.y,
-                a.z * b.x - a.x * b.z,
-                a.x * b.y - a.y * b.x); // ground plane normal
+        // Note: For algorithm and notation of the following implementation, please see Andrea's email dated
+        //       May 29, 2009 and Marcus' email dated June 3, 2009, or see Eq (14.10) and Eq (14.11) on page
+        //       321 and 323 in "SAR Geocoding - Data and Systems".
 
-        Maths.normalizeVector(n);
-        if (Maths.innerProduct(n, c) < 0) {
-            n.x = -n.x;
-            n.y = -n.y;
-            n.z = -n.z;
+        final double ax = rightPoint.x - leftPoint.x;
+        final double ay = rightPoint.y - leftPoint.y;
+        final double az = rightPoint.z - leftPoint.z;
+
+        final double bx = downPoint.x - upPoint.x;
+        final double by = downPoint.y - upPoint.y;
+        final double bz = downPoint.z - upPoint.z;
+
+        final double cx = centrePoint.x;
+        final double cy = centrePoint.y;
+        final double cz = centrePoint.z;
+
+        // ground plane normal
+        double nx = ay * bz - az * by;
+        double ny = az * bx - ax * bz;
+        double nz = ax * by - ay * bx;
+        final double nNorm = Math.sqrt(nx * nx + ny * ny + nz * nz);
+        nx /= nNorm;
+        ny /= nNorm;
+        nz /= nNorm;
+        if (nx * cx + ny * cy + nz * cz < 0) {
+            nx = -nx;
+            ny = -ny;
+            nz = -nz;
         }
 
-        final PosVector s = new PosVector(
-                lg.sensorPos.x - lg.centrePoint.x,
-                lg.sensorPos.y - lg.centrePoint.y,
-                lg.sensorPos.z - lg.centrePoint.z);
-        Maths.normalizeVector(s);
+        double sx = sensorPos.x - cx;
+        double sy = sensorPos.y - cy;
+        double sz = sensorPos.z - cz;
+        final double sNorm = Math.sqrt(sx * sx + sy * sy + sz * sz);
+        sx /= sNorm;
+        sy /= sNorm;
+        sz /= sNorm;
 
         if (saveLocalIncidenceAngle) { // local incidence angle
-            final double nsInnerProduct = Maths.innerProduct(n, s);
+            final double nsInnerProduct = nx * sx + ny * sy + nz * sz;
             localIncidenceAngles[0] = FastMath.acos(nsInnerProduct) * Constants.RTOD;
         }
 
         if (saveProjectedLocalIncidenceAngle || saveSigmaNought) { // projected local incidence angle
-            final PosVector m = new PosVector(s.y * c.z - s.z * c.y, s.z * c.x - s.x * c.z, s.x * c.y - s.y * c.x); // range plane normal
-            Maths.normalizeVector(m);
-            final double mnInnerProduct = Maths.innerProduct(m, n);
-            final PosVector n1 = new PosVector(n.x - m.x * mnInnerProduct, n.y - m.y * mnInnerProduct, n.z - m.z * mnInnerProduct);
-            Maths.normalizeVector(n1);
-            localIncidenceAngles[1] = FastMath.acos(Maths.innerProduct(n1, s)) * Constants.RTOD;
+            // range plane normal
+            double mx = sy * cz - sz * cy;
+            double my = sz * cx - sx * cz;
+            double mz = sx * cy - sy * cx;
+            final double mNorm = Math.sqrt(mx * mx + my * my + mz * mz);
+            mx /= mNorm;
+            my /= mNorm;
+            mz /= mNorm;
+
+            final double mnInnerProduct = mx * nx + my * ny + mz * nz;
+            double n1x = nx - mx * mnInnerProduct;
+            double n1y = ny - my * mnInnerProduct;
+            double n1z = nz - mz * mnInnerProduct;
+            final double n1Norm = Math.sqrt(n1x * n1x + n1y * n1y + n1z * n1z);
+            n1x /= n1Norm;
+            n1y /= n1Norm;
+            n1z /= n1Norm;
+            localIncidenceAngles[1] = FastMath.acos(n1x * sx + n1y * sy + n1z * sz) * Constants.RTOD;
         }
     }
 
@@ -653,19 +967,13 @@ public final class SARGeocoding {
             final int y0, final int x, final int y, final double[][] localDEM, final double[] localIncidenceAngles,
             final TileGeoreferencing tileGeoRef, ElevationModel dem) throws Exception {
 
-        // Note: For algorithm and notation of the following implementation, please see Andrea's email dated
-        //       May 29, 2009 and Marcus' email dated June 3, 2009, or see Eq (14.10) and Eq (14.11) on page
-        //       321 and 323 in "SAR Geocoding - Data and Systems".
-        //       The Cartesian coordinate (x, y, z) is represented here by a length-3 array with element[0]
-        //       representing x, element[1] representing y and element[2] representing z.
-
         final int yy = y - y0;
         final int xx = x - x0;
         final int maxX = localDEM[0].length - 1;
         final int maxY = localDEM.length - 1;
         final int numN = 3;
         final GeoPos geo = new GeoPos();
-        Double alt;
+        double alt;
 
         double rightPointHeight = 0, leftPointHeight = 0, upPointHeight = 0, downPointHeight = 0;
 
@@ -677,7 +985,7 @@ public final class SARGeocoding {
             } else {
                 alt = localDEM[yy][xx + n];
             }
-            if (!alt.equals(demNoDataValue)) {
+            if (Double.compare(alt, demNoDataValue) != 0) {
                 rightPointHeight += alt;
                 ++cnt;
             }
@@ -693,7 +1001,7 @@ public final class SARGeocoding {
             } else {
                 alt = localDEM[yy][xx - n];
             }
-            if (!alt.equals(demNoDataValue)) {
+            if (Double.compare(alt, demNoDataValue) != 0) {
                 leftPointHeight += alt;
                 ++cnt;
             }
@@ -709,7 +1017,7 @@ public final class SARGeocoding {
             } else {
                 alt = localDEM[yy - n][xx];
             }
-            if (!alt.equals(demNoDataValue)) {
+            if (Double.compare(alt, demNoDataValue) != 0) {
                 upPointHeight += alt;
                 ++cnt;
             }
@@ -725,7 +1033,7 @@ public final class SARGeocoding {
             } else {
                 alt = localDEM[yy + n][xx];
             }
-            if (!alt.equals(demNoDataValue)) {
+            if (Double.compare(alt, demNoDataValue) != 0) {
                 downPointHeight += alt;
                 ++cnt;
             }
@@ -748,42 +1056,20 @@ public final class SARGeocoding {
         final double centerHeight = localDEM[yy][xx];
         GeoUtils.geo2xyzWGS84(geo.getLat(), geo.lon, centerHeight, centrePoint);
 
-        final PosVector a = new PosVector(rightPoint.x - leftPoint.x, rightPoint.y - leftPoint.y, rightPoint.z - leftPoint.z);
-        final PosVector b = new PosVector(downPoint.x - upPoint.x, downPoint.y - upPoint.y, downPoint.z - upPoint.z);
-        //final PosVector c = new PosVector(lg.centrePoint.x, lg.centrePoint.y, lg.centrePoint.z);
-        final PosVector c = new PosVector(centrePoint.x, centrePoint.y, centrePoint.z);
-
-        final PosVector n = new PosVector(
-                a.y * b.z - a.z * b.y,
-                a.z * b.x - a.x * b.z,
-                a.x * b.y - a.y * b.x); // ground plane normal
-
-        Maths.normalizeVector(n);
-        if (Maths.innerProduct(n, c) < 0) {
-            n.x = -n.x;
-            n.y = -n.y;
-            n.z = -n.z;
-        }
-
-        final PosVector s = new PosVector(
-                lg.sensorPos.x - centrePoint.x,
-                lg.sensorPos.y - centrePoint.y,
-                lg.sensorPos.z - centrePoint.z);
-        Maths.normalizeVector(s);
-
-        if (saveLocalIncidenceAngle) { // local incidence angle
-            final double nsInnerProduct = Maths.innerProduct(n, s);
-            localIncidenceAngles[0] = FastMath.acos(nsInnerProduct) * Constants.RTOD;
-        }
+        computeLocalIncidenceAngle(rightPoint, leftPoint, upPoint, downPoint, centrePoint, lg.sensorPos,
+                saveLocalIncidenceAngle, saveProjectedLocalIncidenceAngle, saveSigmaNought, localIncidenceAngles);
+    }
 
-        if (saveProjectedLocalIncidenceAngle || saveSigmaNought) { // projected local incidence angle
-            final PosVector m = new PosVector(s.y * c.z - s.z * c.y, s.z * c.x - s.x * c.z, s.x * c.y - s.y * c.x); // range plane normal
-            Maths.normalizeVector(m);
-            final double mnInnerProduct = Maths.innerProduct(m, n);
-            final PosVector n1 = new PosVector(n.x - m.x * mnInnerProduct, n.y - m.y * mnInnerProduct, n.z - m.z * mnInnerProduct);
-            Maths.normalizeVector(n1);
-            localIncidenceAngles[1] = FastMath.acos(Maths.innerProduct(n1, s)) * Constants.RTOD;
-        }
+    /**
+     * Reusable scratch storage for the allocation-free local incidence angle computation.
+     * An instance must only be used by one thread at a time, e.g. one instance per computed tile.
+     */
+    public static final class LocalGeometryScratch {
+        private final GeoPos geoPos = new GeoPos();
+        private final PosVector rightPoint = new PosVector();
+        private final PosVector leftPoint = new PosVector();
+        private final PosVector upPoint = new PosVector();
+        private final PosVector downPoint = new PosVector();
     }
 
     /**
@@ -33,7 +33,11 @@ import java.awt.image.*;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.Iterator;
+import java.util.List;
 
 /**
  * Reader for ImageIO File
@@ -54,11 +58,26 @@ public class ImageIOFile {
     private ImageInputStream stream;
     private ImageReader reader;
 
+    // readers for concurrent reads, the first one is the primary reader
+    private final Deque<ImageReader> idleReaders = new ArrayDeque<>();
+    private final List<ImageReader> pooledReaders = new ArrayList<>();
+    private final List<ImageInputStream> pooledStreams = new ArrayList<>();
+    private File imageFile = null;
+    private int numReaders = 1;
+
+    // direct reader for uncompressed striped TIFF files
+    private TiffStripReader stripReader = null;
+    private boolean stripReaderChecked = false;
+
     private static final boolean useFileCache = Config.instance().preferences().getBoolean("s1tbx.readers.useFileCache", false);
+    private static final boolean useDirectTiffReader = Config.instance().preferences().getBoolean("s1tbx.readers.useDirectTiffReader", true);
+    private static final int maxReadersPerFile = Config.instance().preferences().getInt("s1tbx.readers.maxReadersPerFile",
+            Math.min(Runtime.getRuntime().availableProcessors(), 8));
 
     public ImageIOFile(final File inputFile, final ImageReader iioReader,
                        final File productInputFile) throws IOException {
         this(inputFile.getName(), ImageIO.createImageInputStream(inputFile), iioReader, productInputFile);
+        setImageFile(inputFile);
     }
 
     public ImageIOFile(final String name, final ImageInputStream inputStream, final ImageReader iioReader,
@@ -84,6 +103,7 @@ public class ImageIOFile {
 
         reader = iioReader;
         initReader();
+        idleReaders.push(reader);
 
         this.numImages = numImages;
         this.numBands = numBands;
@@ -101,6 +121,7 @@ public class ImageIOFile {
 
         reader = iioReader;
         initReader();
+        idleReaders.push(reader);
 
         numImages = reader.getNumImages(!reader.isSeekForwardOnly());
         if(numImages < 0)
@@ -147,6 +168,105 @@ public class ImageIOFile {
         return reader;
     }
 
+    /**
+     * Set the uncompressed image file of this ImageIOFile. Further readers on the file are then opened on demand,
+     * so that up to s1tbx.readers.maxReadersPerFile reads can run concurrently.
+     * Without an image file, e.g. for images inside a zip file, all reads share the primary reader.
+     *
+     * @param file the image file
+     */
+    public void setImageFile(final File file) {
+        synchronized (idleReaders) {
+            this.imageFile = file;
+        }
+    }
+
+    /**
+     * Take a reader for exclusive use. The reader must be returned with releaseReader.
+     * Blocks while all readers are in use and no further reader may be opened.
+     *
+     * @return an image reader positioned on this image
+     * @throws IOException if a new reader cannot be opened
+     */
+    public ImageReader acquireReader() throws IOException {
+        if (reader == null) {
+            throw new IOException("no reader created");
+        }
+
+        final File file;
+        synchronized (idleReaders) {
+            while (idleReaders.isEmpty() && (imageFile == null || numReaders >= maxReadersPerFile)) {
+                try {
+                    idleReaders.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while waiting for a reader of " + name);
+                }
+            }
+            if (!idleReaders.isEmpty()) {
+                return idleReaders.pop();
+            }
+            file = imageFile;
+            ++numReaders;
+        }
+
+        try {
+            return openReader(file);
+        } catch (IOException e) {
+            synchronized (idleReaders) {
+                --numReaders;
+                idleReaders.notify();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Return a reader taken with acquireReader.
+     *
+     * @param imageReader the reader
+     */
+    public void releaseReader(final ImageReader imageReader) {
+        synchronized (idleReaders) {
+            idleReaders.push(imageReader);
+            idleReaders.notify();
+        }
+    }
+
+    /**
+     * Get the direct reader of the image file if it is an uncompressed, striped TIFF file with 16 bit samples.
+     * The reader is created on first use and may be disabled with s1tbx.readers.useDirectTiffReader.
+     *
+     * @return the strip reader or null if the image must be read with ImageIO
+     */
+    public TiffStripReader getStripReader() {
+        synchronized (idleReaders) {
+            if (!stripReaderChecked) {
+                stripReaderChecked = true;
+                if (useDirectTiffReader && imageFile != null) {
+                    stripReader = TiffStripReader.create(imageFile);
+                }
+            }
+            return stripReader;
+        }
+    }
+
+    private ImageReader openReader(final File file) throws IOException {
+        final ImageInputStream newStream = ImageIO.createImageInputStream(file);
+        if (newStream == null) {
+            throw new IOException("Unable to open " + file);
+        }
+        final ImageReader newReader = reader.getOriginatingProvider() != null ?
+                reader.getOriginatingProvider().createReaderInstance() : getIIOReader(file);
+        newReader.setInput(newStream, false, true);
+
+        synchronized (idleReaders) {
+            pooledStreams.add(newStream);
+            pooledReaders.add(newReader);
+        }
+        return newReader;
+    }
+
     private static int bufferImageTypeToProductType(int biType) {
         switch (biType) {
             case BufferedImage.TYPE_CUSTOM:
@@ -202,6 +322,23 @@ public class ImageIOFile {
             stream.close();
         if (reader != null)
             reader.dispose();
+
+        synchronized (idleReaders) {
+            for (ImageInputStream pooledStream : pooledStreams) {
+                pooledStream.close();
+            }
+            for (ImageReader pooledReader : pooledReaders) {
+                pooledReader.dispose();
+            }
+            pooledStreams.clear();
+            pooledReaders.clear();
+            idleReaders.clear();
+
+            if (stripReader != null) {
+                stripReader.close();
+                stripReader = null;
+            }
+        }
     }
 
     public int getSceneWidth() throws IOException {
@@ -241,6 +378,14 @@ public class ImageIOFile {
                                       final int destWidth, final int destHeight,
                                       final int imageID,
                                       final int bandSampleOffset) throws IOException {
+        if (sourceStepX == 1 && sourceStepY == 1 && imageID == 0) {
+            final TiffStripReader directReader = getStripReader();
+            if (directReader != null && !directReader.isComplex() && directReader.readSamples(
+                    new Rectangle(destOffsetX, destOffsetY, destWidth, destHeight), bandSampleOffset, destBuffer)) {
+                return;
+            }
+        }
+
         final ImageReadParam param = reader.getDefaultReadParam();
         param.setSourceSubsampling(sourceStepX, sourceStepY,
                 sourceOffsetX % sourceStepX,
@@ -289,17 +434,20 @@ public class ImageIOFile {
         }
     }
 
-    private synchronized Raster getData(final ImageReadParam param,
-                                        final int destOffsetX, final int destOffsetY,
-                                        final int destWidth, final int destHeight) throws IOException {
+    private Raster getData(final ImageReadParam param,
+                           final int destOffsetX, final int destOffsetY,
+                           final int destWidth, final int destHeight) throws IOException {
+        final ImageReader imageReader = acquireReader();
         try {
-            final RenderedImage image = reader.readAsRenderedImage(0, param);
+            final RenderedImage image = imageReader.readAsRenderedImage(0, param);
             return image.getData(new Rectangle(destOffsetX, destOffsetY, destWidth, destHeight));
         } catch (Exception e) {
             if(ZipUtils.isZip(productInputFile) && !ZipUtils.isValid(productInputFile)) {
                 throw new IOException("Zip file is corrupt "+productInputFile.getName());
             }
             throw e;
+        } finally {
+            releaseReader(imageReader);
         }
     }
 
@@ -0,0 +1,421 @@
+/*
+ * Copyright (C) 2021 SkyWatch Space Applications Inc. https://www.skywatch.com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.commons.io;
+
+import org.esa.snap.core.datamodel.ProductData;
+import org.esa.snap.core.util.SystemUtils;
+
+import java.awt.*;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Direct reader for the first image of uncompressed, striped TIFF files with 16 bit samples, such as the
+ * Sentinel-1 measurement GeoTIFFs (UInt16 for GRD, CInt16 for SLC).
+ * <p>
+ * The strip offsets are parsed once and the samples are read with positioned reads and decoded straight into the
+ * destination buffer, avoiding the ImageIO raster and sample model copies. Positioned reads do not move the channel
+ * position, so one instance can be used by several threads.
+ */
+public class TiffStripReader {
+
+    private static final int TAG_IMAGE_WIDTH = 256;
+    private static final int TAG_IMAGE_LENGTH = 257;
+    private static final int TAG_BITS_PER_SAMPLE = 258;
+    private static final int TAG_COMPRESSION = 259;
+    private static final int TAG_STRIP_OFFSETS = 273;
+    private static final int TAG_SAMPLES_PER_PIXEL = 277;
+    private static final int TAG_ROWS_PER_STRIP = 278;
+    private static final int TAG_STRIP_BYTE_COUNTS = 279;
+    private static final int TAG_PLANAR_CONFIGURATION = 284;
+    private static final int TAG_TILE_WIDTH = 322;
+    private static final int TAG_SAMPLE_FORMAT = 339;
+
+    private static final long MAX_READ_SIZE = 16L * 1024L * 1024L;
+
+    private static final int SAMPLE_FORMAT_UINT = 1;
+    private static final int SAMPLE_FORMAT_INT = 2;
+    private static final int SAMPLE_FORMAT_COMPLEX_INT = 5;
+
+    private final FileChannel channel;
+    private final ByteOrder byteOrder;
+    private final int width;
+    private final int height;
+    private final int rowsPerStrip;
+    private final long[] stripOffsets;
+    private final int numComponents;
+    private final boolean isSigned;
+    private final boolean isComplex;
+
+    private TiffStripReader(final FileChannel channel, final ByteOrder byteOrder, final int width, final int height,
+                            final int rowsPerStrip, final long[] stripOffsets, final int numComponents,
+                            final boolean isSigned, final boolean isComplex) {
+        this.channel = channel;
+        this.byteOrder = byteOrder;
+        this.width = width;
+        this.height = height;
+        this.rowsPerStrip = rowsPerStrip;
+        this.stripOffsets = stripOffsets;
+        this.numComponents = numComponents;
+        this.isSigned = isSigned;
+        this.isComplex = isComplex;
+    }
+
+    /**
+     * Open a TIFF file for direct reading.
+     *
+     * @param file the TIFF file
+     * @return the reader or null if the file is not a TIFF or its layout is not supported
+     */
+    public static TiffStripReader create(final File file) {
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+            final TiffStripReader stripReader = parse(channel);
+            if (stripReader == null) {
+                channel.close();
+            }
+            return stripReader;
+        } catch (Exception e) {
+            SystemUtils.LOG.fine("Unable to read " + file.getName() + " directly: " + e.getMessage());
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                }
+            }
+            return null;
+        }
+    }
+
+    private static TiffStripReader parse(final FileChannel channel) throws IOException {
+        final ByteBuffer header = read(channel, 0, 16, ByteOrder.LITTLE_ENDIAN);
+        final ByteOrder byteOrder;
+        if (header.get(0) == 'I' && header.get(1) == 'I') {
+            byteOrder = ByteOrder.LITTLE_ENDIAN;
+        } else if (header.get(0) == 'M' && header.get(1) == 'M') {
+            byteOrder = ByteOrder.BIG_ENDIAN;
+        } else {
+            return null;
+        }
+        header.order(byteOrder);
+
+        final int version = header.getShort(2);
+        final boolean isBigTiff;
+        final long ifdOffset;
+        if (version == 42) {
+            isBigTiff = false;
+            ifdOffset = header.getInt(4) & 0xFFFFFFFFL;
+        } else if (version == 43) {
+            isBigTiff = true;
+            ifdOffset = header.getLong(8);
+        } else {
+            return null;
+        }
+
+        final IFD ifd = new IFD(channel, byteOrder, isBigTiff, ifdOffset);
+
+        if (ifd.getValue(TAG_COMPRESSION, 1) != 1 || ifd.has(TAG_TILE_WIDTH) || !ifd.has(TAG_STRIP_OFFSETS)) {
+            return null;
+        }
+        final int width = (int) ifd.getValue(TAG_IMAGE_WIDTH, 0);
+        final int height = (int) ifd.getValue(TAG_IMAGE_LENGTH, 0);
+        final int samplesPerPixel = (int) ifd.getValue(TAG_SAMPLES_PER_PIXEL, 1);
+        final int bitsPerSample = (int) ifd.getValue(TAG_BITS_PER_SAMPLE, 1);
+        final int sampleFormat = (int) ifd.getValue(TAG_SAMPLE_FORMAT, SAMPLE_FORMAT_UINT);
+        final int rowsPerStrip = (int) Math.min(ifd.getValue(TAG_ROWS_PER_STRIP, height), height);
+        if (width <= 0 || height <= 0 || rowsPerStrip <= 0) {
+            return null;
+        }
+        if (samplesPerPixel > 1 && ifd.getValue(TAG_PLANAR_CONFIGURATION, 1) != 1) {
+            return null;
+        }
+
+        final int numComponents;
+        final boolean isSigned, isComplex;
+        if (sampleFormat == SAMPLE_FORMAT_COMPLEX_INT && bitsPerSample == 32) {
+            numComponents = 2 * samplesPerPixel;
+            isSigned = true;
+            isComplex = true;
+        } else if ((sampleFormat == SAMPLE_FORMAT_UINT || sampleFormat == SAMPLE_FORMAT_INT) && bitsPerSample == 16) {
+            numComponents = samplesPerPixel;
+            isSigned = sampleFormat == SAMPLE_FORMAT_INT;
+            isComplex = false;
+        } else {
+            return null;
+        }
+
+        final long[] stripOffsets = ifd.getValues(TAG_STRIP_OFFSETS);
+        final int numStrips = (height + rowsPerStrip - 1) / rowsPerStrip;
+        if (stripOffsets.length < numStrips) {
+            return null;
+        }
+        if (ifd.has(TAG_STRIP_BYTE_COUNTS)) {
+            final long[] stripByteCounts = ifd.getValues(TAG_STRIP_BYTE_COUNTS);
+            final long rowBytes = 2L * numComponents * width;
+            for (int s = 0; s < numStrips; ++s) {
+                final int rows = Math.min(rowsPerStrip, height - s * rowsPerStrip);
+                if (s >= stripByteCounts.length || stripByteCounts[s] < rows * rowBytes) {
+                    return null;
+                }
+            }
+        }
+
+        return new TiffStripReader(channel, byteOrder, width, height, rowsPerStrip, stripOffsets,
+                numComponents, isSigned, isComplex);
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @return the number of 16 bit components per pixel, 2 per sample for complex data
+     */
+    public int getNumComponents() {
+        return numComponents;
+    }
+
+    /**
+     * @return true if the samples are complex integers, with the real part as component 0 and the imaginary
+     * part as component 1
+     */
+    public boolean isComplex() {
+        return isComplex;
+    }
+
+    /**
+     * Read one component of the pixels in a rectangle into a buffer of rect.width * rect.height elements.
+     * Short buffers receive the raw 16 bit values, other buffers the signed or unsigned value.
+     *
+     * @param rect       the source rectangle
+     * @param component  the component of each pixel
+     * @param destBuffer the destination buffer
+     * @return false if the rectangle or component is not within the image
+     * @throws IOException if the file cannot be read
+     */
+    public boolean readSamples(final Rectangle rect, final int component, final ProductData destBuffer)
+            throws IOException {
+        if (rect.x < 0 || rect.y < 0 || rect.width <= 0 || rect.height <= 0 ||
+                rect.x + rect.width > width || rect.y + rect.height > height ||
+                component < 0 || component >= numComponents ||
+                destBuffer.getNumElems() < rect.width * rect.height) {
+            return false;
+        }
+
+        final int pixelStride = 2 * numComponents;
+        final long rowBytes = (long) width * pixelStride;
+        final Object dest = destBuffer.getElems();
+
+        // rows of the full image width are contiguous within a strip and read at once
+        final boolean fullRows = rect.x == 0 && rect.width == width;
+        final int maxRows = fullRows ?
+                (int) Math.max(1, Math.min(Math.min(rowsPerStrip, rect.height), MAX_READ_SIZE / rowBytes)) : 1;
+        final ByteBuffer buffer = ByteBuffer.allocate(rect.width * pixelStride * maxRows).order(byteOrder);
+
+        final int yEnd = rect.y + rect.height;
+        int y = rect.y;
+        int destIndex = 0;
+        while (y < yEnd) {
+            final int strip = y / rowsPerStrip;
+            final int rowInStrip = y - strip * rowsPerStrip;
+            final int numRows = fullRows ? Math.min(Math.min(rowsPerStrip - rowInStrip, yEnd - y), maxRows) : 1;
+            final long position = stripOffsets[strip] + rowInStrip * rowBytes + (long) rect.x * pixelStride;
+
+            buffer.clear();
+            buffer.limit(rect.width * pixelStride * numRows);
+            readFully(channel, buffer, position);
+
+            final int numPixels = rect.width * numRows;
+            decode(buffer, numPixels, pixelStride, 2 * component, dest, destBuffer, destIndex);
+            destIndex += numPixels;
+            y += numRows;
+        }
+        return true;
+    }
+
+    private void decode(final ByteBuffer buffer, final int numPixels, final int pixelStride, final int byteOffset,
+                        final Object dest, final ProductData destBuffer, final int destIndex) {
+        int pos = byteOffset;
+        if (dest instanceof short[]) {
+            final short[] destArray = (short[]) dest;
+            for (int i = destIndex; i < destIndex + numPixels; ++i) {
+                destArray[i] = buffer.getShort(pos);
+                pos += pixelStride;
+            }
+        } else if (dest instanceof int[]) {
+            final int[] destArray = (int[]) dest;
+            if (isSigned) {
+                for (int i = destIndex; i < destIndex + numPixels; ++i) {
+                    destArray[i] = buffer.getShort(pos);
+                    pos += pixelStride;
+                }
+            } else {
+                for (int i = destIndex; i < destIndex + numPixels; ++i) {
+                    destArray[i] = buffer.getShort(pos) & 0xFFFF;
+                    pos += pixelStride;
+                }
+            }
+        } else {
+            for (int i = destIndex; i < destIndex + numPixels; ++i) {
+                final short value = buffer.getShort(pos);
+                destBuffer.setElemIntAt(i, isSigned ? value : value & 0xFFFF);
+                pos += pixelStride;
+            }
+        }
+    }
+
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static ByteBuffer read(final FileChannel channel, final long position, final int length,
+                                   final ByteOrder byteOrder) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(length).order(byteOrder);
+        readFully(channel, buffer, position);
+        return buffer;
+    }
+
+    private static void readFully(final FileChannel channel, final ByteBuffer buffer, long position)
+            throws IOException {
+        while (buffer.hasRemaining()) {
+            final int n = channel.read(buffer, position);
+            if (n < 0) {
+                throw new EOFException("Unexpected end of file at " + position);
+            }
+            position += n;
+        }
+    }
+
+    /**
+     * The entries of an image file directory
+     */
+    private static class IFD {
+
+        private static final int TYPE_BYTE = 1;
+        private static final int TYPE_SHORT = 3;
+        private static final int TYPE_LONG = 4;
+        private static final int TYPE_LONG8 = 16;
+
+        private final FileChannel channel;
+        private final ByteOrder byteOrder;
+        private final boolean isBigTiff;
+        private final ByteBuffer entries;
+        private final int numEntries;
+        private final int entrySize;
+
+        IFD(final FileChannel channel, final ByteOrder byteOrder, final boolean isBigTiff, final long offset)
+                throws IOException {
+            this.channel = channel;
+            this.byteOrder = byteOrder;
+            this.isBigTiff = isBigTiff;
+            this.entrySize = isBigTiff ? 20 : 12;
+
+            final ByteBuffer count = read(channel, offset, isBigTiff ? 8 : 2, byteOrder);
+            this.numEntries = isBigTiff ? (int) count.getLong(0) : count.getShort(0) & 0xFFFF;
+            this.entries = read(channel, offset + count.capacity(), numEntries * entrySize, byteOrder);
+        }
+
+        boolean has(final int tag) {
+            return find(tag) >= 0;
+        }
+
+        long getValue(final int tag, final long defaultValue) throws IOException {
+            final long[] values = find(tag) >= 0 ? getValues(tag) : null;
+            return values != null && values.length > 0 ? values[0] : defaultValue;
+        }
+
+        long[] getValues(final int tag) throws IOException {
+            final int entry = find(tag);
+            if (entry < 0) {
+                return new long[0];
+            }
+            final int type = entries.getShort(entry + 2) & 0xFFFF;
+            final long count = isBigTiff ? entries.getLong(entry + 4) : entries.getInt(entry + 4) & 0xFFFFFFFFL;
+            final int valueOffset = entry + (isBigTiff ? 12 : 8);
+            final int valueSize;
+            switch (type) {
+                case TYPE_BYTE:
+                    valueSize = 1;
+                    break;
+                case TYPE_SHORT:
+                    valueSize = 2;
+                    break;
+                case TYPE_LONG:
+                    valueSize = 4;
+                    break;
+                case TYPE_LONG8:
+                    valueSize = 8;
+                    break;
+                default:
+                    throw new IOException("Unsupported type " + type + " of tag " + tag);
+            }
+            if (count * valueSize > Integer.MAX_VALUE) {
+                throw new IOException("Too many values of tag " + tag);
+            }
+
+            final ByteBuffer data;
+            final int dataOffset;
+            if (count * valueSize <= (isBigTiff ? 8 : 4)) {
+                data = entries;
+                dataOffset = valueOffset;
+            } else {
+                final long position = isBigTiff ? entries.getLong(valueOffset) :
+                        entries.getInt(valueOffset) & 0xFFFFFFFFL;
+                data = read(channel, position, (int) count * valueSize, byteOrder);
+                dataOffset = 0;
+            }
+
+            final long[] values = new long[(int) count];
+            for (int i = 0; i < values.length; ++i) {
+                final int pos = dataOffset + i * valueSize;
+                switch (valueSize) {
+                    case 1:
+                        values[i] = data.get(pos) & 0xFF;
+                        break;
+                    case 2:
+                        values[i] = data.getShort(pos) & 0xFFFF;
+                        break;
+                    case 4:
+                        values[i] = data.getInt(pos) & 0xFFFFFFFFL;
+                        break;
+                    default:
+                        values[i] = data.getLong(pos);
+                }
+            }
+            return values;
+        }
+
+        private int find(final int tag) {
+            for (int i = 0; i < numEntries; ++i) {
+                final int entry = i * entrySize;
+                if ((entries.getShort(entry) & 0xFFFF) == tag) {
+                    return entry;
+                }
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2021 SkyWatch Space Applications Inc. https://www.skywatch.com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.commons;
+
+import org.esa.snap.core.datamodel.ProductData;
+import org.esa.snap.engine_utilities.datamodel.OrbitStateVector;
+import org.esa.snap.engine_utilities.datamodel.PosVector;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Unit test for the zero Doppler time search of SARGeocoding.
+ */
+public class TestSARGeocoding {
+
+    private static final double orbitRadius = 7.07e6;
+    private static final double earthRadius = 6.37e6;
+    private static final double angularVelocity = Math.sqrt(3.986004418e14 / (orbitRadius * orbitRadius * orbitRadius));
+    private static final double firstVectorMJD = 7000.0;
+    private static final double secondsPerDay = 86400.0;
+
+    private static final double firstLineUTC = firstVectorMJD + 20.0 / secondsPerDay;
+    private static final double lineTimeInterval = 0.01 / secondsPerDay;
+    private static final int numLines = 1000;
+    private static final double wavelength = 0.0555;
+
+    // circular equatorial orbit, the zero Doppler time of a point is the time at which the sensor has its longitude
+    private static OrbitStateVector[] createOrbitStateVectors() {
+        final OrbitStateVector[] vectors = new OrbitStateVector[21];
+        for (int i = 0; i < vectors.length; i++) {
+            final double t = i * 10.0;
+            final double angle = angularVelocity * t;
+            final double speed = angularVelocity * orbitRadius;
+            vectors[i] = new OrbitStateVector(new ProductData.UTC(firstVectorMJD + t / secondsPerDay),
+                    orbitRadius * Math.cos(angle), orbitRadius * Math.sin(angle), 0.0,
+                    -speed * Math.sin(angle), speed * Math.cos(angle), 0.0);
+        }
+        return vectors;
+    }
+
+    // points along the swath from early to late lines and near to far range, the last ones outside the lines
+    private static PosVector[] createEarthPoints() {
+        final PosVector[] earthPoints = new PosVector[62];
+        int k = 0;
+        for (int i = 0; i < 20; i++) {
+            final double t = 20.5 + i * 0.45;
+            for (double latitude : new double[]{0.03, 0.05, 0.08}) {
+                earthPoints[k++] = createEarthPoint(t, latitude);
+            }
+        }
+        earthPoints[k++] = createEarthPoint(15.0, 0.05);
+        earthPoints[k] = createEarthPoint(40.0, 0.05);
+        return earthPoints;
+    }
+
+    private static PosVector createEarthPoint(final double zeroDopplerSeconds, final double latitude) {
+        final double longitude = angularVelocity * zeroDopplerSeconds;
+        return new PosVector(earthRadius * Math.cos(longitude) * Math.cos(latitude),
+                earthRadius * Math.sin(longitude) * Math.cos(latitude), earthRadius * Math.sin(latitude));
+    }
+
+    @Test
+    public void testLineLayoutsGiveSameZeroDopplerTimes() {
+        final OrbitStateVector[] vectors = createOrbitStateVectors();
+        final OrbitStateVectors posVectorOrbit =
+                new OrbitStateVectors(vectors, firstLineUTC, lineTimeInterval, numLines);
+        final OrbitStateVectors arrayOrbit =
+                new OrbitStateVectors(vectors, firstLineUTC, lineTimeInterval, numLines, true);
+
+        // each orbit holds the range lines once, in one of the layouts
+        assertNotNull(posVectorOrbit.sensorPosition);
+        assertNull(posVectorOrbit.sensorPositionX);
+        assertNull(arrayOrbit.sensorPosition);
+        assertNull(arrayOrbit.sensorVelocity);
+        assertNotNull(arrayOrbit.sensorPositionX);
+        for (int i = 0; i < numLines; i += 111) {
+            assertEquals(posVectorOrbit.sensorPosition[i].x, arrayOrbit.sensorPositionX[i], 0.0);
+            assertEquals(posVectorOrbit.sensorVelocity[i].z, arrayOrbit.sensorVelocityZ[i], 0.0);
+        }
+
+        final PosVector[] earthPoints = createEarthPoints();
+        for (boolean newtonFallback : new boolean[]{false, true}) {
+            final double[] posVectorTimes = new double[earthPoints.length];
+            final double[] arrayTimes = new double[earthPoints.length];
+            SARGeocoding.computeZeroDopplerTimes(earthPoints, earthPoints.length, firstLineUTC, lineTimeInterval,
+                    wavelength, posVectorOrbit, newtonFallback, posVectorTimes);
+            SARGeocoding.computeZeroDopplerTimes(earthPoints, earthPoints.length, firstLineUTC, lineTimeInterval,
+                    wavelength, arrayOrbit, newtonFallback, arrayTimes);
+            assertArrayEquals(posVectorTimes, arrayTimes, 1e-3 * lineTimeInterval);
+        }
+
+        final int[] lineHint = {-1};
+        for (int i = 0; i < earthPoints.length; i++) {
+            final double time = SARGeocoding.getEarthPointZeroDopplerTime(firstLineUTC, lineTimeInterval,
+                    wavelength, earthPoints[i], arrayOrbit, lineHint);
+            final double coldTime = SARGeocoding.getEarthPointZeroDopplerTime(firstLineUTC, lineTimeInterval,
+                    wavelength, earthPoints[i], posVectorOrbit.sensorPosition, posVectorOrbit.sensorVelocity);
+
+            if (i < earthPoints.length - 2) {
+                // the warm started search agrees with the cold search and the orbit geometry
+                final int t = i / 3;
+                assertEquals(coldTime, time, 1e-3 * lineTimeInterval);
+                assertEquals(firstVectorMJD + (20.5 + t * 0.45) / secondsPerDay, time, 1e-2 * lineTimeInterval);
+            } else {
+                assertEquals(SARGeocoding.NonValidZeroDopplerTime, time, 0.0);
+                assertEquals(SARGeocoding.NonValidZeroDopplerTime, coldTime, 0.0);
+            }
+        }
+    }
+}
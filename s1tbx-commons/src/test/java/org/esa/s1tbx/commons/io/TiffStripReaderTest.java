@@ -0,0 +1,157 @@
+package org.esa.s1tbx.commons.io;
+
+import org.esa.snap.core.datamodel.ProductData;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.awt.Rectangle;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+
+public class TiffStripReaderTest {
+
+    private static final int width = 7;
+    private static final int height = 9;
+    private static final int rowsPerStrip = 2;
+
+    @Test
+    public void readComplexInt16() throws IOException {
+        final File file = writeTiff(ByteOrder.LITTLE_ENDIAN, 32, 5);
+        final TiffStripReader stripReader = TiffStripReader.create(file);
+        try {
+            Assert.assertNotNull(stripReader);
+            Assert.assertTrue(stripReader.isComplex());
+            Assert.assertEquals(width, stripReader.getWidth());
+            Assert.assertEquals(height, stripReader.getHeight());
+
+            final Rectangle rect = new Rectangle(2, 1, 4, 6);
+            final ProductData i = ProductData.createInstance(ProductData.TYPE_INT16, rect.width * rect.height);
+            final ProductData q = ProductData.createInstance(ProductData.TYPE_INT32, rect.width * rect.height);
+            Assert.assertTrue(stripReader.readSamples(rect, 0, i));
+            Assert.assertTrue(stripReader.readSamples(rect, 1, q));
+
+            int n = 0;
+            for (int y = rect.y; y < rect.y + rect.height; ++y) {
+                for (int x = rect.x; x < rect.x + rect.width; ++x) {
+                    Assert.assertEquals(value(x, y, 0), i.getElemIntAt(n));
+                    Assert.assertEquals(value(x, y, 1), q.getElemIntAt(n));
+                    ++n;
+                }
+            }
+        } finally {
+            close(stripReader, file);
+        }
+    }
+
+    @Test
+    public void readUInt16FullRows() throws IOException {
+        final File file = writeTiff(ByteOrder.BIG_ENDIAN, 16, 1);
+        final TiffStripReader stripReader = TiffStripReader.create(file);
+        try {
+            Assert.assertNotNull(stripReader);
+            Assert.assertFalse(stripReader.isComplex());
+
+            final Rectangle rect = new Rectangle(0, 1, width, 7);
+            final ProductData data = ProductData.createInstance(ProductData.TYPE_UINT16, rect.width * rect.height);
+            Assert.assertTrue(stripReader.readSamples(rect, 0, data));
+
+            int n = 0;
+            for (int y = rect.y; y < rect.y + rect.height; ++y) {
+                for (int x = 0; x < width; ++x) {
+                    Assert.assertEquals(value(x, y, 0) & 0xFFFF, data.getElemIntAt(n++));
+                }
+            }
+
+            // outside of the image
+            Assert.assertFalse(stripReader.readSamples(new Rectangle(4, 0, width, 1), 0, data));
+        } finally {
+            close(stripReader, file);
+        }
+    }
+
+    @Test
+    public void unsupportedLayout() throws IOException {
+        final File file = writeTiff(ByteOrder.LITTLE_ENDIAN, 32, 3);
+        try {
+            Assert.assertNull(TiffStripReader.create(file));
+        } finally {
+            Files.delete(file.toPath());
+        }
+    }
+
+    private static int value(final int x, final int y, final int component) {
+        final int v = 1000 * y + 10 * x + component;
+        return (short) (component == 0 ? v : -v);
+    }
+
+    private static void close(final TiffStripReader stripReader, final File file) throws IOException {
+        if (stripReader != null) {
+            stripReader.close();
+        }
+        Files.delete(file.toPath());
+    }
+
+    // writes a classic TIFF with the strips after the header and the IFD at the end
+    private static File writeTiff(final ByteOrder byteOrder, final int bitsPerSample, final int sampleFormat)
+            throws IOException {
+        final int numComponents = bitsPerSample / 16;
+        final int numStrips = (height + rowsPerStrip - 1) / rowsPerStrip;
+        final int rowBytes = width * 2 * numComponents;
+        final int numEntries = 9;
+        final int ifdOffset = 8 + height * rowBytes;
+        final int arraysOffset = ifdOffset + 2 + numEntries * 12 + 4;
+
+        final ByteBuffer buffer = ByteBuffer.allocate(arraysOffset + 8 * numStrips).order(byteOrder);
+        buffer.put(byteOrder == ByteOrder.LITTLE_ENDIAN ? (byte) 'I' : (byte) 'M');
+        buffer.put(buffer.get(0));
+        buffer.putShort((short) 42);
+        buffer.putInt(ifdOffset);
+
+        for (int y = 0; y < height; ++y) {
+            for (int x = 0; x < width; ++x) {
+                for (int c = 0; c < numComponents; ++c) {
+                    buffer.putShort((short) value(x, y, c));
+                }
+            }
+        }
+
+        buffer.putShort((short) numEntries);
+        putEntry(buffer, 256, 3, 1, width);
+        putEntry(buffer, 257, 3, 1, height);
+        putEntry(buffer, 258, 3, 1, bitsPerSample);
+        putEntry(buffer, 259, 3, 1, 1);
+        putEntry(buffer, 273, 4, numStrips, arraysOffset);
+        putEntry(buffer, 277, 3, 1, 1);
+        putEntry(buffer, 278, 3, 1, rowsPerStrip);
+        putEntry(buffer, 279, 4, numStrips, arraysOffset + 4 * numStrips);
+        putEntry(buffer, 339, 3, 1, sampleFormat);
+        buffer.putInt(0);
+
+        for (int s = 0; s < numStrips; ++s) {
+            buffer.putInt(8 + s * rowsPerStrip * rowBytes);
+        }
+        for (int s = 0; s < numStrips; ++s) {
+            buffer.putInt(Math.min(rowsPerStrip, height - s * rowsPerStrip) * rowBytes);
+        }
+
+        final File file = File.createTempFile("strips", ".tif");
+        Files.write(file.toPath(), buffer.array());
+        return file;
+    }
+
+    private static void putEntry(final ByteBuffer buffer, final int tag, final int type, final int count,
+                                 final int value) {
+        buffer.putShort((short) tag);
+        buffer.putShort((short) type);
+        buffer.putInt(count);
+        if (type == 3 && count == 1) {
+            buffer.putShort((short) value);
+            buffer.putShort((short) 0);
+        } else {
+            buffer.putInt(value);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) 2021 SkyWatch Space Applications Inc. https://www.skywatch.com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.orbits.io;
+
+import Jama.Matrix;
+import org.esa.snap.engine_utilities.datamodel.Orbits;
+import org.esa.snap.engine_utilities.util.Maths;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Piecewise polynomial model of an orbit given by state vectors at a regular interval.
+ * <p>
+ * A segment is a run of polyDegree + 1 consecutive state vectors, and an orbit time is interpolated with the
+ * polynomial fitted to the segment centred on it. The coefficients of a segment are fitted once, on its first use,
+ * and shared by all threads, so that an evaluation is a few Horner steps without allocation.
+ */
+public final class PolynomialOrbitModel {
+
+    private static final int NUM_COMPONENTS = 6;
+
+    private final int polyDegree;
+    private final int numVectors;
+    private final double t0;
+    private final double tN;
+    private final double[] time;
+    private final double[][] data;  // xPos, yPos, zPos, xVel, yVel, zVel per state vector
+
+    // coefficients of each segment, by the index of its first state vector
+    private final AtomicReferenceArray<double[][]> coefficients;
+
+    /**
+     * @param osvList    the state vectors in time order
+     * @param polyDegree the degree of the polynomials
+     */
+    public PolynomialOrbitModel(final List<Orbits.OrbitVector> osvList, final int polyDegree) {
+        if (osvList.size() < polyDegree + 1) {
+            throw new IllegalArgumentException("At least " + (polyDegree + 1) + " orbit state vectors are needed");
+        }
+        this.polyDegree = polyDegree;
+        this.numVectors = osvList.size();
+        this.time = new double[numVectors];
+        this.data = new double[NUM_COMPONENTS][numVectors];
+        for (int i = 0; i < numVectors; i++) {
+            final Orbits.OrbitVector osv = osvList.get(i);
+            time[i] = osv.utcMJD;
+            data[0][i] = osv.xPos;
+            data[1][i] = osv.yPos;
+            data[2][i] = osv.zPos;
+            data[3][i] = osv.xVel;
+            data[4][i] = osv.yVel;
+            data[5][i] = osv.zVel;
+        }
+        this.t0 = time[0];
+        this.tN = time[numVectors - 1];
+        this.coefficients = new AtomicReferenceArray<>(numVectors - polyDegree);
+    }
+
+    /**
+     * Get orbit state vector for given time.
+     *
+     * @param utc The UTC in days.
+     * @return The orbit state vector.
+     */
+    public Orbits.OrbitVector getOrbitVector(final double utc) {
+
+        final double[][] coeff = getCoefficients(utc);
+        final double normalizedTime = utc - t0;
+
+        return new Orbits.OrbitVector(utc,
+                Maths.polyVal(normalizedTime, coeff[0]),
+                Maths.polyVal(normalizedTime, coeff[1]),
+                Maths.polyVal(normalizedTime, coeff[2]),
+                Maths.polyVal(normalizedTime, coeff[3]),
+                Maths.polyVal(normalizedTime, coeff[4]),
+                Maths.polyVal(normalizedTime, coeff[5]));
+    }
+
+    /**
+     * Get sensor position and velocity for given time.
+     *
+     * @param utc      The UTC in days.
+     * @param position The x, y, z position, set.
+     * @param velocity The x, y, z velocity, set.
+     */
+    public void getPositionVelocity(final double utc, final double[] position, final double[] velocity) {
+
+        final double[][] coeff = getCoefficients(utc);
+        final double normalizedTime = utc - t0;
+        for (int i = 0; i < 3; i++) {
+            position[i] = Maths.polyVal(normalizedTime, coeff[i]);
+            velocity[i] = Maths.polyVal(normalizedTime, coeff[i + 3]);
+        }
+    }
+
+    private double[][] getCoefficients(final double utc) {
+
+        final int segment = getSegment(utc);
+        double[][] coeff = coefficients.get(segment);
+        if (coeff == null) {
+            // threads racing on a new segment fit the same coefficients
+            coeff = fitSegment(segment);
+            coefficients.set(segment, coeff);
+        }
+        return coeff;
+    }
+
+    // index of the first state vector of the segment around the given time
+    private int getSegment(final double utc) {
+
+        final int numVecPolyFit = polyDegree + 1;
+        final int halfNumVecPolyFit = numVecPolyFit / 2;
+
+        final int vecIdx = (int) ((utc - t0) / (tN - t0) * (numVectors - 1));
+        if (vecIdx <= halfNumVecPolyFit - 1) {
+            return 0;
+        }
+        return Math.min(vecIdx - halfNumVecPolyFit + 1, numVectors - numVecPolyFit);
+    }
+
+    private double[][] fitSegment(final int segment) {
+
+        final int numVecPolyFit = polyDegree + 1;
+        final double[] timeArray = new double[numVecPolyFit];
+        for (int i = 0; i < numVecPolyFit; i++) {
+            timeArray[i] = time[segment + i] - t0;
+        }
+
+        final Matrix A = Maths.createVandermondeMatrix(timeArray, polyDegree);
+        final double[][] coeff = new double[NUM_COMPONENTS][];
+        final double[] values = new double[numVecPolyFit];
+        for (int c = 0; c < NUM_COMPONENTS; c++) {
+            System.arraycopy(data[c], segment, values, 0, numVecPolyFit);
+            coeff[c] = Maths.polyFit(A, values);
+        }
+        return coeff;
+    }
+}
@@ -15,15 +15,14 @@
  */
 package org.esa.s1tbx.orbits.io.k5;
 
-import Jama.Matrix;
 import org.esa.s1tbx.orbits.io.BaseOrbitFile;
 import org.esa.s1tbx.orbits.io.OrbitFile;
+import org.esa.s1tbx.orbits.io.PolynomialOrbitModel;
 import org.esa.snap.core.datamodel.MetadataElement;
 import org.esa.snap.core.datamodel.ProductData;
 import org.esa.snap.core.util.SystemUtils;
 import org.esa.snap.engine_utilities.datamodel.AbstractMetadata;
 import org.esa.snap.engine_utilities.datamodel.Orbits;
-import org.esa.snap.engine_utilities.util.Maths;
 
 import java.io.*;
 import java.text.DateFormat;
@@ -46,6 +45,7 @@ public class K5OrbitFile extends BaseOrbitFile implements OrbitFile {
     private final DateFormat orbitDateFormat = ProductData.UTC.createDateFormat("yyyy-MM-dd HH:mm:ss");
 
     private List<Orbits.OrbitVector> osvList;
+    private PolynomialOrbitModel orbitModel = null;
 
     public K5OrbitFile(final MetadataElement absRoot, final int polyDegree) {
         super(absRoot);
@@ -75,6 +75,7 @@ public class K5OrbitFile extends BaseOrbitFile implements OrbitFile {
 
         // read content of the orbit file
         osvList = readOrbitFile(orbitFile);
+        orbitModel = new PolynomialOrbitModel(osvList, polyDegree);
 
         return orbitFile;
     }
@@ -164,65 +165,7 @@ public class K5OrbitFile extends BaseOrbitFile implements OrbitFile {
      * @throws Exception The exceptions.
      */
     public Orbits.OrbitVector getOrbitData(final double utc) {
-
-        final int numVectors = osvList.size();
-        final double t0 = osvList.get(0).utcMJD;
-        final double tN = osvList.get(numVectors - 1).utcMJD;
-
-        final int numVecPolyFit = polyDegree + 1; //4;
-        final int halfNumVecPolyFit = numVecPolyFit / 2;
-        final int[] vectorIndices = new int[numVecPolyFit];
-
-        final int vecIdx = (int) ((utc - t0) / (tN - t0) * (numVectors - 1));
-        if (vecIdx <= halfNumVecPolyFit - 1) {
-            for (int i = 0; i < numVecPolyFit; i++) {
-                vectorIndices[i] = i;
-            }
-        } else if (vecIdx >= numVectors - halfNumVecPolyFit) {
-            for (int i = 0; i < numVecPolyFit; i++) {
-                vectorIndices[i] = numVectors - numVecPolyFit + i;
-            }
-        } else {
-            for (int i = 0; i < numVecPolyFit; i++) {
-                vectorIndices[i] = vecIdx - halfNumVecPolyFit + 1 + i;
-            }
-        }
-
-        double[] timeArray = new double[numVecPolyFit];
-        double[] xPosArray = new double[numVecPolyFit];
-        double[] yPosArray = new double[numVecPolyFit];
-        double[] zPosArray = new double[numVecPolyFit];
-        double[] xVelArray = new double[numVecPolyFit];
-        double[] yVelArray = new double[numVecPolyFit];
-        double[] zVelArray = new double[numVecPolyFit];
-
-        for (int i = 0; i < numVecPolyFit; i++) {
-            timeArray[i] = osvList.get(vectorIndices[i]).utcMJD - t0;
-            xPosArray[i] = osvList.get(vectorIndices[i]).xPos;
-            yPosArray[i] = osvList.get(vectorIndices[i]).yPos;
-            zPosArray[i] = osvList.get(vectorIndices[i]).zPos;
-            xVelArray[i] = osvList.get(vectorIndices[i]).xVel;
-            yVelArray[i] = osvList.get(vectorIndices[i]).yVel;
-            zVelArray[i] = osvList.get(vectorIndices[i]).zVel;
-        }
-
-        final Matrix A = Maths.createVandermondeMatrix(timeArray, polyDegree);
-        final double[] xPosCoeff = Maths.polyFit(A, xPosArray);
-        final double[] yPosCoeff = Maths.polyFit(A, yPosArray);
-        final double[] zPosCoeff = Maths.polyFit(A, zPosArray);
-        final double[] xVelCoeff = Maths.polyFit(A, xVelArray);
-        final double[] yVelCoeff = Maths.polyFit(A, yVelArray);
-        final double[] zVelCoeff = Maths.polyFit(A, zVelArray);
-
-        final double normalizedTime = utc - t0;
-
-        return new Orbits.OrbitVector(utc,
-                                      Maths.polyVal(normalizedTime, xPosCoeff),
-                                      Maths.polyVal(normalizedTime, yPosCoeff),
-                                      Maths.polyVal(normalizedTime, zPosCoeff),
-                                      Maths.polyVal(normalizedTime, xVelCoeff),
-                                      Maths.polyVal(normalizedTime, yVelCoeff),
-                                      Maths.polyVal(normalizedTime, zVelCoeff));
+        return orbitModel.getOrbitVector(utc);
     }
 
     private List<Orbits.OrbitVector> readOrbitFile(final File file) throws Exception {
@@ -0,0 +1,262 @@
+/*
+ * Copyright (C) 2021 SkyWatch Space Applications Inc. https://www.skywatch.com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.orbits.io.sentinel1;
+
+import org.esa.snap.core.datamodel.ProductData;
+import org.esa.snap.core.util.SystemUtils;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Catalogue of the Sentinel-1 orbit files of a local orbit folder.
+ * <p>
+ * The mission, type, production time and validity period of each orbit file are taken from its name and kept,
+ * sorted by validity start, in an index file of the folder. Finding the orbit file of a product is then a binary
+ * search instead of a listing of the folder. Whenever the folder has been modified since the index was written, the
+ * index is brought up to date, parsing only the names of the new files.
+ */
+final class S1OrbitFileIndex {
+
+    static final String INDEX_FILE_NAME = "orbit_files.idx";
+    private static final String HEADER = "# Sentinel-1 orbit file index 1";
+
+    private static final Map<File, S1OrbitFileIndex> indices = new ConcurrentHashMap<>();
+
+    private final File folder;
+    private final File indexFile;
+    private long folderModified = -1;   // time stamp of the folder the entries are up to date with
+    private Entry[] entries = new Entry[0];
+    private double maxValidity = 0.0;   // longest validity period in days
+
+    private S1OrbitFileIndex(final File folder) {
+        this.folder = folder;
+        this.indexFile = new File(folder, INDEX_FILE_NAME);
+    }
+
+    static S1OrbitFileIndex getIndex(final File folder) {
+        return indices.computeIfAbsent(folder.getAbsoluteFile(), S1OrbitFileIndex::new);
+    }
+
+    /**
+     * Find the orbit file valid at given time.
+     *
+     * @param prefix          the file name prefix of the mission and orbit type
+     * @param stateVectorTime the state vector time of the product
+     * @return the most recently produced of the orbit files valid at the time, or null if there is none
+     */
+    synchronized File findOrbitFile(final String prefix, final ProductData.UTC stateVectorTime) {
+        final double mjd = stateVectorTime.getMJD();
+
+        update(false);
+        File file = find(prefix, mjd);
+        if (file == null || !file.exists()) {
+            // a file added within the resolution of the folder time stamp is only found by listing the folder
+            update(true);
+            file = find(prefix, mjd);
+        }
+        return file;
+    }
+
+    private File find(final String prefix, final double mjd) {
+
+        // last entry starting at or before the time
+        int lowerBound = 0;
+        int upperBound = entries.length - 1;
+        int last = -1;
+        while (lowerBound <= upperBound) {
+            final int mid = (lowerBound + upperBound) >>> 1;
+            if (entries[mid].start <= mjd) {
+                last = mid;
+                lowerBound = mid + 1;
+            } else {
+                upperBound = mid - 1;
+            }
+        }
+
+        // only the entries starting within the longest validity period before the time can contain it
+        Entry found = null;
+        for (int i = last; i >= 0 && entries[i].start >= mjd - maxValidity; --i) {
+            final Entry entry = entries[i];
+            if (mjd < entry.stop && entry.name.regionMatches(true, 0, prefix, 0, prefix.length()) &&
+                    (found == null || entry.production.compareTo(found.production) > 0)) {
+                found = entry;
+            }
+        }
+        return found != null ? new File(folder, found.name) : null;
+    }
+
+    private void update(final boolean force) {
+        final long modified = folder.lastModified();
+        if (!force) {
+            if (modified == folderModified) {
+                return;
+            }
+            if (folderModified < 0 && readIndexFile() && indexFile.lastModified() >= modified) {
+                folderModified = modified;
+                return;
+            }
+        }
+
+        final String[] names = folder.list((dir, name) -> isOrbitFile(name));
+        if (names == null) {
+            setEntries(new ArrayList<>());
+            folderModified = -1;
+            return;
+        }
+
+        final Map<String, Entry> knownEntries = new HashMap<>();
+        for (Entry entry : entries) {
+            knownEntries.put(entry.name, entry);
+        }
+        final List<Entry> entryList = new ArrayList<>(names.length);
+        boolean changed = names.length != entries.length;
+        for (String name : names) {
+            Entry entry = knownEntries.get(name);
+            if (entry == null) {
+                entry = Entry.create(name);
+                changed = true;
+            }
+            if (entry != null) {
+                entryList.add(entry);
+            }
+        }
+        setEntries(entryList);
+
+        folderModified = modified;
+        if (changed || !indexFile.exists()) {
+            writeIndexFile();
+        } else {
+            // the folder changed without new orbit files, e.g. state vector files written next to them
+            indexFile.setLastModified(modified);
+        }
+    }
+
+    private void setEntries(final List<Entry> entryList) {
+        entryList.sort(Comparator.comparingDouble((Entry e) -> e.start).thenComparing(e -> e.name));
+        entries = entryList.toArray(new Entry[0]);
+        maxValidity = 0.0;
+        for (Entry entry : entries) {
+            maxValidity = Math.max(maxValidity, entry.stop - entry.start);
+        }
+    }
+
+    private static boolean isOrbitFile(final String name) {
+        final String upperName = name.toUpperCase();
+        return (upperName.endsWith(".ZIP") || upperName.endsWith(".EOF")) &&
+                upperName.length() >= 73 && upperName.charAt(41) == 'V';
+    }
+
+    private boolean readIndexFile() {
+        if (!indexFile.exists()) {
+            return false;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(indexFile.toPath(), StandardCharsets.UTF_8)) {
+            if (!HEADER.equals(reader.readLine())) {
+                return false;
+            }
+            final List<Entry> entryList = new ArrayList<>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                final String[] tokens = line.split("\t");
+                if (tokens.length != 6) {
+                    return false;
+                }
+                entryList.add(new Entry(tokens[0], tokens[1], tokens[2], tokens[3],
+                        Double.parseDouble(tokens[4]), Double.parseDouble(tokens[5])));
+            }
+            setEntries(entryList);
+            return true;
+        } catch (IOException | NumberFormatException e) {
+            SystemUtils.LOG.fine("Unable to read orbit file index " + indexFile + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void writeIndexFile() {
+        File tmpFile = null;
+        try {
+            tmpFile = File.createTempFile("orbit_files", ".tmp", folder);
+            try (BufferedWriter writer = Files.newBufferedWriter(tmpFile.toPath(), StandardCharsets.UTF_8)) {
+                writer.write(HEADER);
+                writer.newLine();
+                for (Entry entry : entries) {
+                    writer.write(entry.name + '\t' + entry.mission + '\t' + entry.type + '\t' + entry.production +
+                            '\t' + entry.start + '\t' + entry.stop);
+                    writer.newLine();
+                }
+            }
+            Files.move(tmpFile.toPath(), indexFile.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            // the index is as recent as the folder its file was moved into
+            folderModified = folder.lastModified();
+            indexFile.setLastModified(folderModified);
+        } catch (IOException e) {
+            // a read only archive is only indexed in memory
+            SystemUtils.LOG.fine("Unable to write orbit file index " + indexFile + ": " + e.getMessage());
+            if (tmpFile != null) {
+                tmpFile.delete();
+            }
+        }
+    }
+
+    private static final class Entry {
+
+        private final String name;
+        private final String mission;
+        private final String type;
+        private final String production;
+        private final double start;   // validity start in MJD
+        private final double stop;    // validity stop in MJD
+
+        Entry(final String name, final String mission, final String type, final String production,
+              final double start, final double stop) {
+            this.name = name;
+            this.mission = mission;
+            this.type = type;
+            this.production = production;
+            this.start = start;
+            this.stop = stop;
+        }
+
+        // S1A_OPER_AUX_POEORB_OPOD_20140526T151322_V20140509T225944_20140511T005944.EOF
+        static Entry create(final String name) {
+            try {
+                final ProductData.UTC start = Sentinel1OrbitFileReader.getValidityStartFromFilenameUTC(name);
+                final ProductData.UTC stop = Sentinel1OrbitFileReader.getValidityStopFromFilenameUTC(name);
+                if (start == null || stop == null) {
+                    return null;
+                }
+                return new Entry(name, name.substring(0, 3), name.substring(13, 19), name.substring(25, 40),
+                        start.getMJD(), stop.getMJD());
+            } catch (Exception e) {
+                return null;
+            }
+        }
+    }
+}
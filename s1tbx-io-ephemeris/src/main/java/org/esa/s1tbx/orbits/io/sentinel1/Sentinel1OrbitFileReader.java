@@ -22,7 +22,14 @@ import org.esa.snap.engine_utilities.datamodel.Orbits;
 import org.jdom2.Document;
 import org.jdom2.Element;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.text.DateFormat;
 import java.text.ParseException;
 import java.util.ArrayList;
@@ -36,6 +43,10 @@ public class Sentinel1OrbitFileReader {
     final static DateFormat dateFormat = ProductData.UTC.createDateFormat("yyyyMMdd-HHmmss");
     final static DateFormat orbitDateFormat = ProductData.UTC.createDateFormat("yyyy-MM-dd HH:mm:ss");
 
+    // binary copy of the header and state vectors next to the orbit file, read instead of parsing the XML
+    static final String STATE_VECTOR_FILE_EXT = ".osv";
+    private static final int STATE_VECTOR_FILE_VERSION = 1;
+
     private FixedHeader fixedHeader = null;
     private final File orbitFile;
     private List<Orbits.OrbitVector> osvList = new ArrayList<>();
@@ -50,6 +61,11 @@ public class Sentinel1OrbitFileReader {
 
     void read() throws Exception {
 
+        final File stateVectorFile = new File(orbitFile.getPath() + STATE_VECTOR_FILE_EXT);
+        if (readStateVectorFile(stateVectorFile)) {
+            return;
+        }
+
         final Document doc;
         if (orbitFile.getName().toLowerCase().endsWith(".zip")) {
             final ZipFile productZip = new ZipFile(orbitFile, ZipFile.OPEN_READ);
@@ -75,6 +91,70 @@ public class Sentinel1OrbitFileReader {
             final Element listOfOSVs = dataBlock.getChild("List_of_OSVs");
             osvList = readOSVList(listOfOSVs);
         }
+
+        if (fixedHeader != null) {
+            writeStateVectorFile(stateVectorFile);
+        }
+    }
+
+    private boolean readStateVectorFile(final File stateVectorFile) {
+        if (!stateVectorFile.exists() || stateVectorFile.lastModified() < orbitFile.lastModified()) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Files.newInputStream(stateVectorFile.toPath())))) {
+            if (in.readInt() != STATE_VECTOR_FILE_VERSION) {
+                return false;
+            }
+            final FixedHeader header = new FixedHeader(in.readUTF(), in.readUTF(), in.readUTF(), in.readUTF(),
+                    in.readUTF());
+            final int count = in.readInt();
+            final List<Orbits.OrbitVector> vectors = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                vectors.add(new Orbits.OrbitVector(in.readDouble(), in.readDouble(), in.readDouble(),
+                        in.readDouble(), in.readDouble(), in.readDouble(), in.readDouble()));
+            }
+            fixedHeader = header;
+            osvList = vectors;
+            return true;
+        } catch (IOException e) {
+            SystemUtils.LOG.fine("Unable to read " + stateVectorFile + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void writeStateVectorFile(final File stateVectorFile) {
+        File tmpFile = null;
+        try {
+            tmpFile = File.createTempFile("orbit", ".tmp", stateVectorFile.getAbsoluteFile().getParentFile());
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    Files.newOutputStream(tmpFile.toPath())))) {
+                out.writeInt(STATE_VECTOR_FILE_VERSION);
+                out.writeUTF(fixedHeader.mission);
+                out.writeUTF(fixedHeader.fileType);
+                out.writeUTF(fixedHeader.validityStart);
+                out.writeUTF(fixedHeader.validityStop);
+                out.writeUTF(fixedHeader.version);
+                out.writeInt(osvList.size());
+                for (Orbits.OrbitVector osv : osvList) {
+                    out.writeDouble(osv.utcMJD);
+                    out.writeDouble(osv.xPos);
+                    out.writeDouble(osv.yPos);
+                    out.writeDouble(osv.zPos);
+                    out.writeDouble(osv.xVel);
+                    out.writeDouble(osv.yVel);
+                    out.writeDouble(osv.zVel);
+                }
+            }
+            Files.move(tmpFile.toPath(), stateVectorFile.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // a read only archive is parsed each time
+            SystemUtils.LOG.fine("Unable to write " + stateVectorFile + ": " + e.getMessage());
+            if (tmpFile != null) {
+                tmpFile.delete();
+            }
+        }
     }
 
     private static FixedHeader readFixedHeader(final Element fixedHeaderElem) {
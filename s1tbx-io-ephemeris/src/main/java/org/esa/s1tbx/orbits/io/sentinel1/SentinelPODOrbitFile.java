@@ -15,19 +15,18 @@
  */
 package org.esa.s1tbx.orbits.io.sentinel1;
 
-import Jama.Matrix;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 import org.esa.s1tbx.orbits.io.BaseOrbitFile;
 import org.esa.s1tbx.orbits.io.OrbitFile;
+import org.esa.s1tbx.orbits.io.PolynomialOrbitModel;
 import org.esa.snap.core.datamodel.MetadataElement;
 import org.esa.snap.core.datamodel.ProductData;
 import org.esa.snap.core.util.StringUtils;
 import org.esa.snap.core.util.SystemUtils;
 import org.esa.snap.engine_utilities.datamodel.AbstractMetadata;
 import org.esa.snap.engine_utilities.datamodel.Orbits;
-import org.esa.snap.engine_utilities.util.Maths;
 import org.esa.snap.engine_utilities.util.Settings;
 
 import java.io.*;
@@ -54,6 +53,7 @@ public class SentinelPODOrbitFile extends BaseOrbitFile implements OrbitFile {
     private final int polyDegree;
 
     private List<Orbits.OrbitVector> osvList = new ArrayList<>();
+    private PolynomialOrbitModel orbitModel = null;
     private String fileVersion;
 
     private static LoadingCache<File, Sentinel1OrbitFileReader> cache;
@@ -167,16 +167,7 @@ public class SentinelPODOrbitFile extends BaseOrbitFile implements OrbitFile {
 
         if (!orbitFileFolder.exists())
             return null;
-        final File[] files = orbitFileFolder.listFiles(new S1OrbitFileFilter(prefix));
-        if (files == null || files.length == 0)
-            return null;
-
-        for (File file : files) {
-            if (Sentinel1OrbitFileReader.isWithinRange(file.getName(), stateVectorTime)) {
-                return file;
-            }
-        }
-        return null;
+        return S1OrbitFileIndex.getIndex(orbitFileFolder).findOrbitFile(prefix, stateVectorTime);
     }
 
     /**
@@ -209,65 +200,7 @@ public class SentinelPODOrbitFile extends BaseOrbitFile implements OrbitFile {
      * @return The orbit state vector.
      */
     public Orbits.OrbitVector getOrbitData(final double utc) {
-
-        final int numVectors = osvList.size();
-        final double t0 = osvList.get(0).utcMJD;
-        final double tN = osvList.get(numVectors - 1).utcMJD;
-
-        final int numVecPolyFit = polyDegree + 1; //4;
-        final int halfNumVecPolyFit = numVecPolyFit / 2;
-        final int[] vectorIndices = new int[numVecPolyFit];
-
-        final int vecIdx = (int) ((utc - t0) / (tN - t0) * (numVectors - 1));
-        if (vecIdx <= halfNumVecPolyFit - 1) {
-            for (int i = 0; i < numVecPolyFit; i++) {
-                vectorIndices[i] = i;
-            }
-        } else if (vecIdx >= numVectors - halfNumVecPolyFit) {
-            for (int i = 0; i < numVecPolyFit; i++) {
-                vectorIndices[i] = numVectors - numVecPolyFit + i;
-            }
-        } else {
-            for (int i = 0; i < numVecPolyFit; i++) {
-                vectorIndices[i] = vecIdx - halfNumVecPolyFit + 1 + i;
-            }
-        }
-
-        double[] timeArray = new double[numVecPolyFit];
-        double[] xPosArray = new double[numVecPolyFit];
-        double[] yPosArray = new double[numVecPolyFit];
-        double[] zPosArray = new double[numVecPolyFit];
-        double[] xVelArray = new double[numVecPolyFit];
-        double[] yVelArray = new double[numVecPolyFit];
-        double[] zVelArray = new double[numVecPolyFit];
-
-        for (int i = 0; i < numVecPolyFit; i++) {
-            timeArray[i] = osvList.get(vectorIndices[i]).utcMJD - t0;
-            xPosArray[i] = osvList.get(vectorIndices[i]).xPos;
-            yPosArray[i] = osvList.get(vectorIndices[i]).yPos;
-            zPosArray[i] = osvList.get(vectorIndices[i]).zPos;
-            xVelArray[i] = osvList.get(vectorIndices[i]).xVel;
-            yVelArray[i] = osvList.get(vectorIndices[i]).yVel;
-            zVelArray[i] = osvList.get(vectorIndices[i]).zVel;
-        }
-
-        final Matrix A = Maths.createVandermondeMatrix(timeArray, polyDegree);
-        final double[] xPosCoeff = Maths.polyFit(A, xPosArray);
-        final double[] yPosCoeff = Maths.polyFit(A, yPosArray);
-        final double[] zPosCoeff = Maths.polyFit(A, zPosArray);
-        final double[] xVelCoeff = Maths.polyFit(A, xVelArray);
-        final double[] yVelCoeff = Maths.polyFit(A, yVelArray);
-        final double[] zVelCoeff = Maths.polyFit(A, zVelArray);
-
-        final double normalizedTime = utc - t0;
-
-        return new Orbits.OrbitVector(utc,
-                Maths.polyVal(normalizedTime, xPosCoeff),
-                Maths.polyVal(normalizedTime, yPosCoeff),
-                Maths.polyVal(normalizedTime, zPosCoeff),
-                Maths.polyVal(normalizedTime, xVelCoeff),
-                Maths.polyVal(normalizedTime, yVelCoeff),
-                Maths.polyVal(normalizedTime, zVelCoeff));
+        return orbitModel.getOrbitVector(utc);
     }
 
     private void readOrbitFile() throws Exception {
@@ -277,23 +210,10 @@ public class SentinelPODOrbitFile extends BaseOrbitFile implements OrbitFile {
         checkOrbitFileValidity(orbitFileReader);
 
         osvList = orbitFileReader.getOrbitStateVectors();
+        orbitModel = new PolynomialOrbitModel(osvList, polyDegree);
         fileVersion = orbitFileReader.getFileVersion();
     }
 
-    private static class S1OrbitFileFilter implements FilenameFilter {
-        private final String prefix;
-
-        S1OrbitFileFilter(String prefix) {
-            this.prefix = prefix;
-        }
-
-        @Override
-        public boolean accept(File dir, String name) {
-            name = name.toUpperCase();
-            return (name.endsWith(".ZIP") || name.endsWith(".EOF")) && name.startsWith(prefix);
-        }
-    }
-
     private LoadingCache<File, Sentinel1OrbitFileReader> getCache() {
         if(cache == null) {
             cache = createCache();
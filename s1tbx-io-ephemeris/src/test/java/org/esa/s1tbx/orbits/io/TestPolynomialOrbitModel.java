@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2021 SkyWatch Space Applications Inc. https://www.skywatch.com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.orbits.io;
+
+import org.esa.snap.engine_utilities.datamodel.Orbits;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * To test PolynomialOrbitModel
+ */
+public class TestPolynomialOrbitModel {
+
+    private static final double radius = 7071000.0;         // m
+    private static final double period = 98.6 / 1440.0;     // days
+    private static final double interval = 10.0 / 86400.0; // days
+    private static final double t0 = 5000.0;                // MJD
+
+    private static List<Orbits.OrbitVector> createOrbit(final int numVectors) {
+        final List<Orbits.OrbitVector> osvList = new ArrayList<>(numVectors);
+        final double w = 2.0 * Math.PI / period;
+        final double v = radius * w / 86400.0;
+        for (int i = 0; i < numVectors; i++) {
+            final double t = i * interval;
+            osvList.add(new Orbits.OrbitVector(t0 + t,
+                    radius * Math.cos(w * t), radius * Math.sin(w * t), 0.0,
+                    -v * Math.sin(w * t), v * Math.cos(w * t), 0.0));
+        }
+        return osvList;
+    }
+
+    @Test
+    public void testStateVectors() {
+        final List<Orbits.OrbitVector> osvList = createOrbit(60);
+        final PolynomialOrbitModel model = new PolynomialOrbitModel(osvList, 3);
+
+        for (Orbits.OrbitVector osv : osvList) {
+            final Orbits.OrbitVector orbitData = model.getOrbitVector(osv.utcMJD);
+            assertEquals(osv.xPos, orbitData.xPos, 1e-3);
+            assertEquals(osv.yPos, orbitData.yPos, 1e-3);
+            assertEquals(osv.zPos, orbitData.zPos, 1e-3);
+            assertEquals(osv.xVel, orbitData.xVel, 1e-6);
+            assertEquals(osv.yVel, orbitData.yVel, 1e-6);
+            assertEquals(osv.zVel, orbitData.zVel, 1e-6);
+        }
+    }
+
+    @Test
+    public void testInterpolation() {
+        final List<Orbits.OrbitVector> osvList = createOrbit(60);
+        final PolynomialOrbitModel model = new PolynomialOrbitModel(osvList, 3);
+        final double w = 2.0 * Math.PI / period;
+
+        final double[] position = new double[3];
+        final double[] velocity = new double[3];
+        for (int i = 0; i < 590; i++) {
+            final double t = (i + 0.5) * interval / 10.0;
+            model.getPositionVelocity(t0 + t, position, velocity);
+            assertEquals(radius * Math.cos(w * t), position[0], 1.0);
+            assertEquals(radius * Math.sin(w * t), position[1], 1.0);
+
+            final Orbits.OrbitVector orbitData = model.getOrbitVector(t0 + t);
+            assertEquals(orbitData.xPos, position[0], 0.0);
+            assertEquals(orbitData.yPos, position[1], 0.0);
+            assertEquals(orbitData.xVel, velocity[0], 0.0);
+            assertEquals(orbitData.yVel, velocity[1], 0.0);
+        }
+    }
+
+    @Test
+    public void testOddNumberOfVectors() {
+        final List<Orbits.OrbitVector> osvList = createOrbit(20);
+        final PolynomialOrbitModel model = new PolynomialOrbitModel(osvList, 4);
+
+        final double w = 2.0 * Math.PI / period;
+
+        // the segments at the end of the orbit stay within the state vectors
+        final double t = (osvList.size() - 2.5) * interval;
+        final Orbits.OrbitVector orbitData = model.getOrbitVector(t0 + t);
+        assertEquals(radius * Math.cos(w * t), orbitData.xPos, 1.0);
+        assertEquals(radius * Math.sin(w * t), orbitData.yPos, 1.0);
+    }
+}
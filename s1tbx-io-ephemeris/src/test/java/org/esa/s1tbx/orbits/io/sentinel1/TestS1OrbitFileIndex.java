@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2021 SkyWatch Space Applications Inc. https://www.skywatch.com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.orbits.io.sentinel1;
+
+import org.esa.snap.core.datamodel.ProductData;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * To test S1OrbitFileIndex
+ */
+public class TestS1OrbitFileIndex {
+
+    private static final String prefix = "S1A_OPER_AUX_POEORB_OPOD_";
+
+    private static File createOrbitFile(final File folder, final String name) throws Exception {
+        final File file = new File(folder, name);
+        assertTrue(file.createNewFile());
+        return file;
+    }
+
+    private static ProductData.UTC utc(final String time) throws Exception {
+        return ProductData.UTC.parse(time, Sentinel1OrbitFileReader.dateFormat);
+    }
+
+    @Test
+    public void testFindOrbitFile() throws Exception {
+        final File folder = Files.createTempDirectory("orbits").toFile();
+        final File file1 = createOrbitFile(folder,
+                "S1A_OPER_AUX_POEORB_OPOD_20140526T151322_V20140509T225944_20140511T005944.EOF");
+        final File file2 = createOrbitFile(folder,
+                "S1A_OPER_AUX_POEORB_OPOD_20140527T151322_V20140510T225944_20140512T005944.EOF.zip");
+        createOrbitFile(folder, "S1B_OPER_AUX_POEORB_OPOD_20140528T151322_V20140510T225944_20140512T005944.EOF");
+
+        final S1OrbitFileIndex index = S1OrbitFileIndex.getIndex(folder);
+        assertEquals(file1, index.findOrbitFile(prefix, utc("20140510-120000")));
+        assertEquals(file2, index.findOrbitFile(prefix, utc("20140511-120000")));
+        assertNull(index.findOrbitFile(prefix, utc("20140512-120000")));
+        final File indexFile = new File(folder, S1OrbitFileIndex.INDEX_FILE_NAME);
+        assertTrue(indexFile.exists());
+
+        // other files written to the folder leave the index as recent as the folder
+        createOrbitFile(folder, file1.getName() + Sentinel1OrbitFileReader.STATE_VECTOR_FILE_EXT);
+        assertTrue(folder.setLastModified(folder.lastModified() + 2000));
+        assertEquals(file1, index.findOrbitFile(prefix, utc("20140510-120000")));
+        assertEquals(folder.lastModified(), indexFile.lastModified());
+
+        // the most recently produced of overlapping files
+        final File file3 = createOrbitFile(folder,
+                "S1A_OPER_AUX_POEORB_OPOD_20140601T151322_V20140509T225944_20140511T005944.EOF");
+        // make sure the time stamp of the folder changed, whatever the resolution of the file system
+        assertTrue(folder.setLastModified(folder.lastModified() + 2000));
+        assertEquals(file3, index.findOrbitFile(prefix, utc("20140510-120000")));
+
+        assertTrue(file3.delete());
+        assertEquals(file1, index.findOrbitFile(prefix, utc("20140510-120000")));
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2021 SkyWatch Space Applications Inc. https://www.skywatch.com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.orbits.io.sentinel1;
+
+import org.esa.snap.engine_utilities.datamodel.Orbits;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * To test the state vector file of Sentinel1OrbitFileReader
+ */
+public class TestSentinel1OrbitFileReader {
+
+    private static final String orbitFileName =
+            "S1A_OPER_AUX_POEORB_OPOD_20140526T151322_V20140509T225944_20140511T005944.EOF";
+
+    private static String createOSV(final String utc, final double x) {
+        return "<OSV><UTC>UTC=" + utc + "</UTC>" +
+                "<X unit=\"m\">" + x + "</X><Y unit=\"m\">-2045123.125</Y><Z unit=\"m\">6548710.5</Z>" +
+                "<VX unit=\"m/s\">1234.567</VX><VY unit=\"m/s\">-7021.25</VY><VZ unit=\"m/s\">-2.000001</VZ></OSV>";
+    }
+
+    private static String createOrbitXML() {
+        return "<?xml version=\"1.0\"?>\n" +
+                "<Earth_Explorer_File><Earth_Explorer_Header><Fixed_Header>" +
+                "<Mission>Sentinel-1A</Mission><File_Type>AUX_POEORB</File_Type>" +
+                "<Validity_Period><Validity_Start>UTC=2014-05-09T22:59:44</Validity_Start>" +
+                "<Validity_Stop>UTC=2014-05-11T00:59:44</Validity_Stop></Validity_Period>" +
+                "<Source><Creator_Version>1.10.1</Creator_Version></Source>" +
+                "</Fixed_Header></Earth_Explorer_Header>" +
+                "<Data_Block><List_of_OSVs count=\"3\">" +
+                createOSV("2014-05-09T22:59:54.000000", 3456789.25) +
+                createOSV("2014-05-09T22:59:44.000000", 3445678.75) +
+                createOSV("2014-05-09T23:00:04.500000", 3467890.5) +
+                "</List_of_OSVs></Data_Block></Earth_Explorer_File>\n";
+    }
+
+    private static void assertSameOrbit(final Sentinel1OrbitFileReader expected,
+                                        final Sentinel1OrbitFileReader actual) {
+        assertEquals(expected.getMissionFromHeader(), actual.getMissionFromHeader());
+        assertEquals(expected.getFileTypeFromHeader(), actual.getFileTypeFromHeader());
+        assertEquals(expected.getValidityStartFromHeader(), actual.getValidityStartFromHeader());
+        assertEquals(expected.getValidityStopFromHeader(), actual.getValidityStopFromHeader());
+        assertEquals(expected.getFileVersion(), actual.getFileVersion());
+
+        final List<Orbits.OrbitVector> expectedVectors = expected.getOrbitStateVectors();
+        final List<Orbits.OrbitVector> actualVectors = actual.getOrbitStateVectors();
+        assertEquals(expectedVectors.size(), actualVectors.size());
+        for (int i = 0; i < expectedVectors.size(); i++) {
+            final Orbits.OrbitVector e = expectedVectors.get(i);
+            final Orbits.OrbitVector a = actualVectors.get(i);
+            assertEquals(e.utcMJD, a.utcMJD, 0.0);
+            assertEquals(e.xPos, a.xPos, 0.0);
+            assertEquals(e.yPos, a.yPos, 0.0);
+            assertEquals(e.zPos, a.zPos, 0.0);
+            assertEquals(e.xVel, a.xVel, 0.0);
+            assertEquals(e.yVel, a.yVel, 0.0);
+            assertEquals(e.zVel, a.zVel, 0.0);
+        }
+    }
+
+    @Test
+    public void testStateVectorFile() throws Exception {
+        final File folder = Files.createTempDirectory("orbits").toFile();
+        final File orbitFile = new File(folder, orbitFileName);
+        Files.write(orbitFile.toPath(), createOrbitXML().getBytes(StandardCharsets.UTF_8));
+
+        final Sentinel1OrbitFileReader xmlReader = new Sentinel1OrbitFileReader(orbitFile);
+        xmlReader.read();
+
+        assertEquals("Sentinel-1A", xmlReader.getMissionFromHeader());
+        assertEquals("AUX_POEORB", xmlReader.getFileTypeFromHeader());
+        assertEquals("UTC=2014-05-09T22:59:44", xmlReader.getValidityStartFromHeader());
+        assertEquals("UTC=2014-05-11T00:59:44", xmlReader.getValidityStopFromHeader());
+        assertEquals("1.10.1", xmlReader.getFileVersion());
+
+        // sorted by time
+        final List<Orbits.OrbitVector> vectors = xmlReader.getOrbitStateVectors();
+        assertEquals(3, vectors.size());
+        assertEquals(Sentinel1OrbitFileReader.toUTC("UTC=2014-05-09T22:59:44.000000").getMJD(),
+                vectors.get(0).utcMJD, 0.0);
+        assertEquals(3445678.75, vectors.get(0).xPos, 0.0);
+        assertEquals(3467890.5, vectors.get(2).xPos, 0.0);
+        assertEquals(-2.000001, vectors.get(2).zVel, 0.0);
+
+        final File stateVectorFile = new File(orbitFile.getPath() + Sentinel1OrbitFileReader.STATE_VECTOR_FILE_EXT);
+        assertTrue(stateVectorFile.exists());
+
+        // the orbit file is no longer parsed once the state vector file is written
+        final long orbitFileModified = orbitFile.lastModified();
+        Files.write(orbitFile.toPath(), "not an orbit file".getBytes(StandardCharsets.UTF_8));
+        assertTrue(orbitFile.setLastModified(orbitFileModified));
+        assertTrue(stateVectorFile.setLastModified(orbitFileModified + 2000));
+
+        final Sentinel1OrbitFileReader stateVectorReader = new Sentinel1OrbitFileReader(orbitFile);
+        stateVectorReader.read();
+        assertSameOrbit(xmlReader, stateVectorReader);
+
+        // a state vector file older than the orbit file is written again
+        final String updatedXML = createOrbitXML().replace("1.10.1", "1.10.2");
+        Files.write(orbitFile.toPath(), updatedXML.getBytes(StandardCharsets.UTF_8));
+        assertTrue(stateVectorFile.setLastModified(orbitFile.lastModified() - 2000));
+
+        final Sentinel1OrbitFileReader updatedReader = new Sentinel1OrbitFileReader(orbitFile);
+        updatedReader.read();
+        assertEquals("1.10.2", updatedReader.getFileVersion());
+        assertTrue(stateVectorFile.lastModified() >= orbitFile.lastModified());
+
+        final Sentinel1OrbitFileReader updatedStateVectorReader = new Sentinel1OrbitFileReader(orbitFile);
+        updatedStateVectorReader.read();
+        assertSameOrbit(updatedReader, updatedStateVectorReader);
+    }
+}
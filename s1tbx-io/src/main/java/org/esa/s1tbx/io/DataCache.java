@@ -1,60 +1,150 @@
 package org.esa.s1tbx.io;
 
+import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
+import com.google.common.cache.RemovalNotification;
 import org.esa.s1tbx.commons.io.ImageIOFile;
+import org.esa.snap.runtime.Config;
 
 import java.awt.*;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
+ * Cache of raster data read by product readers.
+ * <p>
+ * All DataCache instances share one cache which is limited by the size of the cached data in bytes, so that the
+ * memory use is predictable when several readers or graphs run in the same JVM. The budget in MB is set with
+ * s1tbx.readers.dataCacheSize, by default an eighth of the maximum heap up to 1 GB.
+ * <p>
  * Created by lveci on 20/05/2014.
  */
 public class DataCache {
 
-    private final LoadingCache<DataKey, Data> cache;
+    private static final long MB = 1024L * 1024L;
+    private static final long maxCacheSize = Config.instance().preferences().getLong("s1tbx.readers.dataCacheSize",
+            Math.min(Runtime.getRuntime().maxMemory() / 8 / MB, 1024L)) * MB;
+
+    private static final Cache<DataKey, Data> cache = CacheBuilder.newBuilder()
+            .maximumWeight(maxCacheSize)
+            .weigher((DataKey key, Data data) -> data.getSizeInBytes())
+            .expireAfterAccess(10, TimeUnit.MINUTES)
+            .removalListener(DataCache::onRemoval)
+            .recordStats()
+            .build();
+
+    // lookups and evictions of this DataCache only, the cache being shared by all readers
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
 
     public DataCache() {
-        cache = CacheBuilder.newBuilder().maximumSize(500).initialCapacity(500)
-                .expireAfterAccess(10, TimeUnit.MINUTES)
-                //.recordStats()
-                .build(new CacheLoader<DataKey, Data>() {
-                           @Override
-                           public Data load(DataKey key) throws Exception {
-                               return new Data();
-                           }
-                       }
-        );
     }
 
+    /**
+     * @return the number of cached data entries of all readers
+     */
     public long size() {
         return cache.size();
     }
 
+    /**
+     * @return the cache budget in bytes
+     */
+    public static long getMaxCacheSize() {
+        return maxCacheSize;
+    }
+
+    /**
+     * @return the hits, misses and evictions of this DataCache and the entries and evictions of all readers
+     */
     public String stats() {
-        return cache.stats().toString();
+        final long hits = hitCount.get();
+        final long misses = missCount.get();
+        final double hitRate = hits + misses == 0 ? 1.0 : hits / (double) (hits + misses);
+        return "DataCache hits=" + hits + " misses=" + misses + String.format(" hitRate=%.3f", hitRate) +
+                " evictions=" + evictionCount.get() + " entries=" + cache.size() +
+                " totalEvictions=" + getTotalEvictionCount() + " budget=" + maxCacheSize / MB + "MB";
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * @return the number of entries of this DataCache removed for the size budget or the expiry time
+     */
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    /**
+     * @return the number of entries of all readers removed for the size budget or the expiry time
+     */
+    public static long getTotalEvictionCount() {
+        return cache.stats().evictionCount();
+    }
+
+    private static void onRemoval(final RemovalNotification<DataKey, Data> notification) {
+        final DataKey key = notification.getKey();
+        if (notification.wasEvicted() && key != null && key.owner != null) {
+            key.owner.evictionCount.incrementAndGet();
+        }
     }
 
+    /**
+     * @param key the data key
+     * @return the cached data or null if not cached
+     */
     public Data get(DataKey key) {
-        return cache.getUnchecked(key);
+        final Data data = cache.getIfPresent(key);
+        if (data != null) {
+            hitCount.incrementAndGet();
+        } else {
+            missCount.incrementAndGet();
+        }
+        return data;
     }
 
-    public synchronized void put(DataKey key, Data value) {
+    public void put(DataKey key, Data value) {
+        key.owner = this;
         cache.put(key, value);
     }
 
+    /**
+     * Remove all data put by this DataCache, e.g. when its reader is closed.
+     */
+    public void clear() {
+        cache.asMap().keySet().removeIf(key -> key.owner == this);
+    }
+
     public static class DataKey {
         private final ImageIOFile img;
         private final Rectangle rect;
+        private final int hash;
+        private DataCache owner;
 
         public DataKey(final ImageIOFile img, final Rectangle rect) {
             this.img = img;
             this.rect = rect;
+
+            int h = System.identityHashCode(img);
+            h = 31 * h + rect.x;
+            h = 31 * h + rect.y;
+            h = 31 * h + rect.width;
+            h = 31 * h + rect.height;
+            this.hash = h;
         }
 
         @Override
         public boolean equals(Object obj) {
+            if (!(obj instanceof DataKey)) {
+                return false;
+            }
 
             DataKey key = (DataKey) obj;
             return (rect.x == key.rect.x &&
@@ -66,7 +156,7 @@ public class DataCache {
 
         @Override
         public int hashCode() {
-            return img.hashCode();
+            return hash;
         }
 
         @Override
@@ -77,6 +167,8 @@ public class DataCache {
 
     public static class Data {
 
+        private static final int ARRAY_OVERHEAD = 16;
+
         public final boolean valid;
         public int[] intArray;
 
@@ -88,5 +180,16 @@ public class DataCache {
             this.intArray = srcArray;
             this.valid = true;
         }
+
+        /**
+         * @return the approximate heap size of the cached data in bytes
+         */
+        public int getSizeInBytes() {
+            long size = ARRAY_OVERHEAD;
+            if (intArray != null) {
+                size += 4L * intArray.length;
+            }
+            return (int) Math.min(size, Integer.MAX_VALUE);
+        }
     }
 }
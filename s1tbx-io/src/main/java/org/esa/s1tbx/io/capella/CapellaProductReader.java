@@ -64,6 +64,7 @@ public class CapellaProductReader extends SARReader {
             dataDir.close();
             dataDir = null;
         }
+        cache.clear();
         super.close();
     }
 
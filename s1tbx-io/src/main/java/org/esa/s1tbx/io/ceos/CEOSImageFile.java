@@ -20,9 +20,16 @@ import org.esa.s1tbx.io.binary.BinaryFileReader;
 import org.esa.s1tbx.io.binary.BinaryRecord;
 import org.esa.snap.core.datamodel.MetadataElement;
 import org.esa.snap.core.datamodel.ProductData;
+import org.esa.snap.core.util.SystemUtils;
 import org.esa.snap.engine_utilities.eo.Constants;
 
+import java.io.EOFException;
+import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 
 
 /**
@@ -32,6 +39,9 @@ import java.io.IOException;
  */
 public abstract class CEOSImageFile {
 
+    // upper bound of the bytes of consecutive records read in one call
+    private static final int MAX_READ_BYTES = 4 * 1024 * 1024;
+
     protected BinaryRecord imageFDR = null;
     protected BinaryFileReader binaryReader = null;
     protected BinaryRecord[] imageRecords = null;
@@ -40,6 +50,9 @@ public abstract class CEOSImageFile {
     protected long startPosImageRecords = 0;
     protected int imageHeaderLength = 0;
 
+    private FileChannel imageChannel = null;
+    private boolean imageChannelOpened = false;
+
     public BinaryRecord getImageFileDescriptor() {
         return imageFDR;
     }
@@ -154,6 +167,8 @@ public abstract class CEOSImageFile {
         pm.beginTask("Reading band...", sourceMaxY - sourceOffsetY);
         try {
             final short[] srcLine = new short[sourceWidth];
+            final ImageLineReader lineReader =
+                    new ImageLineReader(xpos, sourceWidth * 2, sourceStepY, sourceMaxY);
             short[] destLine = null;
             if (sourceStepX != 1)
                 destLine = new short[destWidth];
@@ -163,10 +178,7 @@ public abstract class CEOSImageFile {
                 }
 
                 // Read source line
-                synchronized (binaryReader) {
-                    binaryReader.seek(_imageRecordLength * y + xpos);
-                    binaryReader.read(srcLine);
-                }
+                lineReader.read(y, srcLine);
 
                 // Copy source line into destination buffer
                 final int currentLineIndex = (y - sourceOffsetY) * destWidth;
@@ -201,6 +213,8 @@ public abstract class CEOSImageFile {
         pm.beginTask("Reading band...", sourceMaxY - sourceOffsetY);
         try {
             final int[] srcLine = new int[sourceWidth];
+            final ImageLineReader lineReader =
+                    new ImageLineReader(xpos, sourceWidth * 4, sourceStepY, sourceMaxY);
             int[] destLine = null;
             if (sourceStepX != 1)
                 destLine = new int[destWidth];
@@ -210,10 +224,7 @@ public abstract class CEOSImageFile {
                 }
 
                 // Read source line
-                synchronized (binaryReader) {
-                    binaryReader.seek(_imageRecordLength * y + xpos);
-                    binaryReader.read(srcLine);
-                }
+                lineReader.read(y, srcLine);
 
                 // Copy source line into destination buffer
                 final int currentLineIndex = (y - sourceOffsetY) * destWidth;
@@ -245,6 +256,8 @@ public abstract class CEOSImageFile {
         pm.beginTask("Reading band...", sourceMaxY - sourceOffsetY);
         try {
             final float[] srcLine = new float[sourceWidth];
+            final ImageLineReader lineReader =
+                    new ImageLineReader(xpos, sourceWidth * 4, sourceStepY, sourceMaxY);
             float[] destLine = null;
             if (sourceStepX != 1)
                 destLine = new float[destWidth];
@@ -254,10 +267,7 @@ public abstract class CEOSImageFile {
                 }
 
                 // Read source line
-                synchronized (binaryReader) {
-                    binaryReader.seek(_imageRecordLength * y + xpos);
-                    binaryReader.read(srcLine);
-                }
+                lineReader.read(y, srcLine);
 
                 // Copy source line into destination buffer
                 final int currentLineIndex = (y - sourceOffsetY) * destWidth;
@@ -288,6 +298,8 @@ public abstract class CEOSImageFile {
         pm.beginTask("Reading band...", sourceMaxY - sourceOffsetY);
         try {
             final byte[] srcLine = new byte[sourceWidth];
+            final ImageLineReader lineReader =
+                    new ImageLineReader(xpos, sourceWidth, sourceStepY, sourceMaxY);
             byte[] destLine = null;
             if (sourceStepX != 1)
                 destLine = new byte[destWidth];
@@ -297,10 +309,7 @@ public abstract class CEOSImageFile {
                 }
 
                 // Read source line
-                synchronized (binaryReader) {
-                    binaryReader.seek(_imageRecordLength * y + xpos);
-                    binaryReader.read(srcLine);
-                }
+                lineReader.read(y, srcLine);
 
                 // Copy source line into destination buffer
                 final int currentLineIndex = (y - sourceOffsetY) * destWidth;
@@ -332,6 +341,8 @@ public abstract class CEOSImageFile {
 
         try {
             final short[] srcLine = new short[sourceWidth * 2];
+            final ImageLineReader lineReader =
+                    new ImageLineReader(xpos, sourceWidth * 4, sourceStepY, sourceMaxY);
             for (int y = sourceOffsetY; y <= sourceMaxY; y += sourceStepY) {
 
                 /*
@@ -359,10 +370,7 @@ public abstract class CEOSImageFile {
                 }   */
 
                 // Read source line
-                synchronized (binaryReader) {
-                    binaryReader.seek(_imageRecordLength * y + xpos);
-                    binaryReader.read(srcLine);
-                }
+                lineReader.read(y, srcLine);
 
                 // Copy source line into destination buffer
                 final int currentLineIndex = (y - sourceOffsetY) * destWidth;
@@ -377,7 +385,7 @@ public abstract class CEOSImageFile {
         }
     }
 
-    public synchronized void readBandRasterDataSLCFloat(final int sourceOffsetX, final int sourceOffsetY,
+    public void readBandRasterDataSLCFloat(final int sourceOffsetX, final int sourceOffsetY,
                                            final int sourceWidth, final int sourceHeight,
                                            final int sourceStepX, final int sourceStepY,
                                            final int destWidth, final ProductData destBuffer, boolean oneOf2,
@@ -389,13 +397,12 @@ public abstract class CEOSImageFile {
         pm.beginTask("Reading band...", sourceMaxY - sourceOffsetY);
         try {
             final float[] srcLine = new float[sourceWidth * 2];
+            final ImageLineReader lineReader =
+                    new ImageLineReader(xpos, sourceWidth * 8, sourceStepY, sourceMaxY);
             final float[] destLine = new float[destWidth];
             for (int y = sourceOffsetY; y <= sourceMaxY; y += sourceStepY) {
                 // Read source line
-                //synchronized (binaryReader) {
-                    binaryReader.seek(_imageRecordLength * y + xpos);
-                    binaryReader.read(srcLine);
-                //}
+                lineReader.read(y, srcLine);
 
                 // Copy source line into destination buffer
                 final int currentLineIndex = (y - sourceOffsetY) * destWidth;
@@ -423,6 +430,8 @@ public abstract class CEOSImageFile {
         pm.beginTask("Reading band...", sourceMaxY - sourceOffsetY);
         try {
             final byte[] srcLine = new byte[sourceWidth * 2];
+            final ImageLineReader lineReader =
+                    new ImageLineReader(xpos, sourceWidth * 2, sourceStepY, sourceMaxY);
             final byte[] destLine = new byte[destWidth];
             for (int y = sourceOffsetY; y <= sourceMaxY; y += sourceStepY) {
                 if (pm.isCanceled()) {
@@ -430,10 +439,7 @@ public abstract class CEOSImageFile {
                 }
 
                 // Read source line
-                synchronized (binaryReader) {
-                    binaryReader.seek(_imageRecordLength * y + xpos);
-                    binaryReader.read(srcLine);
-                }
+                lineReader.read(y, srcLine);
 
                 // Copy source line into destination buffer
                 final int currentLineIndex = (y - sourceOffsetY) * destWidth;
@@ -533,8 +539,144 @@ public abstract class CEOSImageFile {
         }
     }
 
+    /**
+     * Get a channel on the image file for positioned reads, opened on first use.
+     *
+     * @return the channel or null if the image is not read directly from a file, as for compressed products
+     */
+    private synchronized FileChannel getImageChannel() {
+        if (!imageChannelOpened && binaryReader != null) {
+            imageChannelOpened = true;
+            final File file = binaryReader.getFile();
+            if (file != null) {
+                try {
+                    imageChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+                } catch (IOException e) {
+                    SystemUtils.LOG.warning("Unable to open " + file + " for positioned reads: " + e.getMessage());
+                }
+            }
+        }
+        return imageChannel;
+    }
+
     public void close() throws IOException {
+        synchronized (this) {
+            if (imageChannel != null) {
+                imageChannel.close();
+                imageChannel = null;
+            }
+        }
         binaryReader.close();
         binaryReader = null;
     }
+
+    /**
+     * Reads the lines of a source rectangle from the image records.
+     * With a channel on the image file, the records of consecutive lines are read together with positioned reads,
+     * which leave the shared stream untouched and need no lock. Lines covering only a small part of their records
+     * are read one by one. Without a channel each line is read from the shared stream under its lock.
+     */
+    private final class ImageLineReader {
+
+        private final FileChannel channel;
+        private final long xpos;
+        private final int lineBytes;
+        private final int sourceStepY;
+        private final int sourceMaxY;
+        private final int linesPerRead;
+        private final ByteOrder byteOrder;
+
+        private ByteBuffer buffer = null;
+        private int bufferMinY = 0;
+        private int bufferMaxY = -1;
+
+        ImageLineReader(final long xpos, final int lineBytes, final int sourceStepY, final int sourceMaxY) {
+            this.channel = getImageChannel();
+            this.xpos = xpos;
+            this.lineBytes = lineBytes;
+            this.sourceStepY = sourceStepY;
+            this.sourceMaxY = sourceMaxY;
+            this.byteOrder = binaryReader.getByteOrder();
+
+            final long stride = _imageRecordLength * sourceStepY;
+            if (stride > 4L * lineBytes) {
+                linesPerRead = 1;
+            } else {
+                linesPerRead = (int) Math.max(1, MAX_READ_BYTES / Math.max(stride, 1));
+            }
+        }
+
+        void read(final int y, final short[] line) throws IOException {
+            if (channel == null) {
+                synchronized (binaryReader) {
+                    binaryReader.seek(_imageRecordLength * y + xpos);
+                    binaryReader.read(line);
+                }
+            } else {
+                getLine(y).asShortBuffer().get(line);
+            }
+        }
+
+        void read(final int y, final int[] line) throws IOException {
+            if (channel == null) {
+                synchronized (binaryReader) {
+                    binaryReader.seek(_imageRecordLength * y + xpos);
+                    binaryReader.read(line);
+                }
+            } else {
+                getLine(y).asIntBuffer().get(line);
+            }
+        }
+
+        void read(final int y, final float[] line) throws IOException {
+            if (channel == null) {
+                synchronized (binaryReader) {
+                    binaryReader.seek(_imageRecordLength * y + xpos);
+                    binaryReader.read(line);
+                }
+            } else {
+                getLine(y).asFloatBuffer().get(line);
+            }
+        }
+
+        void read(final int y, final byte[] line) throws IOException {
+            if (channel == null) {
+                synchronized (binaryReader) {
+                    binaryReader.seek(_imageRecordLength * y + xpos);
+                    binaryReader.read(line);
+                }
+            } else {
+                getLine(y).get(line);
+            }
+        }
+
+        private ByteBuffer getLine(final int y) throws IOException {
+            if (buffer == null || y < bufferMinY || y > bufferMaxY) {
+                readLines(y);
+            }
+            final int offset = (int) (_imageRecordLength * (y - bufferMinY));
+            buffer.limit(offset + lineBytes);
+            buffer.position(offset);
+            return buffer;
+        }
+
+        private void readLines(final int y) throws IOException {
+            final int numLines = Math.min(linesPerRead, (sourceMaxY - y) / sourceStepY + 1);
+            final int numBytes = (int) (_imageRecordLength * (numLines - 1) * sourceStepY + lineBytes);
+            if (buffer == null || buffer.capacity() < numBytes) {
+                buffer = ByteBuffer.allocate(numBytes).order(byteOrder);
+            }
+            buffer.clear();
+            buffer.limit(numBytes);
+
+            final long start = _imageRecordLength * y + xpos;
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, start + buffer.position()) < 0) {
+                    throw new EOFException("Unexpected end of image file at line " + y);
+                }
+            }
+            bufferMinY = y;
+            bufferMaxY = y + (numLines - 1) * sourceStepY;
+        }
+    }
 }
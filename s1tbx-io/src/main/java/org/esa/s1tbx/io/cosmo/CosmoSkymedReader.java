@@ -22,6 +22,7 @@ import org.esa.s1tbx.commons.io.SARReader;
 import org.esa.s1tbx.io.netcdf.NcAttributeMap;
 import org.esa.s1tbx.io.netcdf.NcRasterDim;
 import org.esa.s1tbx.io.netcdf.NcVariableMap;
+import org.esa.s1tbx.io.netcdf.NetCDFBlockReader;
 import org.esa.s1tbx.io.netcdf.NetCDFReader;
 import org.esa.s1tbx.io.netcdf.NetCDFUtils;
 import org.esa.s1tbx.io.netcdf.NetcdfConstants;
@@ -48,6 +49,7 @@ import ucar.ma2.InvalidRangeException;
 import ucar.nc2.NetcdfFile;
 import ucar.nc2.Variable;
 
+import java.awt.Dimension;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Path;
@@ -63,6 +65,7 @@ import java.util.Map;
 public class CosmoSkymedReader extends SARReader {
 
     private NetcdfFile netcdfFile = null;
+    private NetCDFBlockReader blockReader = null;
     private Product product = null;
     private NcVariableMap variableMap = null;
     private boolean yFlipped = false;
@@ -87,6 +90,7 @@ public class CosmoSkymedReader extends SARReader {
     private void initReader() {
         product = null;
         netcdfFile = null;
+        blockReader = null;
         variableMap = null;
     }
 
@@ -124,6 +128,7 @@ public class CosmoSkymedReader extends SARReader {
             final Variable[] tiePointGridVariables = NetCDFUtils.getTiePointGridVariables(variableListMap, rasterVariables);
 
             this.netcdfFile = netcdfFile;
+            blockReader = new NetCDFBlockReader(netcdfFile.getLocation());
             variableMap = new NcVariableMap(rasterVariables);
             yFlipped = false;
 
@@ -141,6 +146,7 @@ public class CosmoSkymedReader extends SARReader {
             addBandsToProduct(rasterVariables);
             addTiePointGridsToProduct(tiePointGridVariables);
             addGeoCodingToProduct(rasterDim);
+            setPreferredTileSize(rasterVariables);
             addSlantRangeToFirstPixel();
             addFirstLastLineTimes(rasterHeight);
             addSRGRCoefficients();
@@ -170,10 +176,22 @@ public class CosmoSkymedReader extends SARReader {
             variableMap = null;
             netcdfFile.close();
             netcdfFile = null;
+            blockReader.close();
+            blockReader = null;
         }
         super.close();
     }
 
+    // tiles of whole chunks, so that no chunk is decoded for several tiles
+    private void setPreferredTileSize(final Variable[] variables) {
+        if (variables.length > 0 && !yFlipped) {
+            final Dimension tileSize = NetCDFBlockReader.getPreferredTileSize(variables[0], 0, 1);
+            if (tileSize != null) {
+                product.setPreferredTileSize(tileSize);
+            }
+        }
+    }
+
     private static Variable[] getRasterVariables(Map<NcRasterDim, List<Variable>> variableLists,
                                                  NcRasterDim rasterDim) {
         final List<Variable> varList = variableLists.get(rasterDim);
@@ -822,24 +840,34 @@ public class CosmoSkymedReader extends SARReader {
             shape[i] = 1;
             origin[i] = 0;
         }
-        shape[0] = 1;
+        shape[0] = destHeight;
         shape[1] = destWidth;
+        origin[0] = yFlipped ? y0 - (destHeight - 1) : y0;
         origin[1] = sourceOffsetX;
-        if (isComplex && destBand.getUnit().equals(Unit.IMAGINARY)) {
-            origin[2] = 1;
+
+        // i and q are read together and shared by both bands
+        int numShares = 1;
+        if (isComplex) {
+            numShares = variable.getShape(2);
+            shape[2] = numShares;
         }
 
         pm.beginTask("Reading data from band " + destBand.getName(), destHeight);
         try {
+            final Array block = blockReader.readBlock(variable, origin, shape, numShares);
+            final Object data;
+            if (isComplex) {
+                final int part = destBand.getUnit().equals(Unit.IMAGINARY) ? 1 : 0;
+                data = block.slice(2, part).copyTo1DJavaArray();
+            } else {
+                data = block.getStorage();
+            }
+
             for (int y = 0; y < destHeight; y++) {
-                origin[0] = yFlipped ? y0 - y : y0 + y;
-                final Array array;
-                synchronized (netcdfFile) {
-                    array = variable.read(origin, shape);
-                }
-                System.arraycopy(array.getStorage(), 0, destBuffer.getElems(), y * destWidth, destWidth);
-                pm.worked(1);
+                final int srcLine = yFlipped ? destHeight - 1 - y : y;
+                System.arraycopy(data, srcLine * destWidth, destBuffer.getElems(), y * destWidth, destWidth);
             }
+            pm.worked(destHeight);
         } catch (InvalidRangeException e) {
             final IOException ioException = new IOException(e.getMessage());
             ioException.initCause(e);
@@ -62,6 +62,7 @@ public class Gaofen3ProductReader extends SARReader {
             dataDir.close();
             dataDir = null;
         }
+        cache.clear();
         super.close();
     }
 
@@ -22,6 +22,7 @@ import org.esa.s1tbx.io.binary.ArrayCopy;
 import org.esa.s1tbx.io.netcdf.NcAttributeMap;
 import org.esa.s1tbx.io.netcdf.NcRasterDim;
 import org.esa.s1tbx.io.netcdf.NcVariableMap;
+import org.esa.s1tbx.io.netcdf.NetCDFBlockReader;
 import org.esa.s1tbx.io.netcdf.NetCDFReader;
 import org.esa.s1tbx.io.netcdf.NetCDFUtils;
 import org.esa.s1tbx.io.netcdf.NetcdfConstants;
@@ -45,6 +46,7 @@ import ucar.ma2.InvalidRangeException;
 import ucar.nc2.NetcdfFile;
 import ucar.nc2.Variable;
 
+import java.awt.Dimension;
 import java.io.File;
 import java.io.IOException;
 import java.text.DateFormat;
@@ -62,6 +64,7 @@ public class K5HDF implements K5Format {
     private final Kompsat5Reader reader;
     private Product product = null;
     private NetcdfFile netcdfFile = null;
+    private NetCDFBlockReader blockReader = null;
     private NcVariableMap variableMap = null;
     private boolean yFlipped = false;
     private boolean useFloatBands = false;
@@ -97,6 +100,7 @@ public class K5HDF implements K5Format {
         final Variable[] tiePointGridVariables = NetCDFUtils.getTiePointGridVariables(variableListMap, rasterVariables);
 
         this.netcdfFile = netcdfFile;
+        blockReader = new NetCDFBlockReader(netcdfFile.getLocation());
         variableMap = new NcVariableMap(rasterVariables);
         yFlipped = false;
 
@@ -120,6 +124,7 @@ public class K5HDF implements K5Format {
 
         addTiePointGridsToProduct(tiePointGridVariables, gimVariable);
         addGeoCodingToProduct(product, rasterDim);
+        setPreferredTileSize(rasterVariables);
 
         return product;
     }
@@ -131,6 +136,18 @@ public class K5HDF implements K5Format {
             variableMap = null;
             netcdfFile.close();
             netcdfFile = null;
+            blockReader.close();
+            blockReader = null;
+        }
+    }
+
+    // tiles of whole chunks, so that no chunk is decoded for several tiles
+    private void setPreferredTileSize(final Variable[] variables) {
+        if (variables.length > 0 && !yFlipped) {
+            final Dimension tileSize = NetCDFBlockReader.getPreferredTileSize(variables[0], 0, 1);
+            if (tileSize != null) {
+                product.setPreferredTileSize(tileSize);
+            }
         }
     }
 
@@ -746,31 +763,42 @@ public class K5HDF implements K5Format {
             shape[i] = 1;
             origin[i] = 0;
         }
-        shape[0] = 1;
+        shape[0] = destHeight;
         shape[1] = destWidth;
+        origin[0] = yFlipped ? y0 - (destHeight - 1) : y0;
         origin[1] = sourceOffsetX;
-        if (isComplex && destBand.getUnit().equals(Unit.IMAGINARY)) {
-            origin[2] = 1;
+
+        // i and q are read together and shared by both bands
+        int numShares = 1;
+        if (isComplex) {
+            numShares = variable.getShape(2);
+            shape[2] = numShares;
         }
 
         pm.beginTask("Reading data from band " + destBand.getName(), destHeight);
         try {
-            for (int y = 0; y < destHeight; y++) {
-                origin[0] = yFlipped ? y0 - y : y0 + y;
-                final Array array;
-                synchronized (netcdfFile) {
-                    array = variable.read(origin, shape);
-                }
+            final Array block = blockReader.readBlock(variable, origin, shape, numShares);
+            final Object data;
+            if (isComplex) {
+                final int part = destBand.getUnit().equals(Unit.IMAGINARY) ? 1 : 0;
+                data = block.slice(2, part).copyTo1DJavaArray();
+            } else {
+                data = block.getStorage();
+            }
 
-                if (destBand.getDataType() == ProductData.TYPE_FLOAT32) {
+            final boolean toFloat = destBand.getDataType() == ProductData.TYPE_FLOAT32 && data instanceof short[];
+            for (int y = 0; y < destHeight; y++) {
+                final int srcIndex = (yFlipped ? destHeight - 1 - y : y) * destWidth;
+                if (toFloat) {
+                    final short[] srcLine = (short[]) data;
                     for (int x = 0; x < destWidth; x++) {
-                        destBuffer.setElemFloatAt(y * destWidth + x, ArrayCopy.toFloat(array.getShort(x)));
+                        destBuffer.setElemFloatAt(y * destWidth + x, ArrayCopy.toFloat(srcLine[srcIndex + x]));
                     }
                 } else {
-                    System.arraycopy(array.getStorage(), 0, destBuffer.getElems(), y * destWidth, destWidth);
+                    System.arraycopy(data, srcIndex, destBuffer.getElems(), y * destWidth, destWidth);
                 }
-                pm.worked(1);
             }
+            pm.worked(destHeight);
         } catch (InvalidRangeException e) {
             throw new IOException(e.getMessage(), e);
         } finally {
@@ -0,0 +1,218 @@
+/*
+ * Copyright (C) 2021 SkyWatch Space Applications Inc. https://www.skywatch.com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.io.netcdf;
+
+import ucar.ma2.Array;
+import ucar.ma2.InvalidRangeException;
+import ucar.nc2.Attribute;
+import ucar.nc2.NetcdfFile;
+import ucar.nc2.Variable;
+
+import java.awt.*;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Reads blocks of the raster variables of a netCDF or HDF5 file for the product readers.
+ * <p>
+ * A block covers a whole tile, so that each HDF5 chunk is decoded once per tile rather than once per row. A
+ * NetcdfFile must not be used by several threads at once, so the reads go through a pool of handles on the file
+ * instead of a lock on the handle of the reader. A block holding the parts of several bands, such as the interleaved
+ * I and Q of complex data, is kept in a small cache until each band has taken its part.
+ */
+public class NetCDFBlockReader {
+
+    private static final String CHUNK_SIZES = "_ChunkSizes";
+    private static final int DEFAULT_TILE_SIZE = 512;
+
+    private final String location;
+    private final int maxHandles;
+    private final List<NetcdfFile> handles = new ArrayList<>();
+    private final BlockingQueue<NetcdfFile> idleHandles = new LinkedBlockingQueue<>();
+    private final Map<String, SharedBlock> blockCache;
+    private boolean closed = false;
+
+    /**
+     * @param location the location of the netCDF or HDF5 file
+     */
+    public NetCDFBlockReader(final String location) {
+        this.location = location;
+        this.maxHandles = Runtime.getRuntime().availableProcessors();
+
+        final int maxCachedBlocks = 2 * maxHandles;
+        this.blockCache = new LinkedHashMap<String, SharedBlock>(maxCachedBlocks, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, SharedBlock> eldest) {
+                return size() > maxCachedBlocks;
+            }
+        };
+    }
+
+    /**
+     * Read a block of a variable.
+     *
+     * @param variable  the variable of the reader
+     * @param origin    the first index of the block in each dimension
+     * @param shape     the size of the block in each dimension
+     * @param numShares the number of bands taking a part of the block
+     * @return the block
+     * @throws IOException           if the file cannot be read
+     * @throws InvalidRangeException if the block is not within the variable
+     */
+    public Array readBlock(final Variable variable, final int[] origin, final int[] shape, final int numShares)
+            throws IOException, InvalidRangeException {
+
+        if (numShares <= 1) {
+            return read(variable, origin, shape);
+        }
+
+        final String key = variable.getFullNameEscaped() + Arrays.toString(origin) + Arrays.toString(shape);
+        final SharedBlock block;
+        boolean isReader = false;
+        synchronized (blockCache) {
+            SharedBlock cached = blockCache.get(key);
+            if (cached == null) {
+                cached = new SharedBlock(numShares, () -> read(variable, origin, shape));
+                blockCache.put(key, cached);
+                isReader = true;
+            }
+            if (--cached.remainingShares == 0) {
+                blockCache.remove(key);
+            }
+            block = cached;
+        }
+
+        if (isReader) {
+            block.task.run();
+        }
+        try {
+            return block.task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof InvalidRangeException) {
+                throw (InvalidRangeException) cause;
+            }
+            throw new IOException(cause.getMessage(), cause);
+        }
+    }
+
+    private Array read(final Variable variable, final int[] origin, final int[] shape)
+            throws IOException, InvalidRangeException {
+
+        final NetcdfFile handle = acquireHandle();
+        try {
+            final Variable handleVariable = handle.findVariable(variable.getFullNameEscaped());
+            if (handleVariable == null) {
+                throw new IOException("Variable " + variable.getFullName() + " not found in " + location);
+            }
+            return handleVariable.read(origin, shape);
+        } finally {
+            idleHandles.add(handle);
+        }
+    }
+
+    private NetcdfFile acquireHandle() throws IOException {
+        NetcdfFile handle = idleHandles.poll();
+        if (handle != null) {
+            return handle;
+        }
+        synchronized (handles) {
+            if (closed) {
+                throw new IOException(location + " is closed");
+            }
+            if (handles.size() < maxHandles) {
+                handle = NetcdfFile.open(location);
+                handles.add(handle);
+                return handle;
+            }
+        }
+        try {
+            return idleHandles.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+    }
+
+    public void close() throws IOException {
+        synchronized (handles) {
+            closed = true;
+            for (NetcdfFile handle : handles) {
+                handle.close();
+            }
+            handles.clear();
+            idleHandles.clear();
+        }
+        synchronized (blockCache) {
+            blockCache.clear();
+        }
+    }
+
+    /**
+     * Get a tile size made of whole HDF5 chunks of a variable, close to the default tile size.
+     * A dimension whose chunks are much larger than the default tile size keeps the default tile size.
+     *
+     * @param variable the raster variable
+     * @param yDim     the index of the line dimension
+     * @param xDim     the index of the pixel dimension
+     * @return the tile size or null if the variable is not chunked
+     */
+    public static Dimension getPreferredTileSize(final Variable variable, final int yDim, final int xDim) {
+        final Attribute chunkSizes = NcAttributeMap.create(variable).get(CHUNK_SIZES);
+        if (chunkSizes == null || chunkSizes.getLength() != variable.getRank()) {
+            return null;
+        }
+        return getPreferredTileSize(chunkSizes.getNumericValue(xDim).intValue(),
+                chunkSizes.getNumericValue(yDim).intValue(), variable.getShape(xDim), variable.getShape(yDim));
+    }
+
+    static Dimension getPreferredTileSize(final int chunkWidth, final int chunkHeight,
+                                          final int rasterWidth, final int rasterHeight) {
+        return new Dimension(getTileSize(chunkWidth, rasterWidth), getTileSize(chunkHeight, rasterHeight));
+    }
+
+    private static int getTileSize(final int chunkSize, final int rasterSize) {
+        if (chunkSize <= 0 || chunkSize > 4 * DEFAULT_TILE_SIZE) {
+            return Math.min(DEFAULT_TILE_SIZE, rasterSize);
+        }
+        final int numChunks = Math.max(1, Math.round(DEFAULT_TILE_SIZE / (float) chunkSize));
+        return Math.min(numChunks * chunkSize, rasterSize);
+    }
+
+    private static class SharedBlock {
+        private final FutureTask<Array> task;
+        private int remainingShares;
+
+        SharedBlock(final int numShares, final Callable<Array> reader) {
+            this.task = new FutureTask<>(reader);
+            this.remainingShares = numShares;
+        }
+    }
+}
@@ -29,6 +29,7 @@ import ucar.nc2.Group;
 import ucar.nc2.NetcdfFile;
 import ucar.nc2.Variable;
 
+import java.awt.Dimension;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.List;
@@ -40,6 +41,7 @@ import java.util.Map;
 public class NetCDFReader extends SARReader {
 
     private NetcdfFile netcdfFile = null;
+    private NetCDFBlockReader blockReader = null;
     private Product product = null;
     private NcVariableMap variableMap = null;
     private boolean yFlipped = false;
@@ -59,6 +61,7 @@ public class NetCDFReader extends SARReader {
     private void initReader() {
         product = null;
         netcdfFile = null;
+        blockReader = null;
         variableMap = null;
     }
 
@@ -88,6 +91,8 @@ public class NetCDFReader extends SARReader {
             throw new IllegalFileFormatException("No netCDF variables found which could\n" +
                     "be interpreted as remote sensing bands.");  /*I18N*/
         }
+        blockReader = new NetCDFBlockReader(netcdfFile.getLocation());
+
         final NcRasterDim rasterDim = NetCDFUtils.getBestRasterDim(variableListMap);
         final Variable[] rasterVariables = NetCDFUtils.getRasterVariables(variableListMap, rasterDim);
         final Variable[] tiePointGridVariables = NetCDFUtils.getTiePointGridVariables(variableListMap, rasterVariables);
@@ -111,6 +116,7 @@ public class NetCDFReader extends SARReader {
         addBandsToProduct(rasterVariables);
         addTiePointGridsToProduct(tiePointGridVariables);
         addGeoCodingToProduct(rasterDim);
+        setPreferredTileSize(rasterVariables);
 
         product.getGcpGroup();
         product.setModified(false);
@@ -134,10 +140,23 @@ public class NetCDFReader extends SARReader {
             variableMap = null;
             netcdfFile.close();
             netcdfFile = null;
+            blockReader.close();
+            blockReader = null;
         }
         super.close();
     }
 
+    // tiles of whole chunks, so that no chunk is decoded for several tiles
+    private void setPreferredTileSize(final Variable[] variables) {
+        if (variables.length > 0 && !yFlipped) {
+            final int rank = variables[0].getRank();
+            final Dimension tileSize = NetCDFBlockReader.getPreferredTileSize(variables[0], rank - 2, rank - 1);
+            if (tileSize != null) {
+                product.setPreferredTileSize(tileSize);
+            }
+        }
+    }
+
     private void addMetadataToProduct() {
 
         final Group rootGroup = netcdfFile.getRootGroup();
@@ -253,10 +272,10 @@ public class NetCDFReader extends SARReader {
      * {@inheritDoc}
      */
     @Override
-    protected synchronized void readBandRasterDataImpl(int sourceOffsetX, int sourceOffsetY, int sourceWidth, int sourceHeight,
-                                                       int sourceStepX, int sourceStepY, Band destBand, int destOffsetX,
-                                                       int destOffsetY, int destWidth, int destHeight, ProductData destBuffer,
-                                                       ProgressMonitor pm) throws IOException {
+    protected void readBandRasterDataImpl(int sourceOffsetX, int sourceOffsetY, int sourceWidth, int sourceHeight,
+                                          int sourceStepX, int sourceStepY, Band destBand, int destOffsetX,
+                                          int destOffsetY, int destWidth, int destHeight, ProductData destBuffer,
+                                          ProgressMonitor pm) throws IOException {
 
         Guardian.assertTrue("sourceStepX == 1 && sourceStepY == 1", sourceStepX == 1 && sourceStepY == 1);
         Guardian.assertTrue("sourceWidth == destWidth", sourceWidth == destWidth);
@@ -284,23 +303,22 @@ public class NetCDFReader extends SARReader {
             shape[i] = 1;
             origin[i] = 0;
         }
-        shape[rank - 2] = 1;
+        shape[rank - 2] = destHeight;
         shape[rank - 1] = destWidth;
+        origin[rank - 2] = yFlipped ? y0 - (destHeight - 1) : y0;
         origin[rank - 1] = sourceOffsetX;
 
         pm.beginTask("Reading data from band " + destBand.getName(), destHeight);
         try {
+            final Array block = blockReader.readBlock(variable, origin, shape, 1);
+            final Object data = block.getStorage();
             for (int y = 0; y < destHeight; y++) {
-                origin[rank - 2] = yFlipped ? y0 - y : y0 + y;
-                final Array array;
-                synchronized (netcdfFile) {
-                    array = variable.read(origin, shape);
-                }
-                System.arraycopy(array.getStorage(), 0, destBuffer.getElems(), y * destWidth, destWidth);
-                pm.worked(1);
-                if (pm.isCanceled()) {
-                    throw new IOException("Process terminated by user."); /*I18N*/
-                }
+                final int srcLine = yFlipped ? destHeight - 1 - y : y;
+                System.arraycopy(data, srcLine * destWidth, destBuffer.getElems(), y * destWidth, destWidth);
+            }
+            pm.worked(destHeight);
+            if (pm.isCanceled()) {
+                throw new IOException("Process terminated by user."); /*I18N*/
             }
         } catch (InvalidRangeException e) {
             final IOException ioException = new IOException(e.getMessage());
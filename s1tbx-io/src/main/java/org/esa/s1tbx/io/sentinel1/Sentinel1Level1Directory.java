@@ -89,6 +89,10 @@ public class Sentinel1Level1Directory extends XMLProductDirectory implements Sen
 
                     final ImageIOFile img = new ImageIOFile(name, imgStream, GeoTiffUtils.getTiffIIOReader(imgStream),
                                 1, 1, ProductData.TYPE_INT32, productInputFile);
+                    if (!isCompressed()) {
+                        // allow concurrent reads of the measurement file
+                        img.setImageFile(getFile(imgPath));
+                    }
                     bandImageFileMap.put(img.getName(), img);
                 } else {
                     inStream.close();
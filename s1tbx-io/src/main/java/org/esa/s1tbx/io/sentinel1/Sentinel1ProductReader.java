@@ -18,6 +18,7 @@ package org.esa.s1tbx.io.sentinel1;
 import com.bc.ceres.core.ProgressMonitor;
 import org.esa.s1tbx.commons.io.ImageIOFile;
 import org.esa.s1tbx.commons.io.SARReader;
+import org.esa.s1tbx.commons.io.TiffStripReader;
 import org.esa.s1tbx.io.DataCache;
 import org.esa.snap.core.dataio.ProductReaderPlugIn;
 import org.esa.snap.core.datamodel.Band;
@@ -71,6 +72,10 @@ public class Sentinel1ProductReader extends SARReader {
     @Override
     public void close() throws IOException {
         super.close();
+        if (cache != null) {
+            SystemUtils.LOG.fine(cache.stats());
+            cache.clear();
+        }
         if (dataDir != null) {
             dataDir.close();
             dataDir = null;
@@ -187,6 +192,10 @@ public class Sentinel1ProductReader extends SARReader {
         final int[] srcArray;
         final Rectangle destRect = new Rectangle(destOffsetX, destOffsetY, destWidth, destHeight);
 
+        if (sourceStepX == 1 && sourceStepY == 1 && readSLCDirect(bandInfo, destRect, destBuffer)) {
+            return;
+        }
+
         if(useCache) {
             final DataCache.DataKey datakey = new DataCache.DataKey(bandInfo.img, destRect);
             DataCache.Data cachedData = cache.get(datakey);
@@ -257,11 +266,32 @@ public class Sentinel1ProductReader extends SARReader {
         }
     }
 
-    private synchronized DataCache.Data readRect(final DataCache.DataKey datakey, final ImageIOFile.BandInfo bandInfo,
-                                         int sourceOffsetX, int sourceOffsetY, int sourceStepX, int sourceStepY,
-                                         final Rectangle destRect) {
+    /**
+     * Decode I or Q of an uncompressed CInt16 measurement file straight into the destination buffer.
+     * Both components are read from the file, so the data is not cached for the other band.
+     *
+     * @return false if the image must be read with ImageIO
+     */
+    private static boolean readSLCDirect(final ImageIOFile.BandInfo bandInfo, final Rectangle destRect,
+                                         final ProductData destBuffer) {
+        final TiffStripReader stripReader = bandInfo.img.getStripReader();
+        if (stripReader == null || !stripReader.isComplex()) {
+            return false;
+        }
+        try {
+            return stripReader.readSamples(destRect, bandInfo.isImaginary ? 1 : 0, destBuffer);
+        } catch (IOException e) {
+            SystemUtils.LOG.warning("Direct read of " + bandInfo.img.getName() + " failed: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private DataCache.Data readRect(final DataCache.DataKey datakey, final ImageIOFile.BandInfo bandInfo,
+                                    int sourceOffsetX, int sourceOffsetY, int sourceStepX, int sourceStepY,
+                                    final Rectangle destRect) {
+        ImageReader imageReader = null;
         try {
-            final ImageReader imageReader = bandInfo.img.getReader();
+            imageReader = bandInfo.img.acquireReader();
             final ImageReadParam readParam = imageReader.getDefaultReadParam();
             if (sourceStepX == 1 && sourceStepY == 1) {
                 readParam.setSourceRegion(destRect);
@@ -291,6 +321,10 @@ public class Sentinel1ProductReader extends SARReader {
                 cache.put(datakey, cachedData);
             }
             return cachedData;
+        } finally {
+            if (imageReader != null) {
+                bandInfo.img.releaseReader(imageReader);
+            }
         }
     }
 }
@@ -72,6 +72,10 @@ public class SpacetyProductReader extends SARReader {
     @Override
     public void close() throws IOException {
         super.close();
+        if (cache != null) {
+            SystemUtils.LOG.fine(cache.stats());
+            cache.clear();
+        }
         if (dataDir != null) {
             dataDir.close();
             dataDir = null;
@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2021 SkyWatch Space Applications Inc. https://www.skywatch.com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.io;
+
+import org.junit.Test;
+
+import java.awt.*;
+
+import static org.junit.Assert.*;
+
+public class TestDataCache {
+
+    @Test
+    public void testKeys() {
+        final DataCache.DataKey key1 = new DataCache.DataKey(null, new Rectangle(0, 0, 512, 512));
+        final DataCache.DataKey key2 = new DataCache.DataKey(null, new Rectangle(0, 0, 512, 512));
+        final DataCache.DataKey key3 = new DataCache.DataKey(null, new Rectangle(512, 0, 512, 512));
+
+        assertEquals(key1, key2);
+        assertEquals(key1.hashCode(), key2.hashCode());
+        assertNotEquals(key1, key3);
+        assertNotEquals(key1.hashCode(), key3.hashCode());
+    }
+
+    @Test
+    public void testPutGetClear() {
+        final DataCache cache = new DataCache();
+        final DataCache.DataKey key = new DataCache.DataKey(null, new Rectangle(7, 11, 13, 17));
+
+        final long misses = cache.getMissCount();
+        assertNull(cache.get(key));
+        assertEquals(misses + 1, cache.getMissCount());
+
+        final int[] data = new int[13 * 17];
+        cache.put(key, new DataCache.Data(data));
+
+        final long hits = cache.getHitCount();
+        final DataCache.Data cachedData = cache.get(new DataCache.DataKey(null, new Rectangle(7, 11, 13, 17)));
+        assertNotNull(cachedData);
+        assertTrue(cachedData.valid);
+        assertSame(data, cachedData.intArray);
+        assertEquals(hits + 1, cache.getHitCount());
+
+        cache.clear();
+        assertNull(cache.get(key));
+    }
+
+    @Test
+    public void testStatsPerOwner() {
+        final DataCache cache1 = new DataCache();
+        final DataCache cache2 = new DataCache();
+        final DataCache.DataKey key = new DataCache.DataKey(null, new Rectangle(3, 5, 7, 9));
+        cache1.put(key, new DataCache.Data(new int[7 * 9]));
+
+        assertNotNull(cache1.get(key));
+        assertNull(cache2.get(new DataCache.DataKey(null, new Rectangle(0, 0, 7, 9))));
+
+        assertEquals(1, cache1.getHitCount());
+        assertEquals(0, cache1.getMissCount());
+        assertEquals(0, cache2.getHitCount());
+        assertEquals(1, cache2.getMissCount());
+        cache1.clear();
+    }
+
+    @Test
+    public void testEvictionStats() {
+        final DataCache cache = new DataCache();
+        final int length = 2 * 1024 * 1024;
+        final long maxPuts = DataCache.getMaxCacheSize() / length + 1;
+        final long totalEvictions = DataCache.getTotalEvictionCount();
+
+        // more than the budget, the first entries of this DataCache are evicted
+        for (int i = 0; i < maxPuts && cache.getEvictionCount() == 0; ++i) {
+            cache.put(new DataCache.DataKey(null, new Rectangle(i, 0, 1, 1)), new DataCache.Data(new int[length]));
+        }
+        final long evictions = cache.getEvictionCount();
+        assertTrue(evictions > 0);
+        assertTrue(DataCache.getTotalEvictionCount() >= totalEvictions + evictions);
+        assertTrue(cache.stats().contains(" evictions=" + evictions));
+
+        // entries removed when the reader is closed are not evictions
+        cache.clear();
+        assertEquals(evictions, cache.getEvictionCount());
+    }
+
+    @Test
+    public void testSizeInBytes() {
+        assertEquals(16 + 4 * 100, new DataCache.Data(new int[100]).getSizeInBytes());
+        assertEquals(16, new DataCache.Data().getSizeInBytes());
+    }
+}
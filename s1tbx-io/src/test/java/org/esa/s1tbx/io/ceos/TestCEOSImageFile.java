@@ -0,0 +1,222 @@
+/*
+ * Copyright (C) 2021 SkyWatch Space Applications Inc. https://www.skywatch.com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.io.ceos;
+
+import com.bc.ceres.core.ProgressMonitor;
+import org.esa.s1tbx.commons.io.FileImageInputStreamExtImpl;
+import org.esa.s1tbx.io.binary.BinaryFileReader;
+import org.esa.s1tbx.io.binary.BinaryRecord;
+import org.esa.snap.core.datamodel.ProductData;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.imageio.stream.FileImageInputStream;
+import java.io.File;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Unit test for the line reads of CEOSImageFile.
+ */
+public class TestCEOSImageFile {
+
+    private static final int FDR_LENGTH = 720;
+    private static final int HEADER_LENGTH = 12;
+    private static final int WIDTH = 40;
+    private static final int HEIGHT = 50;
+    private static final int RECORD_LENGTH = HEADER_LENGTH + WIDTH * 8 + 8;
+
+    // offsetX, offsetY, width, height, stepX, stepY
+    private static final int[][] windows = {
+            {0, 0, WIDTH, HEIGHT, 1, 1},
+            {3, 5, 20, 30, 1, 1},
+            {1, 2, 30, 40, 2, 3},
+            {5, 0, 2, HEIGHT, 1, 1},    // records read one by one
+            {7, 1, 3, 45, 1, 4}
+    };
+
+    private static File imageFile;
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        final byte[] bytes = new byte[FDR_LENGTH + RECORD_LENGTH * HEIGHT];
+        new Random(42).nextBytes(bytes);
+        imageFile = File.createTempFile("IMG", ".dat");
+        Files.write(imageFile.toPath(), bytes);
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+        imageFile.delete();
+    }
+
+    private static TestImageFile openChannelImage(final ByteOrder byteOrder) throws Exception {
+        final TestImageFile image = new TestImageFile(
+                new BinaryFileReader(FileImageInputStreamExtImpl.createInputStream(imageFile)), byteOrder);
+        assertEquals(imageFile, image.binaryReader.getFile());
+        return image;
+    }
+
+    private static TestImageFile openStreamImage(final ByteOrder byteOrder) throws Exception {
+        final TestImageFile image = new TestImageFile(
+                new BinaryFileReader(new FileImageInputStream(imageFile)), byteOrder);
+        assertEquals(null, image.binaryReader.getFile());
+        return image;
+    }
+
+    private static ProductData createBuffer(final int type, final int[] window) {
+        final int destWidth = (window[2] + window[4] - 1) / window[4];
+        // lines are written at their offset from the first source line
+        return ProductData.createInstance(type, window[3] * destWidth);
+    }
+
+    private static void read(final TestImageFile image, final int type, final int[] window,
+                             final ProductData destBuffer) throws Exception {
+        final int destWidth = (window[2] + window[4] - 1) / window[4];
+        switch (type) {
+            case ProductData.TYPE_INT16:
+                image.readBandRasterDataShort(window[0], window[1], window[2], window[3], window[4], window[5],
+                        destWidth, destBuffer, ProgressMonitor.NULL);
+                break;
+            case ProductData.TYPE_INT32:
+                image.readBandRasterDataInt(window[0], window[1], window[2], window[3], window[4], window[5],
+                        destWidth, destBuffer, ProgressMonitor.NULL);
+                break;
+            case ProductData.TYPE_FLOAT32:
+                image.readBandRasterDataFloat(window[0], window[1], window[2], window[3], window[4], window[5],
+                        destWidth, destBuffer, ProgressMonitor.NULL);
+                break;
+            default:
+                image.readBandRasterDataByte(window[0], window[1], window[2], window[3], window[4], window[5],
+                        destWidth, destBuffer, ProgressMonitor.NULL);
+        }
+    }
+
+    private static void readSLC(final TestImageFile image, final int type, final int[] window,
+                                final ProductData destBuffer, final boolean oneOf2) throws Exception {
+        final int destWidth = (window[2] + window[4] - 1) / window[4];
+        switch (type) {
+            case ProductData.TYPE_INT16:
+                image.readBandRasterDataSLC(window[0], window[1], window[2], window[3], window[4], window[5],
+                        destWidth, destBuffer, oneOf2, 4);
+                break;
+            case ProductData.TYPE_FLOAT32:
+                image.readBandRasterDataSLCFloat(window[0], window[1], window[2], window[3], window[4], window[5],
+                        destWidth, destBuffer, oneOf2, ProgressMonitor.NULL);
+                break;
+            default:
+                image.readBandRasterDataSLCByte(window[0], window[1], window[2], window[3], window[4], window[5],
+                        destWidth, destBuffer, oneOf2, ProgressMonitor.NULL);
+        }
+    }
+
+    private static void assertSameData(final String message, final ProductData expected, final ProductData actual) {
+        final Object expectedElems = expected.getElems();
+        final Object actualElems = actual.getElems();
+        if (expectedElems instanceof short[]) {
+            assertArrayEquals(message, (short[]) expectedElems, (short[]) actualElems);
+        } else if (expectedElems instanceof int[]) {
+            assertArrayEquals(message, (int[]) expectedElems, (int[]) actualElems);
+        } else if (expectedElems instanceof float[]) {
+            assertArrayEquals(message, (float[]) expectedElems, (float[]) actualElems, 0.0f);
+        } else {
+            assertArrayEquals(message, (byte[]) expectedElems, (byte[]) actualElems);
+        }
+
+        // the random image has non-zero samples in every window
+        boolean allZero = true;
+        for (int i = 0; i < actual.getNumElems() && allZero; i++) {
+            allZero = actual.getElemDoubleAt(i) == 0;
+        }
+        assertFalse(message, allZero);
+    }
+
+    @Test
+    public void testReadLines() throws Exception {
+        final int[] types = {ProductData.TYPE_INT16, ProductData.TYPE_INT32, ProductData.TYPE_FLOAT32,
+                ProductData.TYPE_INT8};
+        for (ByteOrder byteOrder : new ByteOrder[]{ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN}) {
+            final TestImageFile channelImage = openChannelImage(byteOrder);
+            final TestImageFile streamImage = openStreamImage(byteOrder);
+            try {
+                for (int type : types) {
+                    for (int[] window : windows) {
+                        final String message = byteOrder + " type " + type + " window " + window[0] + ',' +
+                                window[1] + ',' + window[2] + ',' + window[3] + " step " + window[4] + ',' + window[5];
+                        final ProductData expected = createBuffer(type, window);
+                        final ProductData actual = createBuffer(type, window);
+                        read(streamImage, type, window, expected);
+                        read(channelImage, type, window, actual);
+                        assertSameData(message, expected, actual);
+                    }
+                }
+            } finally {
+                channelImage.close();
+                streamImage.close();
+            }
+        }
+    }
+
+    @Test
+    public void testReadSLCLines() throws Exception {
+        final int[] types = {ProductData.TYPE_INT16, ProductData.TYPE_FLOAT32, ProductData.TYPE_INT8};
+        for (ByteOrder byteOrder : new ByteOrder[]{ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN}) {
+            final TestImageFile channelImage = openChannelImage(byteOrder);
+            final TestImageFile streamImage = openStreamImage(byteOrder);
+            try {
+                for (int type : types) {
+                    for (int[] window : windows) {
+                        for (boolean oneOf2 : new boolean[]{true, false}) {
+                            final String message = byteOrder + " SLC type " + type + " window " + window[0] + ',' +
+                                    window[1] + ',' + window[2] + ',' + window[3] + " step " + window[4] + ',' +
+                                    window[5] + (oneOf2 ? " i" : " q");
+                            final ProductData expected = createBuffer(type, window);
+                            final ProductData actual = createBuffer(type, window);
+                            readSLC(streamImage, type, window, expected, oneOf2);
+                            readSLC(channelImage, type, window, actual, oneOf2);
+                            assertSameData(message, expected, actual);
+                        }
+                    }
+                }
+            } finally {
+                channelImage.close();
+                streamImage.close();
+            }
+        }
+    }
+
+    private static final class TestImageFile extends CEOSImageFile {
+
+        TestImageFile(final BinaryFileReader reader, final ByteOrder byteOrder) {
+            binaryReader = reader;
+            binaryReader.setByteOrder(byteOrder);
+            _imageRecordLength = RECORD_LENGTH;
+            startPosImageRecords = FDR_LENGTH;
+            imageHeaderLength = HEADER_LENGTH;
+        }
+
+        @Override
+        protected BinaryRecord createNewImageRecord(final int line) {
+            return null;
+        }
+    }
+}
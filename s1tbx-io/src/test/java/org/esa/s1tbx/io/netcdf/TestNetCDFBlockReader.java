@@ -0,0 +1,186 @@
+/*
+ * Copyright (C) 2021 SkyWatch Space Applications Inc. https://www.skywatch.com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.io.netcdf;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import ucar.ma2.Array;
+import ucar.ma2.DataType;
+import ucar.nc2.NetcdfFile;
+import ucar.nc2.NetcdfFileWriter;
+import ucar.nc2.Variable;
+
+import java.awt.*;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Unit test for NetCDFBlockReader.
+ */
+public class TestNetCDFBlockReader {
+
+    private static final int WIDTH = 40;
+    private static final int HEIGHT = 48;
+    private static final int TILE_WIDTH = 10;
+    private static final int TILE_HEIGHT = 16;
+
+    private static File file;
+
+    // interleaved i and q as in complex products
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        file = File.createTempFile("block", ".nc");
+
+        final short[] data = new short[HEIGHT * WIDTH * 2];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (short) i;
+        }
+
+        final NetcdfFileWriter writer = NetcdfFileWriter.createNew(NetcdfFileWriter.Version.netcdf3, file.getPath());
+        try {
+            writer.addDimension(null, "y", HEIGHT);
+            writer.addDimension(null, "x", WIDTH);
+            writer.addDimension(null, "iq", 2);
+            final Variable variable = writer.addVariable(null, "SBI", DataType.SHORT, "y x iq");
+            writer.create();
+            writer.write(variable, Array.factory(DataType.SHORT, new int[]{HEIGHT, WIDTH, 2}, data));
+        } finally {
+            writer.close();
+        }
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+        file.delete();
+    }
+
+    private static void assertBlockPart(final Array block, final int[] origin, final int part) {
+        final short[] values = (short[]) block.slice(2, part).copyTo1DJavaArray();
+        assertEquals(TILE_HEIGHT * TILE_WIDTH, values.length);
+        for (int y = 0; y < TILE_HEIGHT; y++) {
+            for (int x = 0; x < TILE_WIDTH; x++) {
+                final int expected = ((origin[0] + y) * WIDTH + origin[1] + x) * 2 + part;
+                assertEquals(expected, values[y * TILE_WIDTH + x]);
+            }
+        }
+    }
+
+    private static Future<Array> submitRead(final ExecutorService executor, final CountDownLatch start,
+                                            final NetCDFBlockReader blockReader, final Variable variable,
+                                            final int[] task) {
+        final Callable<Array> read = () -> {
+            start.await();
+            return blockReader.readBlock(variable, new int[]{task[0], task[1], 0},
+                    new int[]{TILE_HEIGHT, TILE_WIDTH, 2}, 2);
+        };
+        return executor.submit(read);
+    }
+
+    @Test
+    public void testConcurrentSharedReads() throws Exception {
+        final NetcdfFile netcdfFile = NetcdfFile.open(file.getPath());
+        final NetCDFBlockReader blockReader = new NetCDFBlockReader(file.getPath());
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final Variable variable = netcdfFile.findVariable("SBI");
+            final int[] shape = {TILE_HEIGHT, TILE_WIDTH, 2};
+
+            // the i and q bands of a tile read the same block at once, the block is read once for both
+            for (int y = 0; y < HEIGHT; y += TILE_HEIGHT) {
+                for (int x = 0; x < WIDTH; x += TILE_WIDTH) {
+                    final CountDownLatch start = new CountDownLatch(1);
+                    final int[] taskI = {y, x, 0};
+                    final int[] taskQ = {y, x, 1};
+                    final Future<Array> futureI = submitRead(executor, start, blockReader, variable, taskI);
+                    final Future<Array> futureQ = submitRead(executor, start, blockReader, variable, taskQ);
+                    start.countDown();
+
+                    final Array blockI = futureI.get();
+                    final Array blockQ = futureQ.get();
+                    assertSame(blockI, blockQ);
+                    assertBlockPart(blockI, taskI, 0);
+                    assertBlockPart(blockQ, taskQ, 1);
+
+                    // once both bands have their part, the block is read again
+                    final int[] origin = {y, x, 0};
+                    final Array block = blockReader.readBlock(variable, origin, shape, 1);
+                    assertNotSame(blockI, block);
+                    assertBlockPart(block, origin, 1);
+                }
+            }
+
+            // the bands of all tiles at once, blocks dropped from the cache before both parts are taken are read again
+            final CountDownLatch start = new CountDownLatch(1);
+            final List<int[]> tasks = new ArrayList<>();
+            for (int y = 0; y < HEIGHT; y += TILE_HEIGHT) {
+                for (int x = 0; x < WIDTH; x += TILE_WIDTH) {
+                    tasks.add(new int[]{y, x, 0});
+                    tasks.add(new int[]{y, x, 1});
+                }
+            }
+            Collections.shuffle(tasks, new Random(7));
+
+            final List<Future<Array>> futures = new ArrayList<>();
+            for (int[] task : tasks) {
+                futures.add(submitRead(executor, start, blockReader, variable, task));
+            }
+            start.countDown();
+            for (int i = 0; i < tasks.size(); i++) {
+                assertBlockPart(futures.get(i).get(), tasks.get(i), tasks.get(i)[2]);
+            }
+        } finally {
+            executor.shutdown();
+            blockReader.close();
+            netcdfFile.close();
+        }
+    }
+
+    @Test
+    public void testGetPreferredTileSize() throws Exception {
+        // whole chunks close to the default tile size
+        assertEquals(new Dimension(512, 512), NetCDFBlockReader.getPreferredTileSize(256, 128, 10000, 8000));
+        assertEquals(new Dimension(600, 500), NetCDFBlockReader.getPreferredTileSize(300, 100, 10000, 8000));
+        assertEquals(new Dimension(1000, 800), NetCDFBlockReader.getPreferredTileSize(1000, 800, 10000, 8000));
+
+        // chunks much larger than the default tile size or undefined
+        assertEquals(new Dimension(512, 512), NetCDFBlockReader.getPreferredTileSize(5000, 0, 10000, 8000));
+
+        // not larger than the raster
+        assertEquals(new Dimension(300, 200), NetCDFBlockReader.getPreferredTileSize(256, 128, 300, 200));
+
+        // a netCDF-3 variable is not chunked
+        final NetcdfFile netcdfFile = NetcdfFile.open(file.getPath());
+        try {
+            assertNull(NetCDFBlockReader.getPreferredTileSize(netcdfFile.findVariable("SBI"), 0, 1));
+        } finally {
+            netcdfFile.close();
+        }
+    }
+}
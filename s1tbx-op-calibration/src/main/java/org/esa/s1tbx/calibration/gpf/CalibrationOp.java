@@ -33,7 +33,9 @@ import org.esa.snap.engine_utilities.gpf.InputProductValidator;
 import org.esa.snap.engine_utilities.gpf.OperatorUtils;
 import org.esa.snap.engine_utilities.gpf.StackUtils;
 
+import java.awt.Rectangle;
 import java.io.File;
+import java.util.Map;
 
 /**
  * Calibration for all data products.
@@ -145,7 +147,10 @@ public class CalibrationOp extends Operator {
             targetProduct = calibrator.createTargetProduct(sourceProduct, sourceBandNames);
             calibrator.initialize(this, sourceProduct, targetProduct, false, true);
 
-            if (!(calibrator instanceof Sentinel1Calibrator)) {
+            if (calibrator instanceof Sentinel1Calibrator) {
+                // all outputs of a source band are computed in one pass by computeTileStack
+                setRequiresAllBands(true);
+            } else {
                 if (createGammaBand) {
                     createGammaVirtualBand(targetProduct, outputImageScaleInDb);
                 }
@@ -193,6 +198,33 @@ public class CalibrationOp extends Operator {
         }
     }
 
+    /**
+     * Called by the framework in order to compute the stack of tiles for the given target bands.
+     * The Sentinel-1 calibrator computes all outputs of a source band in one pass, other calibrators compute
+     * the target bands one by one.
+     *
+     * @param targetTiles     The current tiles to be computed for each target band.
+     * @param targetRectangle The area in pixel coordinates to be computed (same for all rasters in targetRasters).
+     * @param pm              A progress monitor which should be used to determine computation cancelation requests.
+     * @throws OperatorException If an error occurs during computation of the target rasters.
+     */
+    @Override
+    public void computeTileStack(Map<Band, Tile> targetTiles, Rectangle targetRectangle, ProgressMonitor pm)
+            throws OperatorException {
+        try {
+            if (calibrator instanceof Sentinel1Calibrator) {
+                ((Sentinel1Calibrator) calibrator).computeTileStack(targetTiles, targetRectangle, pm);
+            } else {
+                for (Map.Entry<Band, Tile> entry : targetTiles.entrySet()) {
+                    calibrator.computeTile(entry.getKey(), entry.getValue(), ProgressMonitor.NULL);
+                }
+                pm.done();
+            }
+        } catch (Throwable e) {
+            OperatorUtils.catchOperatorException(getId(), e);
+        }
+    }
+
     /**
      * Create Gamma image as a virtual band.
      *
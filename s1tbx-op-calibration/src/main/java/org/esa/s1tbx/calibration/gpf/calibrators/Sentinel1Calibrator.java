@@ -43,7 +43,9 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Calibration for Sentinel1 data products.
@@ -534,143 +536,247 @@ public final class Sentinel1Calibrator extends BaseCalibrator implements Calibra
      */
     public void computeTile(Band targetBand, Tile targetTile, ProgressMonitor pm) throws OperatorException {
 
-        final Rectangle targetTileRectangle = targetTile.getRectangle();
+        try {
+            final String[] srcBandNames = targetBandNameToSourceBandName.get(targetBand.getName());
+            computeTiles(new Band[]{targetBand}, new Tile[]{targetTile}, srcBandNames, targetTile.getRectangle());
+        } catch (Throwable e) {
+            e.printStackTrace();
+            //OperatorUtils.catchOperatorException(getId(), e);
+        } finally {
+            pm.done();
+        }
+    }
+
+    /**
+     * Called by the framework in order to compute the stack of tiles for the given target bands.
+     * All target bands calibrated from the same source bands, e.g. Sigma0, Gamma0, Beta0 and DN of one
+     * polarisation, are computed together from one read of the source tile.
+     *
+     * @param targetTiles     The current tiles to be computed for each target band.
+     * @param targetRectangle The area in pixel coordinates to be computed (same for all rasters in targetRasters).
+     * @param pm              A progress monitor which should be used to determine computation cancelation requests.
+     * @throws OperatorException If an error occurs during computation of the target rasters.
+     */
+    public void computeTileStack(Map<Band, Tile> targetTiles, Rectangle targetRectangle, ProgressMonitor pm)
+            throws OperatorException {
+
+        try {
+            final Map<String[], List<Band>> sourceToTargetBands = new LinkedHashMap<>();
+            for (Band targetBand : targetTiles.keySet()) {
+                final String[] srcBandNames = targetBandNameToSourceBandName.get(targetBand.getName());
+                if (srcBandNames != null) {
+                    sourceToTargetBands.computeIfAbsent(srcBandNames, k -> new ArrayList<>()).add(targetBand);
+                }
+            }
+
+            for (Map.Entry<String[], List<Band>> entry : sourceToTargetBands.entrySet()) {
+                final Band[] targetBands = entry.getValue().toArray(new Band[0]);
+                final Tile[] tiles = new Tile[targetBands.length];
+                for (int n = 0; n < targetBands.length; ++n) {
+                    tiles[n] = targetTiles.get(targetBands[n]);
+                }
+                computeTiles(targetBands, tiles, entry.getKey(), targetRectangle);
+            }
+        } catch (Throwable e) {
+            OperatorUtils.catchOperatorException(calibrationOp.getId(), e);
+        } finally {
+            pm.done();
+        }
+    }
+
+    /**
+     * Calibrate the target tiles of one or more target bands which share the same source bands.
+     * The source tile is read once and the range interpolation position and weight of each pixel is shared
+     * by all outputs. The LUTs are interpolated in azimuth once per line.
+     */
+    private void computeTiles(final Band[] targetBands, final Tile[] targetTiles, final String[] srcBandNames,
+                              final Rectangle targetTileRectangle) {
+
         final int x0 = targetTileRectangle.x;
         final int y0 = targetTileRectangle.y;
         final int w = targetTileRectangle.width;
         final int h = targetTileRectangle.height;
-        //System.out.println("x0 = " + x0 + ", y0 = " + y0 + ", w = " + w + ", h = " + h + ", target band = " + targetBand.getName());
 
-        try {
-            Tile sourceRaster1 = null;
-            ProductData srcData1 = null;
-            ProductData srcData2 = null;
-            Band sourceBand1 = null;
-
-            final String targetBandName = targetBand.getName();
-            final String[] srcBandNames = targetBandNameToSourceBandName.get(targetBandName);
-            if (srcBandNames.length == 1) {
-                sourceBand1 = sourceProduct.getBand(srcBandNames[0]);
-                sourceRaster1 = calibrationOp.getSourceTile(sourceBand1, targetTileRectangle);
-                srcData1 = sourceRaster1.getDataBuffer();
-            } else {
-                sourceBand1 = sourceProduct.getBand(srcBandNames[0]);
-                final Band sourceBand2 = sourceProduct.getBand(srcBandNames[1]);
-                sourceRaster1 = calibrationOp.getSourceTile(sourceBand1, targetTileRectangle);
-                final Tile sourceRaster2 = calibrationOp.getSourceTile(sourceBand2, targetTileRectangle);
-                srcData1 = sourceRaster1.getDataBuffer();
-                srcData2 = sourceRaster2.getDataBuffer();
-            }
+        final Band sourceBand1 = sourceProduct.getBand(srcBandNames[0]);
+        final Tile sourceRaster1 = calibrationOp.getSourceTile(sourceBand1, targetTileRectangle);
+        final ProductData srcData1 = sourceRaster1.getDataBuffer();
+        ProductData srcData2 = null;
+        if (srcBandNames.length > 1) {
+            final Band sourceBand2 = sourceProduct.getBand(srcBandNames[1]);
+            final Tile sourceRaster2 = calibrationOp.getSourceTile(sourceBand2, targetTileRectangle);
+            srcData2 = sourceRaster2.getDataBuffer();
+        }
 
-            final Double noDataValue = sourceBand1.getNoDataValue();
-            final Unit.UnitType tgtBandUnit = Unit.getUnitType(targetBand);
-            final Unit.UnitType srcBandUnit = Unit.getUnitType(sourceBand1);
+        final Unit.UnitType srcBandUnit = Unit.getUnitType(sourceBand1);
+        final boolean isUnitAmplitude = srcBandUnit == Unit.UnitType.AMPLITUDE;
+        final boolean isUnitIntensity = srcBandUnit == Unit.UnitType.INTENSITY;
+        final boolean isUnitReal = srcBandUnit == Unit.UnitType.REAL;
+        final boolean isUnitIntensitydB = srcBandUnit == Unit.UnitType.INTENSITY_DB;
+        if (!isUnitAmplitude && !isUnitIntensity && !isUnitReal && !isUnitIntensitydB) {
+            throw new OperatorException("Sentinel-1 Calibration: unhandled unit");
+        }
 
-            final boolean isUnitAmplitude = srcBandUnit == Unit.UnitType.AMPLITUDE;
-            final boolean isUnitIntensity = srcBandUnit == Unit.UnitType.INTENSITY;
-            final boolean isUnitReal = srcBandUnit == Unit.UnitType.REAL;
-            final boolean isUnitIntensitydB = srcBandUnit == Unit.UnitType.INTENSITY_DB;
+        final CalibrationInfo calInfo = targetBandToCalInfo.get(targetBands[0].getName());
+        if(calInfo == null) {
+            throw new OperatorException("Calibration information not found.");
+        }
 
-            final ProductData tgtData = targetTile.getDataBuffer();
-            final TileIndex srcIndex = new TileIndex(sourceRaster1);
-            final TileIndex trgIndex = new TileIndex(targetTile);
-            final int maxY = y0 + h;
-            final int maxX = x0 + w;
+        final int numOutputs = targetBands.length;
+        final CalibrationOutput[] outputs = new CalibrationOutput[numOutputs];
+        for (int n = 0; n < numOutputs; ++n) {
+            outputs[n] = new CalibrationOutput(targetBands[n], targetTiles[n]);
+        }
 
-            final CalibrationInfo calInfo = targetBandToCalInfo.get(targetBandName);
-            if(calInfo == null) {
-                throw new OperatorException("Calibration information not found.");
+        final TileIndex srcIndex = new TileIndex(sourceRaster1);
+        final int maxY = y0 + h;
+        final int maxX = x0 + w;
+        final boolean applyRetroLUT = isUnitIntensity && dataType != null;
+        final boolean outputComplex = isComplex && outputImageInComplex;
+        final float trgFloorValue = Sentinel1RemoveThermalNoiseOp.trgFloorValue;
+
+        // range interpolation position and weight of each pixel, only recomputed when the calibration vector changes
+        final int[] pixelIndex = new int[w];
+        final double[] muX = new double[w];
+        int rangeVecIdx = -1;
+        double[] retroLutRow = null;
+
+        double dn, i, q, lutVal, retroLutVal = 1.0, calValue, calibrationFactor, iPhase = 0.0, qPhase = 0.0;
+
+        for (int y = y0; y < maxY; ++y) {
+            srcIndex.calculateStride(y);
+
+            final int calVecIdx = calInfo.getCalibrationVectorIndex(subsetOffsetY + y);
+            final Sentinel1Utils.CalibrationVector vec0 = calInfo.getCalibrationVector(calVecIdx);
+            final Sentinel1Utils.CalibrationVector vec1 = calInfo.getCalibrationVector(calVecIdx + 1);
+            final double azTime = calInfo.firstLineTime + (subsetOffsetY + y) * calInfo.lineTimeInterval;
+            final double muY = (azTime - vec0.timeMJD) / (vec1.timeMJD - vec0.timeMJD);
+
+            if (calVecIdx != rangeVecIdx) {
+                computeRangeInterpolation(vec0, subsetOffsetX + x0, pixelIndex, muX);
+                rangeVecIdx = calVecIdx;
             }
-            final CALTYPE calType = getCalibrationType(targetBandName);
-
-            double dn = 0.0, i, q, muX, lutVal, retroLutVal = 1.0, calValue, calibrationFactor, phaseTerm = 0.0;
-            int srcIdx;
-            int pixelIdx = -1;
-
-            float trgFloorValue = Sentinel1RemoveThermalNoiseOp.trgFloorValue;
-
-            for (int y = y0; y < maxY; ++y) {
-                srcIndex.calculateStride(y);
-                trgIndex.calculateStride(y);
-
-                final int calVecIdx = calInfo.getCalibrationVectorIndex(subsetOffsetY + y);
-                final Sentinel1Utils.CalibrationVector vec0 = calInfo.getCalibrationVector(calVecIdx);
-                final Sentinel1Utils.CalibrationVector vec1 = calInfo.getCalibrationVector(calVecIdx + 1);
-                final float[] vec0LUT = getVector(calType, vec0);
-                final float[] vec1LUT = getVector(calType, vec1);
-                float[] retroVec0LUT = null;
-                float[] retroVec1LUT = null;
-                if (dataType != null) {
-                    retroVec0LUT = getVector(dataType, vec0);
-                    retroVec1LUT = getVector(dataType, vec1);
-                }
-                final double azTime = calInfo.firstLineTime + (subsetOffsetY + y) * calInfo.lineTimeInterval;
-                final double muY = (azTime - vec0.timeMJD) / (vec1.timeMJD - vec0.timeMJD);
-                final int[] vec0Pixels = vec0.pixels;
-                final Sentinel1Utils.CalibrationVector calVec = calInfo.calibrationVectorList[calVecIdx];
+            final int kMin = pixelIndex[0];
+            final int kMax = pixelIndex[w - 1] + 1;
 
-                for (int x = x0; x < maxX; ++x) {
-                    srcIdx = srcIndex.getIndex(x);
+            for (CalibrationOutput output : outputs) {
+                output.index.calculateStride(y);
+                output.lutRow = interpolateLUTRow(getVector(output.calType, vec0), getVector(output.calType, vec1),
+                        muY, kMin, kMax, output.lutRow);
+            }
+            if (applyRetroLUT) {
+                retroLutRow = interpolateLUTRow(getVector(dataType, vec0), getVector(dataType, vec1),
+                        muY, kMin, kMax, retroLutRow);
+            }
 
-                    dn = srcData1.getElemDoubleAt(srcIdx);
+            for (int x = x0; x < maxX; ++x) {
+                final int xx = x - x0;
+                final int srcIdx = srcIndex.getIndex(x);
+                final int k = pixelIndex[xx];
+                final double mu = muX[xx];
 
-                    pixelIdx = getPixelIndex(calVec, pixelIdx, subsetOffsetX + x);
-                    muX = (subsetOffsetX + x - vec0Pixels[pixelIdx]) /
-                            (double)(vec0Pixels[pixelIdx + 1] - vec0Pixels[pixelIdx]);
+                dn = srcData1.getElemDoubleAt(srcIdx);
 
-                    lutVal = (1 - muY) * ((1 - muX) * vec0LUT[pixelIdx] + muX * vec0LUT[pixelIdx + 1]) +
-                            muY * ((1 - muX) * vec1LUT[pixelIdx] + muX * vec1LUT[pixelIdx + 1]);
+                if (isUnitAmplitude) {
+                    dn *= dn;
+                } else if (isUnitIntensity) {
+                    if (applyRetroLUT) {
+                        retroLutVal = (1 - mu) * retroLutRow[k] + mu * retroLutRow[k + 1];
+                    }
+                } else if (isUnitReal) {
+                    i = dn;
+                    q = srcData2.getElemDoubleAt(srcIdx);
+                    dn = i * i + q * q;
+                    if (dn > 0.0) {
+                        final double amplitude = Math.sqrt(dn);
+                        iPhase = i / amplitude;
+                        qPhase = q / amplitude;
+                    } else {
+                        iPhase = 0.0;
+                        qPhase = 0.0;
+                    }
+                } else {
+                    dn = FastMath.pow(10, dn / 10.0); // convert dB to linear scale
+                }
 
-                    calibrationFactor = 1.0 / (lutVal*lutVal);
+                for (CalibrationOutput output : outputs) {
+                    final double[] lutRow = output.lutRow;
+                    lutVal = (1 - mu) * lutRow[k] + mu * lutRow[k + 1];
 
-                    if (isUnitAmplitude) {
-                        dn *= dn;
-                    } else if (isUnitIntensity) {
-                        if (dataType != null) {
-                            retroLutVal = (1 - muY) * ((1 - muX) * retroVec0LUT[pixelIdx] + muX * retroVec0LUT[pixelIdx + 1]) +
-                                    muY * ((1 - muX) * retroVec1LUT[pixelIdx] + muX * retroVec1LUT[pixelIdx + 1]);
-                        }
+                    calibrationFactor = 1.0 / (lutVal*lutVal);
+                    if (isUnitIntensity) {
                         calibrationFactor *= retroLutVal;
-                    } else if (isUnitReal) {
-                        i = dn;
-                        q = srcData2.getElemDoubleAt(srcIdx);
-                        dn = i * i + q * q;
-                        if (dn > 0.0) {
-                            if (tgtBandUnit == Unit.UnitType.REAL) {
-                                phaseTerm = i / Math.sqrt(dn);
-                            } else if (tgtBandUnit == Unit.UnitType.IMAGINARY) {
-                                phaseTerm = q / Math.sqrt(dn);
-                            }
-                        } else {
-                            phaseTerm = 0.0;
-                        }
-                    } else if (isUnitIntensitydB) {
-                        dn = FastMath.pow(10, dn / 10.0); // convert dB to linear scale
-                    } else {
-                        throw new OperatorException("Sentinel-1 Calibration: unhandled unit");
                     }
 
-                    calValue = dn * calibrationFactor;
+                    double value = dn;
+                    calValue = value * calibrationFactor;
 
-                    if(dn == trgFloorValue) {
+                    if(value == trgFloorValue) {
                         while((float)calValue < 0.00001) {
-                            dn *= 2;
-                            calValue = dn * calibrationFactor;
+                            value *= 2;
+                            calValue = value * calibrationFactor;
                         }
                     }
 
-                    if (isComplex && outputImageInComplex) {
-                        calValue = Math.sqrt(calValue)*phaseTerm;
+                    if (outputComplex) {
+                        if (output.unit == Unit.UnitType.REAL) {
+                            calValue = Math.sqrt(calValue) * iPhase;
+                        } else if (output.unit == Unit.UnitType.IMAGINARY) {
+                            calValue = Math.sqrt(calValue) * qPhase;
+                        } else {
+                            calValue = 0.0;
+                        }
                     }
 
-                    tgtData.setElemDoubleAt(trgIndex.getIndex(x), calValue);
+                    output.data.setElemDoubleAt(output.index.getIndex(x), calValue);
                 }
             }
-        } catch (Throwable e) {
-            e.printStackTrace();
-            //OperatorUtils.catchOperatorException(getId(), e);
-        } finally {
-            pm.done();
+        }
+    }
+
+    /**
+     * Compute the LUT interval and the range interpolation weight for each pixel of a tile line.
+     */
+    private static void computeRangeInterpolation(final Sentinel1Utils.CalibrationVector calVec, final int x0,
+                                                  final int[] pixelIndex, final double[] muX) {
+        final int[] pixels = calVec.pixels;
+        int pixelIdx = -1;
+        for (int xx = 0; xx < pixelIndex.length; ++xx) {
+            final int x = x0 + xx;
+            pixelIdx = getPixelIndex(calVec, pixelIdx, x);
+            pixelIndex[xx] = pixelIdx;
+            muX[xx] = (x - pixels[pixelIdx]) / (double)(pixels[pixelIdx + 1] - pixels[pixelIdx]);
+        }
+    }
+
+    /**
+     * Interpolate two LUT vectors in azimuth between the given LUT indices.
+     */
+    private static double[] interpolateLUTRow(final float[] vec0LUT, final float[] vec1LUT, final double muY,
+                                              final int kMin, final int kMax, double[] lutRow) {
+        if (lutRow == null || lutRow.length < vec0LUT.length) {
+            lutRow = new double[vec0LUT.length];
+        }
+        for (int k = kMin; k <= kMax; ++k) {
+            lutRow[k] = (1 - muY) * vec0LUT[k] + muY * vec1LUT[k];
+        }
+        return lutRow;
+    }
+
+    /**
+     * The target tile of a calibrated output and its LUT row for the current line
+     */
+    private static final class CalibrationOutput {
+        final CALTYPE calType;
+        final Unit.UnitType unit;
+        final ProductData data;
+        final TileIndex index;
+        double[] lutRow = null;
+
+        CalibrationOutput(final Band targetBand, final Tile targetTile) {
+            this.calType = getCalibrationType(targetBand.getName());
+            this.unit = Unit.getUnitType(targetBand);
+            this.data = targetTile.getDataBuffer();
+            this.index = new TileIndex(targetTile);
         }
     }
 
@@ -15,8 +15,10 @@
  */
 package org.esa.s1tbx.calibration.gpf;
 
+import com.bc.ceres.core.ProgressMonitor;
 import org.esa.s1tbx.commons.test.S1TBXTests;
 import org.esa.s1tbx.commons.test.TestData;
+import org.esa.snap.core.datamodel.Band;
 import org.esa.snap.core.datamodel.Product;
 import org.esa.snap.core.gpf.OperatorSpi;
 import org.esa.snap.engine_utilities.gpf.TestProcessor;
@@ -27,6 +29,7 @@ import org.junit.Test;
 
 import java.io.File;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assume.assumeTrue;
 
@@ -105,6 +108,48 @@ public class TestCalibrationOp {
         processFile(TestData.inputS1_StripmapSLC, "sigma0_VV", expected);
     }
 
+    @Test
+    public void testS1TileStackMatchesPerBand() throws Exception {
+
+        final Product stackProduct = calibrateS1(new CalibrationOp());
+        final Product perBandProduct = calibrateS1(new PerBandCalibrationOp());
+
+        // a window across several tiles
+        final int w = Math.min(700, stackProduct.getSceneRasterWidth());
+        final int h = Math.min(700, stackProduct.getSceneRasterHeight());
+        for (String bandName : new String[]{"Sigma0_VV", "Gamma0_VV", "Beta0_VV"}) {
+            final Band stackBand = stackProduct.getBand(bandName);
+            final Band perBandBand = perBandProduct.getBand(bandName);
+            assertNotNull(bandName, stackBand);
+            assertNotNull(bandName, perBandBand);
+
+            final float[] stackValues = new float[w * h];
+            final float[] perBandValues = new float[w * h];
+            stackBand.readPixels(0, 0, w, h, stackValues, ProgressMonitor.NULL);
+            perBandBand.readPixels(0, 0, w, h, perBandValues, ProgressMonitor.NULL);
+            assertArrayEquals(bandName, perBandValues, stackValues, 0.0f);
+        }
+    }
+
+    private static Product calibrateS1(final CalibrationOp op) throws Exception {
+        op.setSourceProduct(TestUtils.readSourceProduct(TestData.inputS1_GRD));
+        op.setParameter("outputSigmaBand", true);
+        op.setParameter("outputGammaBand", true);
+        op.setParameter("outputBetaBand", true);
+        return op.getTargetProduct();
+    }
+
+    /**
+     * Calibrates band by band through computeTile, as done without requiring all bands.
+     */
+    private static class PerBandCalibrationOp extends CalibrationOp {
+        @Override
+        public void initialize() {
+            super.initialize();
+            setRequiresAllBands(false);
+        }
+    }
+
     /**
      * Processes a product and compares it to processed product known to be correct
      *
@@ -44,7 +44,6 @@ import org.esa.snap.engine_utilities.gpf.TileIndex;
 import org.jblas.ComplexDouble;
 import org.jblas.ComplexDoubleMatrix;
 import org.jblas.DoubleMatrix;
-import org.jblas.MatrixFunctions;
 import org.jlinda.core.GeoPoint;
 import org.jlinda.core.Orbit;
 import org.jlinda.core.Point;
@@ -735,27 +734,23 @@ public class CoherenceOp extends Operator {
                 }
             }
 
+            final Map<CplxContainer, double[][]> masterDataMap = new HashMap<>();
             for (String cohKey : targetMap.keySet()) {
 
                 final ProductContainer product = targetMap.get(cohKey);
 
-                final Tile mstTileReal = getSourceTile(product.sourceMaster.realBand, extRect, border);
-                final Tile mstTileImag = getSourceTile(product.sourceMaster.imagBand, extRect, border);
-                final ComplexDoubleMatrix dataMaster = TileUtilsDoris.pullComplexDoubleMatrix(mstTileReal, mstTileImag);
+                final double[][] masterData = getMasterData(product.sourceMaster, extRect, border, masterDataMap);
 
                 final Tile slvTileReal = getSourceTile(product.sourceSlave.realBand, extRect, border);
                 final Tile slvTileImag = getSourceTile(product.sourceSlave.imagBand, extRect, border);
-                final ComplexDoubleMatrix dataSlave = TileUtilsDoris.pullComplexDoubleMatrix(slvTileReal, slvTileImag);
+                final double[] dataSlave = TileUtilsDoris.pullComplexDoubleArray(slvTileReal, slvTileImag);
 
                 if (subtractFlatEarthPhase) {
                     final DoubleMatrix flatEarthPhase = computeFlatEarthPhase(
                             cohx0, cohx0 + cohw - 1, cohw, cohy0, cohy0 + cohh - 1, cohh,
                             0, sourceImageWidth - 1, 0, sourceImageHeight - 1, product.sourceSlave.name);
 
-                    final ComplexDoubleMatrix complexReferencePhase = new ComplexDoubleMatrix(
-                            MatrixFunctions.cos(flatEarthPhase), MatrixFunctions.sin(flatEarthPhase));
-
-                    dataSlave.muli(complexReferencePhase);
+                    applyPhase(dataSlave, flatEarthPhase);
 
                     if (OUTPUT_PHASE) {
                         saveFlatEarthPhase(x0, xN, y0, yN, flatEarthPhase, product, targetTileMap);
@@ -766,26 +761,17 @@ public class CoherenceOp extends Operator {
                     final TopoPhase topoPhase = TopoPhase.computeTopoPhase(
                             product, tileWindow, demTile, false);
 
-                    final ComplexDoubleMatrix ComplexTopoPhase = new ComplexDoubleMatrix(
-                            MatrixFunctions.cos(new DoubleMatrix(topoPhase.demPhase)),
-                            MatrixFunctions.sin(new DoubleMatrix(topoPhase.demPhase)));
-
-                    dataSlave.muli(ComplexTopoPhase);
+                    applyPhase(dataSlave, topoPhase.demPhase);
 
                     if (OUTPUT_PHASE) {
                         saveTopoPhase(x0, xN, y0, yN, topoPhase.demPhase, product, targetTileMap);
                     }
                 }
 
-                for (int i = 0; i < dataMaster.length; i++) {
-                    double tmp = norm(dataMaster.get(i));
-                    dataMaster.put(i, dataMaster.get(i).mul(dataSlave.get(i).conj()));
-                    dataSlave.put(i, new ComplexDouble(norm(dataSlave.get(i)), tmp));
-                }
-
-                DoubleMatrix cohMatrix = SarUtils.coherence2(dataMaster, dataSlave, cohWinAz, cohWinRg);
+                final double[] coherence = SarUtils.coherence(
+                        masterData[1], masterData[0], dataSlave, cohh, cohw, cohWinAz, cohWinRg);
 
-                saveCoherence(cohMatrix, product, targetTileMap, targetRectangle);
+                saveCoherence(coherence, product, targetTileMap, targetRectangle);
             }
 
         } catch (Throwable e) {
@@ -851,7 +837,62 @@ public class CoherenceOp extends Operator {
         }
     }
 
-    private void saveCoherence(final DoubleMatrix cohMatrix, final ProductContainer product,
+    /**
+     * Get the master samples of the extended tile and the window sums of the master power. Both are computed
+     * once per tile and shared by all pairs with the same master.
+     */
+    private double[][] getMasterData(final CplxContainer master, final Rectangle extRect, final BorderExtender border,
+                                     final Map<CplxContainer, double[][]> masterDataMap) {
+
+        double[][] masterData = masterDataMap.get(master);
+        if (masterData == null) {
+            final Tile mstTileReal = getSourceTile(master.realBand, extRect, border);
+            final Tile mstTileImag = getSourceTile(master.imagBand, extRect, border);
+            final double[] dataMaster = TileUtilsDoris.pullComplexDoubleArray(mstTileReal, mstTileImag);
+            final double[] powerSums = SarUtils.powerWindowSums(
+                    dataMaster, extRect.height, extRect.width, cohWinAz, cohWinRg);
+
+            masterData = new double[][]{dataMaster, powerSums};
+            masterDataMap.put(master, masterData);
+        }
+        return masterData;
+    }
+
+    /**
+     * Multiply interleaved complex samples with exp(i * phase).
+     */
+    private static void applyPhase(final double[] cplxData, final DoubleMatrix phase) {
+
+        final int rows = phase.rows;
+        final int cols = phase.columns;
+        for (int y = 0; y < rows; y++) {
+            for (int x = 0; x < cols; x++) {
+                rotate(cplxData, 2 * (y * cols + x), phase.get(y, x));
+            }
+        }
+    }
+
+    private static void applyPhase(final double[] cplxData, final double[][] phase) {
+
+        final int cols = phase[0].length;
+        for (int y = 0; y < phase.length; y++) {
+            final double[] phaseRow = phase[y];
+            for (int x = 0; x < cols; x++) {
+                rotate(cplxData, 2 * (y * cols + x), phaseRow[x]);
+            }
+        }
+    }
+
+    private static void rotate(final double[] cplxData, final int i, final double phase) {
+        final double cos = Math.cos(phase);
+        final double sin = Math.sin(phase);
+        final double re = cplxData[i];
+        final double im = cplxData[i + 1];
+        cplxData[i] = re * cos - im * sin;
+        cplxData[i + 1] = re * sin + im * cos;
+    }
+
+    private void saveCoherence(final double[] coherence, final ProductContainer product,
                                final Map<Band, Tile> targetTileMap, final Rectangle targetRectangle) {
 
         final int x0 = targetRectangle.x;
@@ -880,7 +921,7 @@ public class CoherenceOp extends Operator {
                 if (srcSlvData.getElemDoubleAt(srcSlvIndex.getIndex(x)) == srcNoDataValue) {
                     coherenceData.setElemFloatAt(tgtIdx, (float) srcNoDataValue);
                 } else {
-                    final double coh = cohMatrix.get(yy, xx);
+                    final double coh = coherence[yy * targetRectangle.width + xx];
                     coherenceData.setElemFloatAt(tgtIdx, (float) coh);
                 }
             }
@@ -971,6 +1012,7 @@ public class CoherenceOp extends Operator {
             final int minPixel = 0;
             final int maxPixel = subSwath[subSwathIndex - 1].samplesPerBurst - 1;
 
+            final Map<CplxContainer, double[][]> masterDataMap = new HashMap<>();
             for (String cohKey : targetMap.keySet()) {
 
                 final ProductContainer product = targetMap.get(cohKey);
@@ -978,13 +1020,11 @@ public class CoherenceOp extends Operator {
                 updateSlvMetaData(product, burstIndex, slvMeta);
                 final Orbit slvOrbit = product.sourceSlave.orbit;
 
-                final Tile mstTileReal = getSourceTile(product.sourceMaster.realBand, extRect, border);
-                final Tile mstTileImag = getSourceTile(product.sourceMaster.imagBand, extRect, border);
-                final ComplexDoubleMatrix dataMaster = TileUtilsDoris.pullComplexDoubleMatrix(mstTileReal, mstTileImag);
+                final double[][] masterData = getMasterData(product.sourceMaster, extRect, border, masterDataMap);
 
                 final Tile slvTileReal = getSourceTile(product.sourceSlave.realBand, extRect, border);
                 final Tile slvTileImag = getSourceTile(product.sourceSlave.imagBand, extRect, border);
-                final ComplexDoubleMatrix dataSlave = TileUtilsDoris.pullComplexDoubleMatrix(slvTileReal, slvTileImag);
+                final double[] dataSlave = TileUtilsDoris.pullComplexDoubleArray(slvTileReal, slvTileImag);
 
                 final String polynomialName = product.sourceSlave.name + '_' + (subSwathIndex - 1) + '_' + burstIndex;
                 if (subtractFlatEarthPhase) {
@@ -992,10 +1032,7 @@ public class CoherenceOp extends Operator {
                             cohx0, cohx0 + cohw - 1, cohw, cohy0 - firstLineIdx, cohy0 + cohh - 1 - firstLineIdx, cohh,
                             minPixel, maxPixel, minLine, maxLine, polynomialName);
 
-                    final ComplexDoubleMatrix complexReferencePhase = new ComplexDoubleMatrix(
-                            MatrixFunctions.cos(flatEarthPhase), MatrixFunctions.sin(flatEarthPhase));
-
-                    dataSlave.muli(complexReferencePhase);
+                    applyPhase(dataSlave, flatEarthPhase);
 
                     if (OUTPUT_PHASE) {
                         saveFlatEarthPhase(x0, xN, y0, yN, flatEarthPhase, product, targetTileMap);
@@ -1006,26 +1043,17 @@ public class CoherenceOp extends Operator {
                     TopoPhase topoPhase = TopoPhase.computeTopoPhase(
                             mstMeta, mstOrbit, slvMeta, slvOrbit, tileWindow, demTile, false);
 
-                    final ComplexDoubleMatrix ComplexTopoPhase = new ComplexDoubleMatrix(
-                            MatrixFunctions.cos(new DoubleMatrix(topoPhase.demPhase)),
-                            MatrixFunctions.sin(new DoubleMatrix(topoPhase.demPhase)));
-
-                    dataSlave.muli(ComplexTopoPhase);
+                    applyPhase(dataSlave, topoPhase.demPhase);
 
                     if (OUTPUT_PHASE) {
                         saveTopoPhase(x0, xN, y0, yN, topoPhase.demPhase, product, targetTileMap);
                     }
                 }
 
-                for (int i = 0; i < dataMaster.length; i++) {
-                    double tmp = norm(dataMaster.get(i));
-                    dataMaster.put(i, dataMaster.get(i).mul(dataSlave.get(i).conj()));
-                    dataSlave.put(i, new ComplexDouble(norm(dataSlave.get(i)), tmp));
-                }
+                final double[] coherence = SarUtils.coherence(
+                        masterData[1], masterData[0], dataSlave, cohh, cohw, cohWinAz, cohWinRg);
 
-                DoubleMatrix cohMatrix = SarUtils.coherence2(dataMaster, dataSlave, cohWinAz, cohWinRg);
-
-                saveCoherence(cohMatrix, product, targetTileMap, targetRectangle);
+                saveCoherence(coherence, product, targetTileMap, targetRectangle);
             }
 
         } catch (Throwable e) {
@@ -1084,10 +1112,6 @@ public class CoherenceOp extends Operator {
         return new GeoPoint(lat / (2*cols), lon / (2*cols));
     }
 
-    private static double norm(final ComplexDouble number) {
-        return number.real() * number.real() + number.imag() * number.imag();
-    }
-
     private static double norm(final double real, final double imag) {
         return real * real + imag * imag;
     }
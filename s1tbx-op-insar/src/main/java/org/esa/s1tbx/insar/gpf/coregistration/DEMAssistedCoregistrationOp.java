@@ -226,7 +226,7 @@ public final class DEMAssistedCoregistrationOp extends Operator {
                 metadata.absRoot);
 
         metadata.orbit = new OrbitStateVectors(
-                orbitStateVectors, metadata.firstLineTime, metadata.lineTimeInterval, metadata.sourceImageHeight);
+                orbitStateVectors, metadata.firstLineTime, metadata.lineTimeInterval, metadata.sourceImageHeight, true);
 
 
         if (metadata.srgrFlag) {
@@ -40,6 +40,9 @@ public class SARPosition {
 
     private int x0, y0, w, h;
 
+    // range line of the previous zero Doppler solution, used to warm start the next search
+    private final int[] lineHint = {-1};
+
     public static class PositionData {
         public final PosVector earthPoint = new PosVector();
         public final PosVector sensorPos = new PosVector();
@@ -85,8 +88,7 @@ public class SARPosition {
     public boolean getPosition(final PositionData data) {
 
         final double zeroDopplerTime = SARGeocoding.getEarthPointZeroDopplerTime(
-                firstLineTime, lineTimeInterval, wavelength, data.earthPoint,
-                orbit.sensorPosition, orbit.sensorVelocity);
+                firstLineTime, lineTimeInterval, wavelength, data.earthPoint, orbit, lineHint);
 
         if (zeroDopplerTime == SARGeocoding.NonValidZeroDopplerTime) {
             return false;
@@ -18,6 +18,7 @@ package org.esa.s1tbx.sar.gpf.ui.filtering;
 import org.esa.snap.ui.AppContext;
 
 import javax.swing.*;
+import java.awt.*;
 import java.util.Map;
 
 /**
@@ -25,21 +26,32 @@ import java.util.Map;
  */
 public class MultiTemporalSpeckleFilterOpUI extends SpeckleFilterOpUI {
 
+    private final JCheckBox medianInTimeCheckBox = new JCheckBox("Median in Time");
+
     @Override
     public JComponent CreateOpTab(String operatorName, Map<String, Object> parameterMap, AppContext appContext) {
         final JComponent pane = super.CreateOpTab(operatorName, parameterMap, appContext);
 
-        return new JScrollPane(pane);
+        final JPanel panel = new JPanel(new BorderLayout());
+        panel.add(pane, BorderLayout.CENTER);
+        panel.add(medianInTimeCheckBox, BorderLayout.SOUTH);
+
+        return new JScrollPane(panel);
     }
 
     @Override
     public void initParameters() {
         super.initParameters();
+
+        final Boolean medianInTime = (Boolean) paramMap.get("medianInTime");
+        medianInTimeCheckBox.setSelected(medianInTime != null && medianInTime);
     }
 
     @Override
     public void updateParameters() {
         super.updateParameters();
+
+        paramMap.put("medianInTime", medianInTimeCheckBox.isSelected());
     }
 
 }
@@ -58,6 +58,9 @@ import java.util.Map;
  * where E[I] is the local mean value of pixels in a user selected window centered at (x, y) in image I.
  * The window size can be 3x3, 5x5, 7x7, 9x9 or 11x11.
  * <p/>
+ * With the median in time option the mean of the ratios Ik(x, y)/E[Ik] over the images is replaced by their median,
+ * which is robust to changes in a few of the images.
+ * <p/>
  * The operator has the following two preprocessing steps:
  * <p/>
  * 1. The first step is calibration in which ?0 is derived from the digital number at each pixel. This
@@ -140,6 +143,10 @@ public class MultiTemporalSpeckleFilterOp extends Operator {
             label = "Adaptive Neighbourhood Size")
     private int anSize = 50;
 
+    @Parameter(description = "Combine the images with the median instead of the mean of their ratios " +
+            "to the filtered images", defaultValue = "false", label = "Median in Time")
+    private boolean medianInTime = false;
+
     private final Map<String, String[]> targetBandNameToSourceBandName = new HashMap<>();
 
     private SpeckleFilter speckleFilter;
@@ -329,6 +336,7 @@ public class MultiTemporalSpeckleFilterOp extends Operator {
             final List<double[][]> filteredTileList = new ArrayList<>();;
             double[][] sum = new double[h][w];
             int[][] count = new int[h][w];
+            final double[][][] ratios = medianInTime ? new double[numBands][h][w] : null;
             for (Band tgtBand : targetBands) {
                 final Band srcBand = sourceProduct.getBand(tgtBand.getName());
                 final Tile srcTile = getSourceTile(srcBand, targetRectangle);
@@ -348,7 +356,12 @@ public class MultiTemporalSpeckleFilterOp extends Operator {
                             final int sourceIndex = srcTile.getDataBufferIndex(x, y);
                             final double srcDataValue = srcData.getElemDoubleAt(sourceIndex);
                             if (srcDataValue != bandNoDataValues) {
-                                sum[yy][xx] += srcDataValue / filteredTile[yy][xx];
+                                final double ratio = srcDataValue / filteredTile[yy][xx];
+                                if (ratios != null) {
+                                    ratios[count[yy][xx]][yy][xx] = ratio;
+                                } else {
+                                    sum[yy][xx] += ratio;
+                                }
                                 count[yy][xx]++;
                             }
                         }
@@ -356,10 +369,25 @@ public class MultiTemporalSpeckleFilterOp extends Operator {
                 }
             }
 
-            for (int yy = 0; yy < h; ++yy) {
-                for (int xx = 0; xx < w; ++xx) {
-                    if (count[yy][xx] > 0) {
-                        sum[yy][xx] /= count[yy][xx];
+            if (ratios != null) {
+                final double[] pixelRatios = new double[numBands];
+                for (int yy = 0; yy < h; ++yy) {
+                    for (int xx = 0; xx < w; ++xx) {
+                        final int n = count[yy][xx];
+                        if (n > 0) {
+                            for (int i = 0; i < n; ++i) {
+                                pixelRatios[i] = ratios[i][yy][xx];
+                            }
+                            sum[yy][xx] = RunningMedian.getMedian(pixelRatios, n);
+                        }
+                    }
+                }
+            } else {
+                for (int yy = 0; yy < h; ++yy) {
+                    for (int xx = 0; xx < w; ++xx) {
+                        if (count[yy][xx] > 0) {
+                            sum[yy][xx] /= count[yy][xx];
+                        }
                     }
                 }
             }
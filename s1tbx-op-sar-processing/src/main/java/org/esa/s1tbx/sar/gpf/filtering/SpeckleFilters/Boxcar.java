@@ -103,25 +103,19 @@ public class Boxcar implements SpeckleFilter {
         Band sourceBand2 = null;
         Tile sourceTile1 = null;
         Tile sourceTile2 = null;
-        ProductData sourceData1 = null;
-        ProductData sourceData2 = null;
         if (srcBandNames.length == 1) {
             sourceBand1 = sourceProduct.getBand(srcBandNames[0]);
             sourceTile1 = operator.getSourceTile(sourceBand1, sourceTileRectangle);
-            sourceData1 = sourceTile1.getDataBuffer();
         } else {
             sourceBand1 = sourceProduct.getBand(srcBandNames[0]);
             sourceBand2 = sourceProduct.getBand(srcBandNames[1]);
             sourceTile1 = operator.getSourceTile(sourceBand1, sourceTileRectangle);
             sourceTile2 = operator.getSourceTile(sourceBand2, sourceTileRectangle);
-            sourceData1 = sourceTile1.getDataBuffer();
-            sourceData2 = sourceTile2.getDataBuffer();
         }
         final Unit.UnitType bandUnit = Unit.getUnitType(sourceBand1);
         final double noDataValue = sourceBand1.getNoDataValue();
-        final TileIndex srcIndex = new TileIndex(sourceTile1);
-        final double[] neighborValues = new double[windowSizeX * windowSizeY];
         final boolean isComplex = bandUnit == Unit.UnitType.REAL || bandUnit == Unit.UnitType.IMAGINARY;
+        final WindowStatistics stats = WindowStatistics.create(sourceTile1, sourceTile2, isComplex, noDataValue);
 
         final int xMax = x0 + w;
         final int yMax = y0 + h;
@@ -130,12 +124,10 @@ public class Boxcar implements SpeckleFilter {
             for (int x = x0; x < xMax; ++x) {
                 final int xx = x - x0;
 
-                final int numSamples = getNeighborValues(
-                        x, y, sourceData1, sourceData2, srcIndex, noDataValue, isComplex,
-                        windowSizeX, windowSizeY, sourceImageWidth, sourceImageHeight, neighborValues);
+                final int numSamples = stats.selectWindow(x, y, windowSizeX, windowSizeY);
 
                 if (numSamples > 0) {
-                    filteredTile[yy][xx] = getMeanValue(neighborValues, numSamples, noDataValue);
+                    filteredTile[yy][xx] = stats.getMean();
                 } else {
                     filteredTile[yy][xx] = noDataValue;
                 }
@@ -124,25 +124,43 @@ public class Frost implements SpeckleFilter {
         final Unit.UnitType bandUnit = Unit.getUnitType(sourceBand1);
         final double noDataValue = sourceBand1.getNoDataValue();
         final TileIndex srcIndex = new TileIndex(sourceTile1);
-        final double[] neighborValues = new double[windowSizeX * windowSizeY];
         final boolean isComplex = bandUnit == Unit.UnitType.REAL || bandUnit == Unit.UnitType.IMAGINARY;
+        final WindowStatistics stats = WindowStatistics.create(sourceTile1, sourceTile2, isComplex, noDataValue);
         final int xMax = x0 + w;
         final int yMax = y0 + h;
 
-        final double[] mask = new double[windowSizeX * windowSizeY];
-        getFrostMask(mask);
+        // the weights of a square window only depend on the ring of a pixel around the center,
+        // so that the weighted sum is taken from the window statistics ring by ring
+        final boolean squareWindow = windowSizeX == windowSizeY;
+        final double[] neighborValues = squareWindow ? null : new double[windowSizeX * windowSizeY];
+        final double[] mask = squareWindow ? null : new double[windowSizeX * windowSizeY];
+        if (!squareWindow) {
+            getFrostMask(mask);
+        }
 
         for (int y = y0; y < yMax; ++y) {
             final int yy = y - y0;
             for (int x = x0; x < xMax; ++x) {
                 final int xx = x - x0;
 
-                final int numSamples = getNeighborValues(
-                        x, y, sourceData1, sourceData2, srcIndex, noDataValue, isComplex,
-                        windowSizeX, windowSizeY, sourceImageWidth, sourceImageHeight, neighborValues);
+                final int numSamples = stats.selectWindow(x, y, windowSizeX, windowSizeY);
 
                 if (numSamples > 0) {
-                    filteredTile[yy][xx] = getFrostValue(neighborValues, numSamples, noDataValue, mask);
+                    final double mean = stats.getMean();
+                    final double var = stats.getVariance();
+                    if (mean <= Double.MIN_VALUE || var <= Double.MIN_VALUE) {
+                        filteredTile[yy][xx] = mean;
+                        continue;
+                    }
+
+                    final double k = dampingFactor * var / (mean * mean);
+                    if (squareWindow) {
+                        filteredTile[yy][xx] = getFrostValue(stats, x, y, k);
+                    } else {
+                        getNeighborValues(x, y, sourceData1, sourceData2, srcIndex, noDataValue, isComplex,
+                                windowSizeX, windowSizeY, sourceImageWidth, sourceImageHeight, neighborValues);
+                        filteredTile[yy][xx] = getFrostValue(neighborValues, noDataValue, mask, k);
+                    }
                 } else {
                     filteredTile[yy][xx] = noDataValue;
                 }
@@ -171,30 +189,50 @@ public class Frost implements SpeckleFilter {
         }
     }
 
+    /**
+     * Get the Frost filtered pixel intensity for a square window from the sums of the rings around the pixel.
+     *
+     * @param stats The window statistics with the window of the pixel selected.
+     * @param x     X coordinate of the pixel.
+     * @param y     Y coordinate of the pixel.
+     * @param k     The exponential damping of the window.
+     * @return val The Frost filtered value.
+     */
+    private double getFrostValue(final WindowStatistics stats, final int x, final int y, final double k) {
+
+        final int maxX = x - halfWindowSizeX + windowSizeX - 1;
+        final int maxY = y - halfWindowSizeY + windowSizeY - 1;
+
+        double sum = 0.0;
+        double totalWeight = 0.0;
+        double innerSum = 0.0;
+        int innerSamples = 0;
+        for (int d = 0; d <= halfWindowSizeX; d++) {
+            final int numSamples = stats.selectRectangle(x - d, y - d, Math.min(x + d, maxX), Math.min(y + d, maxY));
+            final double boxSum = stats.getSum();
+            if (numSamples > innerSamples) {
+                final double weight = FastMath.exp(-k * d);
+                sum += weight * (boxSum - innerSum);
+                totalWeight += weight * (numSamples - innerSamples);
+            }
+            innerSum = boxSum;
+            innerSamples = numSamples;
+        }
+        return sum / totalWeight;
+    }
+
     /**
      * Get the Frost filtered pixel intensity for pixels in a given rectangular region.
      *
      * @param neighborValues Array holding the pixel values.
-     * @param numSamples     The number of samples.
      * @param noDataValue    Place holder for no data value.
      * @param mask           Array holding Frost filter mask values.
+     * @param k              The exponential damping of the window.
      * @return val The Frost filtered value.
      * @throws OperatorException If an error occurs in computation of the Frost filtered value.
      */
-    private double getFrostValue(
-            final double[] neighborValues, final int numSamples, final double noDataValue, final double[] mask) {
-
-        final double mean = getMeanValue(neighborValues, numSamples, noDataValue);
-        if (mean <= Double.MIN_VALUE) {
-            return mean;
-        }
-
-        final double var = getVarianceValue(neighborValues, numSamples, mean, noDataValue);
-        if (var <= Double.MIN_VALUE) {
-            return mean;
-        }
-
-        final double k = dampingFactor * var / (mean * mean);
+    private static double getFrostValue(
+            final double[] neighborValues, final double noDataValue, final double[] mask, final double k) {
 
         double sum = 0.0;
         double totalWeight = 0.0;
@@ -136,8 +136,14 @@ public class Lee implements SpeckleFilter {
         final double cu = 1.0 / Math.sqrt(n);
         final double cu2 = cu * cu;
 
-        final double[] neighborValues = new double[windowSizeX * windowSizeY];
         final boolean isComplex = bandUnit == Unit.UnitType.REAL || bandUnit == Unit.UnitType.IMAGINARY;
+        final WindowStatistics stats = WindowStatistics.create(sourceTile1, sourceTile2, isComplex, noDataValue);
+
+        // the center of the window as in getNeighborValues, which differs from (x, y) only for even window sizes
+        final int centerIndex = windowSizeX * windowSizeY / 2;
+        final int centerOffsetX = centerIndex % windowSizeX - halfWindowSizeX;
+        final int centerOffsetY = centerIndex / windowSizeX - halfWindowSizeY;
+
         final int xMax = x0 + w;
         final int yMax = y0 + h;
 
@@ -146,12 +152,11 @@ public class Lee implements SpeckleFilter {
             for (int x = x0; x < xMax; ++x) {
                 final int xx = x - x0;
 
-                final int numSamples = getNeighborValues(
-                        x, y, sourceData1, sourceData2, srcIndex, noDataValue, isComplex,
-                        windowSizeX, windowSizeY, sourceImageWidth, sourceImageHeight, neighborValues);
+                final int numSamples = stats.selectWindow(x, y, windowSizeX, windowSizeY);
 
                 if (numSamples > 0) {
-                    filteredTile[yy][xx] = getLeeValue(neighborValues, numSamples, noDataValue, cu, cu2);
+                    final double cp = stats.getValue(x + centerOffsetX, y + centerOffsetY);
+                    filteredTile[yy][xx] = getLeeValue(stats, cp, cu, cu2);
                 } else {
                     filteredTile[yy][xx] = noDataValue;
                 }
@@ -164,21 +169,20 @@ public class Lee implements SpeckleFilter {
     /**
      * Get the Lee filtered pixel intensity for pixels in a given rectangular region.
      *
-     * @param neighborValues Array holding the pixel values.
-     * @param numSamples     The number of samples.
-     * @param noDataValue    Place holder for no data value.
+     * @param stats The window statistics with the window of the pixel selected.
+     * @param cp    The center pixel value.
      * @return val The Lee filtered value.
      * @throws OperatorException If an error occurs in computation of the Lee filtered value.
      */
-    private double getLeeValue(final double[] neighborValues, final int numSamples, final double noDataValue,
-                               final double cu, final double cu2) {
+    private static double getLeeValue(final WindowStatistics stats, final double cp,
+                                      final double cu, final double cu2) {
 
-        final double mean = getMeanValue(neighborValues, numSamples, noDataValue);
+        final double mean = stats.getMean();
         if (Double.compare(mean, Double.MIN_VALUE) <= 0) {
             return mean;
         }
 
-        final double var = getVarianceValue(neighborValues, numSamples, mean, noDataValue);
+        final double var = stats.getVariance();
         if (Double.compare(var, Double.MIN_VALUE) <= 0) {
             return mean;
         }
@@ -188,7 +192,6 @@ public class Lee implements SpeckleFilter {
             return mean;
         }
 
-        final double cp = neighborValues[neighborValues.length / 2];
         final double w = 1 - cu2 / (ci * ci);
 
         return cp * w + mean * (1 - w);
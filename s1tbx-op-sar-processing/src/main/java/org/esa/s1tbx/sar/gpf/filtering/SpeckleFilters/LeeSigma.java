@@ -418,6 +418,7 @@ public class LeeSigma implements SpeckleFilter {
 
         final boolean[][] isPointTarget = new boolean[h][w];
         final double[][] targetWindow = new double[targetWindowSize][targetWindowSize];
+        WindowStatistics stats = null;
 
         final int xMax = x0 + w;
         final int yMax = y0 + h;
@@ -439,8 +440,11 @@ public class LeeSigma implements SpeckleFilter {
                 if (y - halfSizeY < sy0 || y + halfSizeY > sy0 + sh - 1 ||
                         x - halfSizeX < sx0 || x + halfSizeX > sx0 + sw - 1) {
 
-                    filteredTile[yy][xx] = filterPixelWithAllValidPixels(v, x, y, sx0, sy0, sw, sh, sourceTile1,
-                            noDataValue, bandUnit, sourceData1, sourceData2, etaV2);
+                    if (stats == null) {
+                        final boolean isComplex = bandUnit == Unit.UnitType.REAL || bandUnit == Unit.UnitType.IMAGINARY;
+                        stats = WindowStatistics.create(sourceTile1, sourceTile2, isComplex, noDataValue);
+                    }
+                    filteredTile[yy][xx] = filterPixelWithAllValidPixels(v, x, y, stats, etaV2);
 
                     continue;
                 }
@@ -504,19 +508,12 @@ public class LeeSigma implements SpeckleFilter {
         }
     }
 
-    private double filterPixelWithAllValidPixels(final double v, final int x, final int y, final int sx0, final int sy0,
-                                                 final int sw, final int sh, final Tile sourceTile,
-                                                 final double noDataValue, final Unit.UnitType bandUnit,
-                                                 final ProductData srcData1, final ProductData srcData2,
-                                                 final double etaV2) {
+    private double filterPixelWithAllValidPixels(final double v, final int x, final int y,
+                                                 final WindowStatistics stats, final double etaV2) {
 
-        final double[][] filterWindow = new double[filterSize][filterSize];
-
-        getWindowPixels(x, y, sx0, sy0, sw, sh, sourceTile, noDataValue, bandUnit, srcData1, srcData2, filterWindow);
-
-        final double[] validPixels = getValidPixels(filterWindow, noDataValue);
+        stats.selectWindow(x, y, filterSize, filterSize);
 
-        return computeMMSEEstimate(v, validPixels, etaV2, noDataValue);
+        return computeMMSEEstimate(v, stats.getMean(), stats.getVariance(), etaV2);
     }
 
     private static void getWindowPixels(final int x, final int y, final int sx0, final int sy0, final int sw, final int sh,
@@ -633,10 +630,8 @@ public class LeeSigma implements SpeckleFilter {
         return computeMMSEEstimate(v, pixelsSelected, etaVP2, noDataValue);
     }
 
-    private double computeMMSEWeight(
-            final double[] dataArray, final double meanZ, final double etaV2, final double noDataValue) {
+    private static double computeMMSEWeight(final double varY, final double meanZ, final double etaV2) {
 
-        final double varY = getVarianceValue(dataArray, dataArray.length, meanZ, noDataValue);
         if (varY == 0.0) {
             return 0.0;
         }
@@ -672,8 +667,15 @@ public class LeeSigma implements SpeckleFilter {
                                        final double etaV2, final double noDataValue) {
 
         final double mean = getMeanValue(dataArray, dataArray.length, noDataValue);
+        final double varY = getVarianceValue(dataArray, dataArray.length, mean, noDataValue);
+
+        return computeMMSEEstimate(centerPixelValue, mean, varY, etaV2);
+    }
+
+    private static double computeMMSEEstimate(final double centerPixelValue, final double mean, final double varY,
+                                              final double etaV2) {
 
-        final double b = computeMMSEWeight(dataArray, mean, etaV2, noDataValue);
+        final double b = computeMMSEWeight(varY, mean, etaV2);
 
         return (1 - b) * mean + b * centerPixelValue;
     }
@@ -27,7 +27,6 @@ import org.esa.snap.engine_utilities.gpf.OperatorUtils;
 import org.esa.snap.engine_utilities.gpf.TileIndex;
 
 import java.awt.*;
-import java.util.Arrays;
 import java.util.Map;
 
 /**
@@ -35,6 +34,9 @@ import java.util.Map;
  */
 public class Median implements SpeckleFilter {
 
+    // windows with more samples use the running median instead of a selection per pixel
+    private static final int MAX_SELECTION_WINDOW_SIZE = 81;
+
     private final Operator operator;
     private final Product sourceProduct;
     private final Product targetProduct;
@@ -120,9 +122,16 @@ public class Median implements SpeckleFilter {
         }
         final Unit.UnitType bandUnit = Unit.getUnitType(sourceBand1);
         final double noDataValue = sourceBand1.getNoDataValue();
+        final boolean isComplex = bandUnit == Unit.UnitType.REAL || bandUnit == Unit.UnitType.IMAGINARY;
+
+        if (windowSizeX * windowSizeY > MAX_SELECTION_WINDOW_SIZE) {
+            final RunningMedian runningMedian = RunningMedian.create(sourceTile1, sourceTile2, isComplex, noDataValue);
+            return runningMedian.filter(x0, y0, w, h, windowSizeX, windowSizeY);
+        }
+
         final TileIndex srcIndex = new TileIndex(sourceTile1);
         final double[] neighborValues = new double[windowSizeX * windowSizeY];
-        final boolean isComplex = bandUnit == Unit.UnitType.REAL || bandUnit == Unit.UnitType.IMAGINARY;
+        final double[] validValues = new double[windowSizeX * windowSizeY];
         final int xMax = x0 + w;
         final int yMax = y0 + h;
 
@@ -136,7 +145,7 @@ public class Median implements SpeckleFilter {
                         windowSizeX, windowSizeY, sourceImageWidth, sourceImageHeight, neighborValues);
 
                 if (numSamples > 0) {
-                    filteredTile[yy][xx] = getMedianValue(neighborValues, numSamples, noDataValue);
+                    filteredTile[yy][xx] = getMedianValue(neighborValues, validValues, noDataValue);
                 } else {
                     filteredTile[yy][xx] = noDataValue;
                 }
@@ -150,22 +159,20 @@ public class Median implements SpeckleFilter {
      * Get the median value of pixel intensities in a given rectangular region.
      *
      * @param neighborValues Array holding pixel values.
-     * @param numSamples     The number of samples.
+     * @param validValues    Buffer for the valid pixel values.
      * @param noDataValue    Place holder for no data value.
      * @return median The median value.
      * @throws OperatorException If an error occurs in computation of the median value.
      */
     private static double getMedianValue(
-            final double[] neighborValues, final int numSamples, final double noDataValue) {
+            final double[] neighborValues, final double[] validValues, final double noDataValue) {
 
-        double[] tmp = new double[numSamples];
         int k = 0;
         for (double v : neighborValues) {
             if (Double.compare(v, noDataValue) != 0) {
-                tmp[k++] = v;
+                validValues[k++] = v;
             }
         }
-        Arrays.sort(tmp);
-        return tmp[numSamples / 2];
+        return RunningMedian.getMedian(validValues, k);
     }
 }
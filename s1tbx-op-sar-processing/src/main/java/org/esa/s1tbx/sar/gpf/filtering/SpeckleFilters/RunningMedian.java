@@ -0,0 +1,261 @@
+/*
+ * Copyright (C) 2021 SkyWatch Space Applications Inc. https://www.skywatch.com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.sar.gpf.filtering.SpeckleFilters;
+
+import org.esa.snap.core.gpf.Tile;
+
+import java.awt.*;
+import java.util.Arrays;
+
+/**
+ * Exact sliding window median of a source tile.
+ * <p>
+ * The samples of the tile are replaced by their rank among the sorted samples, so that the window is kept in a
+ * histogram of ranks which is updated column by column as the window slides along a row (Huang's algorithm).
+ * The histogram has a coarse level of bins of 64 ranks and the bin of the median is tracked as the window moves,
+ * so finding the median does not depend on the window size. Ties share a rank and the median is the sorted sample
+ * at index numSamples / 2, as when sorting the samples of the window. No data pixels are not counted.
+ * <p>
+ * {@link #getMedian} selects the median of a small set of samples without sorting them, for small windows and for
+ * the median of a pixel over a stack of images.
+ */
+public class RunningMedian {
+
+    private static final int BIN_SHIFT = 6;
+
+    private final int sx0, sy0, sw, sh;
+    private final double noDataValue;
+    private final double[] sortedValues;
+    private final int[] ranks;
+
+    private final int[] rankCount;
+    private final int[] binCount;
+    private int numSamples;
+    private int medianBin;
+    private int samplesBelowBin;
+
+    /**
+     * @param sourceRectangle the rectangle of the samples
+     * @param values          the samples of the rectangle row by row, no data pixels set to noDataValue
+     * @param noDataValue     place holder for no data value
+     */
+    public RunningMedian(final Rectangle sourceRectangle, final double[] values, final double noDataValue) {
+
+        this.sx0 = sourceRectangle.x;
+        this.sy0 = sourceRectangle.y;
+        this.sw = sourceRectangle.width;
+        this.sh = sourceRectangle.height;
+        this.noDataValue = noDataValue;
+
+        int numValid = 0;
+        for (double v : values) {
+            if (Double.compare(v, noDataValue) != 0) {
+                numValid++;
+            }
+        }
+        sortedValues = new double[numValid];
+        int k = 0;
+        for (double v : values) {
+            if (Double.compare(v, noDataValue) != 0) {
+                sortedValues[k++] = v;
+            }
+        }
+        Arrays.sort(sortedValues);
+
+        ranks = new int[values.length];
+        for (int i = 0; i < values.length; ++i) {
+            ranks[i] = Double.compare(values[i], noDataValue) != 0 ? lowerBound(sortedValues, values[i]) : -1;
+        }
+
+        rankCount = new int[Math.max(numValid, 1)];
+        binCount = new int[(rankCount.length >> BIN_SHIFT) + 1];
+    }
+
+    /**
+     * Create the running median of the intensities of source tiles.
+     *
+     * @param sourceTile1 The source tile for 1st band.
+     * @param sourceTile2 The source tile for 2nd band, null if not complex.
+     * @param isComplex   True if it has i and q, otherwise false.
+     * @param noDataValue Place holder for no data value.
+     * @return the running median of the source tile rectangle
+     */
+    public static RunningMedian create(final Tile sourceTile1, final Tile sourceTile2, final boolean isComplex,
+                                       final double noDataValue) {
+
+        return new RunningMedian(sourceTile1.getRectangle(),
+                WindowStatistics.getSampleValues(sourceTile1, sourceTile2, isComplex, noDataValue), noDataValue);
+    }
+
+    /**
+     * Compute the median of the sliding window centered at each pixel of a target rectangle, with the window
+     * placed as in {@link SpeckleFilter#getNeighborValues}.
+     *
+     * @param x0          X coordinate of the upper left corner point of the target rectangle.
+     * @param y0          Y coordinate of the upper left corner point of the target rectangle.
+     * @param w           The width of the target rectangle.
+     * @param h           The height of the target rectangle.
+     * @param windowSizeX The sliding window width.
+     * @param windowSizeY The sliding window height.
+     * @return the medians, the no data value where a window has no valid samples
+     */
+    public double[][] filter(final int x0, final int y0, final int w, final int h,
+                             final int windowSizeX, final int windowSizeY) {
+
+        final double[][] filteredTile = new double[h][w];
+        final int halfSizeX = windowSizeX / 2;
+        final int halfSizeY = windowSizeY / 2;
+
+        for (int y = y0; y < y0 + h; ++y) {
+            final double[] filteredRow = filteredTile[y - y0];
+            final int minY = Math.max(y - halfSizeY, sy0) - sy0;
+            final int maxY = Math.min(y - halfSizeY + windowSizeY - 1, sy0 + sh - 1) - sy0;
+
+            final int firstX = x0 - halfSizeX - sx0;
+            for (int sx = Math.max(firstX, 0); sx < Math.min(firstX + windowSizeX, sw); ++sx) {
+                updateColumn(sx, minY, maxY, 1);
+            }
+
+            for (int x = x0; x < x0 + w; ++x) {
+                if (x > x0) {
+                    final int removedX = x - 1 - halfSizeX - sx0;
+                    final int addedX = removedX + windowSizeX;
+                    if (removedX >= 0 && removedX < sw) {
+                        updateColumn(removedX, minY, maxY, -1);
+                    }
+                    if (addedX >= 0 && addedX < sw) {
+                        updateColumn(addedX, minY, maxY, 1);
+                    }
+                }
+                filteredRow[x - x0] = numSamples > 0 ? getWindowMedian() : noDataValue;
+            }
+
+            // empty the histogram for the next row
+            final int lastX = x0 + w - 1 - halfSizeX - sx0;
+            for (int sx = Math.max(lastX, 0); sx < Math.min(lastX + windowSizeX, sw); ++sx) {
+                updateColumn(sx, minY, maxY, -1);
+            }
+        }
+
+        return filteredTile;
+    }
+
+    private void updateColumn(final int sx, final int minY, final int maxY, final int delta) {
+        for (int sy = minY; sy <= maxY; ++sy) {
+            final int rank = ranks[sy * sw + sx];
+            if (rank >= 0) {
+                final int bin = rank >> BIN_SHIFT;
+                rankCount[rank] += delta;
+                binCount[bin] += delta;
+                numSamples += delta;
+                if (bin < medianBin) {
+                    samplesBelowBin += delta;
+                }
+            }
+        }
+    }
+
+    private double getWindowMedian() {
+        final int k = numSamples / 2;
+
+        while (samplesBelowBin > k) {
+            --medianBin;
+            samplesBelowBin -= binCount[medianBin];
+        }
+        while (samplesBelowBin + binCount[medianBin] <= k) {
+            samplesBelowBin += binCount[medianBin];
+            ++medianBin;
+        }
+
+        int count = samplesBelowBin;
+        int rank = medianBin << BIN_SHIFT;
+        while (true) {
+            count += rankCount[rank];
+            if (count > k) {
+                return sortedValues[rank];
+            }
+            ++rank;
+        }
+    }
+
+    private static int lowerBound(final double[] sorted, final double value) {
+        int lo = 0, hi = sorted.length;
+        while (lo < hi) {
+            final int mid = (lo + hi) >>> 1;
+            if (Double.compare(sorted[mid], value) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Get the median of a set of samples, the sample at index numValues / 2 once sorted, by selection.
+     * The samples are reordered.
+     *
+     * @param values    Array holding the samples.
+     * @param numValues The number of samples.
+     * @return median The median value.
+     */
+    public static double getMedian(final double[] values, final int numValues) {
+        final int k = numValues / 2;
+        int lo = 0;
+        int hi = numValues - 1;
+        while (hi > lo) {
+            final int mid = (lo + hi) >>> 1;
+            if (Double.compare(values[mid], values[lo]) < 0) {
+                swap(values, lo, mid);
+            }
+            if (Double.compare(values[hi], values[lo]) < 0) {
+                swap(values, lo, hi);
+            }
+            if (Double.compare(values[hi], values[mid]) < 0) {
+                swap(values, mid, hi);
+            }
+            final double pivot = values[mid];
+
+            int i = lo, j = hi;
+            while (i <= j) {
+                while (Double.compare(values[i], pivot) < 0) {
+                    ++i;
+                }
+                while (Double.compare(values[j], pivot) > 0) {
+                    --j;
+                }
+                if (i <= j) {
+                    swap(values, i++, j--);
+                }
+            }
+
+            if (k <= j) {
+                hi = j;
+            } else if (k >= i) {
+                lo = i;
+            } else {
+                break;
+            }
+        }
+        return values[k];
+    }
+
+    private static void swap(final double[] values, final int i, final int j) {
+        final double tmp = values[i];
+        values[i] = values[j];
+        values[j] = tmp;
+    }
+}
@@ -0,0 +1,264 @@
+/*
+ * Copyright (C) 2021 SkyWatch Space Applications Inc. https://www.skywatch.com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.sar.gpf.filtering.SpeckleFilters;
+
+import org.esa.snap.core.datamodel.ProductData;
+import org.esa.snap.core.gpf.Tile;
+import org.esa.snap.engine_utilities.gpf.TileIndex;
+
+import java.awt.*;
+
+/**
+ * Local window statistics of a source tile from integral images.
+ * <p>
+ * The integral images of the sum, the sum of squares and the number of valid samples are built once per tile,
+ * after which the number of samples, mean and variance of any window are available in constant time. Samples are
+ * the pixel intensities (I*I + Q*Q for complex data) and no data pixels are not counted, as in
+ * {@link SpeckleFilter#getNeighborValues}. Windows are clipped to the source rectangle, which is the same as
+ * clipping to the image for the source rectangles returned by {@link SpeckleFilter#getSourceTileRectangle}.
+ * <p>
+ * The samples are summed relative to the mean of the tile to limit the loss of precision of the variance.
+ * Windows containing NaN or infinite samples have NaN statistics.
+ * <p>
+ * An instance is not thread safe: the selected window is kept in the instance.
+ */
+public class WindowStatistics {
+
+    private final int sx0, sy0, sw, sh;
+    private final int stride;
+    private final double noDataValue;
+    private final double[] values;
+    private final double reference;
+
+    private final double[] sum;
+    private final double[] sumSq;
+    private final int[] count;
+    private final int[] invalidCount;
+
+    private int numSamples;
+    private double windowSum;
+    private double windowSumSq;
+    private boolean windowValid;
+
+    /**
+     * @param sourceRectangle the rectangle of the samples
+     * @param values          the samples of the rectangle row by row, no data pixels set to noDataValue
+     * @param noDataValue     place holder for no data value
+     */
+    public WindowStatistics(final Rectangle sourceRectangle, final double[] values, final double noDataValue) {
+
+        this.sx0 = sourceRectangle.x;
+        this.sy0 = sourceRectangle.y;
+        this.sw = sourceRectangle.width;
+        this.sh = sourceRectangle.height;
+        this.stride = sw + 1;
+        this.noDataValue = noDataValue;
+        this.values = values;
+
+        double total = 0.0;
+        int numValid = 0;
+        for (double v : values) {
+            if (Double.compare(v, noDataValue) != 0 && !Double.isNaN(v) && !Double.isInfinite(v)) {
+                total += v;
+                numValid++;
+            }
+        }
+        this.reference = numValid > 0 ? total / numValid : 0.0;
+
+        final int size = stride * (sh + 1);
+        sum = new double[size];
+        sumSq = new double[size];
+        count = new int[size];
+        invalidCount = new int[size];
+
+        for (int y = 0; y < sh; ++y) {
+            double rowSum = 0.0, rowSumSq = 0.0;
+            int rowCount = 0, rowInvalid = 0;
+            final int k = y * sw;
+            final int i = (y + 1) * stride + 1;
+            for (int x = 0; x < sw; ++x) {
+                final double v = values[k + x];
+                if (Double.compare(v, noDataValue) != 0) {
+                    if (Double.isNaN(v) || Double.isInfinite(v)) {
+                        rowInvalid++;
+                    } else {
+                        final double d = v - reference;
+                        rowSum += d;
+                        rowSumSq += d * d;
+                    }
+                    rowCount++;
+                }
+                final int idx = i + x;
+                sum[idx] = sum[idx - stride] + rowSum;
+                sumSq[idx] = sumSq[idx - stride] + rowSumSq;
+                count[idx] = count[idx - stride] + rowCount;
+                invalidCount[idx] = invalidCount[idx - stride] + rowInvalid;
+            }
+        }
+    }
+
+    /**
+     * Create the window statistics of the intensities of source tiles.
+     *
+     * @param sourceTile1 The source tile for 1st band.
+     * @param sourceTile2 The source tile for 2nd band, null if not complex.
+     * @param isComplex   True if it has i and q, otherwise false.
+     * @param noDataValue Place holder for no data value.
+     * @return the window statistics of the source tile rectangle
+     */
+    public static WindowStatistics create(final Tile sourceTile1, final Tile sourceTile2, final boolean isComplex,
+                                          final double noDataValue) {
+
+        return new WindowStatistics(sourceTile1.getRectangle(),
+                getSampleValues(sourceTile1, sourceTile2, isComplex, noDataValue), noDataValue);
+    }
+
+    /**
+     * Get the intensities of source tiles row by row, as in {@link SpeckleFilter#getNeighborValues}.
+     *
+     * @param sourceTile1 The source tile for 1st band.
+     * @param sourceTile2 The source tile for 2nd band, null if not complex.
+     * @param isComplex   True if it has i and q, otherwise false.
+     * @param noDataValue Place holder for no data value.
+     * @return the samples of the source tile rectangle
+     */
+    static double[] getSampleValues(final Tile sourceTile1, final Tile sourceTile2, final boolean isComplex,
+                                    final double noDataValue) {
+
+        final Rectangle rect = sourceTile1.getRectangle();
+        final ProductData srcData1 = sourceTile1.getDataBuffer();
+        final ProductData srcData2 = isComplex ? sourceTile2.getDataBuffer() : null;
+        final TileIndex srcIndex = new TileIndex(sourceTile1);
+        final double[] values = new double[rect.width * rect.height];
+
+        final int maxY = rect.y + rect.height;
+        final int maxX = rect.x + rect.width;
+        int k = 0;
+        for (int y = rect.y; y < maxY; ++y) {
+            srcIndex.calculateStride(y);
+            for (int x = rect.x; x < maxX; ++x) {
+                final int idx = srcIndex.getIndex(x);
+                if (isComplex) {
+                    final double I = srcData1.getElemDoubleAt(idx);
+                    final double Q = srcData2.getElemDoubleAt(idx);
+                    if (Double.compare(I, noDataValue) != 0 && Double.compare(Q, noDataValue) != 0) {
+                        values[k++] = I * I + Q * Q;
+                    } else {
+                        values[k++] = noDataValue;
+                    }
+                } else {
+                    values[k++] = srcData1.getElemDoubleAt(idx);
+                }
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Get the sample at a pixel.
+     *
+     * @param x X coordinate of the pixel.
+     * @param y Y coordinate of the pixel.
+     * @return the sample, or the no data value if the pixel is outside of the source rectangle
+     */
+    public double getValue(final int x, final int y) {
+        if (x < sx0 || y < sy0 || x >= sx0 + sw || y >= sy0 + sh) {
+            return noDataValue;
+        }
+        return values[(y - sy0) * sw + x - sx0];
+    }
+
+    /**
+     * Select the sliding window centered at the given pixel, as in {@link SpeckleFilter#getNeighborValues}.
+     *
+     * @param x           X coordinate of the window center.
+     * @param y           Y coordinate of the window center.
+     * @param windowSizeX The sliding window width.
+     * @param windowSizeY The sliding window height.
+     * @return The number of valid samples.
+     */
+    public int selectWindow(final int x, final int y, final int windowSizeX, final int windowSizeY) {
+        final int minX = x - windowSizeX / 2;
+        final int minY = y - windowSizeY / 2;
+        return selectRectangle(minX, minY, minX + windowSizeX - 1, minY + windowSizeY - 1);
+    }
+
+    /**
+     * Select the window with the given inclusive bounds.
+     *
+     * @return The number of valid samples.
+     */
+    public int selectRectangle(final int minX, final int minY, final int maxX, final int maxY) {
+
+        final int x0 = Math.max(minX - sx0, 0);
+        final int y0 = Math.max(minY - sy0, 0);
+        final int x1 = Math.min(maxX - sx0, sw - 1) + 1;
+        final int y1 = Math.min(maxY - sy0, sh - 1) + 1;
+        if (x1 <= x0 || y1 <= y0) {
+            numSamples = 0;
+            windowSum = 0.0;
+            windowSumSq = 0.0;
+            windowValid = true;
+            return 0;
+        }
+
+        final int i00 = y0 * stride + x0;
+        final int i01 = y0 * stride + x1;
+        final int i10 = y1 * stride + x0;
+        final int i11 = y1 * stride + x1;
+
+        numSamples = count[i11] - count[i10] - count[i01] + count[i00];
+        windowSum = sum[i11] - sum[i10] - sum[i01] + sum[i00];
+        windowSumSq = sumSq[i11] - sumSq[i10] - sumSq[i01] + sumSq[i00];
+        windowValid = invalidCount[i11] - invalidCount[i10] - invalidCount[i01] + invalidCount[i00] == 0;
+        return numSamples;
+    }
+
+    /**
+     * @return The number of valid samples in the selected window.
+     */
+    public int getNumSamples() {
+        return numSamples;
+    }
+
+    /**
+     * @return The sum of the valid samples in the selected window.
+     */
+    public double getSum() {
+        return windowValid ? windowSum + reference * numSamples : Double.NaN;
+    }
+
+    /**
+     * @return The mean of the valid samples in the selected window, NaN if there are none.
+     */
+    public double getMean() {
+        return windowValid ? reference + windowSum / numSamples : Double.NaN;
+    }
+
+    /**
+     * @return The variance of the valid samples in the selected window, 0 if there are less than two.
+     */
+    public double getVariance() {
+        if (!windowValid) {
+            return Double.NaN;
+        }
+        if (numSamples < 2) {
+            return 0.0;
+        }
+        final double var = (windowSumSq - windowSum * windowSum / numSamples) / (numSamples - 1);
+        return var > 0.0 ? var : 0.0;
+    }
+}
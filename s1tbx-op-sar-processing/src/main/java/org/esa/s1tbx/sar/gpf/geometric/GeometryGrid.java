@@ -0,0 +1,236 @@
+/*
+ * Copyright (C) 2021 SkyWatch Space Applications Inc. https://www.skywatch.com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.sar.gpf.geometric;
+
+/**
+ * Sparse geometry grid for Range-Doppler terrain correction of one target tile.
+ * <p/>
+ * The exact azimuth and range indices are solved only on a coarse sub-grid of the tile, at the lowest and the
+ * highest DEM height of the tile. For the other pixels the indices are interpolated bilinearly in the grid and
+ * linearly in height. The centre of every grid cell is checked against the exact solution at its DEM height;
+ * cells whose residual exceeds the tolerance, or that touch a grid node without a valid solution, are flagged
+ * so that their pixels are solved exactly.
+ */
+final class GeometryGrid {
+
+    interface PositionSolver {
+
+        /**
+         * Solve the exact position of a target pixel in the source image.
+         *
+         * @param x            The x coordinate of the target pixel.
+         * @param y            The y coordinate of the target pixel.
+         * @param alt          The height of the target pixel in m.
+         * @param azimuthRange Receives the azimuth index [0] and range index [1] in the source image.
+         * @return false if the pixel has no valid position.
+         */
+        boolean solve(int x, int y, double alt, double[] azimuthRange);
+    }
+
+    private final int x0;
+    private final int y0;
+    private final int[] nodeX;
+    private final int[] nodeY;
+    private final int[] cellOfX;
+    private final int[] cellOfY;
+    private final double heightLow;
+    private final double heightRange;
+    private final double[][] azLow;
+    private final double[][] rgLow;
+    private final double[][] azHigh;
+    private final double[][] rgHigh;
+    private final boolean[][] exactCell;
+    private int numExactCells = 0;
+
+    /**
+     * @param x0             The x coordinate of the upper left pixel of the target tile.
+     * @param y0             The y coordinate of the upper left pixel of the target tile.
+     * @param w              The width of the target tile.
+     * @param h              The height of the target tile.
+     * @param spacing        The grid spacing in pixels.
+     * @param tolerance      The maximum interpolation residual in source pixels.
+     * @param localDEM       The local DEM of the tile with a one pixel border.
+     * @param demNoDataValue The DEM no data value.
+     * @param solver         The exact position solver.
+     */
+    GeometryGrid(final int x0, final int y0, final int w, final int h, final int spacing, final double tolerance,
+                 final double[][] localDEM, final double demNoDataValue, final PositionSolver solver) {
+
+        this.x0 = x0;
+        this.y0 = y0;
+        nodeX = getNodes(x0, w, spacing);
+        nodeY = getNodes(y0, h, spacing);
+        cellOfX = getCells(nodeX, x0, w);
+        cellOfY = getCells(nodeY, y0, h);
+
+        double minHeight = Double.MAX_VALUE;
+        double maxHeight = -Double.MAX_VALUE;
+        for (int yy = 1; yy <= h; ++yy) {
+            for (int xx = 1; xx <= w; ++xx) {
+                final double alt = localDEM[yy][xx];
+                if (Double.compare(alt, demNoDataValue) != 0) {
+                    minHeight = Math.min(minHeight, alt);
+                    maxHeight = Math.max(maxHeight, alt);
+                }
+            }
+        }
+        if (minHeight > maxHeight) {
+            minHeight = 0.0;
+            maxHeight = 0.0;
+        }
+        heightLow = minHeight;
+        heightRange = Math.max(maxHeight - minHeight, 100.0);
+
+        final int numNodesX = nodeX.length;
+        final int numNodesY = nodeY.length;
+        azLow = new double[numNodesY][numNodesX];
+        rgLow = new double[numNodesY][numNodesX];
+        azHigh = new double[numNodesY][numNodesX];
+        rgHigh = new double[numNodesY][numNodesX];
+        final boolean[][] validNode = new boolean[numNodesY][numNodesX];
+
+        final double[] azimuthRange = new double[2];
+        for (int i = 0; i < numNodesY; ++i) {
+            for (int j = 0; j < numNodesX; ++j) {
+                if (!solver.solve(nodeX[j], nodeY[i], heightLow, azimuthRange)) {
+                    continue;
+                }
+                azLow[i][j] = azimuthRange[0];
+                rgLow[i][j] = azimuthRange[1];
+
+                if (!solver.solve(nodeX[j], nodeY[i], heightLow + heightRange, azimuthRange)) {
+                    continue;
+                }
+                azHigh[i][j] = azimuthRange[0];
+                rgHigh[i][j] = azimuthRange[1];
+                validNode[i][j] = true;
+            }
+        }
+
+        final int numCellsX = Math.max(numNodesX - 1, 1);
+        final int numCellsY = Math.max(numNodesY - 1, 1);
+        exactCell = new boolean[numCellsY][numCellsX];
+
+        final double[] interpolated = new double[2];
+        for (int cy = 0; cy < numCellsY; ++cy) {
+            for (int cx = 0; cx < numCellsX; ++cx) {
+                if (numNodesX < 2 || numNodesY < 2 || !validNode[cy][cx] || !validNode[cy][cx + 1] ||
+                        !validNode[cy + 1][cx] || !validNode[cy + 1][cx + 1]) {
+                    setExact(cx, cy);
+                    continue;
+                }
+
+                // check the interpolation at the cell centre
+                final int x = (nodeX[cx] + nodeX[cx + 1]) / 2;
+                final int y = (nodeY[cy] + nodeY[cy + 1]) / 2;
+                double alt = localDEM[y - y0 + 1][x - x0 + 1];
+                if (Double.compare(alt, demNoDataValue) == 0) {
+                    alt = heightLow;
+                }
+
+                if (!solver.solve(x, y, alt, azimuthRange)) {
+                    setExact(cx, cy);
+                    continue;
+                }
+
+                interpolate(cx, cy, x, y, alt, interpolated);
+                if (Math.abs(interpolated[0] - azimuthRange[0]) > tolerance ||
+                        Math.abs(interpolated[1] - azimuthRange[1]) > tolerance) {
+                    setExact(cx, cy);
+                }
+            }
+        }
+    }
+
+    /**
+     * Interpolate the azimuth and range indices for a target pixel.
+     *
+     * @param x            The x coordinate of the target pixel.
+     * @param y            The y coordinate of the target pixel.
+     * @param alt          The height of the target pixel in m.
+     * @param azimuthRange Receives the azimuth index [0] and range index [1] in the source image.
+     * @return false if the pixel lies in a cell which must be solved exactly.
+     */
+    boolean getPosition(final int x, final int y, final double alt, final double[] azimuthRange) {
+
+        final int cx = cellOfX[x - x0];
+        final int cy = cellOfY[y - y0];
+        if (exactCell[cy][cx]) {
+            return false;
+        }
+
+        interpolate(cx, cy, x, y, alt, azimuthRange);
+        return true;
+    }
+
+    int getNumExactCells() {
+        return numExactCells;
+    }
+
+    int getNumCells() {
+        return exactCell.length * exactCell[0].length;
+    }
+
+    private void interpolate(final int cx, final int cy, final int x, final int y, final double alt,
+                             final double[] azimuthRange) {
+
+        final double wx = (x - nodeX[cx]) / (double) (nodeX[cx + 1] - nodeX[cx]);
+        final double wy = (y - nodeY[cy]) / (double) (nodeY[cy + 1] - nodeY[cy]);
+        final double wh = (alt - heightLow) / heightRange;
+
+        final double azL = bilinear(azLow, cx, cy, wx, wy);
+        final double azH = bilinear(azHigh, cx, cy, wx, wy);
+        final double rgL = bilinear(rgLow, cx, cy, wx, wy);
+        final double rgH = bilinear(rgHigh, cx, cy, wx, wy);
+
+        azimuthRange[0] = azL + wh * (azH - azL);
+        azimuthRange[1] = rgL + wh * (rgH - rgL);
+    }
+
+    private void setExact(final int cx, final int cy) {
+        exactCell[cy][cx] = true;
+        ++numExactCells;
+    }
+
+    private static double bilinear(final double[][] v, final int cx, final int cy, final double wx, final double wy) {
+        final double top = v[cy][cx] + wx * (v[cy][cx + 1] - v[cy][cx]);
+        final double bottom = v[cy + 1][cx] + wx * (v[cy + 1][cx + 1] - v[cy + 1][cx]);
+        return top + wy * (bottom - top);
+    }
+
+    private static int[] getNodes(final int start, final int length, final int spacing) {
+        final int last = start + length - 1;
+        final int numNodes = (length - 1) / spacing + 1 + ((length - 1) % spacing == 0 ? 0 : 1);
+        final int[] nodes = new int[numNodes];
+        for (int i = 0; i < numNodes; ++i) {
+            nodes[i] = Math.min(start + i * spacing, last);
+        }
+        return nodes;
+    }
+
+    private static int[] getCells(final int[] nodes, final int start, final int length) {
+        final int[] cells = new int[length];
+        final int maxCell = Math.max(nodes.length - 2, 0);
+        int cell = 0;
+        for (int i = 0; i < length; ++i) {
+            while (cell < maxCell && start + i >= nodes[cell + 1]) {
+                ++cell;
+            }
+            cells[i] = cell;
+        }
+        return cells;
+    }
+}
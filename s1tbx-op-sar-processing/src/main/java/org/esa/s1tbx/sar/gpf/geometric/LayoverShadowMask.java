@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2021 SkyWatch Space Applications Inc. https://www.skywatch.com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.sar.gpf.geometric;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Layover/shadow mask in source image geometry which is computed lazily in blocks of full image rows.
+ * <p/>
+ * A block is computed by the first thread which needs it; other threads requesting the same block wait for it,
+ * while threads working on other blocks proceed. Only the most recently used blocks are kept, so the memory
+ * scales with the block size instead of the scene size.
+ */
+final class LayoverShadowMask {
+
+    interface BlockComputer {
+
+        /**
+         * Compute the mask values of a block of source image rows.
+         *
+         * @param y0    The first row of the block.
+         * @param h     The number of rows of the block.
+         * @param block The mask values of the block, initialised with 0, indexed [y - y0][x].
+         */
+        void compute(int y0, int h, byte[][] block);
+    }
+
+    private final int width;
+    private final int height;
+    private final int blockHeight;
+    private final BlockComputer computer;
+    private final Map<Integer, Block> cache;
+
+    /**
+     * @param width        The source image width.
+     * @param height       The source image height.
+     * @param blockHeight  The number of rows per block.
+     * @param maxNumBlocks The maximum number of cached blocks.
+     * @param computer     Computes the mask values of a block.
+     */
+    LayoverShadowMask(final int width, final int height, final int blockHeight, final int maxNumBlocks,
+                      final BlockComputer computer) {
+        this.width = width;
+        this.height = height;
+        this.blockHeight = blockHeight;
+        this.computer = computer;
+        this.cache = new LinkedHashMap<Integer, Block>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Integer, Block> eldest) {
+                return size() > maxNumBlocks;
+            }
+        };
+    }
+
+    /**
+     * Create a reader for the mask. A reader keeps the last used block and must not be shared between threads.
+     */
+    Reader createReader() {
+        return new Reader();
+    }
+
+    private byte[][] getBlock(final int blockIndex) {
+
+        Block block;
+        synchronized (cache) {
+            block = cache.get(blockIndex);
+            if (block == null) {
+                block = new Block();
+                cache.put(blockIndex, block);
+            }
+        }
+
+        synchronized (block) {
+            if (block.data == null) {
+                final int y0 = blockIndex * blockHeight;
+                final int h = Math.min(blockHeight, height - y0);
+                final byte[][] data = new byte[h][width];
+                computer.compute(y0, h, data);
+                block.data = data;
+            }
+            return block.data;
+        }
+    }
+
+    private static final class Block {
+        byte[][] data;
+    }
+
+    final class Reader {
+
+        private int blockIndex = -1;
+        private int blockY0 = 0;
+        private byte[][] data = null;
+
+        private Reader() {
+        }
+
+        /**
+         * Get the mask value of a source pixel.
+         *
+         * @param y The source image row.
+         * @param x The source image column.
+         * @return 0 for none, 1 for layover, 2 for shadow and 3 for layover in shadow.
+         */
+        byte getValue(final int y, final int x) {
+            final int index = y / blockHeight;
+            if (index != blockIndex) {
+                data = getBlock(index);
+                blockIndex = index;
+                blockY0 = index * blockHeight;
+            }
+            return data[y - blockY0][x];
+        }
+    }
+}
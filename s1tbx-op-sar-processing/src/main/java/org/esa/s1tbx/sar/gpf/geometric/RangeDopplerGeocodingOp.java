@@ -28,7 +28,6 @@ import org.esa.s1tbx.commons.SARUtils;
 import org.esa.s1tbx.insar.gpf.support.SARPosition;
 import org.esa.snap.core.datamodel.*;
 import org.esa.snap.core.dataop.dem.ElevationModel;
-import org.esa.snap.core.dataop.downloadable.StatusProgressMonitor;
 import org.esa.snap.core.dataop.resamp.Resampling;
 import org.esa.snap.core.dataop.resamp.ResamplingFactory;
 import org.esa.snap.core.gpf.Operator;
@@ -41,8 +40,6 @@ import org.esa.snap.core.gpf.annotations.SourceProduct;
 import org.esa.snap.core.gpf.annotations.TargetProduct;
 import org.esa.snap.core.util.ProductUtils;
 import org.esa.snap.core.util.SystemUtils;
-import org.esa.snap.core.util.ThreadExecutor;
-import org.esa.snap.core.util.ThreadRunnable;
 import org.esa.snap.dem.dataio.DEMFactory;
 import org.esa.snap.dem.dataio.EarthGravitationalModel96;
 import org.esa.snap.dem.dataio.FileElevationModel;
@@ -52,7 +49,6 @@ import org.esa.snap.engine_utilities.datamodel.PosVector;
 import org.esa.snap.engine_utilities.datamodel.Unit;
 import org.esa.snap.engine_utilities.eo.Constants;
 import org.esa.snap.engine_utilities.eo.GeoUtils;
-import org.esa.snap.engine_utilities.eo.LocalGeometry;
 import org.esa.snap.engine_utilities.gpf.*;
 import org.opengis.referencing.crs.CoordinateReferenceSystem;
 
@@ -218,6 +214,18 @@ public class RangeDopplerGeocodingOp extends Operator {
     @Parameter(description = "The antenne elevation pattern gain auxiliary data file.", label = "External Aux File")
     private File externalAuxFile = null;
 
+    @Parameter(description = "Solve the geometry exactly only on a sparse grid and interpolate in between",
+            defaultValue = "false", label = "Use geometry grid")
+    private boolean useGeometryGrid = false;
+
+    @Parameter(description = "The geometry grid spacing in pixels", interval = "[2, 64]", defaultValue = "8",
+            label = "Geometry grid spacing")
+    private int geometryGridSpacing = 8;
+
+    @Parameter(description = "The maximum interpolation error of the geometry grid in source pixels",
+            interval = "(0, 1]", defaultValue = "0.1", label = "Geometry grid tolerance")
+    private double geometryGridTolerance = 0.1;
+
     private MetadataElement absRoot = null;
     private ElevationModel dem = null;
     private Band elevationBand = null;
@@ -267,8 +275,13 @@ public class RangeDopplerGeocodingOp extends Operator {
     private String mission = null;
     private boolean skipBistaticCorrection = false;
 
-    private boolean isLayoverShadowMaskAvailable = false;
-    private byte[][] layoverShadowMask = null;
+    private LayoverShadowMask layoverShadowMask = null;
+
+    private static final int LAYOVER_SHADOW_STRIP_HEIGHT = 10;
+    private static final int LAYOVER_SHADOW_BLOCK_HEIGHT = 128;
+    private static final int LAYOVER_SHADOW_MAX_BLOCKS = 32;
+    // number of source rows below a mask block whose layover/shadow may map into it
+    private static final int LAYOVER_SHADOW_AZIMUTH_MARGIN = 2 * LAYOVER_SHADOW_STRIP_HEIGHT;
 
     public static final String externalDEMStr = "External DEM";
     private static final String PRODUCT_SUFFIX = "_TC";
@@ -356,6 +369,11 @@ public class RangeDopplerGeocodingOp extends Operator {
 
             margin = getMargin();
 
+            if (saveLayoverShadowMask) {
+                layoverShadowMask = new LayoverShadowMask(sourceImageWidth, sourceImageHeight,
+                        LAYOVER_SHADOW_BLOCK_HEIGHT, LAYOVER_SHADOW_MAX_BLOCKS, this::computeLayoverShadowBlock);
+            }
+
         } catch (Throwable e) {
             OperatorUtils.catchOperatorException(getId(), e);
         }
@@ -581,7 +599,7 @@ public class RangeDopplerGeocodingOp extends Operator {
      */
     private void computeSensorPositionsAndVelocities() {
 
-        orbit = new OrbitStateVectors(orbitStateVectors, firstLineUTC, lineTimeInterval, sourceImageHeight);
+        orbit = new OrbitStateVectors(orbitStateVectors, firstLineUTC, lineTimeInterval, sourceImageHeight, true);
     }
 
     /**
@@ -869,10 +887,6 @@ public class RangeDopplerGeocodingOp extends Operator {
                 throw new OperatorException(e);
             }
 
-            if (saveLayoverShadowMask && !isLayoverShadowMaskAvailable) {
-                createLayoverShadowMask();
-            }
-
             final int x0 = targetRectangle.x;
             final int y0 = targetRectangle.y;
             final int w = targetRectangle.width;
@@ -991,13 +1005,27 @@ public class RangeDopplerGeocodingOp extends Operator {
             final GeoPos posLast = targetProduct.getSceneGeoCoding().getGeoPos(new PixelPos(0,targetImageHeight), null);
             int diffLat = (int)Math.abs(posFirst.lat - posLast.lat);
 
+            // per tile scratch storage, reused for every pixel
+            final double[] localIncidenceAngles = new double[2];
+            final int[] subSwathIndex = new int[1];
+            final SARGeocoding.LocalGeometryScratch localGeometryScratch = new SARGeocoding.LocalGeometryScratch();
+            final boolean computeLocalIncidenceAngles =
+                    saveLocalIncidenceAngle || saveProjectedLocalIncidenceAngle || saveSigmaNought;
+
+            final GeometryGrid geometryGrid = useGeometryGrid ? createGeometryGrid(x0, y0, w, h, tileGeoRef, localDEM) : null;
+            final double[] azimuthRange = new double[2];
+            final LayoverShadowMask.Reader layoverShadowMaskReader =
+                    saveLayoverShadowMask ? layoverShadowMask.createReader() : null;
+
             for (int y = y0; y < maxY; y++) {
                 final int yy = y - y0 + 1;
+                final double[] demRow = localDEM[yy];
                 for (int x = x0; x < maxX; x++) {
                     final int index = tgtTiles[0].targetTile.getDataBufferIndex(x, y);
 
-                    Double alt = localDEM[yy][x - x0 + 1];
-                    if (alt.equals(demNoDataValue) && !useAvgSceneHeight) {
+                    double alt = demRow[x - x0 + 1];
+                    final boolean isDEMNoData = Double.compare(alt, demNoDataValue) == 0;
+                    if (isDEMNoData && !useAvgSceneHeight) {
                         if (nodataValueAtSea) {
                             saveNoDataValueToTarget(index, tgtTiles, demBuffer);
                             continue;
@@ -1011,11 +1039,13 @@ public class RangeDopplerGeocodingOp extends Operator {
                         lon -= 360.0;
                     }
 
-                    if (alt.equals(demNoDataValue) && !nodataValueAtSea) { // get corrected elevation for 0
-                        alt = (double) egm.getEGM(lat, lon);
+                    if (isDEMNoData && !nodataValueAtSea) { // get corrected elevation for 0
+                        alt = egm.getEGM(lat, lon);
                     }
 
-                    if (!getPosition(lat, lon, alt, posData)) {
+                    if (geometryGrid != null && geometryGrid.getPosition(x, y, alt, azimuthRange)) {
+                        getPosition(lat, lon, alt, azimuthRange[0], azimuthRange[1], posData);
+                    } else if (!getPosition(lat, lon, alt, posData)) {
                         saveNoDataValueToTarget(index, tgtTiles, demBuffer);
                         continue;
                     }
@@ -1025,17 +1055,15 @@ public class RangeDopplerGeocodingOp extends Operator {
                         saveNoDataValueToTarget(index, tgtTiles, demBuffer);
                     } else {
 
-                        final double[] localIncidenceAngles = {SARGeocoding.NonValidIncidenceAngle,
-                                SARGeocoding.NonValidIncidenceAngle};
-
-                        if (saveLocalIncidenceAngle || saveProjectedLocalIncidenceAngle || saveSigmaNought) {
+                        localIncidenceAngles[0] = SARGeocoding.NonValidIncidenceAngle;
+                        localIncidenceAngles[1] = SARGeocoding.NonValidIncidenceAngle;
 
-                            final LocalGeometry localGeometry = new LocalGeometry(
-                                    x, y, tileGeoRef, posData.earthPoint, posData.sensorPos);
+                        if (computeLocalIncidenceAngles) {
 
                             SARGeocoding.computeLocalIncidenceAngle(
-                                    localGeometry, demNoDataValue, saveLocalIncidenceAngle, saveProjectedLocalIncidenceAngle,
-                                    saveSigmaNought, x0, y0, x, y, localDEM, localIncidenceAngles); // in degrees
+                                    tileGeoRef, posData.earthPoint, posData.sensorPos, demNoDataValue,
+                                    saveLocalIncidenceAngle, saveProjectedLocalIncidenceAngle, saveSigmaNought,
+                                    x0, y0, x, y, localDEM, localIncidenceAngles, localGeometryScratch); // in degrees
 
                             if (saveLocalIncidenceAngle && localIncidenceAngles[0] != SARGeocoding.NonValidIncidenceAngle) {
                                 localIncidenceAngleBuffer.setElemDoubleAt(index, localIncidenceAngles[0]);
@@ -1062,7 +1090,8 @@ public class RangeDopplerGeocodingOp extends Operator {
 
                         if (saveLayoverShadowMask) {
                             layoverShadowMaskBuffer.setElemIntAt(index,
-                                    layoverShadowMask[(int)(posData.azimuthIndex + 0.5)][(int)(posData.rangeIndex + 0.5)]);
+                                    layoverShadowMaskReader.getValue((int)(posData.azimuthIndex + 0.5),
+                                                                     (int)(posData.rangeIndex + 0.5)));
                         }
 
                         double satelliteHeight = 0;
@@ -1076,7 +1105,7 @@ public class RangeDopplerGeocodingOp extends Operator {
                         }
 
                         for (TileData tileData : tgtTiles) {
-                            int[] subSwathIndex = {INVALID_SUB_SWATH_INDEX};
+                            subSwathIndex[0] = INVALID_SUB_SWATH_INDEX;
                             double v = getPixelValue(posData.azimuthIndex, posData.rangeIndex, tileData, subSwathIndex);
 
                             if (v != tileData.noDataValue && tileData.applyRadiometricNormalization) {
@@ -1107,126 +1136,108 @@ public class RangeDopplerGeocodingOp extends Operator {
         }
     }
 
-    private synchronized void createLayoverShadowMask() {
-
-        if (isLayoverShadowMaskAvailable) return;
+    /**
+     * Compute a block of the layover/shadow mask. The mask is generated from strips of source rows which are
+     * projected onto the DEM. Only the strips whose layover/shadow can map into the block are processed, and only
+     * the values which fall inside the block are kept, so the result equals that of a full scene computation.
+     *
+     * @param blockY0 The first source row of the block.
+     * @param blockH  The number of source rows of the block.
+     * @param block   The mask values of the block.
+     */
+    private void computeLayoverShadowBlock(final int blockY0, final int blockH, final byte[][] block) {
+
+        final int firstStrip = (blockY0 / LAYOVER_SHADOW_STRIP_HEIGHT) * LAYOVER_SHADOW_STRIP_HEIGHT;
+        final int lastRow = Math.min(blockY0 + blockH - 1 + LAYOVER_SHADOW_AZIMUTH_MARGIN, sourceImageHeight - 1);
+
+        final SARPosition sarPosition = new SARPosition(
+                firstLineUTC,
+                lastLineUTC,
+                lineTimeInterval,
+                wavelength,
+                rangeSpacing,
+                sourceImageWidth,
+                srgrFlag,
+                nearEdgeSlantRange,
+                nearRangeOnLeft,
+                orbit,
+                srgrConvParams
+        );
+
+        final int w = sourceImageWidth;
+        final SARPosition.PositionData posData = new SARPosition.PositionData();
+        final GeoPos geoPos = new GeoPos();
+        final float[] slrs = new float[w];
+        final float[] elev = new float[w];
+        final float[] azIndex = new float[w];
+        final float[] rgIndex = new float[w];
+        final boolean[] savePixel = new boolean[w];
+
+        for (int y0 = firstStrip; y0 <= lastRow; y0 += LAYOVER_SHADOW_STRIP_HEIGHT) {
+            final int x0 = 0;
+            final int h = Math.min(LAYOVER_SHADOW_STRIP_HEIGHT, sourceImageHeight - y0);
+            final int xMax = x0 + w;
+            final int yMax = y0 + h;
+
+            final double[][] localDEM = new double[h + 2][w + 2];
+            final TileGeoreferencing tileGeoRef = new TileGeoreferencing(sourceProduct, x0, y0, w, h);
+            try {
+                final boolean valid = DEMFactory.getLocalDEM(dem, demNoDataValue, demResamplingMethod,
+                        tileGeoRef, x0, y0, w, h, sourceProduct, true, localDEM);
 
-        final Dimension tileSize = new Dimension(sourceImageWidth, 10);
-        final Rectangle[] tileRectangles = OperatorUtils.getAllTileRectangles(sourceProduct, tileSize, 0);
-        final StatusProgressMonitor status = new StatusProgressMonitor(StatusProgressMonitor.TYPE.SUBTASK);
-        status.beginTask("Creating Layover/Shadow Mask... ", tileRectangles.length);
-        final ThreadExecutor executor = new ThreadExecutor();
+                if (!valid) { // no elevation in this strip, hence no layover or shadow
+                    continue;
+                }
+            } catch (Throwable e) {
+                OperatorUtils.catchOperatorException(getId(), e);
+            }
 
-        layoverShadowMask = new byte[sourceImageHeight][sourceImageWidth];
+            sarPosition.setTileConstraints(x0, y0, w, h);
 
-        try {
-            for (final Rectangle rectangle : tileRectangles) {
-                final ThreadRunnable worker = new ThreadRunnable() {
-
-                    @Override
-                    public void process() {
-                        final int x0 = rectangle.x;
-                        final int y0 = rectangle.y;
-                        final int w = rectangle.width;
-                        final int h = rectangle.height;
-                        final int xMax = x0 + w;
-                        final int yMax = y0 + h;
-
-                        final double[][] localDEM = new double[h + 2][w + 2];
-                        final TileGeoreferencing tileGeoRef = new TileGeoreferencing(sourceProduct, x0, y0, w, h);
-                        try {
-                            final boolean valid = DEMFactory.getLocalDEM(dem, demNoDataValue, demResamplingMethod,
-                                    tileGeoRef, x0, y0, w, h, sourceProduct, true, localDEM);
-
-                            if (!valid) {
-                                saveLayoverShadowMask = false;
-                                System.out.println("Cannot create layover/shadow mask due to the absent of DEM");
-                                return;
-                            }
-                        } catch (Throwable e) {
-                            OperatorUtils.catchOperatorException(getId(), e);
-                        }
+            for (int y = y0; y < yMax; ++y) {
+                final int yy = y - y0;
+                Arrays.fill(slrs, 0.0f);
+                Arrays.fill(elev, 0.0f);
+                Arrays.fill(azIndex, 0.0f);
+                Arrays.fill(rgIndex, 0.0f);
+                Arrays.fill(savePixel, Boolean.FALSE);
 
-                        final SARPosition sarPosition = new SARPosition(
-                                firstLineUTC,
-                                lastLineUTC,
-                                lineTimeInterval,
-                                wavelength,
-                                rangeSpacing,
-                                sourceImageWidth,
-                                srgrFlag,
-                                nearEdgeSlantRange,
-                                nearRangeOnLeft,
-                                orbit,
-                                srgrConvParams
-                        );
-                        sarPosition.setTileConstraints(x0, y0, w, h);
-
-                        final SARPosition.PositionData posData = new SARPosition.PositionData();
-                        final GeoPos geoPos = new GeoPos();
-                        float[] slrs = new float[w];
-                        float[] elev = new float[w];
-                        float[] azIndex = new float[w];
-                        float[] rgIndex = new float[w];
-                        boolean[] savePixel = new boolean[w];
-
-                        for (int y = y0; y < yMax; ++y) {
-                            final int yy = y - y0;
-                            Arrays.fill(slrs, 0.0f);
-                            Arrays.fill(elev, 0.0f);
-                            Arrays.fill(azIndex, 0.0f);
-                            Arrays.fill(rgIndex, 0.0f);
-                            Arrays.fill(savePixel, Boolean.FALSE);
-
-                            for (int x = x0; x < xMax; ++x) {
-                                final int xx = x - x0;
-                                Double alt = localDEM[yy + 1][xx + 1];
-                                if (alt.equals(demNoDataValue))
-                                    continue;
+                for (int x = x0; x < xMax; ++x) {
+                    final int xx = x - x0;
+                    final double alt = localDEM[yy + 1][xx + 1];
+                    if (Double.compare(alt, demNoDataValue) == 0)
+                        continue;
 
-                                tileGeoRef.getGeoPos(x, y, geoPos);
-                                if (!geoPos.isValid())
-                                    continue;
+                    tileGeoRef.getGeoPos(x, y, geoPos);
+                    if (!geoPos.isValid())
+                        continue;
 
-                                double lat = geoPos.lat;
-                                double lon = geoPos.lon;
-                                if (lon >= 180.0) {
-                                    lon -= 360.0;
-                                }
+                    double lat = geoPos.lat;
+                    double lon = geoPos.lon;
+                    if (lon >= 180.0) {
+                        lon -= 360.0;
+                    }
 
-                                GeoUtils.geo2xyzWGS84(lat, lon, alt, posData.earthPoint);
-                                if (!sarPosition.getPosition(posData))
-                                    continue;
+                    GeoUtils.geo2xyzWGS84(lat, lon, alt, posData.earthPoint);
+                    if (!sarPosition.getPosition(posData))
+                        continue;
 
-                                int rIndex = (int) posData.rangeIndex;
-                                int aIndex = (int) posData.azimuthIndex;
-                                if (rIndex >= 0 && rIndex < sourceImageWidth && aIndex >= 0 && aIndex < sourceImageHeight) {
-                                    azIndex[xx] = (float)posData.azimuthIndex;
-                                    rgIndex[xx] = (float)posData.rangeIndex;
-                                    slrs[xx] = (float)posData.slantRange;
-                                    elev[xx] = computeElevationAngle(posData.slantRange, posData.earthPoint, posData.sensorPos);
-                                    savePixel[xx] = true;
-                                } else {
-                                    savePixel[xx] = false;
-                                }
-                            }
-                            computeLayoverShadow(x0, y0, w, h, savePixel, slrs, elev, azIndex, rgIndex);
-                        }
+                    int rIndex = (int) posData.rangeIndex;
+                    int aIndex = (int) posData.azimuthIndex;
+                    if (rIndex >= 0 && rIndex < sourceImageWidth && aIndex >= 0 && aIndex < sourceImageHeight) {
+                        azIndex[xx] = (float)posData.azimuthIndex;
+                        rgIndex[xx] = (float)posData.rangeIndex;
+                        slrs[xx] = (float)posData.slantRange;
+                        elev[xx] = computeElevationAngle(posData.slantRange, posData.earthPoint, posData.sensorPos);
+                        savePixel[xx] = true;
+                    } else {
+                        savePixel[xx] = false;
                     }
-                };
-                executor.execute(worker);
-                status.worked(1);
-
+                }
+                computeLayoverShadow(x0, y0, w, h, savePixel, slrs, elev, azIndex, rgIndex,
+                                     blockY0, blockH, block);
             }
-            executor.complete();
-
-        } catch (Throwable e) {
-            OperatorUtils.catchOperatorException(getId(), e);
-        } finally {
-            status.done();
         }
-
-        isLayoverShadowMaskAvailable = true;
     }
 
     private static float computeElevationAngle(
@@ -1241,7 +1252,8 @@ public class RangeDopplerGeocodingOp extends Operator {
 
     private void computeLayoverShadow(final int x0, final int y0, final int w, final int h,
                                       final boolean[] savePixel, final float[] slrs, final float[] elev,
-                                      final float[] azIndex, final float[] rgIndex) {
+                                      final float[] azIndex, final float[] rgIndex,
+                                      final int blockY0, final int blockH, final byte[][] block) {
 
         final byte byte1 = 1;
         final byte byte2 = 2;
@@ -1256,7 +1268,7 @@ public class RangeDopplerGeocodingOp extends Operator {
                         if (slrs[i] > maxSlantRange) {
                             maxSlantRange = slrs[i];
                         } else {
-                            saveLayoverShadow(x0, y0, w, h, rgIndex[i], azIndex[i], byte1);
+                            saveLayoverShadow(x0, y0, w, h, rgIndex[i], azIndex[i], byte1, blockY0, blockH, block);
                         }
                     }
                 }
@@ -1268,7 +1280,7 @@ public class RangeDopplerGeocodingOp extends Operator {
                         if (slrs[i] <= minSlantRange) {
                             minSlantRange = slrs[i];
                         } else {
-                            saveLayoverShadow(x0, y0, w, h, rgIndex[i], azIndex[i], byte1);
+                            saveLayoverShadow(x0, y0, w, h, rgIndex[i], azIndex[i], byte1, blockY0, blockH, block);
                         }
                     }
                 }
@@ -1280,7 +1292,7 @@ public class RangeDopplerGeocodingOp extends Operator {
                         if (elev[i] > maxElevAngle) {
                             maxElevAngle = elev[i];
                         } else {
-                            saveLayoverShadow(x0, y0, w, h, rgIndex[i], azIndex[i], byte2);
+                            saveLayoverShadow(x0, y0, w, h, rgIndex[i], azIndex[i], byte2, blockY0, blockH, block);
                         }
                     }
                 }
@@ -1294,7 +1306,7 @@ public class RangeDopplerGeocodingOp extends Operator {
                         if (slrs[i] > maxSlantRange) {
                             maxSlantRange = slrs[i];
                         } else {
-                            saveLayoverShadow(x0, y0, w, h, rgIndex[i], azIndex[i], byte1);
+                            saveLayoverShadow(x0, y0, w, h, rgIndex[i], azIndex[i], byte1, blockY0, blockH, block);
                         }
                     }
                 }
@@ -1306,7 +1318,7 @@ public class RangeDopplerGeocodingOp extends Operator {
                         if (slrs[i] < minSlantRange) {
                             minSlantRange = slrs[i];
                         } else {
-                            saveLayoverShadow(x0, y0, w, h, rgIndex[i], azIndex[i], byte1);
+                            saveLayoverShadow(x0, y0, w, h, rgIndex[i], azIndex[i], byte1, blockY0, blockH, block);
                         }
                     }
                 }
@@ -1318,7 +1330,7 @@ public class RangeDopplerGeocodingOp extends Operator {
                         if (elev[i] > maxElevAngle) {
                             maxElevAngle = elev[i];
                         } else {
-                            saveLayoverShadow(x0, y0, w, h, rgIndex[i], azIndex[i], byte2);
+                            saveLayoverShadow(x0, y0, w, h, rgIndex[i], azIndex[i], byte2, blockY0, blockH, block);
                         }
                     }
                 }
@@ -1329,21 +1341,20 @@ public class RangeDopplerGeocodingOp extends Operator {
     }
 
     private void saveLayoverShadow(final int x0, final int y0, final int w, final int h,
-                                   final float rgIndex, final float azIndex, final byte value) {
+                                   final float rgIndex, final float azIndex, final byte value,
+                                   final int blockY0, final int blockH, final byte[][] block) {
 
         final int xMin = (int)rgIndex;
         final int xMax = Math.min(xMin + 1, x0 + w - 1);
-        final int yMin = (int)azIndex;
-        final int yMax = Math.min(yMin + 1, y0 + h - 1);
+        final int yMin = Math.max((int)azIndex, blockY0);
+        final int yMax = Math.min(Math.min((int)azIndex + 1, y0 + h - 1), blockY0 + blockH - 1);
         for (int y = yMin; y <= yMax; ++y) {
+            final byte[] row = block[y - blockY0];
             for (int x = xMin; x <= xMax; ++x) {
-
-                synchronized (layoverShadowMask) {
-                    if (layoverShadowMask[y][x] == 0) {
-                        layoverShadowMask[y][x] = value;
-                    } else if (layoverShadowMask[y][x] == 1 && value == 2){
-                        layoverShadowMask[y][x] += value;
-                    }
+                if (row[x] == 0) {
+                    row[x] = value;
+                } else if (row[x] == 1 && value == 2){
+                    row[x] += value;
                 }
             }
         }
@@ -1428,8 +1439,8 @@ public class RangeDopplerGeocodingOp extends Operator {
 
                 tileGeoRef.getGeoPos(new PixelPos(x, y), geoPos);
 
-                final Double alt = localDEM[y - y0 + 1][x - x0 + 1];
-                if (alt.equals(demNoDataValue)) {
+                final double alt = localDEM[y - y0 + 1][x - x0 + 1];
+                if (Double.compare(alt, demNoDataValue) == 0) {
                     continue;
                 }
 
@@ -1488,12 +1499,58 @@ public class RangeDopplerGeocodingOp extends Operator {
         }
     }
 
+    /**
+     * Build the sparse geometry grid of a target tile. The grid nodes are solved with the exact Range-Doppler
+     * geometry.
+     */
+    private GeometryGrid createGeometryGrid(final int x0, final int y0, final int w, final int h,
+                                            final TileGeoreferencing tileGeoRef, final double[][] localDEM) {
+
+        final GeoPos geoPos = new GeoPos();
+        final PositionData posData = new PositionData();
+        final GeometryGrid geometryGrid = new GeometryGrid(x0, y0, w, h, geometryGridSpacing, geometryGridTolerance,
+                localDEM, demNoDataValue, (x, y, alt, azimuthRange) -> {
+                    tileGeoRef.getGeoPos(x, y, geoPos);
+                    double lon = geoPos.lon;
+                    if (lon >= 180.0) {
+                        lon -= 360.0;
+                    }
+                    if (!getPosition(geoPos.lat, lon, alt, posData)) {
+                        return false;
+                    }
+                    azimuthRange[0] = posData.azimuthIndex;
+                    azimuthRange[1] = posData.rangeIndex;
+                    return true;
+                });
+
+        if (geometryGrid.getNumExactCells() > 0) {
+            SystemUtils.LOG.fine("RangeDopplerGeocodingOp: geometry grid of tile (" + x0 + ", " + y0 + ") solves " +
+                    geometryGrid.getNumExactCells() + " of " + geometryGrid.getNumCells() + " cells exactly");
+        }
+        return geometryGrid;
+    }
+
+    /**
+     * Complete the position data of a target pixel whose azimuth and range indices are already known,
+     * e.g. interpolated from the geometry grid.
+     */
+    private void getPosition(final double lat, final double lon, final double alt,
+                             final double azimuthIndex, final double rangeIndex, final PositionData data) {
+
+        GeoUtils.geo2xyzWGS84(lat, lon, alt, data.earthPoint);
+
+        final double zeroDopplerTime = firstLineUTC + azimuthIndex * lineTimeInterval;
+        data.slantRange = SARGeocoding.computeSlantRange(zeroDopplerTime, orbit, data.earthPoint, data.sensorPos);
+        data.azimuthIndex = azimuthIndex;
+        data.rangeIndex = rangeIndex;
+    }
+
     private boolean getPosition(final double lat, final double lon, final double alt, final PositionData data) {
 
         GeoUtils.geo2xyzWGS84(lat, lon, alt, data.earthPoint);
 
-        double zeroDopplerTime = SARGeocoding.getEarthPointZeroDopplerTime(firstLineUTC,
-                                                                           lineTimeInterval, wavelength, data.earthPoint, orbit.sensorPosition, orbit.sensorVelocity);
+        double zeroDopplerTime = SARGeocoding.getEarthPointZeroDopplerTime(firstLineUTC, lineTimeInterval,
+                wavelength, data.earthPoint, orbit, data.lineHint);
 
         if (Double.compare(zeroDopplerTime, SARGeocoding.NonValidZeroDopplerTime) == 0) {
             return false;
@@ -1664,6 +1721,8 @@ public class RangeDopplerGeocodingOp extends Operator {
         private ProductData dataBufferI = null;
         private ProductData dataBufferQ = null;
         private int subSwathIndex = -1;
+        private int[][] subSwathIndices = null;
+        private final int[] sampleSubSwathIndex = new int[1];
 
         ResamplingRaster(final TileData tileData) {
             this.tileData = tileData;
@@ -1698,7 +1757,13 @@ public class RangeDopplerGeocodingOp extends Operator {
 
         public boolean getSamples(final int[] x, final int[] y, final double[][] samples) {
 
-            final int[][] subSwathIndices = new int[y.length][x.length];
+            if (subSwathIndices == null || subSwathIndices.length != y.length || subSwathIndices[0].length != x.length) {
+                subSwathIndices = new int[y.length][x.length];
+            } else {
+                for (int[] row : subSwathIndices) {
+                    Arrays.fill(row, 0);
+                }
+            }
             boolean allPixelsFromSameSubSwath = true;
             boolean allValid = true;
 
@@ -1727,7 +1792,8 @@ public class RangeDopplerGeocodingOp extends Operator {
                         samples[i][j] = v * v + vq * vq;
                     }
 
-                    final int[] subSwathIndex = {-1};
+                    final int[] subSwathIndex = sampleSubSwathIndex;
+                    subSwathIndex[0] = -1;
                     if (tileData.applyRetroCalibration) {
                         samples[i][j] = tileData.calibrator.applyRetroCalibration(
                                 x[j], y[i], samples[i][j], tileData.bandPolar, tileData.bandUnit, subSwathIndex);
@@ -1812,12 +1878,12 @@ public class RangeDopplerGeocodingOp extends Operator {
 
         final int max = 3;
         for (int i = 0; i < max; ++i) {
-            PosVector sensorPos = orbit.sensorPosition[i];
-            log.info("sensorPos: " + sensorPos.x + ", " + sensorPos.y + ", " + sensorPos.z);
+            log.info("sensorPos: " + orbit.sensorPositionX[i] + ", " + orbit.sensorPositionY[i] + ", " +
+                             orbit.sensorPositionZ[i]);
         }
         for (int i = 0; i < max; ++i) {
-            PosVector sensorVel = orbit.sensorVelocity[i];
-            log.info("sensorVel: " + sensorVel.x + ", " + sensorVel.y + ", " + sensorVel.z);
+            log.info("sensorVel: " + orbit.sensorVelocityX[i] + ", " + orbit.sensorVelocityY[i] + ", " +
+                             orbit.sensorVelocityZ[i]);
         }
         for (int i = 0; i < max; ++i) {
             OrbitStateVector orb = orbit.orbitStateVectors[i];
@@ -1831,6 +1897,7 @@ public class RangeDopplerGeocodingOp extends Operator {
     private static class PositionData {
         final PosVector earthPoint = new PosVector();
         final PosVector sensorPos = new PosVector();
+        final int[] lineHint = {-1}; // range line of the previous zero Doppler solution
         double azimuthIndex;
         double rangeIndex;
         double slantRange;
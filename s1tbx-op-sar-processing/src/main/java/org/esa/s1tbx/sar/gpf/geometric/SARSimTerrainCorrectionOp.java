@@ -565,7 +565,7 @@ public class SARSimTerrainCorrectionOp extends Operator {
      */
     private void computeSensorPositionsAndVelocities() {
 
-        orbit = new OrbitStateVectors(orbitStateVectors, firstLineUTC, lineTimeInterval, sourceImageHeight);
+        orbit = new OrbitStateVectors(orbitStateVectors, firstLineUTC, lineTimeInterval, sourceImageHeight, true);
     }
 
     private static void addLayoverShadowMasks(final Product product) {
@@ -881,6 +881,7 @@ public class SARSimTerrainCorrectionOp extends Operator {
         final GeoPos geoPos = new GeoPos();
         final PosVector earthPoint = new PosVector();
         final PosVector sensorPos = new PosVector();
+        final int[] lineHint = {-1}; // range line of the previous zero Doppler solution
         final int srcMaxRange = sourceImageWidth - 1;
         final int srcMaxAzimuth = sourceImageHeight - 1;
         ProductData demBuffer = null;
@@ -997,7 +998,8 @@ public class SARSimTerrainCorrectionOp extends Operator {
 
                     GeoUtils.geo2xyzWGS84(lat, lon, alt, earthPoint);
 
-                    final double zeroDopplerTime = getEarthPointZeroDopplerTime(earthPoint);
+                    final double zeroDopplerTime = SARGeocoding.getEarthPointZeroDopplerTime(firstLineUTC,
+                            lineTimeInterval, wavelength, earthPoint, orbit, lineHint);
 
                     if (Double.compare(zeroDopplerTime, NonValidZeroDopplerTime) == 0) {
                         if (saveDEM) {
@@ -1135,74 +1137,6 @@ public class SARSimTerrainCorrectionOp extends Operator {
         }
     }
 
-    /**
-     * Compute zero Doppler time for given erath point.
-     *
-     * @param earthPoint The earth point in xyz cooordinate.
-     * @return The zero Doppler time in days if it is found, -1 otherwise.
-     * @throws OperatorException The operator exception.
-     */
-    private double getEarthPointZeroDopplerTime(final PosVector earthPoint) throws OperatorException {
-
-        // binary search is used in finding the zero doppler time
-        int lowerBound = 0;
-        int upperBound = orbit.sensorPosition.length - 1;
-        double lowerBoundFreq = getDopplerFrequency(lowerBound, earthPoint);
-        double upperBoundFreq = getDopplerFrequency(upperBound, earthPoint);
-
-        if (Double.compare(lowerBoundFreq, 0.0) == 0) {
-            return firstLineUTC + lowerBound * lineTimeInterval;
-        } else if (Double.compare(upperBoundFreq, 0.0) == 0) {
-            return firstLineUTC + upperBound * lineTimeInterval;
-        } else if (lowerBoundFreq * upperBoundFreq > 0.0) {
-            return NonValidZeroDopplerTime;
-        }
-
-        // start binary search
-        double midFreq;
-        while (upperBound - lowerBound > 1) {
-
-            final int mid = (int) ((lowerBound + upperBound) / 2.0);
-            midFreq = getDopplerFrequency(mid, earthPoint);
-            if (Double.compare(midFreq, 0.0) == 0) {
-                return firstLineUTC + mid * lineTimeInterval;
-            } else if (midFreq * lowerBoundFreq > 0.0) {
-                lowerBound = mid;
-                lowerBoundFreq = midFreq;
-            } else if (midFreq * upperBoundFreq > 0.0) {
-                upperBound = mid;
-                upperBoundFreq = midFreq;
-            }
-        }
-
-        final double y0 = lowerBound - lowerBoundFreq * (upperBound - lowerBound) / (upperBoundFreq - lowerBoundFreq);
-        return firstLineUTC + y0 * lineTimeInterval;
-    }
-
-    /**
-     * Compute Doppler frequency for given earthPoint and sensor position.
-     *
-     * @param y          The index for given range line.
-     * @param earthPoint The earth point in xyz coordinate.
-     * @return The Doppler frequency in Hz.
-     */
-    private double getDopplerFrequency(final int y, final PosVector earthPoint) {
-
-        if (y < 0 || y > sourceImageHeight - 1) {
-            throw new OperatorException("Invalid range line index: " + y);
-        }
-
-        final double xVel = orbit.sensorVelocity[y].x;
-        final double yVel = orbit.sensorVelocity[y].y;
-        final double zVel = orbit.sensorVelocity[y].z;
-        final double xDiff = earthPoint.x - orbit.sensorPosition[y].x;
-        final double yDiff = earthPoint.y - orbit.sensorPosition[y].y;
-        final double zDiff = earthPoint.z - orbit.sensorPosition[y].z;
-        final double distance = Math.sqrt(xDiff * xDiff + yDiff * yDiff + zDiff * zDiff);
-
-        return 2.0 * (xVel * xDiff + yVel * yDiff + zVel * zDiff) / (distance * wavelength);
-    }
-
     /**
      * Get unit for the source band corresponding to the given target band.
      *
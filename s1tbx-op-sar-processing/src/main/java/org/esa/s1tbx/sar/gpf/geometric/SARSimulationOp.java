@@ -276,7 +276,7 @@ public final class SARSimulationOp extends Operator {
      */
     private void computeSensorPositionsAndVelocities() {
 
-        orbit = new OrbitStateVectors(orbitStateVectors, firstLineUTC, lineTimeInterval, sourceImageHeight);
+        orbit = new OrbitStateVectors(orbitStateVectors, firstLineUTC, lineTimeInterval, sourceImageHeight, true);
     }
 
     /**
@@ -423,6 +423,7 @@ public final class SARSimulationOp extends Operator {
         final GeoPos geoPos = new GeoPos();
         final PosVector earthPoint = new PosVector();
         final PosVector sensorPos = new PosVector();
+        final int[] lineHint = {-1};
 
         final int xMin = Math.max(x0 - w/2, 0);
         final int xMax = Math.min(x0 + w + w/2, sourceImageWidth);
@@ -437,8 +438,8 @@ public final class SARSimulationOp extends Operator {
                 final double alt = dem.getElevation(geoPos);
                 GeoUtils.geo2xyzWGS84(geoPos.getLat(), geoPos.getLon(), alt, earthPoint);
 
-                final double zeroDopplerTime = SARGeocoding.getEarthPointZeroDopplerTime(
-                        firstLineUTC, lineTimeInterval, wavelength, earthPoint, orbit.sensorPosition, orbit.sensorVelocity);
+                final double zeroDopplerTime = SARGeocoding.getEarthPointZeroDopplerTime(firstLineUTC,
+                        lineTimeInterval, wavelength, earthPoint, orbit, lineHint);
 
                 if (zeroDopplerTime == SARGeocoding.NonValidZeroDopplerTime) {
                     continue;
@@ -215,7 +215,7 @@ public final class TerrainFlatteningOp extends Operator {
 
             getSourceImageDimension();
 
-            orbit = new OrbitStateVectors(orbitStateVectors, firstLineUTC, lineTimeInterval, sourceImageHeight);
+            orbit = new OrbitStateVectors(orbitStateVectors, firstLineUTC, lineTimeInterval, sourceImageHeight, true);
 
             createTargetProduct();
 
@@ -580,6 +580,13 @@ public final class TerrainFlatteningOp extends Operator {
             final int nLon = (int) (overSamplingFactor * cols);
 
             final PositionData posData = new PositionData();
+            final PosVector[] earthPointBuffer = new PosVector[nLon];
+            for (int j = 0; j < nLon; j++) {
+                earthPointBuffer[j] = new PosVector();
+            }
+            final PosVector[] earthPoints = new PosVector[nLon];
+            final double[] demHeights = new double[nLon];
+            final double[] zeroDopplerTimes = new double[nLon];
             for (int i = 1; i < nLat; i++) {
                 if (pm.isCanceled()) {
                     return false;
@@ -598,16 +605,36 @@ public final class TerrainFlatteningOp extends Operator {
                 final GeoUtils.Geo2xyzWGS84 geo2xyzWGS84 = new GeoUtils.Geo2xyzWGS84(lat);
                 final LocalGeometry localGeometry = new LocalGeometry(lat, delta);
 
+                // earth points of the whole DEM row first, so the zero Doppler search can run along the row
                 for (int j = 0; j < nLon; j++) {
+                    earthPoints[j] = null;
                     final double lon = lonMin + j * delta;
-                    final double jRatio = j * ratio;
-                    selectedResampling.computeCornerBasedIndex(jRatio, iRatio, cols, rows, resamplingIndex);
-                    final Double alt00 = selectedResampling.resample(resamplingRaster, resamplingIndex);
-                    if (Double.isNaN(alt00) || alt00.equals(demNoDataValue))
+                    selectedResampling.computeCornerBasedIndex(j * ratio, iRatio, cols, rows, resamplingIndex);
+                    final double alt00 = selectedResampling.resample(resamplingRaster, resamplingIndex);
+                    if (Double.isNaN(alt00) || Double.compare(alt00, demNoDataValue) == 0)
                         continue;
 
-                    posData.earthPoint = geo2xyzWGS84.getXYZ(lon, alt00);
-                    if (!getPosition(x0, y0, w, h, posData))
+                    final PosVector earthPoint = geo2xyzWGS84.getXYZ(lon, alt00);
+                    earthPoints[j] = earthPointBuffer[j];
+                    earthPoints[j].x = earthPoint.x;
+                    earthPoints[j].y = earthPoint.y;
+                    earthPoints[j].z = earthPoint.z;
+                    demHeights[j] = alt00;
+                }
+
+                SARGeocoding.computeZeroDopplerTimes(earthPoints, nLon, firstLineUTC, lineTimeInterval, wavelength,
+                        orbit, true, zeroDopplerTimes);
+
+                for (int j = 0; j < nLon; j++) {
+                    if (earthPoints[j] == null)
+                        continue;
+
+                    final double lon = lonMin + j * delta;
+                    final double jRatio = j * ratio;
+                    final double alt00 = demHeights[j];
+
+                    posData.earthPoint = earthPoints[j];
+                    if (!getPosition(x0, y0, w, h, zeroDopplerTimes[j], posData))
                         continue;
 
                     selectedResampling.computeCornerBasedIndex(jRatio, iRatio - ratio, cols, rows, resamplingIndex);
@@ -718,10 +745,7 @@ public final class TerrainFlatteningOp extends Operator {
 
     //======================================
     private boolean getPosition(final int x0, final int y0, final int w, final int h,
-                                final PositionData data) {
-
-        final double zeroDopplerTime = SARGeocoding.getZeroDopplerTime(
-                lineTimeInterval, wavelength, data.earthPoint, orbit);
+                                final double zeroDopplerTime, final PositionData data) {
 
         if (zeroDopplerTime == SARGeocoding.NonValidZeroDopplerTime) {
             return false;
@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2021 SkyWatch Space Applications Inc. https://www.skywatch.com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.sar.gpf.filtering.SpeckleFilters;
+
+import org.junit.Test;
+
+import java.awt.*;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class RunningMedianTest {
+
+    private static final double noDataValue = -1.0;
+    private static final Rectangle rect = new Rectangle(5, 8, 61, 43);
+
+    @Test
+    public void testMatchesSortedWindow() {
+        final Random random = new Random(7);
+        final double[] values = new double[rect.width * rect.height];
+        for (int i = 0; i < values.length; ++i) {
+            // few distinct values so that there are many ties
+            values[i] = random.nextDouble() < 0.15 ? noDataValue : random.nextInt(500) * 0.5;
+        }
+        // a block of no data larger than the smallest window
+        for (int y = 10; y < 15; ++y) {
+            Arrays.fill(values, y * rect.width + 20, y * rect.width + 25, noDataValue);
+        }
+        final RunningMedian runningMedian = new RunningMedian(rect, values, noDataValue);
+
+        final int[][] windowSizes = {{3, 3}, {11, 11}, {4, 9}, {21, 21}};
+        for (int[] windowSize : windowSizes) {
+            final int x0 = rect.x + 3, y0 = rect.y + 2, w = rect.width - 7, h = rect.height - 4;
+            final double[][] medians = runningMedian.filter(x0, y0, w, h, windowSize[0], windowSize[1]);
+
+            for (int y = y0; y < y0 + h; ++y) {
+                for (int x = x0; x < x0 + w; ++x) {
+                    final double expected = sortedMedian(values, x, y, windowSize[0], windowSize[1]);
+                    assertEquals(expected, medians[y - y0][x - x0], 0.0);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testGetMedian() {
+        final Random random = new Random(3);
+        for (int n = 1; n < 40; ++n) {
+            final double[] values = new double[n + 5];
+            for (int i = 0; i < n; ++i) {
+                values[i] = random.nextInt(10) - 5;
+            }
+            final double[] sorted = Arrays.copyOf(values, n);
+            Arrays.sort(sorted);
+
+            assertEquals(sorted[n / 2], RunningMedian.getMedian(values, n), 0.0);
+        }
+    }
+
+    private static double sortedMedian(final double[] values, final int x, final int y,
+                                       final int windowSizeX, final int windowSizeY) {
+        final int minX = x - windowSizeX / 2;
+        final int minY = y - windowSizeY / 2;
+
+        final double[] window = new double[windowSizeX * windowSizeY];
+        int n = 0;
+        for (int yy = minY; yy < minY + windowSizeY; ++yy) {
+            for (int xx = minX; xx < minX + windowSizeX; ++xx) {
+                if (xx >= rect.x && yy >= rect.y && xx < rect.x + rect.width && yy < rect.y + rect.height) {
+                    final double v = values[(yy - rect.y) * rect.width + xx - rect.x];
+                    if (v != noDataValue) {
+                        window[n++] = v;
+                    }
+                }
+            }
+        }
+        if (n == 0) {
+            return noDataValue;
+        }
+        final double[] samples = Arrays.copyOf(window, n);
+        Arrays.sort(samples);
+        return samples[n / 2];
+    }
+}
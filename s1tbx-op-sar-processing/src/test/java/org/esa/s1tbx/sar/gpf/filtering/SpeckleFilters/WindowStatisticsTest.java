@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2021 SkyWatch Space Applications Inc. https://www.skywatch.com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.sar.gpf.filtering.SpeckleFilters;
+
+import org.junit.Test;
+
+import java.awt.*;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class WindowStatisticsTest {
+
+    private static final double noDataValue = 0.0;
+    private static final Rectangle rect = new Rectangle(10, 20, 37, 29);
+
+    @Test
+    public void testMatchesNeighborValues() {
+        final double[] values = createValues(rect, 0.1);
+        final WindowStatistics stats = new WindowStatistics(rect, values, noDataValue);
+
+        final int[][] windowSizes = {{3, 3}, {7, 7}, {4, 6}, {21, 21}};
+        for (int[] windowSize : windowSizes) {
+            for (int y = rect.y; y < rect.y + rect.height; ++y) {
+                for (int x = rect.x; x < rect.x + rect.width; ++x) {
+                    final int numSamples = stats.selectWindow(x, y, windowSize[0], windowSize[1]);
+
+                    final double[] expected = bruteForce(values, x, y, windowSize[0], windowSize[1]);
+                    assertEquals((int) expected[0], numSamples);
+                    if (numSamples > 0) {
+                        assertEquals(expected[1], stats.getMean(), 1e-9 * expected[1]);
+                        assertEquals(expected[2], stats.getVariance(), 1e-8 * expected[1] * expected[1]);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testConstantWindow() {
+        final double[] values = new double[rect.width * rect.height];
+        Arrays.fill(values, 1234.5);
+        final WindowStatistics stats = new WindowStatistics(rect, values, noDataValue);
+
+        assertEquals(49, stats.selectWindow(20, 30, 7, 7));
+        assertEquals(1234.5, stats.getMean(), 1e-9);
+        assertEquals(0.0, stats.getVariance(), 1e-9);
+        assertEquals(49 * 1234.5, stats.getSum(), 1e-6);
+    }
+
+    @Test
+    public void testNoDataAndOutside() {
+        final double[] values = new double[rect.width * rect.height];
+        final WindowStatistics stats = new WindowStatistics(rect, values, noDataValue);
+
+        assertEquals(0, stats.selectWindow(20, 30, 5, 5));
+        assertEquals(0, stats.selectRectangle(0, 0, 5, 5));
+        assertTrue(Double.isNaN(stats.getMean()));
+        assertEquals(noDataValue, stats.getValue(0, 0), 0.0);
+    }
+
+    @Test
+    public void testNaNStaysLocal() {
+        final double[] values = createValues(rect, 0.0);
+        values[0] = Double.NaN;
+        final WindowStatistics stats = new WindowStatistics(rect, values, noDataValue);
+
+        stats.selectWindow(rect.x, rect.y, 3, 3);
+        assertTrue(Double.isNaN(stats.getMean()));
+
+        stats.selectWindow(rect.x + 5, rect.y + 5, 3, 3);
+        assertFalse(Double.isNaN(stats.getMean()));
+        assertFalse(Double.isNaN(stats.getVariance()));
+    }
+
+    // intensities with a large dynamic range and some no data pixels
+    private static double[] createValues(final Rectangle rect, final double noDataFraction) {
+        final Random random = new Random(42);
+        final double[] values = new double[rect.width * rect.height];
+        for (int i = 0; i < values.length; ++i) {
+            if (random.nextDouble() < noDataFraction) {
+                values[i] = noDataValue;
+            } else {
+                values[i] = 1.0e6 + 1.0e4 * random.nextDouble() * (1 + i % 7);
+            }
+        }
+        return values;
+    }
+
+    private static double[] bruteForce(final double[] values, final int x, final int y,
+                                       final int windowSizeX, final int windowSizeY) {
+        final int minX = x - windowSizeX / 2;
+        final int minY = y - windowSizeY / 2;
+
+        int n = 0;
+        double sum = 0.0;
+        for (int yy = minY; yy < minY + windowSizeY; ++yy) {
+            for (int xx = minX; xx < minX + windowSizeX; ++xx) {
+                final double v = valueAt(values, xx, yy);
+                if (v != noDataValue) {
+                    sum += v;
+                    n++;
+                }
+            }
+        }
+        final double mean = sum / n;
+
+        double var = 0.0;
+        if (n > 1) {
+            for (int yy = minY; yy < minY + windowSizeY; ++yy) {
+                for (int xx = minX; xx < minX + windowSizeX; ++xx) {
+                    final double v = valueAt(values, xx, yy);
+                    if (v != noDataValue) {
+                        var += (v - mean) * (v - mean);
+                    }
+                }
+            }
+            var /= (n - 1);
+        }
+        return new double[]{n, mean, var};
+    }
+
+    private static double valueAt(final double[] values, final int x, final int y) {
+        if (x < rect.x || y < rect.y || x >= rect.x + rect.width || y >= rect.y + rect.height) {
+            return noDataValue;
+        }
+        return values[(y - rect.y) * rect.width + x - rect.x];
+    }
+}
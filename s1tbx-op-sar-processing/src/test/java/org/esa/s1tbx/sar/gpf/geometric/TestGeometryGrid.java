@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2021 SkyWatch Space Applications Inc. https://www.skywatch.com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.sar.gpf.geometric;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit test for the sparse geometry grid of Range-Doppler terrain correction.
+ */
+public class TestGeometryGrid {
+
+    private static final int x0 = 100;
+    private static final int y0 = 200;
+    private static final int w = 61;
+    private static final int h = 45;
+    private static final double demNoDataValue = -32768.0;
+    private static final double tolerance = 0.01;
+
+    // smooth geometry, linear in height
+    private static final GeometryGrid.PositionSolver smoothSolver = (x, y, alt, azimuthRange) -> {
+        azimuthRange[0] = 0.5 * y + 0.0001 * x * x + 0.002 * alt;
+        azimuthRange[1] = 1.2 * x + 0.00005 * x * y - 0.01 * alt;
+        return true;
+    };
+
+    @Test
+    public void testSmoothGeometry() {
+        final double[][] localDEM = createLocalDEM();
+        final GeometryGrid grid = new GeometryGrid(x0, y0, w, h, 8, tolerance, localDEM, demNoDataValue, smoothSolver);
+        assertEquals(0, grid.getNumExactCells());
+
+        final double[] expected = new double[2];
+        final double[] azimuthRange = new double[2];
+        for (int y = y0; y < y0 + h; ++y) {
+            for (int x = x0; x < x0 + w; ++x) {
+                final double alt = localDEM[y - y0 + 1][x - x0 + 1];
+                assertTrue(grid.getPosition(x, y, alt, azimuthRange));
+                smoothSolver.solve(x, y, alt, expected);
+                assertEquals(expected[0], azimuthRange[0], tolerance);
+                assertEquals(expected[1], azimuthRange[1], tolerance);
+            }
+        }
+    }
+
+    @Test
+    public void testInvalidNodesFallBackToExact() {
+        final GeometryGrid.PositionSolver solver = (x, y, alt, azimuthRange) ->
+                x < x0 + 20 && smoothSolver.solve(x, y, alt, azimuthRange);
+
+        final GeometryGrid grid = new GeometryGrid(x0, y0, w, h, 8, tolerance, createLocalDEM(), demNoDataValue, solver);
+        assertTrue(grid.getNumExactCells() > 0);
+
+        final double[] azimuthRange = new double[2];
+        assertTrue(grid.getPosition(x0 + 3, y0 + 3, 0.0, azimuthRange));
+        assertFalse(grid.getPosition(x0 + w - 1, y0 + h - 1, 0.0, azimuthRange));
+    }
+
+    @Test
+    public void testLargeResidualFallsBackToExact() {
+        // strongly non-linear geometry cannot be interpolated to the tolerance
+        final GeometryGrid.PositionSolver solver = (x, y, alt, azimuthRange) -> {
+            azimuthRange[0] = y + 5.0 * Math.sin(x * 0.5);
+            azimuthRange[1] = x;
+            return true;
+        };
+
+        final GeometryGrid grid = new GeometryGrid(x0, y0, w, h, 8, tolerance, createLocalDEM(), demNoDataValue, solver);
+        assertEquals(grid.getNumCells(), grid.getNumExactCells());
+    }
+
+    @Test
+    public void testSmallTile() {
+        final double[][] localDEM = new double[3][3];
+        final GeometryGrid grid = new GeometryGrid(x0, y0, 1, 1, 8, tolerance, localDEM, demNoDataValue, smoothSolver);
+
+        assertFalse(grid.getPosition(x0, y0, 0.0, new double[2]));
+    }
+
+    private static double[][] createLocalDEM() {
+        final double[][] localDEM = new double[h + 2][w + 2];
+        for (int y = 0; y < localDEM.length; ++y) {
+            for (int x = 0; x < localDEM[y].length; ++x) {
+                localDEM[y][x] = 300.0 + 150.0 * Math.sin(x * 0.1) * Math.cos(y * 0.07);
+            }
+        }
+        localDEM[10][10] = demNoDataValue;
+        return localDEM;
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2021 SkyWatch Space Applications Inc. https://www.skywatch.com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.sar.gpf.geometric;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Unit test for the lazily computed layover/shadow mask.
+ */
+public class TestLayoverShadowMask {
+
+    private static final int width = 50;
+    private static final int height = 95;
+
+    @Test
+    public void testValues() {
+        final LayoverShadowMask mask = new LayoverShadowMask(width, height, 10, 3, TestLayoverShadowMask::compute);
+        final LayoverShadowMask.Reader reader = mask.createReader();
+
+        for (int y = 0; y < height; ++y) {
+            for (int x = 0; x < width; ++x) {
+                assertEquals(getValue(x, y), reader.getValue(y, x));
+            }
+        }
+    }
+
+    @Test
+    public void testBlocksAreComputedOnDemand() {
+        final AtomicInteger numComputed = new AtomicInteger();
+        final LayoverShadowMask mask = new LayoverShadowMask(width, height, 10, 3, (y0, h, block) -> {
+            numComputed.incrementAndGet();
+            compute(y0, h, block);
+        });
+
+        final LayoverShadowMask.Reader reader = mask.createReader();
+        reader.getValue(0, 0);
+        reader.getValue(9, 49);
+        assertEquals(1, numComputed.get());
+
+        mask.createReader().getValue(5, 5);
+        assertEquals(1, numComputed.get());
+
+        reader.getValue(94, 0);
+        assertEquals(2, numComputed.get());
+    }
+
+    @Test
+    public void testCacheIsBounded() {
+        final AtomicInteger numComputed = new AtomicInteger();
+        final LayoverShadowMask mask = new LayoverShadowMask(width, height, 10, 2, (y0, h, block) -> {
+            numComputed.incrementAndGet();
+            compute(y0, h, block);
+        });
+
+        mask.createReader().getValue(0, 0);
+        mask.createReader().getValue(10, 0);
+        mask.createReader().getValue(20, 0);
+        assertEquals(3, numComputed.get());
+
+        // the first block has been evicted
+        mask.createReader().getValue(0, 0);
+        assertEquals(4, numComputed.get());
+    }
+
+    private static void compute(final int y0, final int h, final byte[][] block) {
+        for (int y = 0; y < h; ++y) {
+            for (int x = 0; x < width; ++x) {
+                block[y][x] = getValue(x, y0 + y);
+            }
+        }
+    }
+
+    private static byte getValue(final int x, final int y) {
+        return (byte) ((x + y) % 4);
+    }
+}
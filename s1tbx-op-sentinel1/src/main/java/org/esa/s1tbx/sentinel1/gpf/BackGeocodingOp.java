@@ -46,6 +46,7 @@ import org.esa.snap.engine_utilities.datamodel.Unit;
 import org.esa.snap.engine_utilities.eo.Constants;
 import org.esa.snap.engine_utilities.eo.GeoUtils;
 import org.esa.snap.engine_utilities.gpf.*;
+import org.jlinda.core.delaunay.LatticeInterpolator;
 import org.jlinda.core.delaunay.TriangleInterpolator;
 
 import java.awt.*;
@@ -55,6 +56,7 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * "Backgeocoding" + "Coregistration" processing blocks in The Sentinel-1 TOPS InSAR processing chain.
@@ -105,6 +107,10 @@ public final class BackGeocodingOp extends Operator {
     @Parameter(defaultValue = "false", label = "Disable Reramp")
     private boolean disableReramp = false;
 
+    @Parameter(defaultValue = "false", label = "Interpolate offsets on the DEM grid",
+            description = "Interpolate the offsets directly on the DEM grid instead of a Delaunay triangulation (faster)")
+    private boolean useDEMGridInterpolation = false;
+
     private Resampling selectedResampling = null;
 
     private Product masterProduct = null;
@@ -134,6 +140,13 @@ public final class BackGeocodingOp extends Operator {
 
     private boolean outputDEM = false;
 
+    // DEM-derived reference geometry, computed once per tile and burst for all secondary products
+    private static final int GEOMETRY_REPORT_INTERVAL = 100; // tiles
+    private final AtomicLong referenceGeometryReused = new AtomicLong();
+    private final AtomicLong referenceGeometryComputed = new AtomicLong();
+    private final AtomicLong referenceGeometryNanos = new AtomicLong();
+    private final AtomicLong tilesComputed = new AtomicLong();
+
     /**
      * Default constructor. The graph processing framework
      * requires that an operator has a default constructor.
@@ -241,6 +254,26 @@ public final class BackGeocodingOp extends Operator {
         }
     }
 
+    @Override
+    public void dispose() throws OperatorException {
+
+        if (referenceGeometryComputed.get() > 0) {
+            SystemUtils.LOG.info(getId() + ": " + getReferenceGeometryStatus());
+        }
+        super.dispose();
+    }
+
+    private String getReferenceGeometryStatus() {
+
+        final long reused = referenceGeometryReused.get();
+        final long computed = referenceGeometryComputed.get();
+        final double nanosPerGeometry = computed > 0 ? referenceGeometryNanos.get() / (double) computed : 0.0;
+        return "reference geometry computed " + computed + " times, reused " + reused + " times" +
+                String.format(" (hit rate %.1f%%), estimated time saved %.1f s",
+                        computed + reused > 0 ? 100.0 * reused / (computed + reused) : 0.0,
+                        reused * nanosPerGeometry / 1.0e9);
+    }
+
     private static void outputToFile(final String filePath, double[][] fbuf) throws IOException {
 
         try{
@@ -508,14 +541,38 @@ public final class BackGeocodingOp extends Operator {
                 double[] extendedAmount = {0.0, 0.0, 0.0, 0.0};
                 computeExtendedAmount(ntx0, nty0, ntw, nth, extendedAmount);
 
+                // the reference geometry does not depend on the secondary product, it is shared by all of them
+                ReferenceGeometry refGeometry = null;
                 for(SlaveData slaveData : slaveDataList) {
                     //slaveData.print();
 
-                    computePartialTile(subSwathIndex, burstIndex, ntx0, nty0, ntw, nth, targetTileMap,
-                            slaveData, extendedAmount);
+                    final int sBurstIndex = burstIndex + slaveData.burstOffset;
+                    if (sBurstIndex < 0 ||
+                            sBurstIndex >= slaveData.sSU.getSubSwath()[subSwathIndex - 1].numOfBursts) {
+                        continue;
+                    }
+
+                    if (refGeometry == null) {
+                        final long startTime = System.nanoTime();
+                        refGeometry = computeReferenceGeometry(
+                                subSwathIndex, burstIndex, ntx0, nty0, ntw, nth, extendedAmount);
+                        referenceGeometryNanos.addAndGet(System.nanoTime() - startTime);
+                        referenceGeometryComputed.incrementAndGet();
+                    } else {
+                        referenceGeometryReused.incrementAndGet();
+                    }
+
+                    computePartialTile(subSwathIndex, burstIndex, sBurstIndex, ntx0, nty0, ntw, nth,
+                            targetTileMap, slaveData, refGeometry);
                 }
             }
 
+            final String status = getReferenceGeometryStatus();
+            pm.setSubTaskName(status);
+            if (tilesComputed.incrementAndGet() % GEOMETRY_REPORT_INTERVAL == 0) {
+                SystemUtils.LOG.info(getId() + ": " + status);
+            }
+
         } catch (Throwable e) {
             OperatorUtils.catchOperatorException(getId(), e);
         } finally {
@@ -767,32 +824,29 @@ public final class BackGeocodingOp extends Operator {
         return mSubSwath[subSwathIndex - 1].slrTimeToFirstPixel + x * mSU.rangeSpacing / Constants.lightSpeed;
     }
 
-    private void computePartialTile(final int subSwathIndex, final int mBurstIndex,
+    private void computePartialTile(final int subSwathIndex, final int mBurstIndex, final int sBurstIndex,
                                     final int x0, final int y0, final int w, final int h,
                                     final Map<Band, Tile> targetTileMap, final SlaveData slaveData,
-                                    final double[] extendedAmount)
+                                    final ReferenceGeometry refGeometry)
             throws Exception {
 
-        final int sBurstIndex = mBurstIndex + slaveData.burstOffset;
-        if (sBurstIndex < 0 || sBurstIndex >= slaveData.sSU.getSubSwath()[subSwathIndex - 1].numOfBursts) {
-            return;
-        }
-
         double[][] elevation = null;
         if (outputDEM) {
             elevation = new double[h][w];
         }
 
-        final PixelPos[][] slavePixPos = new PixelPos[h][w];
-        final boolean isSuccessful = computeSlavePixPos(
-                subSwathIndex, mBurstIndex, sBurstIndex, x0, y0, w, h, extendedAmount, slavePixPos, slaveData, elevation);
+        // slave pixel positions of the target pixels, invalidIndex where there is none
+        final double[] slaveAz = new double[h * w];
+        final double[] slaveRg = new double[h * w];
+        final boolean isSuccessful = computeSlavePixPos(subSwathIndex, sBurstIndex, x0, y0, w, h,
+                refGeometry, slaveAz, slaveRg, slaveData, elevation);
 
         if (!isSuccessful) {
             return;
         }
 
         if (outputRangeAzimuthOffset) {
-            outputRangeAzimuthOffsets(x0, y0, w, h, targetTileMap, slavePixPos, subSwathIndex, slaveData,
+            outputRangeAzimuthOffsets(x0, y0, w, h, targetTileMap, slaveAz, slaveRg, subSwathIndex, slaveData,
                     mBurstIndex, sBurstIndex);
         }
 
@@ -801,7 +855,7 @@ public final class BackGeocodingOp extends Operator {
         }
 
         final int margin = selectedResampling.getKernelSize();
-        final Rectangle sourceRectangle = getBoundingBox(slavePixPos, margin, subSwathIndex, sBurstIndex,
+        final Rectangle sourceRectangle = getBoundingBox(slaveAz, slaveRg, margin, subSwathIndex, sBurstIndex,
                 slaveData.sSU.getSubSwath());
 
         if (sourceRectangle == null) {
@@ -863,150 +917,118 @@ public final class BackGeocodingOp extends Operator {
                     slvDerampDemodI, slvDerampDemodQ);
 
             performInterpolation(x0, y0, w, h, sourceRectangle, slaveTileI, slaveTileQ, targetTileMap, slvDerampDemodPhase,
-                    slvDerampDemodI, slvDerampDemodQ, slavePixPos, subSwathIndex, sBurstIndex, slaveData, polarization);
+                    slvDerampDemodI, slvDerampDemodQ, slaveAz, slaveRg, subSwathIndex, sBurstIndex, slaveData, polarization);
         }
     }
 
-    private boolean computeSlavePixPos(final int subSwathIndex, final int mBurstIndex, final int sBurstIndex,
+    private boolean computeSlavePixPos(final int subSwathIndex, final int sBurstIndex,
                                        final int x0, final int y0, final int w, final int h,
-                                       final double[] extendedAmount, final PixelPos[][] slavePixelPos,
-                                       final SlaveData slaveData,
+                                       final ReferenceGeometry refGeometry, final double[] slaveAzimuth,
+                                       final double[] slaveRange, final SlaveData slaveData,
                                        final double[][] elevation)
             throws Exception {
 
         try {
-            final int xmin = x0 - (int)extendedAmount[3];
-            final int ymin = y0 - (int)extendedAmount[1];
-            final int ymax = y0 + h + (int)Math.abs(extendedAmount[0]);
-            final int xmax = x0 + w + (int)Math.abs(extendedAmount[2]);
-
-            // Compute lat/lon boundaries (with extensions) for target tile
-            final double[] latLonMinMax = new double[4];
-
-            computeImageGeoBoundary(subSwathIndex, mBurstIndex, xmin, xmax, ymin, ymax, latLonMinMax);
-
-            final double delta = Math.max(demSamplingLat, demSamplingLon);
-//            final double extralat = 1.5*delta + 4.0/25.0;
-//            final double extralon = 1.5*delta + 4.0/25.0;
-            final double extralat = 20*delta;
-            final double extralon = 20*delta;
-
-            final double latMin = latLonMinMax[0] - extralat;
-            final double latMax = latLonMinMax[1] + extralat;
-            final double lonMin = latLonMinMax[2] - extralon;
-            final double lonMax = latLonMinMax[3] + extralon;
-
-            // Compute lat/lon indices in DEM for the boundaries;
-            final PixelPos upperLeft = dem.getIndex(new GeoPos(latMax, lonMin));
-            final PixelPos lowerRight = dem.getIndex(new GeoPos(latMin, lonMax));
-            final int latMaxIdx = (int)Math.floor(upperLeft.getY());
-            final int latMinIdx = (int)Math.ceil(lowerRight.getY());
-            final int lonMinIdx = (int)Math.floor(upperLeft.getX());
-            final int lonMaxIdx = (int)Math.ceil(lowerRight.getX());
-
-            // Loop through all DEM points bounded by the indices computed above. For each point,
-            // get its lat/lon and its azimuth/range indices in target image;
-            final int numLines = latMinIdx - latMaxIdx;
-            final int numPixels = lonMaxIdx - lonMinIdx;
-            double[][] masterAz = new double[numLines][numPixels];
-            double[][] masterRg = new double[numLines][numPixels];
-            double[][] slaveAz = new double[numLines][numPixels];
-            double[][] slaveRg = new double[numLines][numPixels];
-            double[][] lat = new double[numLines][numPixels];
-            double[][] lon = new double[numLines][numPixels];
+            // Only the secondary orbit solve depends on the secondary product, the DEM points and their
+            // reference azimuth/range indices are shared.
+            final int numPoints = refGeometry.numLines * refGeometry.numPixels;
+            final double[] masterAz = new double[numPoints];
+            final double[] masterRg = new double[numPoints];
+            final double[] slaveAz = new double[numPoints];
+            final double[] slaveRg = new double[numPoints];
             final PositionData posData = new PositionData();
-            final PixelPos pix = new PixelPos();
-
-            final EarthGravitationalModel96 egm = EarthGravitationalModel96.instance();
 
             boolean noValidSlavePixPos = true;
-            for (int l = 0; l < numLines; l++) {
-                for (int p = 0; p < numPixels; p++) {
-
-                    pix.setLocation(lonMinIdx + p, latMaxIdx + l);
-                    GeoPos gp = dem.getGeoPos(pix);
-                    lat[l][p] = gp.lat;
-                    lon[l][p] = gp.lon;
-
-                    Double alt = dem.getElevation(gp);
-                    if (alt.equals(demNoDataValue) && !maskOutAreaWithoutElevation) { // get corrected elevation for 0
-                        alt = (double)egm.getEGM(gp.lat, gp.lon);
-                    }
-
-                    if (!alt.equals(demNoDataValue)) {
-                        GeoUtils.geo2xyzWGS84(gp.lat, gp.lon, alt, posData.earthPoint);
-                        if(getPosition(subSwathIndex, mBurstIndex, mSU, posData)) {
-
-                            masterAz[l][p] = posData.azimuthIndex;
-                            masterRg[l][p] = posData.rangeIndex;
-                            if (getPosition(subSwathIndex, sBurstIndex, slaveData.sSU, posData)) {
-
-                                slaveAz[l][p] = posData.azimuthIndex;
-                                slaveRg[l][p] = posData.rangeIndex;
-                                noValidSlavePixPos = false;
-                                continue;
-                            }
-                        }
+            for (int i = 0; i < numPoints; i++) {
+
+                if (refGeometry.masterAz[i] != invalidIndex) {
+                    posData.earthPoint.x = refGeometry.earthPoint[3 * i];
+                    posData.earthPoint.y = refGeometry.earthPoint[3 * i + 1];
+                    posData.earthPoint.z = refGeometry.earthPoint[3 * i + 2];
+                    if (getPosition(subSwathIndex, sBurstIndex, slaveData.sSU, posData)) {
+
+                        masterAz[i] = refGeometry.masterAz[i];
+                        masterRg[i] = refGeometry.masterRg[i];
+                        slaveAz[i] = posData.azimuthIndex;
+                        slaveRg[i] = posData.rangeIndex;
+                        noValidSlavePixPos = false;
+                        continue;
                     }
-
-                    masterAz[l][p] = invalidIndex;
-                    masterRg[l][p] = invalidIndex;
                 }
+
+                masterAz[i] = invalidIndex;
+                masterRg[i] = invalidIndex;
             }
 
             if (noValidSlavePixPos) {
                 return false;
             }
 
-            // Compute azimuth/range offsets for pixels in target tile using Delaunay interpolation
+            // Compute azimuth/range offsets for pixels in target tile
             final org.jlinda.core.Window tileWindow = new org.jlinda.core.Window(y0, y0 + h - 1, x0, x0 + w - 1);
 
-            //final double rgAzRatio = computeRangeAzimuthSpacingRatio(w, h, latLonMinMax);
-            final double rgAzRatio = mSU.rangeSpacing / mSU.azimuthSpacing;
+            final double[] latArray = new double[h * w];
+            final double[] lonArray = new double[h * w];
 
-            final double[][] latArray = new double[(int)tileWindow.lines()][(int)tileWindow.pixels()];
-            final double[][] lonArray = new double[(int)tileWindow.lines()][(int)tileWindow.pixels()];
-            final double[][] azArray = new double[(int)tileWindow.lines()][(int)tileWindow.pixels()];
-            final double[][] rgArray = new double[(int)tileWindow.lines()][(int)tileWindow.pixels()];
-            for (double[] data : azArray) {
-                Arrays.fill(data, invalidIndex);
-            }
-            for (double[] data : rgArray) {
-                Arrays.fill(data, invalidIndex);
-            }
-
-            TriangleInterpolator.ZData[] dataList = new TriangleInterpolator.ZData[] {
-                    new TriangleInterpolator.ZData(slaveAz, azArray),
-                    new TriangleInterpolator.ZData(slaveRg, rgArray),
-                    new TriangleInterpolator.ZData(lat, latArray),
-                    new TriangleInterpolator.ZData(lon, lonArray)
-            };
+            if (useDEMGridInterpolation) {
+                LatticeInterpolator.gridDataLinear(masterAz, masterRg, refGeometry.numLines, refGeometry.numPixels,
+                        new double[][]{slaveAz, slaveRg, refGeometry.lat, refGeometry.lon}, tileWindow, invalidIndex,
+                        new double[][]{slaveAzimuth, slaveRange, latArray, lonArray});
+            } else {
+                //final double rgAzRatio = computeRangeAzimuthSpacingRatio(w, h, latLonMinMax);
+                final double rgAzRatio = mSU.rangeSpacing / mSU.azimuthSpacing;
+
+                final double[][] latGrid = new double[h][w];
+                final double[][] lonGrid = new double[h][w];
+                final double[][] azGrid = new double[h][w];
+                final double[][] rgGrid = new double[h][w];
+                for (double[] data : azGrid) {
+                    Arrays.fill(data, invalidIndex);
+                }
+                for (double[] data : rgGrid) {
+                    Arrays.fill(data, invalidIndex);
+                }
 
-            TriangleInterpolator.gridDataLinear(masterAz, masterRg, dataList,
-                    tileWindow, rgAzRatio, 1, 1, invalidIndex, 0);
+                TriangleInterpolator.ZData[] dataList = new TriangleInterpolator.ZData[] {
+                        new TriangleInterpolator.ZData(slaveAz, azGrid),
+                        new TriangleInterpolator.ZData(slaveRg, rgGrid),
+                        new TriangleInterpolator.ZData(refGeometry.lat, latGrid),
+                        new TriangleInterpolator.ZData(refGeometry.lon, lonGrid)
+                };
+
+                TriangleInterpolator.gridDataLinear(masterAz, masterRg, dataList,
+                        tileWindow, rgAzRatio, 1, 1, invalidIndex, 0);
+
+                for (int yy = 0; yy < h; yy++) {
+                    System.arraycopy(azGrid[yy], 0, slaveAzimuth, yy * w, w);
+                    System.arraycopy(rgGrid[yy], 0, slaveRange, yy * w, w);
+                    System.arraycopy(latGrid[yy], 0, latArray, yy * w, w);
+                    System.arraycopy(lonGrid[yy], 0, lonArray, yy * w, w);
+                }
+            }
 
             boolean allElementsAreNull = true;
-            Double alt;
-            for(int yy = 0; yy < h; yy++) {
+            final GeoPos geoPos = new GeoPos();
+            for (int yy = 0; yy < h; yy++) {
                 for (int xx = 0; xx < w; xx++) {
-                    if (rgArray[yy][xx] == invalidIndex || azArray[yy][xx] == invalidIndex) {
-                        slavePixelPos[yy][xx] = null;
-                    } else {
-                        if (maskOutAreaWithoutElevation || elevation != null) {
-                            alt = dem.getElevation(new GeoPos(latArray[yy][xx], lonArray[yy][xx]));
-                            if(elevation != null) {
-                                elevation[yy][xx] = alt;
-                            }
-                            if (!alt.equals(demNoDataValue)) {
-                                slavePixelPos[yy][xx] = new PixelPos(rgArray[yy][xx], azArray[yy][xx]);
-                                allElementsAreNull = false;
-                            } else {
-                                slavePixelPos[yy][xx] = null;
-                            }
-                        } else {
-                            slavePixelPos[yy][xx] = new PixelPos(rgArray[yy][xx], azArray[yy][xx]);
+                    final int i = yy * w + xx;
+                    if (slaveRange[i] == invalidIndex || slaveAzimuth[i] == invalidIndex) {
+                        slaveAzimuth[i] = invalidIndex;
+                        slaveRange[i] = invalidIndex;
+                    } else if (maskOutAreaWithoutElevation || elevation != null) {
+                        geoPos.setLocation(latArray[i], lonArray[i]);
+                        final double alt = dem.getElevation(geoPos);
+                        if (elevation != null) {
+                            elevation[yy][xx] = alt;
+                        }
+                        if (Double.compare(alt, demNoDataValue) != 0) {
                             allElementsAreNull = false;
+                        } else {
+                            slaveAzimuth[i] = invalidIndex;
+                            slaveRange[i] = invalidIndex;
                         }
+                    } else {
+                        allElementsAreNull = false;
                     }
                 }
             }
@@ -1020,6 +1042,84 @@ public final class BackGeocodingOp extends Operator {
         return false;
     }
 
+    /**
+     * Get the DEM points covering a tile of a burst together with their azimuth/range indices in the reference
+     * image. The geometry does not depend on the secondary product and is shared by all of them.
+     */
+    private ReferenceGeometry computeReferenceGeometry(final int subSwathIndex, final int mBurstIndex,
+                                                       final int x0, final int y0, final int w, final int h,
+                                                       final double[] extendedAmount) throws Exception {
+
+        final int xmin = x0 - (int)extendedAmount[3];
+        final int ymin = y0 - (int)extendedAmount[1];
+        final int ymax = y0 + h + (int)Math.abs(extendedAmount[0]);
+        final int xmax = x0 + w + (int)Math.abs(extendedAmount[2]);
+
+        // Compute lat/lon boundaries (with extensions) for target tile
+        final double[] latLonMinMax = new double[4];
+
+        computeImageGeoBoundary(subSwathIndex, mBurstIndex, xmin, xmax, ymin, ymax, latLonMinMax);
+
+        final double delta = Math.max(demSamplingLat, demSamplingLon);
+//        final double extralat = 1.5*delta + 4.0/25.0;
+//        final double extralon = 1.5*delta + 4.0/25.0;
+        final double extralat = 20*delta;
+        final double extralon = 20*delta;
+
+        final double latMin = latLonMinMax[0] - extralat;
+        final double latMax = latLonMinMax[1] + extralat;
+        final double lonMin = latLonMinMax[2] - extralon;
+        final double lonMax = latLonMinMax[3] + extralon;
+
+        // Compute lat/lon indices in DEM for the boundaries;
+        final PixelPos upperLeft = dem.getIndex(new GeoPos(latMax, lonMin));
+        final PixelPos lowerRight = dem.getIndex(new GeoPos(latMin, lonMax));
+        final int latMaxIdx = (int)Math.floor(upperLeft.getY());
+        final int latMinIdx = (int)Math.ceil(lowerRight.getY());
+        final int lonMinIdx = (int)Math.floor(upperLeft.getX());
+        final int lonMaxIdx = (int)Math.ceil(lowerRight.getX());
+
+        // Loop through all DEM points bounded by the indices computed above. For each point,
+        // get its lat/lon and its azimuth/range indices in target image;
+        final int numLines = latMinIdx - latMaxIdx;
+        final int numPixels = lonMaxIdx - lonMinIdx;
+        final ReferenceGeometry refGeometry = new ReferenceGeometry(numLines, numPixels);
+        final PositionData posData = new PositionData();
+        final PixelPos pix = new PixelPos();
+
+        final EarthGravitationalModel96 egm = EarthGravitationalModel96.instance();
+
+        for (int l = 0; l < numLines; l++) {
+            for (int p = 0; p < numPixels; p++) {
+                final int i = l * numPixels + p;
+
+                pix.setLocation(lonMinIdx + p, latMaxIdx + l);
+                GeoPos gp = dem.getGeoPos(pix);
+                refGeometry.lat[i] = gp.lat;
+                refGeometry.lon[i] = gp.lon;
+                refGeometry.masterAz[i] = invalidIndex;
+                refGeometry.masterRg[i] = invalidIndex;
+
+                double alt = dem.getElevation(gp);
+                if (Double.compare(alt, demNoDataValue) == 0 && !maskOutAreaWithoutElevation) { // get corrected elevation for 0
+                    alt = egm.getEGM(gp.lat, gp.lon);
+                }
+
+                if (Double.compare(alt, demNoDataValue) != 0) {
+                    GeoUtils.geo2xyzWGS84(gp.lat, gp.lon, alt, posData.earthPoint);
+                    if (getPosition(subSwathIndex, mBurstIndex, mSU, posData)) {
+                        refGeometry.masterAz[i] = posData.azimuthIndex;
+                        refGeometry.masterRg[i] = posData.rangeIndex;
+                        refGeometry.earthPoint[3 * i] = posData.earthPoint.x;
+                        refGeometry.earthPoint[3 * i + 1] = posData.earthPoint.y;
+                        refGeometry.earthPoint[3 * i + 2] = posData.earthPoint.z;
+                    }
+                }
+            }
+        }
+        return refGeometry;
+    }
+
     /**
      * Compute source image geodetic boundary (minimum/maximum latitude/longitude) from the its corner
      * latitude/longitude.
@@ -1128,7 +1228,7 @@ public final class BackGeocodingOp extends Operator {
      * Get the source rectangle in slave image that contains all the given pixels.
      */
     private Rectangle getBoundingBox(
-            final PixelPos[][] slavePixPos, final int margin, final int subSwathIndex, final int sBurstIndex,
+            final double[] slaveAz, final double[] slaveRg, final int margin, final int subSwathIndex, final int sBurstIndex,
             Sentinel1Utils.SubSwathInfo[] sSubswath) {
 
         final int firstLineIndex = sBurstIndex*sSubswath[subSwathIndex - 1].linesPerBurst;
@@ -1141,24 +1241,22 @@ public final class BackGeocodingOp extends Operator {
         int minY = Integer.MAX_VALUE;
         int maxY = -Integer.MAX_VALUE;
 
-        for (PixelPos[] slavePixPo : slavePixPos) {
-            for (int j = 0; j < slavePixPos[0].length; j++) {
-                if (slavePixPo[j] != null) {
-                    final int x = (int) Math.floor(slavePixPo[j].getX());
-                    final int y = (int) Math.floor(slavePixPo[j].getY());
+        for (int i = 0; i < slaveAz.length; i++) {
+            if (slaveAz[i] != invalidIndex) {
+                final int x = (int) Math.floor(slaveRg[i]);
+                final int y = (int) Math.floor(slaveAz[i]);
 
-                    if (x < minX) {
-                        minX = x;
-                    }
-                    if (x > maxX) {
-                        maxX = x;
-                    }
-                    if (y < minY) {
-                        minY = y;
-                    }
-                    if (y > maxY) {
-                        maxY = y;
-                    }
+                if (x < minX) {
+                    minX = x;
+                }
+                if (x > maxX) {
+                    maxX = x;
+                }
+                if (y < minY) {
+                    minY = y;
+                }
+                if (y > maxY) {
+                    maxY = y;
                 }
             }
         }
@@ -1261,7 +1359,8 @@ public final class BackGeocodingOp extends Operator {
                                       final Rectangle sourceRectangle, final Tile slaveTileI, final Tile slaveTileQ,
                                       final Map<Band, Tile> targetTileMap, final double[][] derampDemodPhase,
                                       final double[][] derampDemodI, final double[][] derampDemodQ,
-                                      final PixelPos[][] slavePixPos, final int subswathIndex, final int sBurstIndex,
+                                      final double[] slaveAz, final double[] slaveRg,
+                                      final int subswathIndex, final int sBurstIndex,
                                       final SlaveData slaveData, final String polarization) throws OperatorException {
 
         try {
@@ -1306,10 +1405,11 @@ public final class BackGeocodingOp extends Operator {
                 for (int x = x0; x < x0 + w; x++) {
                     final int xx = x - x0;
                     final int tgtIdx = tgtIndex.getIndex(x);
-                    final PixelPos slavePixelPos = slavePixPos[yy][xx];
+                    final double slavePixelPosX = slaveRg[yy * w + xx];
+                    final double slavePixelPosY = slaveAz[yy * w + xx];
 
-                    if (slavePixelPos == null || slavePixelPos.x < sxMin || slavePixelPos.x > sxMax ||
-                            slavePixelPos.y < syMin || slavePixelPos.y > syMax) {
+                    if (slavePixelPosY == invalidIndex || slavePixelPosX < sxMin || slavePixelPosX > sxMax ||
+                            slavePixelPosY < syMin || slavePixelPosY > syMax) {
 
                         tgtBufferI.setElemDoubleAt(tgtIdx, noDataValue);
                         tgtBufferQ.setElemDoubleAt(tgtIdx, noDataValue);
@@ -1321,7 +1421,7 @@ public final class BackGeocodingOp extends Operator {
                     }
 
                     selectedResampling.computeCornerBasedIndex(
-                            slavePixelPos.x - sourceRectangle.x, slavePixelPos.y - sourceRectangle.y,
+                            slavePixelPosX - sourceRectangle.x, slavePixelPosY - sourceRectangle.y,
                             sourceRectangle.width, sourceRectangle.height, resamplingIndex);
 
                     final double samplePhase = selectedResampling.resample(resamplingRasterPhase, resamplingIndex);
@@ -1376,15 +1476,16 @@ public final class BackGeocodingOp extends Operator {
         return null;
     }
 
-    private boolean isSlavePixPosValid(final PixelPos slavePixPos, final int subswathIndex, final int sBurstIndex,
+    private boolean isSlavePixPosValid(final double slaveAz, final int subswathIndex, final int sBurstIndex,
                                        final Sentinel1Utils.SubSwathInfo[] sSubswath) {
-        return (slavePixPos != null &&
-                slavePixPos.y >= sSubswath[subswathIndex - 1].linesPerBurst*sBurstIndex &&
-                slavePixPos.y < sSubswath[subswathIndex - 1].linesPerBurst*(sBurstIndex+1));
+        return (slaveAz != invalidIndex &&
+                slaveAz >= sSubswath[subswathIndex - 1].linesPerBurst*sBurstIndex &&
+                slaveAz < sSubswath[subswathIndex - 1].linesPerBurst*(sBurstIndex+1));
     }
 
     private void outputRangeAzimuthOffsets(final int x0, final int y0, final int w, final int h,
-                                           final Map<Band, Tile> targetTileMap, final PixelPos[][] slavePixPos,
+                                           final Map<Band, Tile> targetTileMap,
+                                           final double[] slaveAz, final double[] slaveRg,
                                            final int subSwathIndex, final SlaveData slaveData,
                                            final int mBurstIndex, final int sBurstIndex) {
 
@@ -1412,7 +1513,7 @@ public final class BackGeocodingOp extends Operator {
                     final int tgtIdx = tgtIndex.getIndex(x);
                     final int xx = x - x0;
 
-                    if (slavePixPos[yy][xx] == null) {
+                    if (slaveAz[yy * w + xx] == invalidIndex) {
                         tgtBufferAzOffset.setElemFloatAt(tgtIdx, (float) noDataValue);
                         tgtBufferRgOffset.setElemFloatAt(tgtIdx, (float) noDataValue);
                     } else {
@@ -1434,8 +1535,8 @@ public final class BackGeocodingOp extends Operator {
 */
                         //tgtBufferAzOffset.setElemFloatAt(tgtIdx, (float)(y - slavePixPos[yy][xx].y));
                         //tgtBufferRgOffset.setElemFloatAt(tgtIdx, (float)(x - slavePixPos[yy][xx].x));
-                        tgtBufferAzOffset.setElemFloatAt(tgtIdx, (float)(slavePixPos[yy][xx].y));
-                        tgtBufferRgOffset.setElemFloatAt(tgtIdx, (float)(slavePixPos[yy][xx].x));
+                        tgtBufferAzOffset.setElemFloatAt(tgtIdx, (float)(slaveAz[yy * w + xx]));
+                        tgtBufferRgOffset.setElemFloatAt(tgtIdx, (float)(slaveRg[yy * w + xx]));
                     }
                 }
             }
@@ -1497,6 +1598,27 @@ public final class BackGeocodingOp extends Operator {
         return null;
     }
 
+    // DEM points of a tile in row major order
+    private static class ReferenceGeometry {
+        final int numLines;
+        final int numPixels;
+        final double[] lat;
+        final double[] lon;
+        final double[] masterAz; // invalidIndex where the DEM point has no reference position
+        final double[] masterRg;
+        final double[] earthPoint; // x, y, z
+
+        ReferenceGeometry(final int numLines, final int numPixels) {
+            this.numLines = numLines;
+            this.numPixels = numPixels;
+            this.lat = new double[numLines * numPixels];
+            this.lon = new double[numLines * numPixels];
+            this.masterAz = new double[numLines * numPixels];
+            this.masterRg = new double[numLines * numPixels];
+            this.earthPoint = new double[3 * numLines * numPixels];
+        }
+    }
+
     private static class PositionData {
         final PosVector earthPoint = new PosVector();
         final PosVector sensorPos = new PosVector();
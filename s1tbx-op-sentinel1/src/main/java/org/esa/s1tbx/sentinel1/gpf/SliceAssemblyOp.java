@@ -100,6 +100,9 @@ public final class SliceAssemblyOp extends Operator {
 
     private static final String PRODUCT_SUFFIX = "_Asm";
 
+    // elements of the original product metadata with one element per image
+    private static final String[] IMAGE_DATA_NAMES = {"annotation", "calibration", "noise", "rfi"};
+
     private double version = 0.0f;
 
     /**
@@ -574,7 +577,7 @@ public final class SliceAssemblyOp extends Operator {
             }
         }
 
-        ProductUtils.copyMetadata(firstSliceProduct, targetProduct);
+        copyMetadata(firstSliceProduct);
         ProductUtils.copyFlagCodings(firstSliceProduct, targetProduct);
         ProductUtils.copyMasks(firstSliceProduct, targetProduct);
         ProductUtils.copyVectorData(firstSliceProduct, targetProduct);
@@ -602,6 +605,59 @@ public final class SliceAssemblyOp extends Operator {
         //targetProduct.setPreferredTileSize(targetWidth, 1);
     }
 
+    /**
+     * Copy the metadata of the first slice to the target product. The image elements of the original product
+     * metadata are only copied for the selected polarisations, instead of being cloned and removed again when the
+     * metadata of the slices is merged.
+     */
+    private void copyMetadata(final Product firstSliceProduct) {
+
+        final MetadataElement srcRoot = firstSliceProduct.getMetadataRoot();
+        final MetadataElement trgRoot = targetProduct.getMetadataRoot();
+        for (MetadataElement srcElem : srcRoot.getElements()) {
+            if (!srcElem.getName().equals(AbstractMetadata.ORIGINAL_PRODUCT_METADATA)) {
+                trgRoot.addElement(srcElem.createDeepClone());
+                continue;
+            }
+
+            final MetadataElement trgElem = new MetadataElement(srcElem.getName());
+            for (MetadataElement srcData : srcElem.getElements()) {
+                if (!Arrays.asList(IMAGE_DATA_NAMES).contains(srcData.getName())) {
+                    trgElem.addElement(srcData.createDeepClone());
+                    continue;
+                }
+
+                // one s1...-nnn.xml element per image
+                final MetadataElement trgData = new MetadataElement(srcData.getName());
+                for (MetadataElement dataElem : srcData.getElements()) {
+                    if (isSelectedPolarisation(dataElem.getName())) {
+                        trgData.addElement(dataElem.createDeepClone());
+                    }
+                }
+                for (MetadataAttribute attribute : srcData.getAttributes()) {
+                    trgData.addAttribute(attribute.createDeepClone());
+                }
+                trgElem.addElement(trgData);
+            }
+            for (MetadataAttribute attribute : srcElem.getAttributes()) {
+                trgElem.addAttribute(attribute.createDeepClone());
+            }
+            trgRoot.addElement(trgElem);
+        }
+        for (MetadataAttribute attribute : srcRoot.getAttributes()) {
+            trgRoot.addAttribute(attribute.createDeepClone());
+        }
+    }
+
+    private boolean isSelectedPolarisation(final String name) {
+        for (String pol : selectedPolarisations) {
+            if (name.toUpperCase().contains(pol)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private static Term createTerm(final String expression, final Product[] availableProducts) {
         WritableNamespace namespace = BandArithmetic.createDefaultNamespace(availableProducts, 0);
         final Term term;
@@ -1080,16 +1136,7 @@ public final class SliceAssemblyOp extends Operator {
 
         // loop through each s1...-nnn.xml where nnn is the image number
         for (MetadataElement dataElem : dataElems) {
-
-            boolean isSelected = false;
-            for (String pol : selectedPolarisations) {
-                if (dataElem.getName().toUpperCase().contains(pol)) {
-                    isSelected = true;
-                    break;
-                }
-            }
-
-            if (!isSelected) {
+            if (!isSelectedPolarisation(dataElem.getName())) {
                 elemsToRemove.add(dataElem);
             }
         }
@@ -1909,7 +1956,7 @@ public final class SliceAssemblyOp extends Operator {
         }
     }
 
-    private int getSourceProductLineIndex(
+    private static int getSourceProductLineIndex(
             final int y, final BandLines line, final int targetLinesPerBurst, final int sourceLinesPerBurst) {
 
         if (targetLinesPerBurst == sourceLinesPerBurst) {
@@ -1927,6 +1974,64 @@ public final class SliceAssemblyOp extends Operator {
     }
 
 
+    /**
+     * Map the target lines of a slice band to its source lines.
+     *
+     * @param line                the slice band lines
+     * @param y0                  the first target line
+     * @param y1                  the target line after the last one
+     * @param targetLinesPerBurst the target lines per burst, 0 for GRD
+     * @param sourceLinesPerBurst the slice lines per burst, 0 for GRD
+     * @return the source line of each target line, -1 for the lines padding a burst
+     */
+    static int[] getSourceLines(final BandLines line, final int y0, final int y1,
+                                final int targetLinesPerBurst, final int sourceLinesPerBurst) {
+
+        final int[] sourceLines = new int[y1 - y0];
+        for (int y = y0; y < y1; ++y) {
+            sourceLines[y - y0] = getSourceProductLineIndex(y, line, targetLinesPerBurst, sourceLinesPerBurst);
+        }
+        return sourceLines;
+    }
+
+    /**
+     * Copy the pixels of a source line to a target line. They are converted if the data types differ.
+     */
+    static void copyPixels(final ProductData srcData, final int srcPos,
+                           final ProductData trgData, final int trgPos, final int numPixels) {
+
+        if (srcData.getType() == trgData.getType()) {
+            System.arraycopy(srcData.getElems(), srcPos, trgData.getElems(), trgPos, numPixels);
+        } else {
+            for (int i = 0; i < numPixels; ++i) {
+                trgData.setElemDoubleAt(trgPos + i, srcData.getElemDoubleAt(srcPos + i));
+            }
+        }
+    }
+
+    /**
+     * Find the slice band holding a target line.
+     *
+     * @param lines the slice bands of a target band, in line order
+     * @param y     the target line
+     * @return the slice band lines or null if the line is past the last slice
+     */
+    static BandLines getBandLines(final BandLines[] lines, final int y) {
+
+        int lo = 0, hi = lines.length - 1;
+        while (lo <= hi) {
+            final int mid = (lo + hi) >>> 1;
+            if (y < lines[mid].start) {
+                hi = mid - 1;
+            } else if (y >= lines[mid].end) {
+                lo = mid + 1;
+            } else {
+                return lines[mid];
+            }
+        }
+        return null;
+    }
+
     /**
      * Called by the framework in order to compute a tile for the given target band.
      * <p>The default implementation throws a runtime exception with the message "not implemented".</p>
@@ -1960,46 +2065,53 @@ public final class SliceAssemblyOp extends Operator {
                 targetLinesPerBurst = targetSwathBurstDimMap.get(swath).linesPerBurst;
             }
 
-            BandLines line = lines[0];
-            for (int y = ty0; y < maxY; ++y) {
-
-                for (BandLines l : lines) {
-                    if (y >= l.start && y < l.end) {
-                        line = l;
-                        break;
-                    }
+            // read each slice covered by the tile once, straight from its band
+            int y = ty0;
+            while (y < maxY) {
+                final BandLines line = getBandLines(lines, y);
+                if (line == null) {
+                    break;
                 }
+                final int segmentEnd = Math.min(maxY, line.end);
 
                 // convert target product line index y to source product line index yy
-                int yy = 0;
-                if (productType.equals("GRD")) {
-                    yy = y - line.start;
-                } else {
-                    final int sourceLinesPerBurst = sliceBandBurstDimMap.get(line.band).linesPerBurst;
-                    yy = getSourceProductLineIndex(y, line, targetLinesPerBurst, sourceLinesPerBurst);
-                    if (yy == -1) {
-                        continue;
+                final int sourceLinesPerBurst = productType.equals("GRD") ?
+                        0 : sliceBandBurstDimMap.get(line.band).linesPerBurst;
+                final int[] sourceLines = getSourceLines(line, y, segmentEnd, targetLinesPerBurst, sourceLinesPerBurst);
+                int yyMin = Integer.MAX_VALUE, yyMax = -1;
+                for (int yy : sourceLines) {
+                    if (yy != -1) {
+                        yyMin = Math.min(yyMin, yy);
+                        yyMax = Math.max(yyMax, yy);
                     }
                 }
 
                 final int sxMax = Math.min(maxX, line.band.getRasterWidth() - 1);
-                srcRect.setBounds(tx0, yy, sxMax - tx0 + 1, 1);
-                final Tile sourceRaster = getSourceTile(line.band, srcRect);
-                final ProductData srcData = sourceRaster.getDataBuffer();
-                final TileIndex srcIndex = new TileIndex(sourceRaster);
-                trgIndex.calculateStride(y);
-                srcIndex.calculateStride(yy);
-
-                for (int x = tx0; x < sxMax; ++x) {
-                    trgData.setElemDoubleAt(trgIndex.getIndex(x), srcData.getElemDoubleAt(srcIndex.getIndex(x)));
+                final int numPixels = sxMax - tx0;
+                if (yyMax != -1 && numPixels > 0) {
+                    srcRect.setBounds(tx0, yyMin, numPixels + 1, yyMax - yyMin + 1);
+                    final Tile sourceRaster = getSourceTile(line.band, srcRect);
+                    final ProductData srcData = sourceRaster.getDataBuffer();
+                    final TileIndex srcIndex = new TileIndex(sourceRaster);
+
+                    for (int ly = y; ly < segmentEnd; ++ly) {
+                        final int yy = sourceLines[ly - y];
+                        if (yy == -1) {
+                            continue;
+                        }
+                        trgIndex.calculateStride(ly);
+                        srcIndex.calculateStride(yy);
+                        copyPixels(srcData, srcIndex.getIndex(tx0), trgData, trgIndex.getIndex(tx0), numPixels);
+                    }
                 }
+                y = segmentEnd;
             }
         } catch (Throwable e) {
             throw new OperatorException(e.getMessage());
         }
     }
 
-    private static class BandLines {
+    static class BandLines {
         final int start;
         final int end;
         final Band band;
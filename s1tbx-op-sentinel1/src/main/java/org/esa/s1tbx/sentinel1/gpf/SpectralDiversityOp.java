@@ -865,8 +865,11 @@ public class SpectralDiversityOp extends Operator {
                     List<CplxContainer> complexImages = this.complexImages.get(imagesKey);
                     SystemUtils.LOG.fine("Estimating range offset for: " + imagesKey);
 
-                    // estimate range shift image pair
+                    // estimate offsets for the bursts of all image pairs
                     status.beginTask("Range shift: Cross-correlation for image pairs (" + imagesKey + ")...", arcs.length);
+                    final double[][][] burstOffsets = estimateBurstOffsets(complexImages, status);
+                    status.done();
+
                     for (int arcIndex = 0; arcIndex < arcs.length; arcIndex++) {  // for each pair
                         // estimate range shift for each pair using cross-correlation
                         CplxContainer image1 = complexImages.get(arcs[arcIndex][0]);
@@ -874,16 +877,13 @@ public class SpectralDiversityOp extends Operator {
                         String pairKey = getCanonicalId(image1) + "_" + getCanonicalId(image2);
                         SystemUtils.LOG.fine("Estimating range shift for pair " + pairKey +
                                                      "\t arc:" + arcs[arcIndex][0] + " -> " + arcs[arcIndex][1]);
-                        ShiftData rangeShift = crossCorrelatePair(image1, image2);
+                        ShiftData rangeShift = crossCorrelatePair(image1, image2, burstOffsets[arcIndex]);
 
                         // save network data
                         arcsList.add(arcs[arcIndex]);
                         arcShiftsList.add(rangeShift);
                         arcPolarizationsList.add(polarization);
-
-                        status.worked(1);
                     }
-                    status.done();
                 }
 
                 // 2. integration of arcs
@@ -1048,9 +1048,9 @@ public class SpectralDiversityOp extends Operator {
 
                     // estimate shift for each overlap
                     status.beginTask("Azimuth shift: ESD for overlap blocks (" + imagesKey + ")...", numOverlaps * numBlocksPerOverlap);
+                    final ThreadExecutor executor = new ThreadExecutor();
                     for (int i = 0; i < numOverlaps; i++) {
-                        final ThreadExecutor executor = new ThreadExecutor();
-                        SystemUtils.LOG.info("Estimating azimuth offset for blocks in overlap: " +
+                        SystemUtils.LOG.info("Queuing azimuth offset estimation for blocks in overlap: " +
                                                      (i + 1) + "/" + numOverlaps);
                         final Rectangle overlapInBurstOneRectangle = new Rectangle();
                         final Rectangle overlapInBurstTwoRectangle = new Rectangle();
@@ -1089,16 +1089,15 @@ public class SpectralDiversityOp extends Operator {
                                             spectralSeparation,
                                             searchBoundary,
                                             usePeriodogram);
-                                    synchronized (shiftAllBlocks) {
-                                        shiftAllBlocks[overlapIndex][blockIndex] = azimuthShiftsPerBlock;
-                                    }
+                                    // each block has its own slot, visible once the executor completes
+                                    shiftAllBlocks[overlapIndex][blockIndex] = azimuthShiftsPerBlock;
                                 }
                             };
                             executor.execute(worker);
                             status.worked(1);
                         }
-                        executor.complete();
                     }
+                    executor.complete();
                     status.done();
 
                     // compute average offset for images of this polarization
@@ -1402,46 +1401,35 @@ public class SpectralDiversityOp extends Operator {
 
 
     /**
-     * Estimate range offset of the second image with respect to the first one using the average cross-correlation.
+     * Estimate the azimuth and range offsets of every burst of every image pair in the network. All the bursts of all
+     * the pairs are processed by one executor; each worker writes the offsets of its own burst.
      *
-     * @param image1 first image used as reference.
-     * @param image2 second image.
-     * @return range shift and weights for each pair of images.
+     * @param complexImages complex images of a sub-swath and polarization, master first.
+     * @param status        progress monitor, worked once per pair.
+     * @return the azimuth and range offsets per arc and burst.
      */
-    private ShiftData crossCorrelatePair(CplxContainer image1, CplxContainer image2) {
-
-        double rgOffset = Double.NaN;
+    private double[][][] estimateBurstOffsets(final List<CplxContainer> complexImages,
+                                              final StatusProgressMonitor status) {
 
         final int numBursts = subSwath[subSwathIndex - 1].numOfBursts;
+        final double[][][] burstOffsets = new double[arcs.length][numBursts][2]; // az/rg offset
 
-        // SystemUtils.LOG.info("crossCorrelatePair numBursts = " + numBursts);
-
-        final String imagePairTag = getImagePairTag(image1, image2);
-
-        try {
-            final List<Double> azOffsetArray = new ArrayList<>(numBursts);
-            final List<Double> rgOffsetArray = new ArrayList<>(numBursts);
-            final List<Integer> burstIndexArray = new ArrayList<>(numBursts);
+        final ThreadExecutor executor = new ThreadExecutor();
+        for (int arcIndex = 0; arcIndex < arcs.length; arcIndex++) {
+            final CplxContainer image1 = complexImages.get(arcs[arcIndex][0]);
+            final CplxContainer image2 = complexImages.get(arcs[arcIndex][1]);
 
-            final ThreadExecutor executor = new ThreadExecutor();
             for (int i = 0; i < numBursts; i++) {
                 checkForCancellation();
                 final int burstIndex = i;
+                final double[] offset = burstOffsets[arcIndex][burstIndex];
 
                 final ThreadRunnable worker = new ThreadRunnable() {
                     @Override
                     public void process() {
                         try {
-                            final double[] offset = new double[2]; // az/rg offset
-
                             estimateAzRgOffsets(image1.realBand, image1.imagBand, image2.realBand, image2.imagBand,
                                                 burstIndex, offset);
-
-                            synchronized (azOffsetArray) {
-                                azOffsetArray.add(offset[0]);
-                                rgOffsetArray.add(offset[1]);
-                                burstIndexArray.add(burstIndex);
-                            }
                         } catch (Throwable e) {
                             OperatorUtils.catchOperatorException("estimateOffset", e);
                         }
@@ -1449,7 +1437,38 @@ public class SpectralDiversityOp extends Operator {
                 };
                 executor.execute(worker);
             }
-            executor.complete();
+            status.worked(1);
+        }
+        executor.complete();
+
+        return burstOffsets;
+    }
+
+    /**
+     * Estimate range offset of the second image with respect to the first one using the average cross-correlation.
+     *
+     * @param image1       first image used as reference.
+     * @param image2       second image.
+     * @param burstOffsets azimuth and range offsets of each burst of the pair.
+     * @return range shift and weights for each pair of images.
+     */
+    private ShiftData crossCorrelatePair(CplxContainer image1, CplxContainer image2, double[][] burstOffsets) {
+
+        double rgOffset = Double.NaN;
+
+        final int numBursts = burstOffsets.length;
+
+        final String imagePairTag = getImagePairTag(image1, image2);
+
+        try {
+            final List<Double> azOffsetArray = new ArrayList<>(numBursts);
+            final List<Double> rgOffsetArray = new ArrayList<>(numBursts);
+            final List<Integer> burstIndexArray = new ArrayList<>(numBursts);
+            for (int i = 0; i < numBursts; i++) {
+                azOffsetArray.add(burstOffsets[i][0]);
+                rgOffsetArray.add(burstOffsets[i][1]);
+                burstIndexArray.add(i);
+            }
 
             double sumRgOffset = 0.0;
             int count = 0;
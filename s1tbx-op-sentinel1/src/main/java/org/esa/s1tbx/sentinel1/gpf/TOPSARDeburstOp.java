@@ -39,6 +39,7 @@ import org.esa.snap.engine_utilities.util.Maths;
 import java.awt.*;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.StringTokenizer;
@@ -84,6 +85,9 @@ public final class TOPSARDeburstOp extends Operator {
     private static int numOfBoundaryPoints = 6;
     private static final String PRODUCT_SUFFIX = "_Deb";
 
+    // copy the runs of pixels of tiles over several sub-swaths in bulk, false to locate them one by one
+    boolean copyRuns = true;
+
     /**
      * Default constructor. The graph processing framework
      * requires that an operator has a default constructor.
@@ -794,6 +798,10 @@ public final class TOPSARDeburstOp extends Operator {
             final int txMax = tx0 + tw;
             final int tyMax = ty0 + th;
 
+            // the sub-swath and source line of each pixel are the same for all bands
+            final SubSwathLayout layout = tileInOneSubSwath || !copyRuns ? null :
+                    createSubSwathLayout(tx0, ty0, txMax, tyMax, firstSubSwathIndex, lastSubSwathIndex);
+
             final Band[] tgtBands = targetProduct.getBands();
             for (Band tgtBand:tgtBands) {
                 if (tgtBand instanceof VirtualBand) {
@@ -812,6 +820,8 @@ public final class TOPSARDeburstOp extends Operator {
                                 sourceRectangle, tgtBandName, tgtTile, burstInfo);
                     }
 
+                } else if (layout != null) {
+                    computeMultipleSubSwaths(layout, sourceRectangle, tgtBandName, tgtTile);
                 } else {
                     if (dataType == ProductData.TYPE_INT16) {
                         computeMultipleSubSwathsShort(tx0, ty0, txMax, tyMax, firstSubSwathIndex, lastSubSwathIndex,
@@ -1091,6 +1101,195 @@ public final class TOPSARDeburstOp extends Operator {
         }
     }
 
+    /**
+     * Compute the runs of target pixels with the same candidate sub-swaths and the source line of each target line
+     * in each sub-swath, so that the pixels of a run are copied in bulk instead of being located one by one.
+     * The result is the same as getSubSwathIndex and getLineIndicesInSourceProduct for each pixel.
+     *
+     * @return the layout or null if the pixels must be located one by one
+     */
+    private SubSwathLayout createSubSwathLayout(final int tx0, final int ty0, final int txMax, final int tyMax,
+                                                final int firstSubSwathIndex, final int lastSubSwathIndex) {
+
+        final int numOfSubSwaths = lastSubSwathIndex - firstSubSwathIndex + 1;
+        final SubSwathLayout layout = new SubSwathLayout(firstSubSwathIndex, numOfSubSwaths, tx0, ty0, txMax, tyMax);
+
+        // sub-swaths covering each column in range, swath0 then swath1 as in getSubSwathIndex
+        int prevSwath0 = 0, prevSwath1 = 0;
+        boolean prevUseSwath1 = false;
+        final List<int[]> runs = new ArrayList<>();
+        for (int x = tx0; x < txMax; x++) {
+            final double targetSampleSlrTime = targetSlantRangeTimeToFirstPixel + x * targetDeltaSlantRangeTime;
+            int swath0 = -1, swath1 = -1;
+            for (int i = firstSubSwathIndex; i <= lastSubSwathIndex; i++) {
+                final Sentinel1Utils.SubSwathInfo info = subSwath[i - 1];
+                if (targetSampleSlrTime >= info.slrTimeToFirstValidPixel &&
+                        targetSampleSlrTime <= info.slrTimeToLastValidPixel) {
+                    if (swath0 == -1) {
+                        swath0 = i;
+                    } else if (swath1 == -1) {
+                        swath1 = i;
+                    } else {
+                        return null;
+                    }
+                }
+            }
+
+            boolean useSwath1 = false;
+            if (swath1 != -1) {
+                final double middleTime = (subSwath[swath0 - 1].slrTimeToLastValidPixel +
+                        subSwath[swath1 - 1].slrTimeToFirstValidPixel) / 2.0;
+                useSwath1 = targetSampleSlrTime > middleTime;
+            }
+
+            if (x == tx0 || swath0 != prevSwath0 || swath1 != prevSwath1 || useSwath1 != prevUseSwath1) {
+                runs.add(new int[]{x, swath0, swath1, useSwath1 ? 1 : 0});
+                prevSwath0 = swath0;
+                prevSwath1 = swath1;
+                prevUseSwath1 = useSwath1;
+            }
+        }
+
+        final int numRuns = runs.size();
+        layout.runStart = new int[numRuns + 1];
+        layout.runSwath0 = new int[numRuns];
+        layout.runSwath1 = new int[numRuns];
+        layout.runUseSwath1 = new boolean[numRuns];
+        layout.runSampleIndex = new int[numRuns][numOfSubSwaths];
+        for (int r = 0; r < numRuns; r++) {
+            final int[] run = runs.get(r);
+            layout.runStart[r] = run[0];
+            layout.runSwath0[r] = run[1];
+            layout.runSwath1[r] = run[2];
+            layout.runUseSwath1[r] = run[3] == 1;
+        }
+        layout.runStart[numRuns] = txMax;
+
+        // source samples must follow the target pixels one to one within a run
+        for (int r = 0; r < numRuns; r++) {
+            for (int swath : new int[]{layout.runSwath0[r], layout.runSwath1[r]}) {
+                if (swath == -1) {
+                    continue;
+                }
+                final Sentinel1Utils.SubSwathInfo sw = subSwath[swath - 1];
+                final int sxFirst = getSampleIndexInSourceProduct(layout.runStart[r], sw);
+                for (int x = layout.runStart[r] + 1; x < layout.runStart[r + 1]; x++) {
+                    if (getSampleIndexInSourceProduct(x, sw) != sxFirst + x - layout.runStart[r]) {
+                        return null;
+                    }
+                }
+                layout.runSampleIndex[r][swath - firstSubSwathIndex] = sxFirst;
+            }
+        }
+
+        // line validity and source line of each target line in each sub-swath
+        final BurstInfo burstInfo = new BurstInfo();
+        final int th = tyMax - ty0;
+        layout.lineValid = new boolean[th][numOfSubSwaths];
+        layout.sourceLine = new int[th][numOfSubSwaths];
+        for (int y = ty0; y < tyMax; y++) {
+            final double targetLineTime = targetFirstLineTime + y * targetLineTimeInterval;
+            for (int k = 0; k < numOfSubSwaths; k++) {
+                final Sentinel1Utils.SubSwathInfo sw = subSwath[firstSubSwathIndex + k - 1];
+                layout.lineValid[y - ty0][k] = targetLineTime >= sw.firstValidLineTime &&
+                        targetLineTime <= sw.lastValidLineTime;
+
+                if (getLineIndicesInSourceProduct(y, sw, burstInfo)) {
+                    layout.sourceLine[y - ty0][k] = burstInfo.sy1 != -1 && burstInfo.targetTime > burstInfo.midTime ?
+                            burstInfo.sy1 : burstInfo.sy0;
+                } else {
+                    layout.sourceLine[y - ty0][k] = -1;
+                }
+            }
+        }
+        return layout;
+    }
+
+    private void computeMultipleSubSwaths(final SubSwathLayout layout, final Rectangle[] sourceRectangle,
+                                          final String tgtBandName, final Tile tgtTile) {
+
+        final Tile[] srcTiles = new Tile[layout.numOfSubSwaths];
+        final Object[] srcArray = new Object[layout.numOfSubSwaths];
+        for (int k = 0; k < layout.numOfSubSwaths; k++) {
+            final String srcBandName = getSourceBandNameFromTargetBandName(
+                    tgtBandName, acquisitionMode, String.valueOf(layout.firstSubSwathIndex + k));
+            srcTiles[k] = getSourceTile(sourceProduct.getBand(srcBandName), sourceRectangle[k]);
+            srcArray[k] = srcTiles[k].getDataBuffer().getElems();
+        }
+
+        final TileIndex tgtIndex = new TileIndex(tgtTile);
+        final Object tgtArray = tgtTile.getDataBuffer().getElems();
+        final int[] primaryOther = new int[2];
+
+        for (int y = layout.ty0; y < layout.tyMax; y++) {
+            final int tgtOffset = tgtIndex.calculateStride(y);
+
+            for (int r = 0; r < layout.runSwath0.length; r++) {
+                if (!layout.getSubSwaths(y, r, primaryOther)) {
+                    continue;
+                }
+                final int k = primaryOther[0];
+                final int sy = layout.sourceLine[y - layout.ty0][k];
+                if (sy == -1) {
+                    continue;
+                }
+
+                final int xFirst = layout.runStart[r];
+                final int length = layout.runStart[r + 1] - xFirst;
+                final int tgtIdx = xFirst - tgtOffset;
+                final int srcIdx = srcTiles[k].getDataBufferIndex(layout.runSampleIndex[r][k], sy);
+                // as for a single pixel, samples before the source tile are zero
+                final int numZeros = Math.min(Math.max(-srcIdx, 0), length);
+                fillZeros(tgtArray, tgtIdx, numZeros);
+                System.arraycopy(srcArray[k], srcIdx + numZeros, tgtArray, tgtIdx + numZeros, length - numZeros);
+
+                // edge of swaths, use the other swath where the first one has no data
+                final int o = primaryOther[1];
+                if (o == -1) {
+                    continue;
+                }
+                final int syOther = layout.sourceLine[y - layout.ty0][o];
+                if (syOther == -1) {
+                    continue;
+                }
+                final int srcIdxOther = srcTiles[o].getDataBufferIndex(layout.runSampleIndex[r][o], syOther);
+                fillGaps(srcArray[o], srcIdxOther, tgtArray, tgtIdx, length);
+            }
+        }
+    }
+
+    private static void fillZeros(final Object array, final int index, final int length) {
+        if (array instanceof short[]) {
+            Arrays.fill((short[]) array, index, index + length, (short) 0);
+        } else {
+            Arrays.fill((float[]) array, index, index + length, 0.0f);
+        }
+    }
+
+    /**
+     * Replace the zero pixels of a run by the non-zero samples of another sub-swath.
+     */
+    private static void fillGaps(final Object srcArray, final int srcIdx,
+                                 final Object tgtArray, final int tgtIdx, final int length) {
+        if (tgtArray instanceof short[]) {
+            final short[] src = (short[]) srcArray;
+            final short[] tgt = (short[]) tgtArray;
+            for (int i = 0; i < length; i++) {
+                if (tgt[tgtIdx + i] == 0 && srcIdx + i >= 0 && src[srcIdx + i] != 0) {
+                    tgt[tgtIdx + i] = src[srcIdx + i];
+                }
+            }
+        } else {
+            final float[] src = (float[]) srcArray;
+            final float[] tgt = (float[]) tgtArray;
+            for (int i = 0; i < length; i++) {
+                if (tgt[tgtIdx + i] == 0 && srcIdx + i >= 0 && src[srcIdx + i] != 0) {
+                    tgt[tgtIdx + i] = src[srcIdx + i];
+                }
+            }
+        }
+    }
+
     /**
      * Get source tile rectangle.
      *
@@ -1330,6 +1529,70 @@ public final class TOPSARDeburstOp extends Operator {
         }
     }
 
+    /**
+     * Sub-swaths and source lines of the pixels of a target tile over several sub-swaths. Pixels are grouped in runs
+     * of columns covered by the same sub-swaths; sub-swaths are indexed from the first sub-swath of the tile.
+     */
+    private static class SubSwathLayout {
+        final int firstSubSwathIndex;
+        final int numOfSubSwaths;
+        final int tx0, ty0, txMax, tyMax;
+
+        int[] runStart;             // first column of each run, then txMax
+        int[] runSwath0;            // first sub-swath covering the run in range, -1 if none
+        int[] runSwath1;            // second sub-swath covering the run in range, -1 if none
+        boolean[] runUseSwath1;     // the run is past the middle of the overlap of the two sub-swaths
+        int[][] runSampleIndex;     // source sample of the first column of the run in each sub-swath
+        boolean[][] lineValid;      // target line within the valid lines of each sub-swath
+        int[][] sourceLine;         // source line of each target line in each sub-swath, -1 if none
+
+        SubSwathLayout(final int firstSubSwathIndex, final int numOfSubSwaths,
+                       final int tx0, final int ty0, final int txMax, final int tyMax) {
+            this.firstSubSwathIndex = firstSubSwathIndex;
+            this.numOfSubSwaths = numOfSubSwaths;
+            this.tx0 = tx0;
+            this.ty0 = ty0;
+            this.txMax = txMax;
+            this.tyMax = tyMax;
+        }
+
+        /**
+         * Get the sub-swath a run takes its pixels from on a target line and the other sub-swath covering it.
+         *
+         * @param y            the target line
+         * @param r            the run
+         * @param primaryOther the sub-swath used and the other sub-swath or -1, relative to the first sub-swath
+         * @return false if no sub-swath covers the run on that line
+         */
+        boolean getSubSwaths(final int y, final int r, final int[] primaryOther) {
+            final boolean[] valid = lineValid[y - ty0];
+            int swath0 = -1, swath1 = -1;
+            for (int swath : new int[]{runSwath0[r], runSwath1[r]}) {
+                if (swath != -1 && valid[swath - firstSubSwathIndex]) {
+                    if (swath0 == -1) {
+                        swath0 = swath;
+                    } else {
+                        swath1 = swath;
+                    }
+                }
+            }
+            if (swath0 == -1) {
+                return false;
+            }
+            if (swath1 == -1) {
+                primaryOther[0] = swath0 - firstSubSwathIndex;
+                primaryOther[1] = -1;
+            } else if (runUseSwath1[r]) {
+                primaryOther[0] = swath1 - firstSubSwathIndex;
+                primaryOther[1] = swath0 - firstSubSwathIndex;
+            } else {
+                primaryOther[0] = swath0 - firstSubSwathIndex;
+                primaryOther[1] = swath1 - firstSubSwathIndex;
+            }
+            return true;
+        }
+    }
+
     private static class SubSwathEffectStartEndPixels {
         public int xMin;
         public int xMax;
@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2021 SkyWatch Space Applications Inc. https://www.skywatch.com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.sentinel1.gpf;
+
+import org.esa.s1tbx.commons.test.ProcessorTest;
+import org.esa.s1tbx.commons.test.S1TBXTests;
+import org.esa.snap.core.datamodel.Band;
+import org.esa.snap.core.datamodel.Product;
+import org.esa.snap.engine_utilities.gpf.StackUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Unit test for BackGeocodingOp, the reference geometry shared by the secondary products of a tile against the
+ * reference geometry computed for a single secondary product.
+ */
+public class TestBackGeocodingOp extends ProcessorTest {
+
+    // TOPSAR-Split products of the same sub-swath and bursts, the first one by name is the reference
+    private final static File splitFolder = new File(S1TBXTests.inputPathProperty + "/SAR/S1/TOPS/Split");
+
+    private static final int WINDOW_SIZE = 256;
+
+    @Before
+    public void setUp() {
+        // If any of the file does not exist: the test will be ignored
+        assumeTrue(splitFolder + " not found", splitFolder.exists());
+    }
+
+    private static Product createStack(final Product... products) {
+        final BackGeocodingOp op = (BackGeocodingOp) new BackGeocodingOp.Spi().createOperator();
+        assertNotNull(op);
+        op.setSourceProducts(products);
+        op.setParameter("outputRangeAzimuthOffset", true);
+        return op.getTargetProduct();
+    }
+
+    private static float[] readOffsets(final Product stack, final String offset, final String slvSuffix)
+            throws Exception {
+        final Band band = stack.getBand(offset + slvSuffix);
+        assertNotNull(offset + slvSuffix + " not found", band);
+
+        final int x0 = Math.max(0, band.getRasterWidth() / 2 - WINDOW_SIZE / 2);
+        final int y0 = Math.max(0, band.getRasterHeight() / 2 - WINDOW_SIZE / 2);
+        final int w = Math.min(WINDOW_SIZE, band.getRasterWidth());
+        final int h = Math.min(WINDOW_SIZE, band.getRasterHeight());
+        final float[] pixels = new float[w * h];
+        band.readPixels(x0, y0, w, h, pixels);
+        return pixels;
+    }
+
+    @Test
+    public void testSharedReferenceGeometry() throws Exception {
+        final File[] files = splitFolder.listFiles();
+        assertNotNull(files);
+        Arrays.sort(files);
+        final List<Product> products = readProducts(files);
+        assumeTrue("three split products needed in " + splitFolder, products.size() >= 3);
+
+        final Product reference = products.get(0);
+        final Product secondary1 = products.get(1);
+        final Product secondary2 = products.get(2);
+
+        // the second secondary product reuses the reference geometry computed for the first one
+        final Product stack = createStack(reference, secondary1, secondary2);
+        // the reference geometry is computed for the second secondary product alone
+        final Product pair = createStack(reference, secondary2);
+
+        final String timeStamp = StackUtils.createBandTimeStamp(secondary2);
+        try {
+            for (String offset : new String[]{"azOffset", "rgOffset"}) {
+                final float[] expected = readOffsets(pair, offset, StackUtils.SLV + 1 + timeStamp);
+                final float[] actual = readOffsets(stack, offset, StackUtils.SLV + 2 + timeStamp);
+                assertArrayEquals(offset, expected, actual, 0.0f);
+            }
+        } finally {
+            stack.dispose();
+            pair.dispose();
+            for (Product product : products) {
+                product.dispose();
+            }
+        }
+    }
+}
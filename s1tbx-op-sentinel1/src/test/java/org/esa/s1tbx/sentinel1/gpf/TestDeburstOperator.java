@@ -26,6 +26,7 @@ import org.junit.Test;
 
 import java.io.File;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertNotNull;
 
 /**
@@ -69,4 +70,38 @@ public class TestDeburstOperator {
         targetBand.readPixels(0, 0,  bandWidth, bandHeight, floatValues, ProgressMonitor.NULL);
     }
 
+    /**
+     * Debursts tiles over several sub-swaths copying runs of pixels and locating the pixels one by one
+     *
+     * @throws Exception general exception
+     */
+    @Test
+    public void testMultipleSubSwathsCopyRuns() throws Exception {
+        Assume.assumeTrue("Input file does not exist - Skipping test", inputFile.exists());
+
+        final float[] runValues = readLines(true);
+        final float[] pixelValues = readLines(false);
+        assertArrayEquals(pixelValues, runValues, 0.0f);
+    }
+
+    private float[] readLines(final boolean copyRuns) throws Exception {
+        final TOPSARDeburstOp op = new TOPSARDeburstOp();
+        op.copyRuns = copyRuns;
+        op.setSourceProduct(TestUtils.readSourceProduct(inputFile));
+        final Product targetProduct = op.getTargetProduct();
+
+        // full lines over all sub-swaths and a burst boundary
+        final int y0 = 1400;
+        final int width = targetProduct.getSceneRasterWidth();
+        final int height = Math.min(300, targetProduct.getSceneRasterHeight() - y0);
+
+        final float[] values = new float[2 * width * height];
+        final float[] bandValues = new float[width * height];
+        for (int b = 0; b < 2; b++) {
+            targetProduct.getBandAt(b).readPixels(0, y0, width, height, bandValues, ProgressMonitor.NULL);
+            System.arraycopy(bandValues, 0, values, b * bandValues.length, bandValues.length);
+        }
+        return values;
+    }
+
 }
@@ -0,0 +1,231 @@
+/*
+ * Copyright (C) 2021 SkyWatch Space Applications Inc. https://www.skywatch.com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.sentinel1.gpf;
+
+import org.esa.snap.core.datamodel.Band;
+import org.esa.snap.core.datamodel.ProductData;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Unit test for the tile copy of SliceAssemblyOp, compared with a copy line by line and pixel by pixel.
+ */
+public class TestSliceAssemblyTileCopy {
+
+    private static final int TILE_WIDTH = 7;
+    private static final int TILE_HEIGHT = 5;
+
+    private static class Slice {
+        final SliceAssemblyOp.BandLines lines;
+        final ProductData data;
+        final int width;
+        final int sourceLinesPerBurst;
+
+        Slice(final SliceAssemblyOp.BandLines lines, final ProductData data, final int sourceLinesPerBurst) {
+            this.lines = lines;
+            this.data = data;
+            this.width = lines.band.getRasterWidth();
+            this.sourceLinesPerBurst = sourceLinesPerBurst;
+        }
+    }
+
+    private static ProductData createData(final int dataType, final int size, final Random random) {
+        final ProductData data = ProductData.createInstance(dataType, size);
+        for (int i = 0; i < size; ++i) {
+            if (dataType == ProductData.TYPE_UINT16) {
+                data.setElemIntAt(i, random.nextInt(65536));
+            } else if (dataType == ProductData.TYPE_INT16) {
+                data.setElemIntAt(i, random.nextInt(65536) - 32768);
+            } else {
+                data.setElemDoubleAt(i, random.nextGaussian() * 1000.0);
+            }
+        }
+        return data;
+    }
+
+    /**
+     * @param widths              the slice widths
+     * @param bursts              the bursts of each slice, or the slice heights for GRD
+     * @param sourceLinesPerBurst the lines per burst of each slice, 0 for GRD
+     * @param targetLinesPerBurst the target lines per burst, 0 for GRD
+     */
+    private static Slice[] createSlices(final int dataType, final int[] widths, final int[] bursts,
+                                        final int[] sourceLinesPerBurst, final int targetLinesPerBurst) {
+        final Random random = new Random(19);
+        final Slice[] slices = new Slice[widths.length];
+        int start = 0;
+        for (int i = 0; i < slices.length; ++i) {
+            final boolean grd = targetLinesPerBurst == 0;
+            final int height = grd ? bursts[i] : bursts[i] * sourceLinesPerBurst[i];
+            final int end = start + (grd ? bursts[i] : bursts[i] * targetLinesPerBurst);
+            final Band band = new Band("i_IW1_VV", dataType, widths[i], height);
+            slices[i] = new Slice(new SliceAssemblyOp.BandLines(band, start, end),
+                    createData(dataType, widths[i] * height, random), sourceLinesPerBurst[i]);
+            start = end;
+        }
+        return slices;
+    }
+
+    // the former copy of SliceAssemblyOp.computeTile, one line at a time with the slices searched in turn
+    private static void copyTileByLine(final Slice[] slices, final int targetLinesPerBurst,
+                                       final ProductData trgData, final int targetWidth,
+                                       final int tx0, final int ty0, final int maxX, final int maxY) {
+        Slice slice = slices[0];
+        for (int y = ty0; y < maxY; ++y) {
+            for (Slice s : slices) {
+                if (y >= s.lines.start && y < s.lines.end) {
+                    slice = s;
+                    break;
+                }
+            }
+
+            int yy = y - slice.lines.start;
+            if (targetLinesPerBurst != 0 && targetLinesPerBurst != slice.sourceLinesPerBurst) {
+                final int burstIdx = yy / targetLinesPerBurst;
+                final int lineIdxInBurst = yy - burstIdx * targetLinesPerBurst;
+                if (lineIdxInBurst >= slice.sourceLinesPerBurst) {
+                    continue;
+                }
+                yy = burstIdx * slice.sourceLinesPerBurst + lineIdxInBurst;
+            }
+
+            final int sxMax = Math.min(maxX, slice.width - 1);
+            for (int x = tx0; x < sxMax; ++x) {
+                trgData.setElemDoubleAt(y * targetWidth + x, slice.data.getElemDoubleAt(yy * slice.width + x));
+            }
+        }
+    }
+
+    // the copy of SliceAssemblyOp.computeTile, with a source tile read once per slice covered
+    private static void copyTileBySlice(final Slice[] slices, final int targetLinesPerBurst,
+                                        final ProductData trgData, final int targetWidth,
+                                        final int tx0, final int ty0, final int maxX, final int maxY) {
+        final SliceAssemblyOp.BandLines[] lines = new SliceAssemblyOp.BandLines[slices.length];
+        for (int i = 0; i < slices.length; ++i) {
+            lines[i] = slices[i].lines;
+        }
+
+        int y = ty0;
+        while (y < maxY) {
+            final SliceAssemblyOp.BandLines line = SliceAssemblyOp.getBandLines(lines, y);
+            if (line == null) {
+                break;
+            }
+            Slice slice = null;
+            for (Slice s : slices) {
+                if (s.lines == line) {
+                    slice = s;
+                }
+            }
+            final int segmentEnd = Math.min(maxY, line.end);
+
+            final int[] sourceLines = SliceAssemblyOp.getSourceLines(line, y, segmentEnd,
+                    targetLinesPerBurst, targetLinesPerBurst == 0 ? 0 : slice.sourceLinesPerBurst);
+            int yyMin = Integer.MAX_VALUE, yyMax = -1;
+            for (int yy : sourceLines) {
+                if (yy != -1) {
+                    yyMin = Math.min(yyMin, yy);
+                    yyMax = Math.max(yyMax, yy);
+                }
+            }
+
+            final int sxMax = Math.min(maxX, slice.width - 1);
+            final int numPixels = sxMax - tx0;
+            if (yyMax != -1 && numPixels > 0) {
+                // source tile of the lines yyMin to yyMax
+                final int srcWidth = numPixels + 1;
+                final ProductData srcData = ProductData.createInstance(slice.data.getType(),
+                        srcWidth * (yyMax - yyMin + 1));
+                for (int yy = yyMin; yy <= yyMax; ++yy) {
+                    System.arraycopy(slice.data.getElems(), yy * slice.width + tx0,
+                            srcData.getElems(), (yy - yyMin) * srcWidth, srcWidth);
+                }
+
+                for (int ly = y; ly < segmentEnd; ++ly) {
+                    final int yy = sourceLines[ly - y];
+                    if (yy != -1) {
+                        SliceAssemblyOp.copyPixels(srcData, (yy - yyMin) * srcWidth,
+                                trgData, ly * targetWidth + tx0, numPixels);
+                    }
+                }
+            }
+            y = segmentEnd;
+        }
+    }
+
+    private static void testSameTiles(final Slice[] slices, final int targetLinesPerBurst, final int dataType) {
+        int targetWidth = 0;
+        for (Slice slice : slices) {
+            targetWidth = Math.max(targetWidth, slice.width);
+        }
+        final int targetHeight = slices[slices.length - 1].lines.end;
+
+        final ProductData expected = ProductData.createInstance(dataType, targetWidth * targetHeight);
+        final ProductData actual = ProductData.createInstance(dataType, targetWidth * targetHeight);
+        for (int ty0 = 0; ty0 < targetHeight; ty0 += TILE_HEIGHT) {
+            for (int tx0 = 0; tx0 < targetWidth; tx0 += TILE_WIDTH) {
+                final int maxX = Math.min(tx0 + TILE_WIDTH, targetWidth);
+                final int maxY = Math.min(ty0 + TILE_HEIGHT, targetHeight);
+                copyTileByLine(slices, targetLinesPerBurst, expected, targetWidth, tx0, ty0, maxX, maxY);
+                copyTileBySlice(slices, targetLinesPerBurst, actual, targetWidth, tx0, ty0, maxX, maxY);
+            }
+        }
+
+        for (int i = 0; i < expected.getNumElems(); ++i) {
+            assertEquals("element " + i, expected.getElemDoubleAt(i), actual.getElemDoubleAt(i), 0.0);
+        }
+    }
+
+    @Test
+    public void testGRD() {
+        final int[] noBursts = {0, 0, 0};
+        final Slice[] slices = createSlices(ProductData.TYPE_UINT16,
+                new int[]{31, 33, 30}, new int[]{12, 9, 14}, noBursts, 0);
+        testSameTiles(slices, 0, ProductData.TYPE_UINT16);
+    }
+
+    @Test
+    public void testSLC() {
+        // the second and third slice have shorter bursts, padded with empty lines in the target
+        final Slice[] slices = createSlices(ProductData.TYPE_INT16,
+                new int[]{29, 29, 29}, new int[]{2, 3, 2}, new int[]{6, 4, 5}, 6);
+        testSameTiles(slices, 6, ProductData.TYPE_INT16);
+    }
+
+    @Test
+    public void testFloat() {
+        final int[] noBursts = {0, 0};
+        final Slice[] slices = createSlices(ProductData.TYPE_FLOAT32,
+                new int[]{20, 23}, new int[]{11, 8}, noBursts, 0);
+        testSameTiles(slices, 0, ProductData.TYPE_FLOAT32);
+    }
+
+    @Test
+    public void testCopyPixelsConverts() {
+        final ProductData srcData = createData(ProductData.TYPE_INT16, 10, new Random(5));
+        final ProductData trgData = ProductData.createInstance(ProductData.TYPE_FLOAT32, 12);
+
+        SliceAssemblyOp.copyPixels(srcData, 1, trgData, 2, 8);
+        for (int i = 0; i < 8; ++i) {
+            assertEquals(srcData.getElemDoubleAt(1 + i), trgData.getElemDoubleAt(2 + i), 0.0);
+        }
+        assertEquals(0.0, trgData.getElemDoubleAt(0), 0.0);
+        assertEquals(0.0, trgData.getElemDoubleAt(11), 0.0);
+    }
+}